@@ -63,6 +63,16 @@ tasks.register<Download>("downloadTinyModel") {
     onlyIf { !dest.exists() }
 }
 
+/*
+ * Download Silero VAD model for testing
+ */
+
+tasks.register<Download>("downloadVadModel") {
+    src("https://huggingface.co/ggml-org/whisper-vad/resolve/main/ggml-silero-v5.1.2.bin")
+    dest(file("models/ggml-silero-v5.1.2.bin"))
+    onlyIf { !dest.exists() }
+}
+
 /*
  * Version Catalog Update
  */
@@ -380,8 +380,8 @@ public class WhisperCliCommand implements Runnable {
 
             String result = whisperTranscriptionModel.transcribe(resource, toWhisperTranscriptionOptions(whisper));
             // If realtime output is enabled, segments are already printed via callback
-            // Otherwise, print the final result
-            if (this.noPrints) {
+            // Otherwise, and for diarization whose speakers are only known at the end, print the final result
+            if (this.noPrints || this.diarize) {
                 out.println(result);
             }
         } catch (Exception e) {
@@ -421,11 +421,12 @@ public class WhisperCliCommand implements Runnable {
         config.printProgress = this.printProgress;
         config.printSpecial = this.printSpecial;
         config.tdrzEnable = this.tinydiarize;
+        config.diarize = this.diarize;
         config.suppressBlank = !this.noFallback;
         config.vad = this.vad;
         config.vadModelPath = this.vadModel;
 
-        if (!this.noPrints) {
+        if (!this.noPrints && !this.diarize) {
             config.newSegmentCallback =
                     new NewSegmentCallbackPrinter(whisper, this.noTimestamps, this.printColors, this.printSpecial, err);
         }
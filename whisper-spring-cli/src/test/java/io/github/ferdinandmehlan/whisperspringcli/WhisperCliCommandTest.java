@@ -3,6 +3,7 @@ package io.github.ferdinandmehlan.whisperspringcli;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -266,4 +267,20 @@ class WhisperCliCommandTest extends BaseIntegrationTest {
         assertTrue(command.noTimestamps, "No timestamps should be enabled");
         assertFalse(command.printSpecial, "Print special should be disabled");
     }
+
+    @Test
+    void testDiarizeConfiguration() throws IOException {
+        // Given
+        WhisperCliCommand command = new WhisperCliCommand(whisperTranscriptionModel);
+        new CommandLine(command).parseArgs("--diarize");
+
+        // When
+        WhisperTranscriptionOptions config =
+                command.toWhisperTranscriptionOptions(new WhisperNative("build/resources/test/ggml-tiny.bin"));
+
+        // Then
+        assertTrue(config.diarize, "Diarize should be passed on");
+        // Segments are printed with their speaker once both channels are merged
+        assertNull(config.newSegmentCallback, "No segment printer should be configured when diarizing");
+    }
 }
@@ -0,0 +1,80 @@
+import type { LiveConnection, LiveEvent } from './types';
+
+const SAMPLE_RATE = 16000;
+const SAMPLES_PER_MESSAGE = 1600;
+
+// Posts the microphone samples to the page, the context already resamples them to 16 kHz
+const processorSource = `
+registerProcessor('pcm-forwarder', class extends AudioWorkletProcessor {
+  process(inputs) {
+    if (inputs[0]?.[0]) {
+      this.port.postMessage(inputs[0][0].slice());
+    }
+    return true;
+  }
+});`;
+
+export async function startLive(
+  onEvent: (event: LiveEvent) => void,
+  onClose: (error?: string) => void
+): Promise<LiveConnection> {
+  const stream = await navigator.mediaDevices.getUserMedia({
+    audio: { channelCount: 1, echoCancellation: true, noiseSuppression: true }
+  });
+  const context = new AudioContext({ sampleRate: SAMPLE_RATE });
+  const moduleUrl = URL.createObjectURL(new Blob([processorSource], { type: 'text/javascript' }));
+  await context.audioWorklet.addModule(moduleUrl);
+  URL.revokeObjectURL(moduleUrl);
+
+  const protocol = location.protocol === 'https:' ? 'wss' : 'ws';
+  const socket = new WebSocket(`${protocol}://${location.host}/api/live`);
+  socket.binaryType = 'arraybuffer';
+
+  const source = context.createMediaStreamSource(stream);
+  const forwarder = new AudioWorkletNode(context, 'pcm-forwarder');
+  let pending = new Int16Array(SAMPLES_PER_MESSAGE);
+  let pendingLength = 0;
+
+  forwarder.port.onmessage = (message: MessageEvent<Float32Array>) => {
+    if (socket.readyState !== WebSocket.OPEN) return;
+    for (const sample of message.data) {
+      pending[pendingLength++] = Math.max(-32768, Math.min(32767, Math.round(sample * 32768)));
+      if (pendingLength === SAMPLES_PER_MESSAGE) {
+        socket.send(pending.buffer);
+        pending = new Int16Array(SAMPLES_PER_MESSAGE);
+        pendingLength = 0;
+      }
+    }
+  };
+
+  function release() {
+    source.disconnect();
+    forwarder.disconnect();
+    stream.getTracks().forEach((track) => track.stop());
+    void context.close();
+  }
+
+  socket.onmessage = (message: MessageEvent<string>) => {
+    onEvent(JSON.parse(message.data) as LiveEvent);
+  };
+  socket.onclose = (event) => {
+    release();
+    onClose(event.code === 1000 ? undefined : event.reason || `Connection closed (${event.code})`);
+  };
+  socket.onopen = () => {
+    source.connect(forwarder);
+  };
+
+  return {
+    stop: () => {
+      release();
+      if (socket.readyState === WebSocket.OPEN) {
+        if (pendingLength > 0) {
+          socket.send(pending.slice(0, pendingLength).buffer);
+        }
+        // The server transcribes the rest of the audio and then closes the connection
+        socket.send('end');
+      }
+    }
+  };
+}
@@ -0,0 +1,2 @@
+export { startLive } from './client';
+export type { LiveConnection, LiveEvent } from './types';
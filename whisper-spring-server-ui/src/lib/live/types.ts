@@ -0,0 +1,10 @@
+export interface LiveEvent {
+  type: 'final' | 'partial';
+  start: number;
+  end: number;
+  text: string;
+}
+
+export interface LiveConnection {
+  stop: () => void;
+}
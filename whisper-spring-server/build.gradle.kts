@@ -15,6 +15,7 @@ dependencies {
     implementation(platform(libs.springBootDependencies))
     implementation(libs.springBootStarterWeb)
     implementation(libs.springBootStarterWebflux)
+    implementation(libs.springBootStarterWebsocket)
     implementation(libs.springBootStarterValidation)
     implementation(libs.springBootStarterActuator)
     implementation(libs.springdoc)
@@ -64,8 +65,9 @@ tasks.bootRun {
 tasks.processTestResources {
     from("$rootDir/models") {
         include("ggml-tiny.bin")
+        include("ggml-silero-v5.1.2.bin")
     }
-    dependsOn(":downloadTinyModel")
+    dependsOn(":downloadTinyModel", ":downloadVadModel")
 }
 
 tasks.test {
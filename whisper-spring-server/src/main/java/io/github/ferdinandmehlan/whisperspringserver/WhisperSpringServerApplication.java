@@ -1,13 +1,16 @@
 package io.github.ferdinandmehlan.whisperspringserver;
 
+import io.github.ferdinandmehlan.whisperspringserver.job.JobProperties;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 
 /**
  * Main Spring Boot application class for the Whisper Spring server.
  * Initializes the application and ensures native Whisper libraries are loaded.
  */
 @SpringBootApplication
+@EnableConfigurationProperties(JobProperties.class)
 public class WhisperSpringServerApplication {
 
     /**
@@ -0,0 +1,35 @@
+package io.github.ferdinandmehlan.whisperspringserver.config;
+
+import io.github.ferdinandmehlan.whisperspringserver.live.LiveTranscriptionHandler;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+import org.springframework.web.socket.server.standard.ServletServerContainerFactoryBean;
+
+@Configuration
+@EnableWebSocket
+public class WebSocketConfig implements WebSocketConfigurer {
+
+    private final LiveTranscriptionHandler liveTranscriptionHandler;
+
+    public WebSocketConfig(LiveTranscriptionHandler liveTranscriptionHandler) {
+        this.liveTranscriptionHandler = liveTranscriptionHandler;
+    }
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(liveTranscriptionHandler, "/api/live");
+    }
+
+    /**
+     * Accept binary messages of up to two seconds of 16-bit PCM audio at once.
+     */
+    @Bean
+    public ServletServerContainerFactoryBean createWebSocketContainer() {
+        ServletServerContainerFactoryBean container = new ServletServerContainerFactoryBean();
+        container.setMaxBinaryMessageBufferSize(LiveTranscriptionHandler.MAX_MESSAGE_BYTES);
+        return container;
+    }
+}
@@ -0,0 +1,56 @@
+package io.github.ferdinandmehlan.whisperspringserver.job;
+
+import io.github.ferdinandmehlan.whisperspringserver.job.api.JobStatus;
+import io.github.ferdinandmehlan.whisperspringserver.transcription.api.TranscriptionRequest;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * A transcription job as stored by the {@link JobStore}.
+ *
+ * @param id the job id
+ * @param status the state of the job
+ * @param filename the name of the uploaded audio file
+ * @param request the transcription parameters, without the file
+ * @param createdAt when the job was submitted
+ * @param startedAt when a worker started the transcription, {@code null} before
+ * @param finishedAt when the job finished, {@code null} before
+ * @param error why the transcription failed, {@code null} unless it did
+ */
+public record Job(
+        String id,
+        JobStatus status,
+        String filename,
+        TranscriptionRequest request,
+        Instant createdAt,
+        Instant startedAt,
+        Instant finishedAt,
+        String error) {
+
+    static Job queued(String id, String filename, TranscriptionRequest request, Instant now) {
+        return new Job(id, JobStatus.QUEUED, filename, request, now, null, null, null);
+    }
+
+    Job start(Instant now) {
+        return new Job(id, JobStatus.RUNNING, filename, request, createdAt, now, null, null);
+    }
+
+    /**
+     * A job that was running when the server stopped is queued again.
+     */
+    Job requeue() {
+        return new Job(id, JobStatus.QUEUED, filename, request, createdAt, null, null, null);
+    }
+
+    Job finish(JobStatus status, Instant now, String error) {
+        return new Job(id, status, filename, request, createdAt, startedAt, now, error);
+    }
+
+    boolean done() {
+        return status != JobStatus.QUEUED && status != JobStatus.RUNNING;
+    }
+
+    boolean expired(Duration resultTtl, Instant now) {
+        return done() && finishedAt.plus(resultTtl).isBefore(now);
+    }
+}
@@ -0,0 +1,104 @@
+package io.github.ferdinandmehlan.whisperspringserver.job;
+
+import io.github.ferdinandmehlan.whisperspringserver.job.api.JobResponse;
+import io.github.ferdinandmehlan.whisperspringserver.job.api.JobStatus;
+import io.github.ferdinandmehlan.whisperspringserver.transcription.api.TranscriptionRequest;
+import io.github.ferdinandmehlan.whisperspringserver.transcription.api.TranscriptionResponse;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * REST controller for transcription jobs, which transcribe an audio file in the background instead of while the
+ * request is open. A job takes the same form fields as a transcription request and is answered with 202 and the
+ * job id at once; clients poll its status and fetch the result once it has succeeded. Unknown and expired jobs are
+ * answered with 404, the result of a job that has not succeeded with 409.
+ */
+@RestController
+@RequestMapping("/api/jobs")
+public class JobController {
+
+    private final JobService jobService;
+
+    /**
+     * Creates a new JobController.
+     *
+     * @param jobService the service running the jobs
+     */
+    public JobController(JobService jobService) {
+        this.jobService = jobService;
+    }
+
+    /**
+     * Queues a transcription job for an audio file. The {@code stream} field does not apply to jobs.
+     *
+     * @param request the transcription request containing audio file and parameters
+     * @return the queued job
+     */
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public JobResponse submit(@Valid @ModelAttribute TranscriptionRequest request) {
+        return toResponse(jobService.submit(request));
+    }
+
+    /**
+     * Returns the status of a job.
+     *
+     * @param id the job id
+     * @return the job
+     */
+    @GetMapping("/{id}")
+    public JobResponse job(@PathVariable String id) {
+        return jobService.find(id).map(JobController::toResponse).orElseThrow(() -> notFound(id));
+    }
+
+    /**
+     * Returns the transcription of a job that has succeeded.
+     *
+     * @param id the job id
+     * @return the transcription
+     */
+    @GetMapping("/{id}/result")
+    public TranscriptionResponse result(@PathVariable String id) {
+        Job job = jobService.find(id).orElseThrow(() -> notFound(id));
+        if (job.status() != JobStatus.SUCCEEDED) {
+            String reason = job.status() == JobStatus.FAILED ? ": " + job.error() : "";
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Job " + id + " is " + job.status() + reason);
+        }
+        return jobService.result(id).orElseThrow(() -> notFound(id));
+    }
+
+    /**
+     * Cancels a job. Running jobs stay {@code RUNNING} until whisper has stopped.
+     *
+     * @param id the job id
+     * @return the job after the cancellation
+     */
+    @PostMapping("/{id}/cancel")
+    public JobResponse cancel(@PathVariable String id) {
+        return jobService.cancel(id).map(JobController::toResponse).orElseThrow(() -> notFound(id));
+    }
+
+    private static JobResponse toResponse(Job job) {
+        return new JobResponse(
+                job.id(),
+                job.status(),
+                job.filename(),
+                job.createdAt(),
+                job.startedAt(),
+                job.finishedAt(),
+                job.error());
+    }
+
+    private static ResponseStatusException notFound(String id) {
+        return new ResponseStatusException(HttpStatus.NOT_FOUND, "Job " + id + " does not exist");
+    }
+}
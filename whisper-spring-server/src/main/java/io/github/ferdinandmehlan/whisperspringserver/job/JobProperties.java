@@ -0,0 +1,41 @@
+package io.github.ferdinandmehlan.whisperspringserver.job;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration of the transcription jobs, see {@link JobService}: the directory they are stored in, how long finished
+ * jobs are kept, and how many are transcribed at once, at most one per whisper state ({@code 0} for one per state).
+ */
+@ConfigurationProperties(prefix = "whisper.jobs")
+public class JobProperties {
+
+    private Path dir = Path.of("jobs");
+    private Duration resultTtl = Duration.ofHours(24);
+    private int workers = 0;
+
+    public Path getDir() {
+        return dir;
+    }
+
+    public void setDir(Path dir) {
+        this.dir = dir;
+    }
+
+    public Duration getResultTtl() {
+        return resultTtl;
+    }
+
+    public void setResultTtl(Duration resultTtl) {
+        this.resultTtl = resultTtl;
+    }
+
+    public int getWorkers() {
+        return workers;
+    }
+
+    public void setWorkers(int workers) {
+        this.workers = workers;
+    }
+}
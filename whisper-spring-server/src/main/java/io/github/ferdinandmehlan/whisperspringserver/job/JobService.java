@@ -0,0 +1,260 @@
+package io.github.ferdinandmehlan.whisperspringserver.job;
+
+import io.github.ferdinandmehlan.whisperspring.WhisperTranscriptionModel;
+import io.github.ferdinandmehlan.whisperspring._native.WhisperStatePool;
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperTranscription;
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperTranscriptionOptions;
+import io.github.ferdinandmehlan.whisperspring._native.callback.WhisperCancellationToken;
+import io.github.ferdinandmehlan.whisperspringserver.job.api.JobStatus;
+import io.github.ferdinandmehlan.whisperspringserver.transcription.TranscriptionMapper;
+import io.github.ferdinandmehlan.whisperspringserver.transcription.TranscriptionService;
+import io.github.ferdinandmehlan.whisperspringserver.transcription.api.TranscriptionRequest;
+import io.github.ferdinandmehlan.whisperspringserver.transcription.api.TranscriptionResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service transcribing jobs in the background, so that clients do not hold a request open for the whole
+ * transcription. Jobs are kept in the {@link JobStore} and survive restarts: jobs that were queued or running when
+ * the server stopped are queued again on start, in the order they were submitted.
+ *
+ * <p>Each worker transcribes one job at a time. There is at most one worker per whisper state, as more workers would
+ * only wait for a state, see {@link JobProperties#getWorkers()}. Finished jobs and their results are deleted once
+ * they are older than {@code whisper.jobs.result-ttl}.</p>
+ */
+@Service
+public class JobService implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(JobService.class.getName());
+
+    private static final Duration PURGE_INTERVAL = Duration.ofMinutes(1);
+    private static final Duration POLL_INTERVAL = Duration.ofSeconds(1);
+
+    private final JobStore store;
+    private final TranscriptionService transcriptionService;
+    private final TranscriptionMapper transcriptionMapper;
+    private final Duration resultTtl;
+
+    private final BlockingQueue<String> queue = new LinkedBlockingQueue<>();
+    private final Map<String, WhisperCancellationToken> running = new ConcurrentHashMap<>();
+    private final List<Thread> workers = new ArrayList<>();
+    private final ScheduledExecutorService purger;
+    private volatile boolean closed;
+
+    /**
+     * Creates a new JobService, queues the stored jobs that have not finished and starts the workers.
+     *
+     * @param store the store of the jobs
+     * @param properties the job configuration
+     * @param whisperTranscriptionModel the model whose whisper states bound the number of workers
+     * @param transcriptionService the service transcribing the jobs
+     * @param transcriptionMapper the mapper for the parameters and results of the jobs
+     */
+    public JobService(
+            JobStore store,
+            JobProperties properties,
+            WhisperTranscriptionModel whisperTranscriptionModel,
+            TranscriptionService transcriptionService,
+            TranscriptionMapper transcriptionMapper) {
+        this.store = store;
+        this.transcriptionService = transcriptionService;
+        this.transcriptionMapper = transcriptionMapper;
+        this.resultTtl = properties.getResultTtl();
+
+        recover();
+
+        WhisperStatePool statePool = whisperTranscriptionModel.getWhisperStatePool();
+        int states = statePool == null ? 1 : statePool.getSize();
+        int workerCount = properties.getWorkers() > 0 ? Math.min(properties.getWorkers(), states) : states;
+        for (int i = 0; i < workerCount; i++) {
+            workers.add(Thread.ofVirtual().name("job-worker-" + i).start(this::work));
+        }
+        log.info("Started {} job workers", workerCount);
+
+        purger = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofVirtual().name("job-purger").factory());
+        purger.scheduleWithFixedDelay(
+                this::purgeExpired, PURGE_INTERVAL.toMillis(), PURGE_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stores a new job for the request and queues it.
+     *
+     * @param request the transcription request with the audio file
+     * @return the queued job
+     */
+    public Job submit(TranscriptionRequest request) {
+        Job job = store.create(request);
+        queue.add(job.id());
+        log.info("Queued job {} for {}", job.id(), job.filename());
+        return job;
+    }
+
+    /**
+     * Finds a job that has not expired.
+     *
+     * @param id the job id
+     * @return the job, empty if there is none with this id or it has expired
+     */
+    public Optional<Job> find(String id) {
+        return store.find(id).filter(job -> !job.expired(resultTtl, Instant.now()));
+    }
+
+    /**
+     * @param id the job id
+     * @return the transcription of a succeeded job, empty if it has none
+     */
+    public Optional<TranscriptionResponse> result(String id) {
+        return find(id).filter(job -> job.status() == JobStatus.SUCCEEDED).flatMap(job -> store.result(job.id()));
+    }
+
+    /**
+     * Cancels a job. A queued job is cancelled at once; a running job is aborted at whisper's next abort check and
+     * is cancelled once its worker has stopped. Jobs that have finished are returned unchanged.
+     *
+     * @param id the job id
+     * @return the job after the cancellation, empty if there is none with this id or it has expired
+     */
+    public synchronized Optional<Job> cancel(String id) {
+        Optional<Job> found = find(id);
+        if (found.isEmpty()) {
+            return found;
+        }
+        Job job = found.get();
+        if (job.status() == JobStatus.QUEUED) {
+            job = job.finish(JobStatus.CANCELLED, Instant.now(), null);
+            store.save(job);
+            store.deleteAudio(id);
+            log.info("Cancelled queued job {}", id);
+        } else if (job.status() == JobStatus.RUNNING) {
+            WhisperCancellationToken token = running.get(id);
+            if (token != null) {
+                token.cancel();
+            }
+        }
+        return Optional.of(job);
+    }
+
+    /**
+     * Stops the workers. Running transcriptions are aborted and their jobs stay running in the store, so they are
+     * queued again on the next start.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        purger.shutdownNow();
+        running.values().forEach(WhisperCancellationToken::cancel);
+        for (Thread worker : workers) {
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void recover() {
+        store.removeIncomplete();
+        int queued = 0;
+        for (Job job : store.list()) {
+            if (job.status() == JobStatus.RUNNING) {
+                job = job.requeue();
+                store.save(job);
+            }
+            if (job.status() == JobStatus.QUEUED) {
+                queue.add(job.id());
+                queued++;
+            }
+        }
+        if (queued > 0) {
+            log.info("Queued {} jobs that had not finished before the restart", queued);
+        }
+        purgeExpired();
+    }
+
+    private void work() {
+        while (!closed) {
+            String id;
+            try {
+                id = queue.poll(POLL_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (id != null) {
+                claim(id).ifPresent(this::run);
+            }
+        }
+    }
+
+    /**
+     * Marks a queued job as running, or returns empty if it has been cancelled in the meantime.
+     */
+    private synchronized Optional<Job> claim(String id) {
+        Optional<Job> job = store.find(id)
+                .filter(queued -> queued.status() == JobStatus.QUEUED)
+                .map(queued -> queued.start(Instant.now()));
+        job.ifPresent(started -> {
+            store.save(started);
+            running.put(id, new WhisperCancellationToken());
+        });
+        return job;
+    }
+
+    private void run(Job job) {
+        log.info("Transcribing job {}", job.id());
+        WhisperTranscriptionOptions config = transcriptionMapper.toWhisperParams(job.request());
+        config.abortCallback = running.get(job.id());
+        try {
+            WhisperTranscription transcription =
+                    transcriptionService.transcribe(new FileSystemResource(store.audio(job.id())), config);
+            store.saveResult(job.id(), transcriptionMapper.toJson(transcription, job.request().timings()));
+            complete(job, JobStatus.SUCCEEDED, null);
+        } catch (CancellationException e) {
+            complete(job, JobStatus.CANCELLED, null);
+        } catch (RuntimeException e) {
+            log.warn("Job {} failed", job.id(), e);
+            complete(job, JobStatus.FAILED, e.getMessage());
+        }
+    }
+
+    private synchronized void complete(Job job, JobStatus status, String error) {
+        running.remove(job.id());
+        if (closed && status == JobStatus.CANCELLED) {
+            log.info("Job {} was interrupted by the shutdown and runs again after a restart", job.id());
+            return;
+        }
+        store.save(job.finish(status, Instant.now(), error));
+        store.deleteAudio(job.id());
+        log.info("Job {} {}", job.id(), status);
+    }
+
+    private void purgeExpired() {
+        try {
+            Instant now = Instant.now();
+            for (Job job : store.list()) {
+                if (job.expired(resultTtl, now)) {
+                    store.delete(job.id());
+                    log.info("Deleted expired job {}", job.id());
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to delete expired jobs", e);
+        }
+    }
+}
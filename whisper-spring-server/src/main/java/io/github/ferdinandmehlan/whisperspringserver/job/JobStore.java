@@ -0,0 +1,257 @@
+package io.github.ferdinandmehlan.whisperspringserver.job;
+
+import io.github.ferdinandmehlan.whisperspringserver.transcription.api.TranscriptionRequest;
+import io.github.ferdinandmehlan.whisperspringserver.transcription.api.TranscriptionResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.FileSystemUtils;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.DeserializationFeature;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Stores transcription jobs on the local disk, one directory per job holding the uploaded audio, the job as
+ * {@value #JOB_FILE} and, once transcribed, the result as {@value #RESULT_FILE}.
+ *
+ * <p>Files are written to a temporary file that is synced and then renamed over the old one, and the directory is
+ * synced after the rename, so a crash leaves either the old or the new version, never a partial one. The job file of
+ * a new job is written after its audio has been synced, so a directory without one is an upload interrupted by a
+ * crash, which {@link #removeIncomplete()} deletes.</p>
+ */
+@Component
+public class JobStore {
+
+    private static final Logger log = LoggerFactory.getLogger(JobStore.class.getName());
+
+    private static final String JOB_FILE = "job.json";
+    private static final String AUDIO_FILE = "audio";
+    private static final String RESULT_FILE = "result.json";
+
+    private static final Pattern ID = Pattern.compile("[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}");
+
+    private final Path dir;
+    private final JsonMapper jsonMapper;
+
+    /**
+     * Creates a new JobStore, creating its directory if it does not exist.
+     *
+     * @param properties the job configuration with the directory
+     * @param jsonMapper the mapper for the job and result files
+     * @throws IOException if the directory cannot be created
+     */
+    public JobStore(JobProperties properties, JsonMapper jsonMapper) throws IOException {
+        this.dir = properties.getDir();
+        // The request is stored with its derived properties, which are not read back
+        this.jsonMapper = jsonMapper
+                .rebuild()
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .build();
+        Files.createDirectories(dir);
+    }
+
+    /**
+     * Stores a new queued job with the file of the request.
+     *
+     * @param request the transcription request with the audio file
+     * @return the stored job
+     */
+    public Job create(TranscriptionRequest request) {
+        String id = UUID.randomUUID().toString();
+        Path jobDir = dir.resolve(id);
+        try {
+            Files.createDirectories(jobDir);
+            syncDirectory(dir);
+            try (InputStream in = request.file().getInputStream();
+                    FileChannel channel = FileChannel.open(
+                            jobDir.resolve(AUDIO_FILE), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                in.transferTo(Channels.newOutputStream(channel));
+                channel.force(true);
+            }
+        } catch (IOException e) {
+            delete(id);
+            throw new UncheckedIOException("Failed to store the audio of job " + id, e);
+        }
+        Job job = Job.queued(id, request.file().getOriginalFilename(), request.withoutFile(), Instant.now());
+        save(job);
+        return job;
+    }
+
+    /**
+     * Finds a job by id.
+     *
+     * @param id the job id
+     * @return the job, empty if there is none with this id
+     */
+    public Optional<Job> find(String id) {
+        if (id == null || !ID.matcher(id).matches()) {
+            return Optional.empty();
+        }
+        return read(dir.resolve(id).resolve(JOB_FILE), Job.class);
+    }
+
+    /**
+     * Lists all stored jobs.
+     *
+     * @return the jobs in the order they were submitted
+     */
+    public List<Job> list() {
+        List<Job> jobs = new ArrayList<>();
+        for (Path jobDir : jobDirs()) {
+            read(jobDir.resolve(JOB_FILE), Job.class).ifPresent(jobs::add);
+        }
+        jobs.sort(Comparator.comparing(Job::createdAt));
+        return jobs;
+    }
+
+    /**
+     * Replaces the stored state of a job.
+     *
+     * @param job the job
+     */
+    public void save(Job job) {
+        write(dir.resolve(job.id()).resolve(JOB_FILE), job);
+    }
+
+    /**
+     * @param id the job id
+     * @return the uploaded audio of the job
+     */
+    public Path audio(String id) {
+        return dir.resolve(id).resolve(AUDIO_FILE);
+    }
+
+    /**
+     * Deletes the audio of a job that does not need it anymore.
+     *
+     * @param id the job id
+     */
+    public void deleteAudio(String id) {
+        try {
+            Files.deleteIfExists(audio(id));
+        } catch (IOException e) {
+            log.warn("Failed to delete the audio of job {}", id, e);
+        }
+    }
+
+    /**
+     * Stores the result of a job.
+     *
+     * @param id the job id
+     * @param result the transcription
+     */
+    public void saveResult(String id, TranscriptionResponse result) {
+        write(dir.resolve(id).resolve(RESULT_FILE), result);
+    }
+
+    /**
+     * @param id the job id
+     * @return the result of the job, empty if it has none
+     */
+    public Optional<TranscriptionResponse> result(String id) {
+        return read(dir.resolve(id).resolve(RESULT_FILE), TranscriptionResponse.class);
+    }
+
+    /**
+     * Deletes a job with its audio and result.
+     *
+     * @param id the job id
+     */
+    public void delete(String id) {
+        try {
+            FileSystemUtils.deleteRecursively(dir.resolve(id));
+        } catch (IOException e) {
+            log.warn("Failed to delete job {}", id, e);
+        }
+    }
+
+    /**
+     * Deletes the directories of uploads that were interrupted before their job was stored. Must not run while
+     * jobs are created.
+     */
+    public void removeIncomplete() {
+        for (Path jobDir : jobDirs()) {
+            if (!Files.exists(jobDir.resolve(JOB_FILE))) {
+                log.info("Removing incomplete job {}", jobDir.getFileName());
+                delete(jobDir.getFileName().toString());
+            }
+        }
+    }
+
+    private List<Path> jobDirs() {
+        try (Stream<Path> paths = Files.list(dir)) {
+            return paths.filter(Files::isDirectory)
+                    .filter(path -> ID.matcher(path.getFileName().toString()).matches())
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to list jobs in " + dir, e);
+        }
+    }
+
+    private <T> Optional<T> read(Path file, Class<T> type) {
+        try {
+            return Optional.of(jsonMapper.readValue(Files.readAllBytes(file), type));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read " + file, e);
+        } catch (JacksonException e) {
+            log.warn("Ignoring unreadable {}", file, e);
+            return Optional.empty();
+        }
+    }
+
+    private void write(Path file, Object value) {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            ByteBuffer bytes = ByteBuffer.wrap(jsonMapper.writeValueAsBytes(value));
+            try (FileChannel channel = FileChannel.open(
+                    temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                while (bytes.hasRemaining()) {
+                    channel.write(bytes);
+                }
+                channel.force(true);
+            }
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            syncDirectory(file.getParent());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write " + file, e);
+        }
+    }
+
+    /**
+     * Syncs the entries of a directory, so that files created or renamed in it survive a crash. Platforms that
+     * cannot open a directory, e.g. Windows, leave this to the file system.
+     */
+    private static void syncDirectory(Path directory) throws IOException {
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(directory, StandardOpenOption.READ);
+        } catch (IOException e) {
+            log.debug("Cannot open {} to sync it", directory, e);
+            return;
+        }
+        try (channel) {
+            channel.force(true);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package io.github.ferdinandmehlan.whisperspringserver.job.api;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.time.Instant;
+
+/**
+ * Response object describing a transcription job.
+ */
+public record JobResponse(
+        @Schema(description = "Job id for the status, result and cancel endpoints")
+        String id,
+
+        @Schema(description = "State of the job")
+        JobStatus status,
+
+        @Schema(description = "Name of the uploaded audio file")
+        String filename,
+
+        @Schema(description = "When the job was submitted")
+        Instant createdAt,
+
+        @Schema(description = "When a worker started the transcription, if it has")
+        Instant startedAt,
+
+        @Schema(description = "When the job finished, if it has")
+        Instant finishedAt,
+
+        @Schema(description = "Why the transcription failed, only for failed jobs")
+        String error) {}
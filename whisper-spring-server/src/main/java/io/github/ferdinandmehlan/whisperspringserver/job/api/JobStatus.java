@@ -0,0 +1,17 @@
+package io.github.ferdinandmehlan.whisperspringserver.job.api;
+
+/**
+ * The state of a transcription job.
+ */
+public enum JobStatus {
+    /** Waiting for a worker. */
+    QUEUED,
+    /** Being transcribed. */
+    RUNNING,
+    /** Transcribed, the result can be fetched. */
+    SUCCEEDED,
+    /** The transcription failed, see the error of the job. */
+    FAILED,
+    /** Cancelled before it finished. */
+    CANCELLED
+}
@@ -0,0 +1,53 @@
+package io.github.ferdinandmehlan.whisperspringserver.language;
+
+import io.github.ferdinandmehlan.whisperspring.WhisperTranscriptionModel;
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperLanguageDetection;
+import io.github.ferdinandmehlan.whisperspringserver.language.api.LanguageRequest;
+import io.github.ferdinandmehlan.whisperspringserver.language.api.LanguageResponse;
+import jakarta.validation.Valid;
+import java.time.Duration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST controller detecting the spoken language of audio files with the default model.
+ * Only the start of the audio is used, and results are cached per audio hash, so this is
+ * considerably cheaper than a transcription.
+ */
+@RestController
+@RequestMapping("/api/language")
+public class LanguageController {
+
+    private static final Logger log = LoggerFactory.getLogger(LanguageController.class.getName());
+
+    private final WhisperTranscriptionModel model;
+
+    /**
+     * Creates a new LanguageController.
+     *
+     * @param whisperTranscriptionModel the model detecting the language
+     */
+    public LanguageController(WhisperTranscriptionModel whisperTranscriptionModel) {
+        this.model = whisperTranscriptionModel;
+    }
+
+    /**
+     * Detects the spoken language of an audio file.
+     *
+     * @param request the request containing the audio file
+     * @return the detected language
+     */
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public LanguageResponse language(@Valid @ModelAttribute LanguageRequest request) {
+        log.info("Received language detection request for file {}", request.file().getOriginalFilename());
+
+        Duration window = Duration.ofSeconds(request.seconds());
+        WhisperLanguageDetection detection = model.detectLanguage(request.file().getResource(), window);
+        return new LanguageResponse(detection.language(), detection.probability(), detection.candidates());
+    }
+}
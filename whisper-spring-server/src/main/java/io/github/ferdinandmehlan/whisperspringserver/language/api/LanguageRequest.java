@@ -0,0 +1,31 @@
+package io.github.ferdinandmehlan.whisperspringserver.language.api;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import java.util.Objects;
+import org.springframework.web.multipart.MultipartFile;
+
+/**
+ * Request object for spoken language detection.
+ */
+public record LanguageRequest(
+        @Schema(description = "Audio file to detect the language of") MultipartFile file,
+
+        @Schema(description = "Seconds from the start of the audio to detect the language from", defaultValue = "30")
+        @Min(1) @Max(30) Integer seconds) {
+
+    public LanguageRequest {
+        seconds = Objects.requireNonNullElse(seconds, 30);
+    }
+
+    /**
+     * Validates that the uploaded file is not empty.
+     *
+     * @return true if file exists and is not empty, false otherwise
+     */
+    @AssertTrue(message = "File must not be empty") public boolean isFileNotEmpty() {
+        return file != null && !file.isEmpty();
+    }
+}
@@ -0,0 +1,17 @@
+package io.github.ferdinandmehlan.whisperspringserver.language.api;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.Map;
+
+/**
+ * Response object for spoken language detection.
+ */
+public record LanguageResponse(
+        @Schema(description = "Code of the most likely language, e.g. 'en'")
+        String language,
+
+        @Schema(description = "Probability of the most likely language")
+        float probability,
+
+        @Schema(description = "The most likely languages with their probabilities, most likely first")
+        Map<String, Float> candidates) {}
@@ -0,0 +1,209 @@
+package io.github.ferdinandmehlan.whisperspringserver.live;
+
+import io.github.ferdinandmehlan.whisperspring.WhisperLiveSession;
+import io.github.ferdinandmehlan.whisperspring.WhisperLiveSessionLimitException;
+import io.github.ferdinandmehlan.whisperspring.WhisperTranscriptionModel;
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperLiveConfig;
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperSegment;
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperTranscriptionOptions;
+import io.github.ferdinandmehlan.whisperspringserver.live.api.LiveEvent;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.AbstractWebSocketHandler;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.util.UriComponentsBuilder;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * WebSocket handler transcribing audio while it is streamed in, see {@link WhisperLiveSession}.
+ * Clients send 16 kHz mono 16-bit little-endian PCM as binary messages and the text message {@value #END_MESSAGE}
+ * at the end of the stream; the server answers with {@link LiveEvent} JSON messages and closes the connection once
+ * all audio is transcribed. The query parameters {@code language}, {@code translate}, {@code prompt},
+ * {@code stepMs} and {@code windowMs} configure the session. Sessions beyond {@code whisper.live-max-sessions}, and
+ * clients that keep sending while the buffer of not yet transcribed audio is full, are closed with 1013.
+ */
+@Component
+public class LiveTranscriptionHandler extends AbstractWebSocketHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(LiveTranscriptionHandler.class.getName());
+
+    static final String END_MESSAGE = "end";
+
+    /** Two seconds of 16-bit PCM at 16 kHz. */
+    public static final int MAX_MESSAGE_BYTES = 64 * 1024;
+
+    private static final String LIVE_SESSION = "liveSession";
+
+    /** How long a binary message may wait for room in the buffer of a session that cannot keep up. */
+    private static final Duration WRITE_TIMEOUT = Duration.ofSeconds(10);
+
+    private static final int SEND_TIME_LIMIT_MS = 10_000;
+    private static final int SEND_BUFFER_LIMIT = 512 * 1024;
+
+    private static final int MIN_STEP_MS = 200;
+    private static final int MAX_WINDOW_MS = 30_000;
+
+    private final WhisperTranscriptionModel model;
+    private final JsonMapper jsonMapper;
+
+    /**
+     * Creates a new LiveTranscriptionHandler.
+     *
+     * @param whisperTranscriptionModel the model opening the live sessions
+     * @param jsonMapper the mapper writing the events
+     */
+    public LiveTranscriptionHandler(WhisperTranscriptionModel whisperTranscriptionModel, JsonMapper jsonMapper) {
+        this.model = whisperTranscriptionModel;
+        this.jsonMapper = jsonMapper;
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession webSocketSession) throws IOException {
+        WebSocketSession session =
+                new ConcurrentWebSocketSessionDecorator(webSocketSession, SEND_TIME_LIMIT_MS, SEND_BUFFER_LIMIT);
+        MultiValueMap<String, String> params =
+                UriComponentsBuilder.fromUri(session.getUri()).build().getQueryParams();
+        WhisperTranscriptionOptions options = new WhisperTranscriptionOptions();
+        WhisperLiveConfig config = new WhisperLiveConfig();
+        try {
+            options.language = params.getFirst("language") != null ? params.getFirst("language") : "auto";
+            options.translate = Boolean.parseBoolean(params.getFirst("translate"));
+            options.initialPrompt = params.getFirst("prompt");
+            config.stepMs = intParam(params, "stepMs", config.stepMs);
+            config.windowMs = intParam(params, "windowMs", config.windowMs);
+            if (config.stepMs < MIN_STEP_MS || config.windowMs < config.stepMs || config.windowMs > MAX_WINDOW_MS) {
+                throw new IllegalArgumentException("stepMs must be at least " + MIN_STEP_MS
+                        + " and windowMs between stepMs and " + MAX_WINDOW_MS);
+            }
+        } catch (IllegalArgumentException e) {
+            session.close(CloseStatus.POLICY_VIOLATION.withReason(e.getMessage()));
+            return;
+        }
+
+        try {
+            WhisperLiveSession liveSession = model.openLiveSession(options, config, new Listener(session));
+            webSocketSession.getAttributes().put(LIVE_SESSION, liveSession);
+            log.info("Opened live session {}", session.getId());
+        } catch (WhisperLiveSessionLimitException e) {
+            session.close(CloseStatus.SERVICE_OVERLOAD.withReason(e.getMessage()));
+        }
+    }
+
+    @Override
+    protected void handleBinaryMessage(WebSocketSession session, BinaryMessage message) throws Exception {
+        WhisperLiveSession liveSession = (WhisperLiveSession) session.getAttributes().get(LIVE_SESSION);
+        if (liveSession == null) {
+            return;
+        }
+        ByteBuffer payload = message.getPayload().order(ByteOrder.LITTLE_ENDIAN);
+        if (payload.remaining() % 2 != 0) {
+            session.close(CloseStatus.BAD_DATA.withReason("Messages must contain whole 16-bit samples"));
+            return;
+        }
+        float[] samples = new float[payload.remaining() / 2];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = payload.getShort() / 32768.0f;
+        }
+        if (!liveSession.write(samples, WRITE_TIMEOUT)) {
+            log.info("Live session {} cannot keep up with the audio", session.getId());
+            session.close(CloseStatus.SERVICE_OVERLOAD.withReason("Audio arrives faster than it is transcribed"));
+        }
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) throws Exception {
+        WhisperLiveSession liveSession = (WhisperLiveSession) session.getAttributes().get(LIVE_SESSION);
+        if (liveSession == null) {
+            return;
+        }
+        if (!END_MESSAGE.equals(message.getPayload().trim())) {
+            session.close(CloseStatus.BAD_DATA.withReason("Only the text message '" + END_MESSAGE + "' is accepted"));
+            return;
+        }
+        liveSession.finish();
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        WhisperLiveSession liveSession = (WhisperLiveSession) session.getAttributes().remove(LIVE_SESSION);
+        if (liveSession != null) {
+            liveSession.close();
+            log.info("Closed live session {}: {}", session.getId(), status);
+        }
+    }
+
+    private static int intParam(MultiValueMap<String, String> params, String name, int defaultValue) {
+        String value = params.getFirst(name);
+        try {
+            return value == null ? defaultValue : Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " must be a number but was " + value, e);
+        }
+    }
+
+    /**
+     * Sends the results of a live session to its client.
+     */
+    private class Listener implements WhisperLiveSession.Listener {
+
+        private final WebSocketSession session;
+
+        Listener(WebSocketSession session) {
+            this.session = session;
+        }
+
+        @Override
+        public void onFinal(WhisperSegment segment) {
+            send(new LiveEvent("final", segment.start(), segment.end(), segment.text().trim()));
+        }
+
+        @Override
+        public void onPartial(List<WhisperSegment> segments) {
+            if (segments.isEmpty()) {
+                send(new LiveEvent("partial", 0, 0, ""));
+                return;
+            }
+            String text = segments.stream().map(segment -> segment.text().trim()).collect(Collectors.joining(" "));
+            send(new LiveEvent("partial", segments.getFirst().start(), segments.getLast().end(), text));
+        }
+
+        @Override
+        public void onComplete() {
+            close(CloseStatus.NORMAL);
+        }
+
+        @Override
+        public void onError(RuntimeException e) {
+            close(CloseStatus.SERVER_ERROR.withReason("Transcription failed"));
+        }
+
+        private void send(LiveEvent event) {
+            try {
+                session.sendMessage(new TextMessage(jsonMapper.writeValueAsString(event)));
+            } catch (IOException | IllegalStateException e) {
+                log.info("Failed to send to live session {}: {}", session.getId(), e.getMessage());
+                close(CloseStatus.SESSION_NOT_RELIABLE);
+            }
+        }
+
+        private void close(CloseStatus status) {
+            try {
+                session.close(status);
+            } catch (IOException e) {
+                log.debug("Failed to close live session {}", session.getId(), e);
+            }
+        }
+    }
+}
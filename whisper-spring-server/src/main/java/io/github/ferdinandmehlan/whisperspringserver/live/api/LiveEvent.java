@@ -0,0 +1,12 @@
+package io.github.ferdinandmehlan.whisperspringserver.live.api;
+
+/**
+ * WebSocket message of a live transcription.
+ *
+ * @param type {@code final} for a committed segment, which does not change anymore, or {@code partial} for the
+ *             text after the committed segments, which replaces the previous partial text and may be empty
+ * @param start start timestamp in centiseconds from the start of the stream
+ * @param end end timestamp in centiseconds from the start of the stream
+ * @param text transcribed text
+ */
+public record LiveEvent(String type, long start, long end, String text) {}
@@ -0,0 +1,41 @@
+package io.github.ferdinandmehlan.whisperspringserver.model;
+
+import io.github.ferdinandmehlan.whisperspring._native.WhisperModelRegistry;
+import io.github.ferdinandmehlan.whisperspringserver.model.api.ModelResponse;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST controller listing the models that can be selected per transcription request.
+ * Without a configured models directory the list is empty.
+ */
+@RestController
+@RequestMapping("/api/models")
+public class ModelController {
+
+    private final Optional<WhisperModelRegistry> modelRegistry;
+
+    /**
+     * Creates a new ModelController.
+     *
+     * @param modelRegistry the model registry, empty if no models directory is configured
+     */
+    public ModelController(Optional<WhisperModelRegistry> modelRegistry) {
+        this.modelRegistry = modelRegistry;
+    }
+
+    /**
+     * Lists the models of the models directory with their load state.
+     *
+     * @return the available models
+     */
+    @GetMapping
+    public List<ModelResponse> models() {
+        return modelRegistry.map(WhisperModelRegistry::listModels).orElse(List.of()).stream()
+                .map(info -> new ModelResponse(info.name(), info.size(), info.loaded(), info.leases()))
+                .toList();
+    }
+}
@@ -0,0 +1,19 @@
+package io.github.ferdinandmehlan.whisperspringserver.model.api;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Response object describing a model of the models directory.
+ */
+public record ModelResponse(
+        @Schema(description = "Model name to pass as 'model' of a transcription request")
+        String name,
+
+        @Schema(description = "Size of the model file in bytes")
+        long size,
+
+        @Schema(description = "Whether the model is currently loaded")
+        boolean loaded,
+
+        @Schema(description = "Number of transcriptions currently using the model")
+        int inUse) {}
@@ -34,19 +34,29 @@ public class NewSegmentCallback extends DefaultWhisperNewSegmentCallback {
     public void handle(WhisperSegment segment) {
         log.debug("New segment from callback received: {}", segment);
 
+        // Runs inside a native upcall, where a throw would kill the JVM; a cancelled client just misses the event
+        sink.tryEmitNext(toEvent(segment));
+    }
+
+    /**
+     * Converts a segment into the event sent to SSE clients.
+     *
+     * @param segment the transcribed segment
+     * @return the {@code segment} event
+     */
+    public static ServerSentEvent<TranscriptionEvent> toEvent(WhisperSegment segment) {
         TranscriptionEvent event = new TranscriptionEvent(
                 segment.start(), segment.end(), segment.text().trim());
-        ServerSentEvent<TranscriptionEvent> sseEvent = ServerSentEvent.<TranscriptionEvent>builder()
+        return ServerSentEvent.<TranscriptionEvent>builder()
                 .event("segment")
                 .data(event)
                 .build();
-        sink.emitNext(sseEvent, Sinks.EmitFailureHandler.FAIL_FAST);
     }
 
     @Override
     public void handleError(Throwable t) {
         log.error(t.getMessage(), t);
 
-        sink.emitError(t, Sinks.EmitFailureHandler.FAIL_FAST);
+        sink.tryEmitError(t);
     }
 }
@@ -1,25 +1,39 @@
 package io.github.ferdinandmehlan.whisperspringserver.transcription;
 
+import io.github.ferdinandmehlan.whisperspring._native.WhisperModelBudgetExceededException;
+import io.github.ferdinandmehlan.whisperspring._native.WhisperModelNotFoundException;
 import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperTranscription;
 import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperTranscriptionOptions;
+import io.github.ferdinandmehlan.whisperspring._native.callback.WhisperCancellationToken;
 import io.github.ferdinandmehlan.whisperspringserver.transcription.api.TranscriptionEvent;
 import io.github.ferdinandmehlan.whisperspringserver.transcription.api.TranscriptionRequest;
 import io.github.ferdinandmehlan.whisperspringserver.transcription.api.TranscriptionResponse;
 import jakarta.validation.Valid;
+import java.io.InputStream;
+import java.util.concurrent.CancellationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Sinks;
 
 /**
  * REST controller for handling audio transcription requests.
  * Provides endpoints for transcribing audio files using Whisper models.
+ * An optional {@value #DEADLINE_HEADER} header, as epoch milliseconds or ISO-8601 instant,
+ * aborts the transcription once it has passed. An unknown {@code model} is answered with 400,
+ * a model that does not fit into the memory budget next to the models in use with 503.
+ * {@code /api/transcription/upload} takes the audio as request body and transcribes it while it is uploaded.
  */
 @RestController
 @RequestMapping("/api/transcription")
@@ -27,6 +41,14 @@ public class TranscriptionController {
 
     private static final Logger log = LoggerFactory.getLogger(TranscriptionController.class.getName());
 
+    static final String DEADLINE_HEADER = "X-Request-Deadline";
+    static final String SERVER_TIMING_HEADER = "Server-Timing";
+
+    static final String AUDIO_WAV_VALUE = "audio/wav";
+
+    /** Same limit as the prompt of {@link TranscriptionRequest}. */
+    private static final int MAX_PROMPT_LENGTH = 500;
+
     private final TranscriptionService transcriptionService;
     private final TranscriptionMapper transcriptionMapper;
 
@@ -47,16 +69,36 @@ public class TranscriptionController {
      * returns transcription results in the requested format.
      *
      * @param request the transcription request containing audio file and parameters
-     * @return TranscriptionResponse with transcription results
+     * @param deadline optional deadline after which the transcription is aborted
+     * @return TranscriptionResponse with transcription results and a {@value #SERVER_TIMING_HEADER} header
      */
     @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public TranscriptionResponse transcription(@Valid @ModelAttribute TranscriptionRequest request) {
+    public ResponseEntity<TranscriptionResponse> transcription(
+            @Valid @ModelAttribute TranscriptionRequest request,
+            @RequestHeader(value = DEADLINE_HEADER, required = false) String deadline) {
         log.info("Received transcription request for file {}", request.file().getOriginalFilename());
 
         WhisperTranscriptionOptions config = transcriptionMapper.toWhisperParams(request);
-        WhisperTranscription transcription =
-                transcriptionService.transcribe(request.file().getResource(), config);
-        return transcriptionMapper.toJson(transcription);
+        WhisperCancellationToken token = transcriptionMapper.toCancellationToken(deadline);
+        config.abortCallback = token;
+        try {
+            WhisperTranscription transcription =
+                    transcriptionService.transcribe(request.file().getResource(), config);
+            String serverTiming = transcriptionMapper.toServerTiming(transcription.getMetadata().getTimings());
+            return ResponseEntity.ok()
+                    .headers(headers -> {
+                        if (serverTiming != null) {
+                            headers.set(SERVER_TIMING_HEADER, serverTiming);
+                        }
+                    })
+                    .body(transcriptionMapper.toJson(transcription, request.timings()));
+        } catch (CancellationException e) {
+            throw new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT, e.getMessage(), e);
+        } catch (WhisperModelNotFoundException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        } catch (WhisperModelBudgetExceededException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage(), e);
+        }
     }
 
     /**
@@ -64,28 +106,95 @@ public class TranscriptionController {
      * Accepts multipart form data with audio file and transcription parameters,
      * returns a stream of partial transcription results.
      *
+     * Closing the stream cancels the transcription.
+     *
      * @param request the transcription request containing audio file and parameters
+     * @param deadline optional deadline after which the transcription is aborted
      * @return Flux<ServerSentEvent<WhisperSegment>> with partial transcription results
      */
     @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE, params = "stream=true")
     public Flux<ServerSentEvent<TranscriptionEvent>> transcriptionStream(
-            @Valid @ModelAttribute TranscriptionRequest request) {
+            @Valid @ModelAttribute TranscriptionRequest request,
+            @RequestHeader(value = DEADLINE_HEADER, required = false) String deadline) {
         log.info(
                 "Received transcription streaming request for file {}",
                 request.file().getOriginalFilename());
 
         WhisperTranscriptionOptions config = transcriptionMapper.toWhisperParams(request);
+        WhisperCancellationToken token = transcriptionMapper.toCancellationToken(deadline);
+        config.abortCallback = token;
         Sinks.Many<ServerSentEvent<TranscriptionEvent>> sink = transcriptionService.createSSESink(config);
 
         Thread.ofVirtual().start(() -> {
             try {
                 transcriptionService.transcribe(request.file().getResource(), config);
                 sink.tryEmitComplete();
+            } catch (CancellationException e) {
+                log.info("Transcription of {} aborted: {}", request.file().getOriginalFilename(), e.getMessage());
+                sink.tryEmitError(e);
+            } catch (Exception e) {
+                sink.tryEmitError(e);
+            }
+        });
+
+        return sink.asFlux().doOnCancel(token::cancel).onTerminateDetach();
+    }
+
+    /**
+     * Handles transcription requests whose body is the audio itself, WAV or FLAC, sent as {@code audio/wav} or
+     * {@code application/octet-stream}. The body is decoded while it arrives and every window of about 30 seconds is
+     * transcribed as soon as it is complete, before the upload has finished, instead of after the whole file has been
+     * spooled to disk. The segments are streamed back as server-sent events like those of {@code stream=true}.
+     *
+     * Closing the stream cancels the transcription.
+     *
+     * @param audio the request body
+     * @param model optional model name from the models directory
+     * @param language the spoken language ('auto' for auto-detect)
+     * @param translate whether to translate from the source language to English
+     * @param prompt optional initial prompt
+     * @param deadline optional deadline after which the transcription is aborted
+     * @return Flux<ServerSentEvent<TranscriptionEvent>> with the segments of each window
+     */
+    @PostMapping(
+            path = "/upload",
+            consumes = {AUDIO_WAV_VALUE, MediaType.APPLICATION_OCTET_STREAM_VALUE},
+            produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<TranscriptionEvent>> transcriptionUpload(
+            InputStream audio,
+            @RequestParam(required = false) String model,
+            @RequestParam(defaultValue = "auto") String language,
+            @RequestParam(defaultValue = "false") boolean translate,
+            @RequestParam(required = false) String prompt,
+            @RequestHeader(value = DEADLINE_HEADER, required = false) String deadline) {
+        if (prompt != null && prompt.length() > MAX_PROMPT_LENGTH) {
+            throw new ResponseStatusException(
+                    HttpStatus.BAD_REQUEST, "prompt must not be longer than " + MAX_PROMPT_LENGTH + " characters");
+        }
+        log.info("Received transcription upload request");
+
+        WhisperTranscriptionOptions config = new WhisperTranscriptionOptions();
+        config.model = model;
+        config.language = language;
+        config.translate = translate;
+        config.initialPrompt = prompt;
+        WhisperCancellationToken token = transcriptionMapper.toCancellationToken(deadline);
+        config.abortCallback = token;
+        Sinks.Many<ServerSentEvent<TranscriptionEvent>> sink =
+                Sinks.many().unicast().onBackpressureBuffer();
+
+        Thread.ofVirtual().start(() -> {
+            try {
+                transcriptionService.transcribeUpload(audio, config, sink);
+                sink.tryEmitComplete();
+            } catch (CancellationException e) {
+                log.info("Transcription of upload aborted: {}", e.getMessage());
+                sink.tryEmitError(e);
             } catch (Exception e) {
                 sink.tryEmitError(e);
             }
         });
 
-        return sink.asFlux().onTerminateDetach();
+        return sink.asFlux().doOnCancel(token::cancel).onTerminateDetach();
     }
 }
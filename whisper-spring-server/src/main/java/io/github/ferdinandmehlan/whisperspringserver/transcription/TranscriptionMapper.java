@@ -3,11 +3,20 @@ package io.github.ferdinandmehlan.whisperspringserver.transcription;
 import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperSegment;
 import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperTranscription;
 import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperTranscriptionOptions;
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperTranscriptionTimings;
+import io.github.ferdinandmehlan.whisperspring._native.callback.WhisperCancellationToken;
 import io.github.ferdinandmehlan.whisperspringserver.transcription.api.TranscriptionRequest;
 import io.github.ferdinandmehlan.whisperspringserver.transcription.api.TranscriptionResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.stream.Collectors;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
 
 /**
  * Mapper component for converting between transcription request/response objects and Whisper parameters.
@@ -24,6 +33,7 @@ public class TranscriptionMapper {
      */
     public WhisperTranscriptionOptions toWhisperParams(TranscriptionRequest request) {
         WhisperTranscriptionOptions config = new WhisperTranscriptionOptions();
+        config.model = request.model();
         config.language = request.language();
         config.translate = request.translate();
         config.initialPrompt = request.prompt();
@@ -41,20 +51,72 @@ public class TranscriptionMapper {
         config.entropyThold = request.entropyThreshold();
         config.logprobThold = request.logprobThreshold();
         config.noTimestamps = request.noTimestamps();
+        config.compactSilence = request.compactSilence();
         return config;
     }
 
+    /**
+     * Creates the cancellation token of a request from its deadline header.
+     *
+     * @param deadline the deadline as epoch milliseconds or ISO-8601 instant, or {@code null} for none
+     * @return a new cancellation token
+     * @throws ResponseStatusException with status 400 if the deadline cannot be parsed
+     */
+    public WhisperCancellationToken toCancellationToken(String deadline) {
+        if (deadline == null || deadline.isBlank()) {
+            return new WhisperCancellationToken();
+        }
+        String value = deadline.trim();
+        try {
+            Instant instant = value.chars().allMatch(Character::isDigit)
+                    ? Instant.ofEpochMilli(Long.parseLong(value))
+                    : Instant.parse(value);
+            return new WhisperCancellationToken(instant);
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid request deadline: " + deadline, e);
+        }
+    }
+
     /**
      * Converts whisper segments to JSON response format.
      *
      * @param transcription the completed whisper transcription
+     * @param includeTimings whether to include the timings of the transcription
      * @return TranscriptionResponse with full text and segment details
      */
-    public TranscriptionResponse toJson(WhisperTranscription transcription) {
+    public TranscriptionResponse toJson(WhisperTranscription transcription, boolean includeTimings) {
         String text = transcription.getOutput();
         List<WhisperSegment> trimmedSegments = transcription.getMetadata().getSegments().stream()
-                .map(segment -> new WhisperSegment(segment.text().trim(), segment.start(), segment.end()))
+                .map(segment -> new WhisperSegment(
+                        segment.text().trim(), segment.start(), segment.end(), List.of(), segment.speaker()))
                 .collect(Collectors.toList());
-        return new TranscriptionResponse(text, trimmedSegments);
+        WhisperTranscriptionTimings timings = includeTimings ? transcription.getMetadata().getTimings() : null;
+        Duration removedSilence = transcription.getMetadata().getRemovedSilence();
+        Double removedSilenceSeconds = removedSilence.isZero() ? null : removedSilence.toMillis() / 1000.0;
+        return new TranscriptionResponse(text, trimmedSegments, timings, removedSilenceSeconds);
+    }
+
+    /**
+     * Formats the timings of a transcription as {@code Server-Timing} header value.
+     *
+     * @param timings the timings, may be {@code null}
+     * @return the header value, or {@code null} if there are no timings
+     */
+    public String toServerTiming(WhisperTranscriptionTimings timings) {
+        if (timings == null) {
+            return null;
+        }
+        List<String> metrics = new ArrayList<>();
+        metrics.add(metric("wav", "WAV decode", timings.wavDecodeMs()));
+        metrics.add(metric("mel", "Mel spectrogram", timings.melMs()));
+        metrics.add(metric("wait", "State wait", timings.stateWaitMs()));
+        metrics.add(metric("params", "Param setup", timings.paramSetupMs()));
+        metrics.add(metric("inference", "whisper_full", timings.inferenceMs()));
+        metrics.add(metric("extract", "Segment extraction", timings.segmentExtractionMs()));
+        return String.join(", ", metrics);
+    }
+
+    private static String metric(String name, String description, double durationMs) {
+        return String.format(Locale.ROOT, "%s;desc=\"%s\";dur=%.2f", name, description, durationMs);
     }
 }
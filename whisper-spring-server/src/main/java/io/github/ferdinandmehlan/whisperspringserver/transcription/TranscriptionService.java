@@ -5,7 +5,8 @@ import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperTranscription
 import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperTranscriptionOptions;
 import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperTranscriptionResponse;
 import io.github.ferdinandmehlan.whisperspringserver.transcription.api.TranscriptionEvent;
-import java.util.concurrent.locks.ReentrantLock;
+import java.io.IOException;
+import java.io.InputStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.audio.transcription.AudioTranscriptionPrompt;
@@ -16,7 +17,8 @@ import reactor.core.publisher.Sinks;
 
 /**
  * Service for handling audio transcription using Whisper.
- * Manages Whisper context initialization and provides thread-safe transcription operations.
+ * Delegates to the {@link WhisperTranscriptionModel}, whose state pool bounds how many
+ * transcriptions decode concurrently.
  */
 @Service
 public class TranscriptionService {
@@ -24,7 +26,6 @@ public class TranscriptionService {
     private static final Logger log = LoggerFactory.getLogger(TranscriptionService.class.getName());
 
     private final WhisperTranscriptionModel model;
-    private final ReentrantLock lock = new ReentrantLock();
 
     /**
      * Creates a new TranscriptionService with required dependencies.
@@ -37,24 +38,38 @@ public class TranscriptionService {
 
     /**
      * Performs audio transcription using the configured Whisper model.
-     * This method is thread-safe and uses locking to ensure sequential access to the Whisper context.
+     * This method is thread-safe; callers block while all whisper states of the pool are in use.
      *
      * @param audioFile the audio file resource to transcribe
      * @param config    the whisper transcription configuration
      * @return WhisperTranscriptionResponse with timestamps and text metadata
      */
     public WhisperTranscription transcribe(Resource audioFile, WhisperTranscriptionOptions config) {
-        lock.lock();
-        log.info("Entering lock for transcription service");
+        log.info("Starting transcription for {}", audioFile.getFilename());
+        AudioTranscriptionPrompt prompt = new AudioTranscriptionPrompt(audioFile, config);
+        WhisperTranscriptionResponse transcriptionResponse = model.call(prompt);
+        return transcriptionResponse.getResult();
+    }
 
-        try {
-            AudioTranscriptionPrompt prompt = new AudioTranscriptionPrompt(audioFile, config);
-            WhisperTranscriptionResponse transcriptionResponse = model.call(prompt);
-            return transcriptionResponse.getResult();
-        } finally {
-            log.info("Exiting lock for transcription service");
-            lock.unlock();
-        }
+    /**
+     * Transcribes audio while it is uploaded, emitting the segments of every window of about 30 seconds to the sink
+     * as soon as it is transcribed.
+     *
+     * @param audio the body of the upload, WAV or FLAC
+     * @param config the whisper transcription configuration
+     * @param sink the SSE sink for the segments
+     * @return the transcription of the whole upload
+     * @throws IOException if the upload cannot be read
+     */
+    public WhisperTranscription transcribeUpload(
+            InputStream audio,
+            WhisperTranscriptionOptions config,
+            Sinks.Many<ServerSentEvent<TranscriptionEvent>> sink)
+            throws IOException {
+        log.info("Starting transcription of upload");
+        // A client that has gone away just misses the event, its cancellation aborts the transcription
+        return model.transcribeProgressively(
+                audio, config, segment -> sink.tryEmitNext(NewSegmentCallback.toEvent(segment)));
     }
 
     /**
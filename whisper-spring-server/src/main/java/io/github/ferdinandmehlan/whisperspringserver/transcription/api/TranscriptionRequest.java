@@ -6,6 +6,7 @@ import jakarta.validation.constraints.DecimalMax;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
 import java.util.Objects;
 import org.springframework.web.multipart.MultipartFile;
@@ -20,6 +21,9 @@ public record TranscriptionRequest(
         // Streaming
         @Schema(description = "Stream partial results via SSE", defaultValue = "false")
         Boolean stream,
+        // Model
+        @Schema(description = "Model name from the models directory, e.g. 'base.en' (default model if omitted)")
+        @Pattern(regexp = "[A-Za-z0-9][A-Za-z0-9._-]*") String model,
         // Base Settings
         @Schema(description = "Spoken language ('auto' for auto-detect)", defaultValue = "auto")
         String language,
@@ -65,7 +69,14 @@ public record TranscriptionRequest(
         Float logprobThreshold,
 
         @Schema(description = "Do not include timestamps in output", defaultValue = "false")
-        Boolean noTimestamps) {
+        Boolean noTimestamps,
+
+        @Schema(description = "Cut long silences before transcribing, not when streaming", defaultValue = "false")
+        Boolean compactSilence,
+
+        // Diagnostics
+        @Schema(description = "Include the time spent per transcription stage in the response", defaultValue = "false")
+        Boolean timings) {
 
     public TranscriptionRequest {
         stream = Objects.requireNonNullElse(stream, false);
@@ -88,6 +99,41 @@ public record TranscriptionRequest(
         entropyThreshold = Objects.requireNonNullElse(entropyThreshold, 2.4f);
         logprobThreshold = Objects.requireNonNullElse(logprobThreshold, -1.0f);
         noTimestamps = Objects.requireNonNullElse(noTimestamps, false);
+        compactSilence = Objects.requireNonNullElse(compactSilence, false);
+
+        timings = Objects.requireNonNullElse(timings, false);
+    }
+
+    /**
+     * Returns the parameters of this request without the uploaded file, e.g. to store them with a job.
+     *
+     * @return a copy of this request whose file is {@code null}
+     */
+    public TranscriptionRequest withoutFile() {
+        return new TranscriptionRequest(
+                null,
+                stream,
+                model,
+                language,
+                translate,
+                prompt,
+                temperature,
+                temperatureInc,
+                offsetTMs,
+                offsetN,
+                durationMs,
+                maxContext,
+                maxLen,
+                splitOnWord,
+                bestOf,
+                beamSize,
+                audioContext,
+                wordThreshold,
+                entropyThreshold,
+                logprobThreshold,
+                noTimestamps,
+                compactSilence,
+                timings);
     }
 
     /**
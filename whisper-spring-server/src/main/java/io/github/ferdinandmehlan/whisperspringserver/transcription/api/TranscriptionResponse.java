@@ -1,6 +1,8 @@
 package io.github.ferdinandmehlan.whisperspringserver.transcription.api;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperSegment;
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperTranscriptionTimings;
 import io.swagger.v3.oas.annotations.media.Schema;
 import java.util.List;
 
@@ -13,4 +15,12 @@ public record TranscriptionResponse(
         String text,
 
         @Schema(description = "Detailed segments of the transcription with timestamps")
-        List<WhisperSegment> segments) {}
+        List<WhisperSegment> segments,
+
+        @Schema(description = "Time spent per transcription stage in milliseconds, only if requested")
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        WhisperTranscriptionTimings timings,
+
+        @Schema(description = "Seconds of silence cut from the audio before transcribing, only if any were cut")
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        Double removedSilenceSeconds) {}
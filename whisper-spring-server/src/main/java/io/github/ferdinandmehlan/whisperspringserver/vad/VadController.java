@@ -0,0 +1,63 @@
+package io.github.ferdinandmehlan.whisperspringserver.vad;
+
+import io.github.ferdinandmehlan.whisperspring.WhisperTranscriptionModel;
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperSpeechSegment;
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperVadConfig;
+import io.github.ferdinandmehlan.whisperspringserver.vad.api.VadRequest;
+import io.github.ferdinandmehlan.whisperspringserver.vad.api.VadResponse;
+import jakarta.validation.Valid;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * REST controller detecting the regions of speech in audio files with the Silero VAD model of
+ * {@code whisper.vad-model-path}. The model stays loaded between requests and no whisper model is
+ * involved, so this is much cheaper than a transcription, e.g. to skip uploads without speech.
+ */
+@RestController
+@RequestMapping("/api/vad")
+public class VadController {
+
+    private static final Logger log = LoggerFactory.getLogger(VadController.class.getName());
+
+    private final WhisperTranscriptionModel model;
+
+    /**
+     * Creates a new VadController.
+     *
+     * @param whisperTranscriptionModel the model holding the VAD pool
+     */
+    public VadController(WhisperTranscriptionModel whisperTranscriptionModel) {
+        this.model = whisperTranscriptionModel;
+    }
+
+    /**
+     * Detects the regions of speech in an audio file.
+     *
+     * @param request the request containing the audio file and VAD settings
+     * @return the speech regions
+     */
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public VadResponse vad(@Valid @ModelAttribute VadRequest request) {
+        log.info("Received voice activity detection request for file {}", request.file().getOriginalFilename());
+        if (model.getVadPool() == null) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "No VAD model is configured");
+        }
+
+        WhisperVadConfig config = new WhisperVadConfig();
+        config.threshold = request.threshold();
+        config.minSpeechDurationMs = request.minSpeechDurationMs();
+        config.minSilenceDurationMs = request.minSilenceDurationMs();
+        config.speechPadMs = request.speechPadMs();
+        List<WhisperSpeechSegment> segments = model.detectSpeech(request.file().getResource(), config);
+        return new VadResponse(segments);
+    }
+}
@@ -0,0 +1,44 @@
+package io.github.ferdinandmehlan.whisperspringserver.vad.api;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import java.util.Objects;
+import org.springframework.web.multipart.MultipartFile;
+
+/**
+ * Request object for voice activity detection.
+ */
+public record VadRequest(
+        @Schema(description = "Audio file to detect speech in") MultipartFile file,
+
+        @Schema(description = "Speech probability threshold between 0.0 and 1.0", defaultValue = "0.5")
+        @DecimalMin("0.0") @DecimalMax("1.0") Float threshold,
+
+        @Schema(description = "Minimum duration of a speech region in milliseconds", defaultValue = "250")
+        @Min(0) Integer minSpeechDurationMs,
+
+        @Schema(description = "Minimum silence in milliseconds that splits speech regions", defaultValue = "100")
+        @Min(0) Integer minSilenceDurationMs,
+
+        @Schema(description = "Padding added to either side of a speech region in milliseconds", defaultValue = "30")
+        @Min(0) Integer speechPadMs) {
+
+    public VadRequest {
+        threshold = Objects.requireNonNullElse(threshold, 0.5f);
+        minSpeechDurationMs = Objects.requireNonNullElse(minSpeechDurationMs, 250);
+        minSilenceDurationMs = Objects.requireNonNullElse(minSilenceDurationMs, 100);
+        speechPadMs = Objects.requireNonNullElse(speechPadMs, 30);
+    }
+
+    /**
+     * Validates that the uploaded file is not empty.
+     *
+     * @return true if file exists and is not empty, false otherwise
+     */
+    @AssertTrue(message = "File must not be empty") public boolean isFileNotEmpty() {
+        return file != null && !file.isEmpty();
+    }
+}
@@ -0,0 +1,12 @@
+package io.github.ferdinandmehlan.whisperspringserver.vad.api;
+
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperSpeechSegment;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+
+/**
+ * Response object for voice activity detection.
+ */
+public record VadResponse(
+        @Schema(description = "Speech regions in order, start and end in centiseconds; empty without speech")
+        List<WhisperSpeechSegment> segments) {}
@@ -0,0 +1,108 @@
+package io.github.ferdinandmehlan.whisperspringserver.job;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.github.ferdinandmehlan.whisperspringserver.BaseIntegrationTest;
+import io.github.ferdinandmehlan.whisperspringserver.job.api.JobResponse;
+import io.github.ferdinandmehlan.whisperspringserver.job.api.JobStatus;
+import io.github.ferdinandmehlan.whisperspringserver.transcription.api.TranscriptionResponse;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import tools.jackson.databind.json.JsonMapper;
+
+public class JobControllerTest extends BaseIntegrationTest {
+
+    @Autowired
+    private JobProperties jobProperties;
+
+    @Autowired
+    private JsonMapper jsonMapper;
+
+    @Test
+    public void testJob() throws InterruptedException {
+        ResponseEntity<JobResponse> submitted =
+                testRestTemplate.postForEntity("/api/jobs", jobRequest(), JobResponse.class);
+
+        assertThat(submitted.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+        assertThat(submitted.getBody().status()).isEqualTo(JobStatus.QUEUED);
+        assertThat(submitted.getBody().filename()).isEqualTo("sample.wav");
+
+        JobResponse job = awaitFinished(submitted.getBody().id());
+        assertThat(job.status()).isEqualTo(JobStatus.SUCCEEDED);
+        assertThat(job.startedAt()).isNotNull();
+        assertThat(job.finishedAt()).isAfterOrEqualTo(job.startedAt());
+
+        ResponseEntity<TranscriptionResponse> result = testRestTemplate.getForEntity(
+                "/api/jobs/" + job.id() + "/result", TranscriptionResponse.class);
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(result.getBody().text()).contains("Whisper spring is a Java library");
+    }
+
+    @Test
+    public void testJobSurvivesRestart() throws IOException {
+        ResponseEntity<JobResponse> submitted =
+                testRestTemplate.postForEntity("/api/jobs", jobRequest(), JobResponse.class);
+
+        // A new store reads the job back from the disk, as after a restart
+        Job job = new JobStore(jobProperties, jsonMapper).find(submitted.getBody().id()).orElseThrow();
+
+        assertThat(job.filename()).isEqualTo("sample.wav");
+        assertThat(job.request().language()).isEqualTo("en");
+        assertThat(job.request().file()).isNull();
+        assertThat(job.createdAt()).isEqualTo(submitted.getBody().createdAt());
+    }
+
+    @Test
+    public void testIncompleteJobIsRemoved() throws IOException {
+        Path incomplete = jobProperties.getDir().resolve(UUID.randomUUID().toString());
+        Files.createDirectories(incomplete);
+        Files.write(incomplete.resolve("audio"), new byte[16]);
+
+        new JobStore(jobProperties, jsonMapper).removeIncomplete();
+
+        assertThat(incomplete).doesNotExist();
+    }
+
+    @Test
+    public void testUnknownJob() {
+        ResponseEntity<String> status = testRestTemplate.getForEntity("/api/jobs/" + UUID.randomUUID(), String.class);
+        ResponseEntity<String> invalid = testRestTemplate.getForEntity("/api/jobs/not-a-job/result", String.class);
+
+        assertThat(status.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(invalid.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    private static HttpEntity<MultiValueMap<String, Object>> jobRequest() {
+        MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
+        body.add("file", new FileSystemResource(Path.of("src/test/resources/audio/sample.wav")));
+        body.add("language", "en");
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.MULTIPART_FORM_DATA);
+        return new HttpEntity<>(body, headers);
+    }
+
+    private JobResponse awaitFinished(String id) throws InterruptedException {
+        Instant deadline = Instant.now().plus(Duration.ofMinutes(5));
+        while (true) {
+            JobResponse job = testRestTemplate.getForObject("/api/jobs/" + id, JobResponse.class);
+            if (job.finishedAt() != null || Instant.now().isAfter(deadline)) {
+                return job;
+            }
+            Thread.sleep(200);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package io.github.ferdinandmehlan.whisperspringserver.language;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.github.ferdinandmehlan.whisperspringserver.BaseIntegrationTest;
+import io.github.ferdinandmehlan.whisperspringserver.language.api.LanguageResponse;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+public class LanguageControllerTest extends BaseIntegrationTest {
+
+    @Test
+    public void testLanguage() {
+        Path audioPath = Path.of("src/test/resources/audio/sample.wav");
+        FileSystemResource audioFile = new FileSystemResource(audioPath);
+
+        MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
+        body.add("file", audioFile);
+        body.add("seconds", "10");
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.MULTIPART_FORM_DATA);
+        HttpEntity<MultiValueMap<String, Object>> requestEntity = new HttpEntity<>(body, headers);
+
+        ResponseEntity<LanguageResponse> response =
+                testRestTemplate.postForEntity("/api/language", requestEntity, LanguageResponse.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().language()).isEqualTo("en");
+        assertThat(response.getBody().candidates()).containsKey("en");
+    }
+
+    @Test
+    public void testLanguageInvalidWindow() {
+        Path audioPath = Path.of("src/test/resources/audio/sample.wav");
+        FileSystemResource audioFile = new FileSystemResource(audioPath);
+
+        MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
+        body.add("file", audioFile);
+        body.add("seconds", "60");
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.MULTIPART_FORM_DATA);
+        HttpEntity<MultiValueMap<String, Object>> requestEntity = new HttpEntity<>(body, headers);
+
+        ResponseEntity<String> response = testRestTemplate.postForEntity("/api/language", requestEntity, String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+}
@@ -0,0 +1,82 @@
+package io.github.ferdinandmehlan.whisperspringserver.live;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.github.ferdinandmehlan.whisperspring.WaveService;
+import io.github.ferdinandmehlan.whisperspringserver.BaseIntegrationTest;
+import io.github.ferdinandmehlan.whisperspringserver.live.api.LiveEvent;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+public class LiveTranscriptionHandlerTest extends BaseIntegrationTest {
+
+    @Autowired
+    private WaveService waveService;
+
+    @Test
+    public void testLiveTranscription() throws Exception {
+        float[] samples = waveService.toWaveSamples(new FileSystemResource("src/test/resources/audio/sample.wav"));
+        List<LiveEvent> events = new CopyOnWriteArrayList<>();
+        CompletableFuture<CloseStatus> closed = new CompletableFuture<>();
+
+        WebSocketSession session = connect("stepMs=500", events, closed);
+        // 100 ms per message, as a microphone would deliver them
+        for (int i = 0; i < samples.length; i += 1600) {
+            ByteBuffer pcm = ByteBuffer.allocate(2 * Math.min(1600, samples.length - i)).order(ByteOrder.LITTLE_ENDIAN);
+            for (int j = i; j < Math.min(samples.length, i + 1600); j++) {
+                pcm.putShort((short) Math.max(-32768, Math.min(32767, Math.round(samples[j] * 32768))));
+            }
+            session.sendMessage(new BinaryMessage(pcm.flip()));
+        }
+        session.sendMessage(new TextMessage(LiveTranscriptionHandler.END_MESSAGE));
+
+        assertThat(closed.get(5, TimeUnit.MINUTES).getCode()).isEqualTo(CloseStatus.NORMAL.getCode());
+        String text = events.stream()
+                .filter(event -> event.type().equals("final"))
+                .map(LiveEvent::text)
+                .collect(Collectors.joining(" "));
+        assertThat(text).containsIgnoringCase("java library");
+        assertThat(events).extracting(LiveEvent::type).contains("partial");
+    }
+
+    @Test
+    public void testLiveTranscriptionInvalidStep() throws Exception {
+        CompletableFuture<CloseStatus> closed = new CompletableFuture<>();
+
+        connect("stepMs=10", new CopyOnWriteArrayList<>(), closed);
+
+        assertThat(closed.get(1, TimeUnit.MINUTES).getCode()).isEqualTo(CloseStatus.POLICY_VIOLATION.getCode());
+    }
+
+    private WebSocketSession connect(String query, List<LiveEvent> events, CompletableFuture<CloseStatus> closed)
+            throws Exception {
+        TextWebSocketHandler handler = new TextWebSocketHandler() {
+            @Override
+            protected void handleTextMessage(WebSocketSession session, TextMessage message) throws Exception {
+                events.add(objectMapper().readValue(message.getPayload(), LiveEvent.class));
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+                closed.complete(status);
+            }
+        };
+        return new StandardWebSocketClient()
+                .execute(handler, testRestTemplate.getRootUri().replaceFirst("^http", "ws") + "/api/live?" + query)
+                .get(1, TimeUnit.MINUTES);
+    }
+}
@@ -0,0 +1,20 @@
+package io.github.ferdinandmehlan.whisperspringserver.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.github.ferdinandmehlan.whisperspringserver.BaseIntegrationTest;
+import io.github.ferdinandmehlan.whisperspringserver.model.api.ModelResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+public class ModelControllerTest extends BaseIntegrationTest {
+
+    @Test
+    public void testModels() {
+        ResponseEntity<ModelResponse[]> response = testRestTemplate.getForEntity("/api/models", ModelResponse[].class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).extracting(ModelResponse::name).contains("tiny");
+    }
+}
@@ -1,12 +1,17 @@
 package io.github.ferdinandmehlan.whisperspringserver.transcription;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
 import io.github.ferdinandmehlan.whisperspringserver.BaseIntegrationTest;
 import io.github.ferdinandmehlan.whisperspringserver.transcription.api.TranscriptionResponse;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import org.junit.jupiter.api.Test;
 import org.springframework.core.io.FileSystemResource;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.util.LinkedMultiValueMap;
@@ -57,4 +62,118 @@ public class TranscriptionControllerTest extends BaseIntegrationTest {
         // Verify response
         assertWithFileIncludingHttpStatus(response);
     }
+
+    @Test
+    public void testTranscriptionUpload() throws IOException {
+        byte[] audio = Files.readAllBytes(Path.of("src/test/resources/audio/sample.wav"));
+
+        // The audio itself is the body, no multipart form
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType(TranscriptionController.AUDIO_WAV_VALUE));
+        HttpEntity<byte[]> requestEntity = new HttpEntity<>(audio, headers);
+
+        ResponseEntity<String> response = testRestTemplate.postForEntity(
+                "/api/transcription/upload?language=en", requestEntity, String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody())
+                .contains("event:segment")
+                .contains("Whisper spring is a Java library")
+                .contains("deployment scenarios");
+    }
+
+    @Test
+    public void testTranscriptionDeadlineExceeded() {
+        Path audioPath = Path.of("src/test/resources/audio/sample.wav");
+        FileSystemResource audioFile = new FileSystemResource(audioPath);
+
+        MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
+        body.add("file", audioFile);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.MULTIPART_FORM_DATA);
+        headers.set(TranscriptionController.DEADLINE_HEADER, "2000-01-01T00:00:00Z");
+        HttpEntity<MultiValueMap<String, Object>> requestEntity = new HttpEntity<>(body, headers);
+
+        ResponseEntity<String> response =
+                testRestTemplate.postForEntity("/api/transcription", requestEntity, String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.GATEWAY_TIMEOUT);
+    }
+
+    @Test
+    public void testTranscriptionInvalidDeadline() {
+        Path audioPath = Path.of("src/test/resources/audio/sample.wav");
+        FileSystemResource audioFile = new FileSystemResource(audioPath);
+
+        MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
+        body.add("file", audioFile);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.MULTIPART_FORM_DATA);
+        headers.set(TranscriptionController.DEADLINE_HEADER, "tomorrow");
+        HttpEntity<MultiValueMap<String, Object>> requestEntity = new HttpEntity<>(body, headers);
+
+        ResponseEntity<String> response =
+                testRestTemplate.postForEntity("/api/transcription", requestEntity, String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    public void testTranscriptionWithModel() {
+        Path audioPath = Path.of("src/test/resources/audio/sample.wav");
+        FileSystemResource audioFile = new FileSystemResource(audioPath);
+
+        MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
+        body.add("file", audioFile);
+        body.add("model", "tiny");
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.MULTIPART_FORM_DATA);
+        HttpEntity<MultiValueMap<String, Object>> requestEntity = new HttpEntity<>(body, headers);
+
+        ResponseEntity<TranscriptionResponse> response =
+                testRestTemplate.postForEntity("/api/transcription", requestEntity, TranscriptionResponse.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().text()).contains("Whisper spring is a Java library");
+    }
+
+    @Test
+    public void testTranscriptionUnknownModel() {
+        Path audioPath = Path.of("src/test/resources/audio/sample.wav");
+        FileSystemResource audioFile = new FileSystemResource(audioPath);
+
+        MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
+        body.add("file", audioFile);
+        body.add("model", "large-v9");
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.MULTIPART_FORM_DATA);
+        HttpEntity<MultiValueMap<String, Object>> requestEntity = new HttpEntity<>(body, headers);
+
+        ResponseEntity<String> response =
+                testRestTemplate.postForEntity("/api/transcription", requestEntity, String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    public void testTranscriptionTimings() {
+        Path audioPath = Path.of("src/test/resources/audio/sample.wav");
+        FileSystemResource audioFile = new FileSystemResource(audioPath);
+
+        MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
+        body.add("file", audioFile);
+        body.add("timings", "true");
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.MULTIPART_FORM_DATA);
+        HttpEntity<MultiValueMap<String, Object>> requestEntity = new HttpEntity<>(body, headers);
+
+        ResponseEntity<TranscriptionResponse> response =
+                testRestTemplate.postForEntity("/api/transcription", requestEntity, TranscriptionResponse.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getFirst(TranscriptionController.SERVER_TIMING_HEADER))
+                .contains("wav;", "inference;", "extract;");
+        assertThat(response.getBody().timings()).isNotNull();
+        assertThat(response.getBody().timings().inferenceMs()).isPositive();
+    }
 }
@@ -0,0 +1,56 @@
+package io.github.ferdinandmehlan.whisperspringserver.vad;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperSpeechSegment;
+import io.github.ferdinandmehlan.whisperspringserver.BaseIntegrationTest;
+import io.github.ferdinandmehlan.whisperspringserver.vad.api.VadResponse;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+public class VadControllerTest extends BaseIntegrationTest {
+
+    @Test
+    public void testVad() {
+        Path audioPath = Path.of("src/test/resources/audio/sample.wav");
+        FileSystemResource audioFile = new FileSystemResource(audioPath);
+
+        MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
+        body.add("file", audioFile);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.MULTIPART_FORM_DATA);
+        HttpEntity<MultiValueMap<String, Object>> requestEntity = new HttpEntity<>(body, headers);
+
+        ResponseEntity<VadResponse> response =
+                testRestTemplate.postForEntity("/api/vad", requestEntity, VadResponse.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().segments()).isNotEmpty();
+        assertThat(response.getBody().segments()).extracting(WhisperSpeechSegment::start).isSorted();
+    }
+
+    @Test
+    public void testVadInvalidThreshold() {
+        Path audioPath = Path.of("src/test/resources/audio/sample.wav");
+        FileSystemResource audioFile = new FileSystemResource(audioPath);
+
+        MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
+        body.add("file", audioFile);
+        body.add("threshold", "1.5");
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.MULTIPART_FORM_DATA);
+        HttpEntity<MultiValueMap<String, Object>> requestEntity = new HttpEntity<>(body, headers);
+
+        ResponseEntity<String> response = testRestTemplate.postForEntity("/api/vad", requestEntity, String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+}
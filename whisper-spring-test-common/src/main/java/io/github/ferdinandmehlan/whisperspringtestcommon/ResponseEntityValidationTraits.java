@@ -35,7 +35,8 @@ public interface ResponseEntityValidationTraits extends JUnit5ValidationFileAsse
     default ValidationNormalizer defaultValidationNormalizer() {
         return ValidationNormalizer.combine(
                 new SimpleRegexReplacement("Date: .*", "Date: [MASKED]"),
-                new SimpleRegexReplacement("Content-Length: .*", "Content-Length: [MASKED]"));
+                new SimpleRegexReplacement("Content-Length: .*", "Content-Length: [MASKED]"),
+                new SimpleRegexReplacement("Server-Timing: .*", "Server-Timing: [MASKED]"));
     }
 
     /**
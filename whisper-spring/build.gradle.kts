@@ -1,6 +1,7 @@
 plugins {
     id("java-library")
     id("maven-publish")
+    alias(libs.plugins.jmh)
 }
 
 java {
@@ -30,14 +31,31 @@ dependencies {
 tasks.processTestResources {
     from("$rootDir/models") {
         include("ggml-tiny.bin")
+        include("ggml-silero-v5.1.2.bin")
     }
-    dependsOn(":downloadTinyModel")
+    dependsOn(":downloadTinyModel", ":downloadVadModel")
 }
 
 tasks.test {
     useJUnitPlatform()
 }
 
+/*
+ * Benchmarks
+ */
+
+jmh {
+    jvmArgs.addAll(
+        "--enable-native-access=ALL-UNNAMED",
+        "-Dwhisper.benchmark.model=$rootDir/models/ggml-tiny.bin",
+        "-Dwhisper.benchmark.audio=$projectDir/src/test/resources/audio/sample.wav",
+    )
+}
+
+tasks.named("jmh") {
+    dependsOn(":downloadTinyModel")
+}
+
 tasks.javadoc {
     options {
         this as StandardJavadocDocletOptions
@@ -0,0 +1,140 @@
+package io.github.ferdinandmehlan.whisperspring;
+
+import io.github.ferdinandmehlan.whisperspring._native.WhisperNative;
+import io.github.ferdinandmehlan.whisperspring._native.WhisperStatePool;
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperTranscriptionOptions;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.ai.audio.transcription.AudioTranscriptionPrompt;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
+
+/**
+ * Measures transcribing about three minutes of audio in one pass ({@code chunkSeconds = 0}) against chunked
+ * transcription on a pool of {@code states} states. Every pass gets an equal share of the available processors.
+ * The accuracy cost of chunking is printed at the end of each trial as the word error rate of the chunked text
+ * against the single pass text.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class LongAudioBenchmark {
+
+    private static final int REPEATS = 8;
+
+    @Param({"0", "30", "60"})
+    private int chunkSeconds;
+
+    @Param({"2", "4"})
+    private int states;
+
+    private WhisperNative whisper;
+    private WhisperStatePool pool;
+    private WhisperTranscriptionModel model;
+    private ByteArrayResource audio;
+    private WhisperTranscriptionOptions options;
+    private String reference;
+    private String text;
+
+    @Setup
+    public void setup() throws Exception {
+        whisper = new WhisperNative(System.getProperty("whisper.benchmark.model"));
+        pool = new WhisperStatePool(whisper, states);
+        WaveService waveService = new WaveService();
+        float[] sample =
+                waveService.toWaveSamples(new FileSystemResource(System.getProperty("whisper.benchmark.audio")));
+        audio = wav(sample, REPEATS);
+
+        int processors = Runtime.getRuntime().availableProcessors();
+        options = new WhisperTranscriptionOptions();
+        options.nThreads = Math.max(1, processors / (chunkSeconds == 0 ? 1 : states));
+
+        model = new WhisperTranscriptionModel(waveService);
+        model.initWhisperStatePool(pool);
+        WhisperTranscriptionOptions referenceOptions = options.copy();
+        referenceOptions.nThreads = processors;
+        reference = model.call(new AudioTranscriptionPrompt(audio, referenceOptions)).getResult().getOutput();
+        model.initLongAudioChunking(Duration.ofSeconds(chunkSeconds), Duration.ofSeconds(1));
+    }
+
+    @TearDown
+    public void tearDown() {
+        double wordErrorRate = wordErrorRate(reference, text);
+        System.out.printf(Locale.ROOT, "%nWord error rate against the single pass: %.2f%%%n", 100 * wordErrorRate);
+        pool.close();
+        whisper.close();
+    }
+
+    @Benchmark
+    public String transcribe() {
+        text = model.call(new AudioTranscriptionPrompt(audio, options)).getResult().getOutput();
+        return text;
+    }
+
+    /**
+     * Returns the word level edit distance divided by the number of reference words, ignoring case and punctuation.
+     */
+    private static double wordErrorRate(String reference, String hypothesis) {
+        String[] expected = words(reference);
+        String[] actual = words(hypothesis);
+        int[] previous = new int[actual.length + 1];
+        int[] current = new int[actual.length + 1];
+        for (int j = 0; j <= actual.length; j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= expected.length; i++) {
+            current[0] = i;
+            for (int j = 1; j <= actual.length; j++) {
+                int substitution = previous[j - 1] + (expected[i - 1].equals(actual[j - 1]) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return (double) previous[actual.length] / Math.max(1, expected.length);
+    }
+
+    private static String[] words(String text) {
+        return Arrays.stream(text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}']+"))
+                .filter(word -> !word.isEmpty())
+                .toArray(String[]::new);
+    }
+
+    /**
+     * Encodes the samples, repeated a number of times, as a 16 kHz 16-bit mono WAV file.
+     */
+    private static ByteArrayResource wav(float[] samples, int repeats) {
+        int dataLength = samples.length * repeats * 2;
+        ByteBuffer wav = ByteBuffer.allocate(44 + dataLength).order(ByteOrder.LITTLE_ENDIAN);
+        wav.put("RIFF".getBytes()).putInt(36 + dataLength).put("WAVE".getBytes());
+        wav.put("fmt ".getBytes()).putInt(16).putShort((short) 1).putShort((short) 1);
+        wav.putInt(16000).putInt(32000).putShort((short) 2).putShort((short) 16);
+        wav.put("data".getBytes()).putInt(dataLength);
+        for (int r = 0; r < repeats; r++) {
+            for (float sample : samples) {
+                wav.putShort((short) Math.max(-32768, Math.min(32767, Math.round(sample * 32768))));
+            }
+        }
+        return new ByteArrayResource(wav.array());
+    }
+}
@@ -0,0 +1,72 @@
+package io.github.ferdinandmehlan.whisperspring;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures converting one minute of 16-bit PCM to 16 kHz mono on a single thread.
+ * The real-time factor is 60,000 divided by the reported milliseconds.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WaveConverterBenchmark {
+
+    private static final int SECONDS = 60;
+
+    @Param({"16000", "8000", "22050", "44100", "48000"})
+    private int sampleRate;
+
+    @Param({"1", "2"})
+    private int channels;
+
+    private Arena arena;
+    private MemorySegment data;
+    private WaveHeader header;
+    private long frames;
+
+    @Setup
+    public void setup() {
+        frames = (long) sampleRate * SECONDS;
+        arena = Arena.ofShared();
+        data = arena.allocate(frames * channels * 2);
+        ValueLayout.OfShort pcm16 = ValueLayout.JAVA_SHORT_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+        for (long i = 0; i < frames * channels; i++) {
+            data.setAtIndex(pcm16, i, (short) (Math.sin(i * 0.05) * 16000));
+        }
+        header = new WaveHeader(
+                WaveHeader.WAVE_FORMAT_PCM, channels, sampleRate, 16, 2 * channels, 44, data.byteSize());
+    }
+
+    @TearDown
+    public void tearDown() {
+        arena.close();
+    }
+
+    @Benchmark
+    public void convert(Blackhole blackhole) {
+        WaveConverter converter = WaveConverter.of(header);
+        WaveConverter.Sink sink = (samples, length) -> blackhole.consume(samples[length - 1]);
+        converter.convert(data, frames, sink);
+        converter.finish(sink);
+    }
+}
@@ -0,0 +1,91 @@
+package io.github.ferdinandmehlan.whisperspring._native;
+
+import io.github.ferdinandmehlan.whisperspring.WaveService;
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperSegment;
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperTokenDetail;
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperTranscriptionOptions;
+import java.lang.foreign.MemorySegment;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.FileSystemResource;
+
+/**
+ * Measures materializing the segments and tokens of a finished transcription.
+ * {@code perCall} is the former approach with separate downcalls for id, text and probability of every token.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WhisperResultReaderBenchmark {
+
+    private WhisperNative whisper;
+    private WhisperState state;
+    private int nSegments;
+
+    @Setup
+    public void setup() throws Exception {
+        whisper = new WhisperNative(System.getProperty("whisper.benchmark.model"));
+        state = whisper.createState();
+        float[] audioData =
+                new WaveService().toWaveSamples(new FileSystemResource(System.getProperty("whisper.benchmark.audio")));
+        nSegments = whisper.transcribe(state, audioData, new WhisperTranscriptionOptions())
+                .getMetadata()
+                .getSegments()
+                .size();
+    }
+
+    @TearDown
+    public void tearDown() {
+        state.close();
+        whisper.close();
+    }
+
+    @Benchmark
+    public List<WhisperSegment> bulk() {
+        return whisper.readSegments(state.segment(), 0, nSegments);
+    }
+
+    @Benchmark
+    public List<WhisperSegment> perCall() throws Throwable {
+        MemorySegment ctx = whisper.context();
+        MemorySegment ctxState = state.segment();
+        int eotToken = whisper.tokenEot(ctx);
+        List<WhisperSegment> segments = new ArrayList<>(nSegments);
+        for (int i = 0; i < nSegments; i++) {
+            long t0 = whisper.fullGetSegmentT0FromState(ctxState, i);
+            long t1 = whisper.fullGetSegmentT1FromState(ctxState, i);
+            String text = whisper.fullGetSegmentTextFromState(ctxState, i)
+                    .reinterpret(1000)
+                    .getString(0);
+            int nTokens = whisper.fullNTokensFromState(ctxState, i);
+            List<WhisperTokenDetail> tokens = new ArrayList<>(nTokens);
+            for (int j = 0; j < nTokens; j++) {
+                int tokenId = whisper.fullGetTokenIdFromState(ctxState, i, j);
+                if (tokenId >= eotToken) {
+                    continue;
+                }
+                String token = whisper.fullGetTokenTextFromState(ctx, ctxState, i, j)
+                        .reinterpret(1000)
+                        .getString(0);
+                tokens.add(new WhisperTokenDetail(token, whisper.fullGetTokenPFromState(ctxState, i, j)));
+            }
+            segments.add(new WhisperSegment(text, t0, t1, tokens));
+        }
+        return segments;
+    }
+}
@@ -0,0 +1,150 @@
+package io.github.ferdinandmehlan.whisperspring;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Big-endian bit reader over an input stream, as used by the FLAC bitstream. Bytes are read in blocks into a
+ * buffer and shifted into a 64-bit cache, so single bits and Rice codes are read without touching the stream.
+ */
+final class FlacBitReader {
+
+    private final InputStream in;
+    private final byte[] buffer = new byte[1 << 16];
+    private int position;
+    private int limit;
+
+    /** Unread bits, aligned to the most significant bit. */
+    private long cache;
+
+    private int cacheBits;
+
+    FlacBitReader(InputStream in) {
+        this.in = in;
+    }
+
+    /**
+     * Reads an unsigned value.
+     *
+     * @param n the number of bits, at most 32
+     * @return the value
+     * @throws EOFException if the stream ends first
+     */
+    long readBits(int n) throws IOException {
+        if (n == 0) {
+            return 0;
+        }
+        while (cacheBits < n) {
+            int b = nextByte();
+            if (b < 0) {
+                throw new EOFException();
+            }
+            cache |= (long) b << (56 - cacheBits);
+            cacheBits += 8;
+        }
+        long value = cache >>> (64 - n);
+        cache <<= n;
+        cacheBits -= n;
+        return value;
+    }
+
+    int readUnsigned(int n) throws IOException {
+        return (int) readBits(n);
+    }
+
+    /**
+     * Reads a two's complement value.
+     *
+     * @param n the number of bits, at most 32
+     * @return the sign-extended value
+     */
+    int readSigned(int n) throws IOException {
+        if (n == 0) {
+            return 0;
+        }
+        return (int) (readBits(n) << (64 - n) >> (64 - n));
+    }
+
+    /**
+     * Reads a unary coded value, the number of zero bits before the next one bit.
+     *
+     * @return the number of zeros
+     */
+    int readUnary() throws IOException {
+        int count = 0;
+        while (true) {
+            if (cacheBits == 0) {
+                int b = nextByte();
+                if (b < 0) {
+                    throw new EOFException();
+                }
+                cache = (long) b << 56;
+                cacheBits = 8;
+            }
+            int zeros = Long.numberOfLeadingZeros(cache);
+            if (zeros < cacheBits) {
+                count += zeros;
+                cache <<= zeros + 1;
+                cacheBits -= zeros + 1;
+                return count;
+            }
+            count += cacheBits;
+            cache = 0;
+            cacheBits = 0;
+        }
+    }
+
+    /**
+     * Reads a Rice coded, zigzag encoded residual.
+     *
+     * @param parameter the Rice parameter
+     * @return the signed value
+     */
+    int readRice(int parameter) throws IOException {
+        long folded = ((long) readUnary() << parameter) | readBits(parameter);
+        return (int) ((folded >>> 1) ^ -(folded & 1));
+    }
+
+    /**
+     * Skips the bits up to the next byte boundary.
+     */
+    void alignToByte() {
+        int drop = cacheBits & 7;
+        cache <<= drop;
+        cacheBits -= drop;
+    }
+
+    /**
+     * Returns whether another byte can be read.
+     *
+     * @return {@code false} at the end of the stream
+     */
+    boolean hasMore() throws IOException {
+        if (cacheBits > 0) {
+            return true;
+        }
+        if (position < limit) {
+            return true;
+        }
+        return fill();
+    }
+
+    private int nextByte() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position++] & 0xFF;
+    }
+
+    private boolean fill() throws IOException {
+        int n = in.read(buffer);
+        if (n <= 0) {
+            // read() only returns 0 for an empty buffer, treat anything else as the end
+            return false;
+        }
+        position = 0;
+        limit = n;
+        return true;
+    }
+}
@@ -0,0 +1,403 @@
+package io.github.ferdinandmehlan.whisperspring;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Streaming decoder for native FLAC files, decoding one frame at a time.
+ *
+ * <p>Supports all subframe types (constant, verbatim, fixed and LPC prediction), both Rice residual coding
+ * methods including escaped partitions, wasted bits and the three stereo decorrelation modes, for up to
+ * eight channels of up to 24 bits. Frame CRCs are not verified and a stream that ends inside a frame yields
+ * the frames before it, like a truncated WAV file.</p>
+ */
+final class FlacDecoder {
+
+    private static final int FLAC_MAGIC = 0x664C6143;
+    private static final int MAX_BITS_PER_SAMPLE = 24;
+
+    private final FlacBitReader in;
+    private final int sampleRate;
+    private final int channels;
+    private final int bitsPerSample;
+    private final int maxBlockSize;
+    private final long totalSamples;
+    private final int[][] samples;
+    private final int[] residualBuffer;
+    private boolean ended;
+
+    private FlacDecoder(
+            FlacBitReader in, int sampleRate, int channels, int bitsPerSample, int maxBlockSize, long totalSamples) {
+        this.in = in;
+        this.sampleRate = sampleRate;
+        this.channels = channels;
+        this.bitsPerSample = bitsPerSample;
+        this.maxBlockSize = maxBlockSize;
+        this.totalSamples = totalSamples;
+        this.samples = new int[channels][maxBlockSize];
+        this.residualBuffer = new int[maxBlockSize];
+    }
+
+    /**
+     * Reads the stream marker and the metadata blocks.
+     *
+     * @param stream the stream positioned at the {@code fLaC} marker
+     * @return a decoder positioned at the first frame
+     * @throws IllegalArgumentException if the stream is no supported FLAC stream
+     * @throws IOException if the stream cannot be read
+     */
+    static FlacDecoder open(InputStream stream) throws IOException {
+        FlacBitReader in = new FlacBitReader(stream);
+        try {
+            if (in.readBits(32) != FLAC_MAGIC) {
+                throw new IllegalArgumentException("Unsupported audio file format: not a FLAC stream");
+            }
+            FlacDecoder decoder = null;
+            boolean last = false;
+            while (!last) {
+                last = in.readBits(1) == 1;
+                int type = in.readUnsigned(7);
+                int length = in.readUnsigned(24);
+                if (type == 0) {
+                    decoder = readStreamInfo(in, length);
+                } else {
+                    for (int i = 0; i < length; i++) {
+                        in.readBits(8);
+                    }
+                }
+            }
+            if (decoder == null) {
+                throw new IllegalArgumentException("Unsupported audio file format: FLAC stream without STREAMINFO");
+            }
+            return decoder;
+        } catch (EOFException e) {
+            throw new IllegalArgumentException("Unsupported audio file format: truncated FLAC header", e);
+        }
+    }
+
+    private static FlacDecoder readStreamInfo(FlacBitReader in, int length) throws IOException {
+        if (length < 34) {
+            throw new IllegalArgumentException("Unsupported audio file format: invalid FLAC STREAMINFO");
+        }
+        in.readBits(16);
+        int maxBlockSize = in.readUnsigned(16);
+        in.readBits(24);
+        in.readBits(24);
+        int sampleRate = in.readUnsigned(20);
+        int channels = in.readUnsigned(3) + 1;
+        int bitsPerSample = in.readUnsigned(5) + 1;
+        long totalSamples = (in.readBits(4) << 32) | in.readBits(32);
+        for (int i = 18; i < length; i++) {
+            in.readBits(8);
+        }
+        if (bitsPerSample > MAX_BITS_PER_SAMPLE) {
+            throw new IllegalArgumentException("Unsupported FLAC bit depth: " + bitsPerSample);
+        }
+        if (maxBlockSize < 16) {
+            throw new IllegalArgumentException("Unsupported audio file format: invalid FLAC block size");
+        }
+        return new FlacDecoder(in, sampleRate, channels, bitsPerSample, maxBlockSize, totalSamples);
+    }
+
+    int sampleRate() {
+        return sampleRate;
+    }
+
+    int channels() {
+        return channels;
+    }
+
+    int maxBlockSize() {
+        return maxBlockSize;
+    }
+
+    /**
+     * Returns the number of frames of the stream.
+     *
+     * @return the number of inter-channel samples, or {@code 0} if the encoder did not know it
+     */
+    long totalSamples() {
+        return totalSamples;
+    }
+
+    /**
+     * Decodes the next frame.
+     *
+     * @param out receives the interleaved samples scaled to [-1, 1], at least {@code maxBlockSize * channels} long
+     * @return the number of decoded frames, or {@code -1} at the end of the stream
+     * @throws IllegalArgumentException if the frame is malformed
+     */
+    int readFrame(float[] out) throws IOException {
+        if (ended) {
+            return -1;
+        }
+        try {
+            if (!findSync()) {
+                ended = true;
+                return -1;
+            }
+            FrameHeader header = readFrameHeader();
+            int blockSize = header.blockSize();
+            int assignment = header.channelAssignment();
+            int frameBits = header.bitsPerSample();
+            for (int channel = 0; channel < channels; channel++) {
+                int bits = frameBits;
+                if ((assignment == 8 || assignment == 10) && channel == 1 || assignment == 9 && channel == 0) {
+                    // The side channel needs one more bit
+                    bits++;
+                }
+                readSubframe(samples[channel], blockSize, bits);
+            }
+            in.alignToByte();
+            in.readBits(16);
+
+            decorrelate(assignment, blockSize);
+            float scale = 1.0f / (1 << (frameBits - 1));
+            for (int channel = 0; channel < channels; channel++) {
+                int[] channelSamples = samples[channel];
+                for (int i = 0, j = channel; i < blockSize; i++, j += channels) {
+                    out[j] = channelSamples[i] * scale;
+                }
+            }
+            return blockSize;
+        } catch (EOFException e) {
+            ended = true;
+            return -1;
+        }
+    }
+
+    /**
+     * Skips to the next frame sync code, {@code 0xFFF8} or {@code 0xFFF9} at a byte boundary.
+     */
+    private boolean findSync() throws IOException {
+        in.alignToByte();
+        int previous = 0;
+        while (in.hasMore()) {
+            int b = in.readUnsigned(8);
+            if (previous == 0xFF && (b & 0xFE) == 0xF8) {
+                return true;
+            }
+            previous = b;
+        }
+        return false;
+    }
+
+    private FrameHeader readFrameHeader() throws IOException {
+        int blockSizeCode = in.readUnsigned(4);
+        int sampleRateCode = in.readUnsigned(4);
+        int channelAssignment = in.readUnsigned(4);
+        int sampleSizeCode = in.readUnsigned(3);
+        in.readBits(1);
+
+        // Frame or sample number, UTF-8 coded
+        int first = in.readUnsigned(8);
+        int codeLength = Integer.numberOfLeadingZeros(~first << 24);
+        for (int i = 1; i < codeLength; i++) {
+            in.readBits(8);
+        }
+
+        int blockSize = switch (blockSizeCode) {
+            case 1 -> 192;
+            case 2, 3, 4, 5 -> 576 << (blockSizeCode - 2);
+            case 6 -> in.readUnsigned(8) + 1;
+            case 7 -> in.readUnsigned(16) + 1;
+            case 0 -> throw malformed("reserved block size");
+            default -> 256 << (blockSizeCode - 8);
+        };
+        switch (sampleRateCode) {
+            case 12 -> in.readBits(8);
+            case 13, 14 -> in.readBits(16);
+            case 15 -> throw malformed("invalid sample rate");
+            default -> {
+                // The sample rate of the stream is used, a stream does not change its rate
+            }
+        }
+        int frameBitsPerSample = switch (sampleSizeCode) {
+            case 0 -> bitsPerSample;
+            case 1 -> 8;
+            case 2 -> 12;
+            case 4 -> 16;
+            case 5 -> 20;
+            case 6 -> 24;
+            default -> throw malformed("unsupported sample size");
+        };
+        in.readBits(8);
+
+        int frameChannels = channelAssignment < 8 ? channelAssignment + 1 : 2;
+        if (channelAssignment > 10 || frameChannels != channels) {
+            throw malformed("unexpected channel assignment " + channelAssignment);
+        }
+        if (blockSize > maxBlockSize) {
+            throw malformed("block size " + blockSize + " exceeds " + maxBlockSize);
+        }
+        return new FrameHeader(blockSize, channelAssignment, frameBitsPerSample);
+    }
+
+    private void readSubframe(int[] out, int blockSize, int bits) throws IOException {
+        in.readBits(1);
+        int type = in.readUnsigned(6);
+        int wasted = 0;
+        if (in.readBits(1) == 1) {
+            wasted = in.readUnary() + 1;
+            bits -= wasted;
+        }
+
+        if (type == 0) {
+            int value = in.readSigned(bits);
+            for (int i = 0; i < blockSize; i++) {
+                out[i] = value;
+            }
+        } else if (type == 1) {
+            for (int i = 0; i < blockSize; i++) {
+                out[i] = in.readSigned(bits);
+            }
+        } else if (type >= 8 && type <= 12) {
+            int order = type - 8;
+            readWarmup(out, order, bits);
+            readResidual(blockSize, order);
+            predictFixed(out, blockSize, order);
+        } else if (type >= 32) {
+            int order = type - 31;
+            readWarmup(out, order, bits);
+            int precision = in.readUnsigned(4) + 1;
+            if (precision == 16) {
+                throw malformed("invalid LPC precision");
+            }
+            int shift = in.readSigned(5);
+            if (shift < 0) {
+                throw malformed("negative LPC shift");
+            }
+            int[] coefficients = new int[order];
+            for (int i = 0; i < order; i++) {
+                coefficients[i] = in.readSigned(precision);
+            }
+            readResidual(blockSize, order);
+            predictLpc(out, blockSize, coefficients, shift);
+        } else {
+            throw malformed("reserved subframe type " + type);
+        }
+
+        if (wasted > 0) {
+            for (int i = 0; i < blockSize; i++) {
+                out[i] <<= wasted;
+            }
+        }
+    }
+
+    private void readWarmup(int[] out, int order, int bits) throws IOException {
+        for (int i = 0; i < order; i++) {
+            out[i] = in.readSigned(bits);
+        }
+    }
+
+    /**
+     * Reads the partitioned Rice coded residual of the samples after the warm-up into {@link #residualBuffer}.
+     */
+    private void readResidual(int blockSize, int order) throws IOException {
+        int method = in.readUnsigned(2);
+        if (method > 1) {
+            throw malformed("reserved residual coding method");
+        }
+        int parameterBits = method == 0 ? 4 : 5;
+        int escape = (1 << parameterBits) - 1;
+        int partitionOrder = in.readUnsigned(4);
+        int partitions = 1 << partitionOrder;
+        int partitionSize = blockSize >> partitionOrder;
+        if (partitionSize << partitionOrder != blockSize || partitionSize < order) {
+            throw malformed("invalid residual partition order");
+        }
+
+        int index = order;
+        for (int partition = 0; partition < partitions; partition++) {
+            int count = partition == 0 ? partitionSize - order : partitionSize;
+            int parameter = in.readUnsigned(parameterBits);
+            if (parameter == escape) {
+                int rawBits = in.readUnsigned(5);
+                for (int i = 0; i < count; i++) {
+                    residualBuffer[index++] = in.readSigned(rawBits);
+                }
+            } else {
+                for (int i = 0; i < count; i++) {
+                    residualBuffer[index++] = in.readRice(parameter);
+                }
+            }
+        }
+    }
+
+    private void predictFixed(int[] out, int blockSize, int order) {
+        int[] residual = residualBuffer;
+        switch (order) {
+            case 0 -> System.arraycopy(residual, 0, out, 0, blockSize);
+            case 1 -> {
+                for (int i = 1; i < blockSize; i++) {
+                    out[i] = residual[i] + out[i - 1];
+                }
+            }
+            case 2 -> {
+                for (int i = 2; i < blockSize; i++) {
+                    out[i] = residual[i] + 2 * out[i - 1] - out[i - 2];
+                }
+            }
+            case 3 -> {
+                for (int i = 3; i < blockSize; i++) {
+                    out[i] = residual[i] + 3 * out[i - 1] - 3 * out[i - 2] + out[i - 3];
+                }
+            }
+            default -> {
+                for (int i = 4; i < blockSize; i++) {
+                    out[i] = residual[i] + 4 * out[i - 1] - 6 * out[i - 2] + 4 * out[i - 3] - out[i - 4];
+                }
+            }
+        }
+    }
+
+    private void predictLpc(int[] out, int blockSize, int[] coefficients, int shift) {
+        int[] residual = residualBuffer;
+        int order = coefficients.length;
+        for (int i = order; i < blockSize; i++) {
+            long sum = 0;
+            for (int j = 0; j < order; j++) {
+                sum += (long) coefficients[j] * out[i - 1 - j];
+            }
+            out[i] = residual[i] + (int) (sum >> shift);
+        }
+    }
+
+    private void decorrelate(int assignment, int blockSize) {
+        int[] first = samples[0];
+        int[] second = channels > 1 ? samples[1] : null;
+        switch (assignment) {
+            case 8 -> {
+                // left, side
+                for (int i = 0; i < blockSize; i++) {
+                    second[i] = first[i] - second[i];
+                }
+            }
+            case 9 -> {
+                // side, right
+                for (int i = 0; i < blockSize; i++) {
+                    first[i] += second[i];
+                }
+            }
+            case 10 -> {
+                // mid, side
+                for (int i = 0; i < blockSize; i++) {
+                    int side = second[i];
+                    int mid = (first[i] << 1) | (side & 1);
+                    first[i] = (mid + side) >> 1;
+                    second[i] = (mid - side) >> 1;
+                }
+            }
+            default -> {
+                // independent channels
+            }
+        }
+    }
+
+    private record FrameHeader(int blockSize, int channelAssignment, int bitsPerSample) {}
+
+    private static IllegalArgumentException malformed(String reason) {
+        return new IllegalArgumentException("Malformed FLAC frame: " + reason);
+    }
+}
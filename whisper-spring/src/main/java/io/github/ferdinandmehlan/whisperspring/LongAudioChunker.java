@@ -0,0 +1,177 @@
+package io.github.ferdinandmehlan.whisperspring;
+
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperSegment;
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperTranscription;
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperTranscriptionMetadata;
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperTranscriptionTimings;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Splits long audio into chunks that can be transcribed concurrently and stitches their transcriptions back
+ * together.
+ *
+ * <p>Chunks are cut in the quietest 20 ms frame near every multiple of the chunk length, so that a cut rarely
+ * falls into a word. Each chunk owns the audio between its two cuts but is transcribed with some overlap on either
+ * side, which gives whisper the context of the neighbouring words. When stitching, a segment is kept by the chunk
+ * that owns its midpoint, which drops the copies transcribed in the overlap of the neighbouring chunk, and its
+ * timestamps are shifted from the chunk to the whole audio.</p>
+ */
+final class LongAudioChunker {
+
+    /** Samples per whisper timestamp unit of 10 ms at 16 kHz. */
+    private static final int SAMPLES_PER_CENTISECOND = 160;
+
+    private static final int FRAME_SAMPLES = 320;
+
+    /** Upper bound for the text carried into the next chunk as prompt. */
+    private static final int PROMPT_CHARS = 200;
+
+    /**
+     * A chunk of the audio, in samples.
+     *
+     * @param start the first sample transcribed
+     * @param end the end of the transcribed samples, exclusive
+     * @param from the first sample owned by the chunk
+     * @param to the end of the owned samples, exclusive
+     */
+    record Chunk(long start, long end, long from, long to) {
+
+        MemorySegment slice(MemorySegment samples) {
+            long sampleSize = ValueLayout.JAVA_FLOAT.byteSize();
+            return samples.asSlice(start * sampleSize, (end - start) * sampleSize);
+        }
+    }
+
+    private LongAudioChunker() {}
+
+    /**
+     * Splits audio into chunks of about the given length, cut at quiet frames.
+     *
+     * @param samples the 16 kHz samples
+     * @param chunkSamples the target length of a chunk
+     * @param overlapSamples the audio transcribed beyond either cut of a chunk
+     * @return the chunks in order, a single chunk if the audio is not longer than a chunk
+     */
+    static List<Chunk> plan(MemorySegment samples, long chunkSamples, long overlapSamples) {
+        long length = samples.byteSize() / ValueLayout.JAVA_FLOAT.byteSize();
+        long window = chunkSamples / 8;
+
+        List<Long> cuts = new ArrayList<>();
+        cuts.add(0L);
+        long last = 0;
+        // The last chunk may run up to a search window longer than the others, rather than be a short remainder
+        while (length - last > chunkSamples + window) {
+            long target = last + chunkSamples;
+            last = quietest(samples, target - window, target + window);
+            cuts.add(last);
+        }
+        cuts.add(length);
+
+        List<Chunk> chunks = new ArrayList<>(cuts.size() - 1);
+        for (int i = 0; i < cuts.size() - 1; i++) {
+            long from = cuts.get(i);
+            long to = cuts.get(i + 1);
+            chunks.add(new Chunk(Math.max(0, from - overlapSamples), Math.min(length, to + overlapSamples), from, to));
+        }
+        return chunks;
+    }
+
+    /**
+     * Returns the centre of the 20 ms frame with the least energy in a range of samples.
+     */
+    private static long quietest(MemorySegment samples, long from, long to) {
+        long best = (from + to) / 2;
+        double bestEnergy = Double.MAX_VALUE;
+        for (long frame = from; frame + FRAME_SAMPLES <= to; frame += FRAME_SAMPLES) {
+            double energy = 0;
+            for (long i = frame; i < frame + FRAME_SAMPLES; i++) {
+                float sample = samples.getAtIndex(ValueLayout.JAVA_FLOAT, i);
+                energy += sample * sample;
+            }
+            if (energy < bestEnergy) {
+                bestEnergy = energy;
+                best = frame + FRAME_SAMPLES / 2;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Joins the transcriptions of the chunks into one transcription of the whole audio.
+     *
+     * @param chunks the chunks from {@link #plan}
+     * @param transcriptions the transcription of each chunk
+     * @return the merged transcription; its timings are the sums over the chunks
+     */
+    static WhisperTranscription stitch(List<Chunk> chunks, List<WhisperTranscription> transcriptions) {
+        List<WhisperSegment> segments = new ArrayList<>();
+        for (int i = 0; i < chunks.size(); i++) {
+            Chunk chunk = chunks.get(i);
+            boolean lastChunk = i == chunks.size() - 1;
+            long offset = chunk.start() / SAMPLES_PER_CENTISECOND;
+            for (WhisperSegment segment : transcriptions.get(i).getMetadata().getSegments()) {
+                long start = segment.start() + offset;
+                long end = segment.end() + offset;
+                long midpoint = (start + end) * SAMPLES_PER_CENTISECOND / 2;
+                if (midpoint >= chunk.from() && (midpoint < chunk.to() || lastChunk)) {
+                    segments.add(new WhisperSegment(segment.text(), start, end, segment.tokens(), segment.speaker()));
+                }
+            }
+        }
+        return merge(segments, transcriptions);
+    }
+
+    /**
+     * Builds one transcription from segments taken from the transcriptions of several parts of the audio.
+     *
+     * @param segments the segments of the whole audio, in order
+     * @param transcriptions the transcriptions of the parts
+     * @return the transcription of the segments; its timings are the sums over the parts
+     */
+    static WhisperTranscription merge(List<WhisperSegment> segments, List<WhisperTranscription> transcriptions) {
+        String text = segments.stream()
+                .map(WhisperSegment::text)
+                .filter(segmentText -> segmentText != null && !segmentText.isBlank())
+                .collect(Collectors.joining("\n"));
+        WhisperTranscriptionTimings timings = transcriptions.stream()
+                .map(transcription -> transcription.getMetadata().getTimings())
+                .filter(Objects::nonNull)
+                .reduce(LongAudioChunker::sum)
+                .orElse(null);
+        return new WhisperTranscription(text)
+                .withTranscriptionMetadata(new WhisperTranscriptionMetadata(segments, timings));
+    }
+
+    /**
+     * Returns the end of a chunk's text, to prompt the transcription of the chunk after it.
+     *
+     * @param transcription the transcription of a chunk
+     * @return at most the last 200 characters, starting at a word, or {@code null} if there is no text
+     */
+    static String promptTail(WhisperTranscription transcription) {
+        String text = transcription.getOutput().replace('\n', ' ').strip();
+        if (text.isEmpty()) {
+            return null;
+        }
+        if (text.length() <= PROMPT_CHARS) {
+            return text;
+        }
+        int start = text.indexOf(' ', text.length() - PROMPT_CHARS);
+        return start < 0 ? text.substring(text.length() - PROMPT_CHARS) : text.substring(start + 1);
+    }
+
+    private static WhisperTranscriptionTimings sum(WhisperTranscriptionTimings a, WhisperTranscriptionTimings b) {
+        return new WhisperTranscriptionTimings(
+                a.wavDecodeMs() + b.wavDecodeMs(),
+                a.melMs() + b.melMs(),
+                a.stateWaitMs() + b.stateWaitMs(),
+                a.paramSetupMs() + b.paramSetupMs(),
+                a.inferenceMs() + b.inferenceMs(),
+                a.segmentExtractionMs() + b.segmentExtractionMs());
+    }
+}
@@ -0,0 +1,214 @@
+package io.github.ferdinandmehlan.whisperspring;
+
+import java.util.Arrays;
+
+/**
+ * Streaming sample rate converter for a rational ratio {@code L/M}, e.g. 160/441 for 44.1 kHz to 16 kHz.
+ *
+ * <p>Each output sample is the dot product of the input around its position with one phase of a Kaiser-windowed
+ * sinc lowpass. The {@code L} phases are precomputed, so the inner loop is a plain multiply-add over two float
+ * arrays. The filter is centred on the output position, so the output is not delayed against the input. The
+ * cutoff is placed just below the lower of the two Nyquist frequencies to suppress aliasing when downsampling.</p>
+ *
+ * <p>Input is fed with {@link #process} in chunks of any size and {@link #finish} flushes the tail. An instance
+ * keeps the state of one stream and is not thread-safe.</p>
+ */
+final class PolyphaseResampler {
+
+    /** Number of sinc zero crossings on either side of the centre. */
+    private static final int ZERO_CROSSINGS = 16;
+
+    private static final double ROLLOFF = 0.94;
+    private static final double KAISER_BETA = 8.6;
+
+    /**
+     * Receives converted samples. The array is reused after the call returns.
+     */
+    interface Sink {
+        void accept(float[] samples, int length);
+    }
+
+    private final int up;
+    private final int down;
+    private final int halfTaps;
+    private final float[][] phases;
+
+    private final float[] output;
+    private float[] history;
+    /** Absolute input index of {@code history[0]}. */
+    private long historyStart;
+    private int historyLength;
+    private long inputCount;
+    private long outputCount;
+
+    /**
+     * Creates a resampler.
+     *
+     * @param inputRate the input sample rate in Hz
+     * @param outputRate the output sample rate in Hz
+     * @param chunkSize the number of output samples passed to the sink at once
+     */
+    PolyphaseResampler(int inputRate, int outputRate, int chunkSize) {
+        int gcd = gcd(inputRate, outputRate);
+        this.up = outputRate / gcd;
+        this.down = inputRate / gcd;
+
+        // Widen the filter in input samples when downsampling, so that it covers the same zero crossings
+        double ratio = Math.min(1.0, (double) outputRate / inputRate);
+        double cutoff = ratio * ROLLOFF;
+        this.halfTaps = (int) Math.ceil(ZERO_CROSSINGS / cutoff);
+        this.phases = new float[up][2 * halfTaps];
+        double i0Beta = besselI0(KAISER_BETA);
+        for (int phase = 0; phase < up; phase++) {
+            double fraction = (double) phase / up;
+            for (int j = 0; j < 2 * halfTaps; j++) {
+                // Distance from the output position to input sample base - halfTaps + 1 + j
+                double distance = fraction + halfTaps - 1 - j;
+                double x = distance / halfTaps;
+                double window = Math.abs(x) >= 1 ? 0 : besselI0(KAISER_BETA * Math.sqrt(1 - x * x)) / i0Beta;
+                phases[phase][j] = (float) (cutoff * sinc(cutoff * distance) * window);
+            }
+        }
+
+        this.output = new float[chunkSize];
+        this.history = new float[Math.max(2 * chunkSize, 4 * halfTaps)];
+        // The input is zero before its first sample
+        this.historyStart = -halfTaps;
+        this.historyLength = halfTaps;
+    }
+
+    /**
+     * Returns the number of output samples for a given number of input samples.
+     *
+     * @param inputSamples the number of input samples
+     * @return the number of output samples produced once the input is finished
+     */
+    long outputLength(long inputSamples) {
+        return Math.ceilDiv(inputSamples * up, down);
+    }
+
+    /**
+     * Feeds input samples and passes every output sample that can be computed so far to the sink.
+     *
+     * @param samples the input samples
+     * @param length the number of valid input samples
+     * @param sink the receiver of the output
+     */
+    void process(float[] samples, int length, Sink sink) {
+        append(samples, length);
+        inputCount += length;
+        emit(historyStart + historyLength, sink);
+    }
+
+    /**
+     * Flushes the remaining output, treating the input after its last sample as silence.
+     *
+     * @param sink the receiver of the output
+     */
+    void finish(Sink sink) {
+        append(new float[halfTaps], halfTaps);
+        emit(historyStart + historyLength, sink);
+    }
+
+    /**
+     * Emits the output samples whose filter window ends before {@code available}, limited to the output length
+     * of the input seen so far.
+     */
+    private void emit(long available, Sink sink) {
+        long total = outputLength(inputCount);
+        int n = 0;
+        while (outputCount < total) {
+            long position = outputCount * down;
+            long base = position / up;
+            if (base + halfTaps >= available) {
+                break;
+            }
+            float[] coefficients = phases[(int) (position % up)];
+            int offset = (int) (base - halfTaps + 1 - historyStart);
+            output[n++] = dot(coefficients, history, offset);
+            outputCount++;
+            if (n == output.length) {
+                sink.accept(output, n);
+                n = 0;
+            }
+        }
+        if (n > 0) {
+            sink.accept(output, n);
+        }
+        discardConsumed();
+    }
+
+    private static float dot(float[] coefficients, float[] samples, int offset) {
+        // Independent accumulators let the multiply-adds overlap
+        float sum0 = 0;
+        float sum1 = 0;
+        float sum2 = 0;
+        float sum3 = 0;
+        int j = 0;
+        for (; j < coefficients.length - 3; j += 4) {
+            sum0 += coefficients[j] * samples[offset + j];
+            sum1 += coefficients[j + 1] * samples[offset + j + 1];
+            sum2 += coefficients[j + 2] * samples[offset + j + 2];
+            sum3 += coefficients[j + 3] * samples[offset + j + 3];
+        }
+        for (; j < coefficients.length; j++) {
+            sum0 += coefficients[j] * samples[offset + j];
+        }
+        return (sum0 + sum1) + (sum2 + sum3);
+    }
+
+    private void append(float[] samples, int length) {
+        if (historyLength + length > history.length) {
+            history = Arrays.copyOf(history, Math.max(2 * history.length, historyLength + length));
+        }
+        System.arraycopy(samples, 0, history, historyLength, length);
+        historyLength += length;
+    }
+
+    /**
+     * Drops the input samples that no future output sample reaches.
+     */
+    private void discardConsumed() {
+        long firstNeeded = outputCount * down / up - halfTaps + 1;
+        int discard = (int) Math.min(historyLength, Math.max(0, firstNeeded - historyStart));
+        if (discard > 0) {
+            System.arraycopy(history, discard, history, 0, historyLength - discard);
+            historyLength -= discard;
+            historyStart += discard;
+        }
+    }
+
+    private static double sinc(double x) {
+        if (x == 0) {
+            return 1.0;
+        }
+        double px = Math.PI * x;
+        return Math.sin(px) / px;
+    }
+
+    /**
+     * Zeroth order modified Bessel function of the first kind, by its power series.
+     */
+    private static double besselI0(double x) {
+        double sum = 1.0;
+        double term = 1.0;
+        double halfX = x / 2;
+        for (int k = 1; k < 50; k++) {
+            term *= (halfX / k) * (halfX / k);
+            sum += term;
+            if (term < sum * 1e-12) {
+                break;
+            }
+        }
+        return sum;
+    }
+
+    private static int gcd(int a, int b) {
+        while (b != 0) {
+            int t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+}
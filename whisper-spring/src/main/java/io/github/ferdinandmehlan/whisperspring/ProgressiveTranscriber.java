@@ -0,0 +1,200 @@
+package io.github.ferdinandmehlan.whisperspring;
+
+import io.github.ferdinandmehlan.whisperspring._native.WhisperAudioBuffer;
+import io.github.ferdinandmehlan.whisperspring._native.WhisperAudioBufferPool;
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperSegment;
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperTranscription;
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperTranscriptionOptions;
+import io.github.ferdinandmehlan.whisperspring._native.callback.WhisperCancellationToken;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+/**
+ * Transcribes audio while it is decoded from a stream, in windows cut at quiet frames.
+ *
+ * <p>Decoded samples are collected until a window and the range searched for its cut have arrived. The window is
+ * then copied into a buffer of its own and queued for transcription while decoding goes on. The windows are
+ * transcribed one after another, each prompted with the end of the text of the window before it, and the segments
+ * of a window are handed out as soon as it is transcribed, shifted to the start of the stream.</p>
+ *
+ * <p>At most {@value #MAX_QUEUED_WINDOWS} windows are queued or being transcribed at a time. Once that many are,
+ * {@link #accept(float[], int)} blocks, so a stream that arrives faster than it is transcribed is read at the speed
+ * of the transcription instead of piling up in memory.</p>
+ */
+final class ProgressiveTranscriber implements WaveConverter.Sink, AutoCloseable {
+
+    /** Samples per whisper timestamp unit of 10 ms at 16 kHz. */
+    private static final int SAMPLES_PER_CENTISECOND = 160;
+
+    private static final long SAMPLE_SIZE = ValueLayout.JAVA_FLOAT.byteSize();
+
+    private static final int MAX_QUEUED_WINDOWS = 2;
+
+    private final WhisperAudioBufferPool bufferPool;
+    private final long windowSamples;
+    private final WhisperTranscriptionOptions options;
+    private final WhisperCancellationToken token;
+    private final BiFunction<MemorySegment, WhisperTranscriptionOptions, WhisperTranscription> transcribe;
+    private final Consumer<WhisperSegment> onSegment;
+    private final Executor executor = task -> Thread.ofVirtual().start(task);
+    private final Semaphore queuedWindows = new Semaphore(MAX_QUEUED_WINDOWS);
+
+    // Only added to by the queued transcriptions, which run one at a time
+    private final List<WhisperTranscription> transcriptions = new ArrayList<>();
+    private final List<WhisperSegment> segments = new ArrayList<>();
+    private CompletableFuture<String> queue;
+
+    private WhisperAudioBuffer pending;
+    private int pendingLength;
+    private long pendingStart;
+
+    /**
+     * Creates a new ProgressiveTranscriber.
+     *
+     * @param bufferPool the pool for the buffers of the windows
+     * @param windowSamples the target length of a window
+     * @param options the options of every window; a {@link WhisperCancellationToken} set as abort callback is
+     *     reused, any other abort callback and the new segment callback are dropped
+     * @param transcribe transcribes the samples of one window
+     * @param onSegment receives the segments of every window, in order
+     */
+    ProgressiveTranscriber(
+            WhisperAudioBufferPool bufferPool,
+            long windowSamples,
+            WhisperTranscriptionOptions options,
+            BiFunction<MemorySegment, WhisperTranscriptionOptions, WhisperTranscription> transcribe,
+            Consumer<WhisperSegment> onSegment) {
+        this.bufferPool = bufferPool;
+        this.windowSamples = windowSamples;
+        this.options = options.copy();
+        this.token = options.abortCallback instanceof WhisperCancellationToken existing
+                ? existing
+                : new WhisperCancellationToken();
+        this.options.abortCallback = token;
+        this.options.newSegmentCallback = null;
+        this.transcribe = transcribe;
+        this.onSegment = onSegment;
+        this.queue = CompletableFuture.completedFuture(options.initialPrompt);
+        this.pending = bufferPool.acquire(Math.toIntExact(windowSamples + windowSamples / 4));
+    }
+
+    @Override
+    public void accept(float[] samples, int length) {
+        if (pendingLength + (long) length > pending.length()) {
+            grow(Math.toIntExact(pendingLength + (long) length));
+        }
+        MemorySegment.copy(samples, 0, pending.samples(), ValueLayout.JAVA_FLOAT, pendingLength * SAMPLE_SIZE, length);
+        pendingLength += length;
+
+        // Same condition as LongAudioChunker.plan, so the plan always has a cut near the end of the first window
+        while (pendingLength > windowSamples + windowSamples / 8) {
+            MemorySegment audio = pending.samples().asSlice(0, pendingLength * SAMPLE_SIZE);
+            queueWindow(LongAudioChunker.plan(audio, windowSamples, 0).getFirst().to());
+        }
+    }
+
+    /**
+     * Queues the rest of the stream and waits for all windows to be transcribed.
+     *
+     * @return the transcription of the whole stream; its timings are the sums over the windows
+     */
+    WhisperTranscription finish() {
+        if (pendingLength > 0) {
+            queueWindow(pendingLength);
+        }
+        try {
+            queue.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+        return LongAudioChunker.merge(segments, transcriptions);
+    }
+
+    /**
+     * Aborts the windows still queued if the stream failed, waits for them and releases the buffers.
+     */
+    @Override
+    public void close() {
+        if (!queue.isDone()) {
+            token.cancel();
+        }
+        queue.handle((prompt, error) -> null).join();
+        pending.close();
+    }
+
+    private void queueWindow(long length) {
+        try {
+            queuedWindows.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while waiting for a window to be transcribed");
+        }
+        WhisperAudioBuffer window;
+        try {
+            window = bufferPool.acquire(Math.toIntExact(length));
+        } catch (RuntimeException e) {
+            queuedWindows.release();
+            throw e;
+        }
+        MemorySegment.copy(pending.samples(), 0, window.samples(), 0, length * SAMPLE_SIZE);
+        MemorySegment.copy(
+                pending.samples(), length * SAMPLE_SIZE, pending.samples(), 0, (pendingLength - length) * SAMPLE_SIZE);
+        long start = pendingStart;
+        pendingStart += length;
+        pendingLength -= (int) length;
+
+        // A failed window fails all after it, which still release their buffers
+        queue = queue.handleAsync(
+                (prompt, error) -> {
+                    try (window) {
+                        if (error != null) {
+                            throw error instanceof CompletionException completion
+                                    ? completion
+                                    : new CompletionException(error);
+                        }
+                        token.throwIfAborted();
+                        return transcribeWindow(start, window, prompt);
+                    } finally {
+                        queuedWindows.release();
+                    }
+                },
+                executor);
+    }
+
+    private String transcribeWindow(long start, WhisperAudioBuffer window, String prompt) {
+        WhisperTranscriptionOptions windowOptions = options.copy();
+        windowOptions.initialPrompt = prompt;
+        WhisperTranscription transcription = transcribe.apply(window.samples(), windowOptions);
+        transcriptions.add(transcription);
+
+        long offset = start / SAMPLES_PER_CENTISECOND;
+        for (WhisperSegment segment : transcription.getMetadata().getSegments()) {
+            WhisperSegment shifted = new WhisperSegment(
+                    segment.text(),
+                    segment.start() + offset,
+                    segment.end() + offset,
+                    segment.tokens(),
+                    segment.speaker());
+            segments.add(shifted);
+            onSegment.accept(shifted);
+        }
+        return LongAudioChunker.promptTail(transcription);
+    }
+
+    private void grow(int required) {
+        int capacity = (int) Math.min(Integer.MAX_VALUE, Math.max(required, 2L * pending.length()));
+        WhisperAudioBuffer grown = bufferPool.acquire(capacity);
+        MemorySegment.copy(pending.samples(), 0, grown.samples(), 0, pendingLength * SAMPLE_SIZE);
+        pending.close();
+        pending = grown;
+    }
+}
@@ -0,0 +1,228 @@
+package io.github.ferdinandmehlan.whisperspring;
+
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperSegment;
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperTranscription;
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperTranscriptionMetadata;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Removes long silent stretches from audio before it is transcribed, and maps the timestamps of the transcription
+ * of the shortened audio back to the original audio.
+ *
+ * <p>The audio is analysed in 20 ms frames. A frame is silent if its RMS level is below a threshold derived from the
+ * noise floor of the audio, the 10th percentile of all frame levels, unless it is only moderately quiet and has the
+ * high zero-crossing rate of a fricative such as {@code s} or {@code f}. Of every run of silent frames of at least the
+ * minimum silence, all but a short pause at either end is dropped, so whisper still sees a break between the words
+ * around it. Unlike VAD, this needs no model file.</p>
+ */
+final class SilenceCompactor {
+
+    /** Samples per whisper timestamp unit of 10 ms at 16 kHz. */
+    private static final int SAMPLES_PER_CENTISECOND = 160;
+
+    private static final int SAMPLES_PER_MS = 16;
+
+    private static final int FRAME_SAMPLES = 320;
+
+    /** Lowest silence threshold, an RMS level of about -54 dBFS. */
+    private static final float MIN_THRESHOLD = 0.002f;
+
+    /** Highest silence threshold, an RMS level of -40 dBFS, so quiet speech over a noisy floor is kept. */
+    private static final float MAX_THRESHOLD = 0.01f;
+
+    /** Silence threshold as a multiple of the noise floor. */
+    private static final float NOISE_FLOOR_FACTOR = 3.0f;
+
+    /** Zero crossings per sample above which a moderately quiet frame is taken for a fricative. */
+    private static final float FRICATIVE_CROSSING_RATE = 0.3f;
+
+    /**
+     * A stretch of audio that is kept, in samples.
+     *
+     * @param source the first sample in the original audio
+     * @param target the first sample in the compacted audio
+     * @param length the number of samples
+     */
+    record Span(long source, long target, long length) {}
+
+    /**
+     * The kept stretches of audio.
+     *
+     * @param spans the kept spans in order
+     * @param sourceLength the number of samples of the original audio
+     */
+    record Compaction(List<Span> spans, long sourceLength) {
+
+        /**
+         * Returns the number of samples of the compacted audio.
+         */
+        long targetLength() {
+            return spans.isEmpty() ? 0 : spans.getLast().target() + spans.getLast().length();
+        }
+
+        /**
+         * Returns how much audio was removed.
+         */
+        Duration removed() {
+            return Duration.ofMillis((sourceLength - targetLength()) / SAMPLES_PER_MS);
+        }
+
+        /**
+         * Copies the kept samples of the original audio to the compacted audio.
+         *
+         * @param source the original samples
+         * @param target the compacted samples, at least {@link #targetLength()} long
+         */
+        void copy(MemorySegment source, MemorySegment target) {
+            for (Span span : spans) {
+                MemorySegment.copy(
+                        source,
+                        ValueLayout.JAVA_FLOAT,
+                        span.source() * ValueLayout.JAVA_FLOAT.byteSize(),
+                        target,
+                        ValueLayout.JAVA_FLOAT,
+                        span.target() * ValueLayout.JAVA_FLOAT.byteSize(),
+                        span.length());
+            }
+        }
+
+        /**
+         * Maps a timestamp of the compacted audio to the original audio. A timestamp at the boundary of two spans
+         * maps to the end of the earlier span if it ends a segment, otherwise to the start of the later one.
+         *
+         * @param centiseconds the timestamp in the compacted audio
+         * @param end whether the timestamp ends a segment
+         * @return the timestamp in the original audio
+         */
+        long toSource(long centiseconds, boolean end) {
+            long sample = centiseconds * SAMPLES_PER_CENTISECOND;
+            int low = 0;
+            int high = spans.size() - 1;
+            // Finds the last span starting before the sample, or at it for a start timestamp
+            while (low < high) {
+                int mid = (low + high + 1) >>> 1;
+                long target = spans.get(mid).target();
+                if (target < sample || (!end && target == sample)) {
+                    low = mid;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            Span span = spans.get(low);
+            long offset = Math.min(Math.max(0, sample - span.target()), span.length());
+            return (span.source() + offset) / SAMPLES_PER_CENTISECOND;
+        }
+
+        /**
+         * Shifts the segments of a transcription of the compacted audio to the original audio and records the
+         * removed silence.
+         *
+         * @param transcription the transcription of the compacted audio
+         * @return the transcription with timestamps of the original audio
+         */
+        WhisperTranscription remap(WhisperTranscription transcription) {
+            WhisperTranscriptionMetadata metadata = transcription.getMetadata();
+            List<WhisperSegment> segments = new ArrayList<>(metadata.getSegments().size());
+            for (WhisperSegment segment : metadata.getSegments()) {
+                segments.add(new WhisperSegment(
+                        segment.text(),
+                        toSource(segment.start(), false),
+                        toSource(segment.end(), true),
+                        segment.tokens(),
+                        segment.speaker()));
+            }
+            return new WhisperTranscription(transcription.getOutput())
+                    .withTranscriptionMetadata(
+                            new WhisperTranscriptionMetadata(segments, metadata.getTimings(), removed()));
+        }
+    }
+
+    private SilenceCompactor() {}
+
+    /**
+     * Finds the stretches of audio to keep.
+     *
+     * @param samples the 16 kHz samples
+     * @param minSilenceSamples the shortest run of silence that is shortened
+     * @param pauseSamples the silence kept at either end of a shortened run
+     * @return the compaction, whose single span covers all audio if nothing is removed
+     */
+    static Compaction plan(MemorySegment samples, long minSilenceSamples, long pauseSamples) {
+        long length = samples.byteSize() / ValueLayout.JAVA_FLOAT.byteSize();
+        int frames = Math.toIntExact(length / FRAME_SAMPLES);
+        float[] levels = new float[frames];
+        float[] crossingRates = new float[frames];
+        analyse(samples, levels, crossingRates);
+        float threshold = threshold(levels);
+
+        List<Span> spans = new ArrayList<>();
+        long kept = 0;
+        long target = 0;
+        int runStart = -1;
+        // The trailing partial frame is never silent, which ends a run at the last frame
+        for (int frame = 0; frame <= frames; frame++) {
+            boolean silent = frame < frames
+                    && levels[frame] < threshold
+                    && (levels[frame] < threshold / 2 || crossingRates[frame] < FRICATIVE_CROSSING_RATE);
+            if (silent && runStart < 0) {
+                runStart = frame;
+            } else if (!silent && runStart >= 0) {
+                long from = (long) runStart * FRAME_SAMPLES;
+                long to = (long) frame * FRAME_SAMPLES;
+                if (to - from >= minSilenceSamples && to - from > 2 * pauseSamples) {
+                    long dropFrom = from + pauseSamples;
+                    spans.add(new Span(kept, target, dropFrom - kept));
+                    target += dropFrom - kept;
+                    kept = to - pauseSamples;
+                }
+                runStart = -1;
+            }
+        }
+        if (kept < length || spans.isEmpty()) {
+            spans.add(new Span(kept, target, length - kept));
+        }
+        return new Compaction(List.copyOf(spans), length);
+    }
+
+    /**
+     * Computes the RMS level and zero-crossing rate of every whole frame. The loops are free of branches, so that
+     * the JIT compiles them to straight-line code over each frame.
+     */
+    private static void analyse(MemorySegment samples, float[] levels, float[] crossingRates) {
+        float[] frame = new float[FRAME_SAMPLES];
+        for (int f = 0; f < levels.length; f++) {
+            MemorySegment.copy(
+                    samples, ValueLayout.JAVA_FLOAT, (long) f * FRAME_SAMPLES * Float.BYTES, frame, 0, FRAME_SAMPLES);
+            float energy = 0;
+            int crossings = 0;
+            int previousSign = Float.floatToRawIntBits(frame[0]) >>> 31;
+            for (int i = 0; i < FRAME_SAMPLES; i++) {
+                float sample = frame[i];
+                energy += sample * sample;
+                int sign = Float.floatToRawIntBits(sample) >>> 31;
+                crossings += sign ^ previousSign;
+                previousSign = sign;
+            }
+            levels[f] = (float) Math.sqrt(energy / FRAME_SAMPLES);
+            crossingRates[f] = (float) crossings / FRAME_SAMPLES;
+        }
+    }
+
+    /**
+     * Returns the level below which a frame is silent, a multiple of the noise floor within fixed bounds.
+     */
+    private static float threshold(float[] levels) {
+        if (levels.length == 0) {
+            return MIN_THRESHOLD;
+        }
+        float[] sorted = levels.clone();
+        Arrays.sort(sorted);
+        float noiseFloor = sorted[sorted.length / 10];
+        return Math.clamp(noiseFloor * NOISE_FLOOR_FACTOR, MIN_THRESHOLD, MAX_THRESHOLD);
+    }
+}
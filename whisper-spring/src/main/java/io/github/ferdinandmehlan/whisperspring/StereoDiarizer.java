@@ -0,0 +1,98 @@
+package io.github.ferdinandmehlan.whisperspring;
+
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperSegment;
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperTranscription;
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperTranscriptionMetadata;
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperTranscriptionTimings;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Merges the transcriptions of the two channels of a stereo recording with one speaker per channel.
+ *
+ * <p>Each channel was transcribed on its own, so a speaker picked up by the other speaker's microphone shows up
+ * in both. A segment is attributed to the channel with the higher energy over its time span, like whisper.cpp's
+ * {@code --diarize}, with a margin in favour of the channel it was transcribed from. A segment that is louder
+ * on the other channel, while that channel has a segment of its own at the same time, is crosstalk and is
+ * dropped.</p>
+ */
+final class StereoDiarizer {
+
+    /** Samples per whisper timestamp unit of 10 ms at 16 kHz. */
+    private static final int SAMPLES_PER_CENTISECOND = 160;
+
+    /** How much louder the other channel must be for a segment to be attributed to it. */
+    private static final double ENERGY_MARGIN = 1.1;
+
+    private StereoDiarizer() {}
+
+    /**
+     * Merges two channel transcriptions ordered by start time, with the text prefixed by the speaker.
+     *
+     * @param transcriptions the transcriptions of channel 0 and 1
+     * @param samples the 16 kHz samples of channel 0 and 1
+     * @return the merged transcription; its timings are those of the slower channel
+     */
+    static WhisperTranscription merge(List<WhisperTranscription> transcriptions, List<MemorySegment> samples) {
+        List<List<WhisperSegment>> channelSegments = transcriptions.stream()
+                .map(transcription -> transcription.getMetadata().getSegments())
+                .toList();
+
+        List<WhisperSegment> merged = new ArrayList<>();
+        for (int channel = 0; channel < 2; channel++) {
+            int other = 1 - channel;
+            for (WhisperSegment segment : channelSegments.get(channel)) {
+                double own = energy(samples.get(channel), segment);
+                double crosstalk = energy(samples.get(other), segment);
+                if (crosstalk <= own * ENERGY_MARGIN) {
+                    merged.add(segment.withSpeaker(channel));
+                } else if (!overlapsAny(segment, channelSegments.get(other))) {
+                    // The other channel missed what its own speaker said, keep it as theirs
+                    merged.add(segment.withSpeaker(other));
+                }
+            }
+        }
+        merged.sort(Comparator.comparingLong(WhisperSegment::start).thenComparing(WhisperSegment::speaker));
+
+        String text = merged.stream()
+                .filter(segment -> segment.text() != null && !segment.text().isBlank())
+                .map(segment -> "(speaker " + segment.speaker() + ")" + segment.text())
+                .collect(Collectors.joining("\n"));
+        WhisperTranscriptionTimings timings = transcriptions.stream()
+                .map(transcription -> transcription.getMetadata().getTimings())
+                .filter(Objects::nonNull)
+                .max(Comparator.comparingDouble(WhisperTranscriptionTimings::inferenceMs))
+                .orElse(null);
+        return new WhisperTranscription(text)
+                .withTranscriptionMetadata(new WhisperTranscriptionMetadata(merged, timings));
+    }
+
+    /**
+     * Returns the sum of the squared samples within the time span of a segment.
+     */
+    static double energy(MemorySegment samples, WhisperSegment segment) {
+        long length = samples.byteSize() / ValueLayout.JAVA_FLOAT.byteSize();
+        long from = Math.min(length, segment.start() * SAMPLES_PER_CENTISECOND);
+        long to = Math.min(length, segment.end() * SAMPLES_PER_CENTISECOND);
+        double sum = 0;
+        for (long i = from; i < to; i++) {
+            float sample = samples.getAtIndex(ValueLayout.JAVA_FLOAT, i);
+            sum += sample * sample;
+        }
+        return sum;
+    }
+
+    private static boolean overlapsAny(WhisperSegment segment, List<WhisperSegment> segments) {
+        for (WhisperSegment candidate : segments) {
+            if (candidate.start() < segment.end() && segment.start() < candidate.end()) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
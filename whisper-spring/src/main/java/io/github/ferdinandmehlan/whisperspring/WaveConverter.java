@@ -0,0 +1,398 @@
+package io.github.ferdinandmehlan.whisperspring;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+
+/**
+ * Streaming conversion of WAV sample data to the 16 kHz mono float samples whisper expects.
+ *
+ * <p>Frames are decoded a fixed-size chunk at a time: the chunk is bulk-copied from the source segment into a
+ * primitive array of the sample type, converted to floats in a plain loop that C2 vectorizes, averaged across
+ * channels and, unless the input already is 16 kHz, passed through a {@link PolyphaseResampler}. Supported are
+ * 8-bit unsigned, 16, 24 and 32-bit signed PCM, 32 and 64-bit IEEE float, A-law and μ-law at sample rates from
+ * 8 to 192 kHz with any number of channels. Frames decoded by other decoders, such as {@link FlacDecoder},
+ * enter after the decoding step.</p>
+ *
+ * <p>A converter that splits channels skips the downmix and passes each channel, resampled on its own, to a
+ * sink of its own.</p>
+ *
+ * <p>An instance keeps the state of one stream and is not thread-safe.</p>
+ */
+final class WaveConverter {
+
+    static final int TARGET_SAMPLE_RATE = 16000;
+    static final int MIN_SAMPLE_RATE = 8000;
+    static final int MAX_SAMPLE_RATE = 192000;
+
+    static final int WAVE_FORMAT_ALAW = 0x0006;
+    static final int WAVE_FORMAT_MULAW = 0x0007;
+
+    private static final int CHUNK_FRAMES = 4096;
+
+    private static final ValueLayout.OfShort INT16_LE =
+            ValueLayout.JAVA_SHORT_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    private static final ValueLayout.OfInt INT32_LE = ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    private static final ValueLayout.OfFloat FLOAT32_LE =
+            ValueLayout.JAVA_FLOAT_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    private static final ValueLayout.OfDouble FLOAT64_LE =
+            ValueLayout.JAVA_DOUBLE_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+
+    private static final float[] ALAW = new float[256];
+    private static final float[] MULAW = new float[256];
+
+    static {
+        for (int i = 0; i < 256; i++) {
+            ALAW[i] = alawToLinear(i) / 32768.0f;
+            MULAW[i] = mulawToLinear(i) / 32768.0f;
+        }
+    }
+
+    /**
+     * Receives converted samples. The array is reused after the call returns.
+     */
+    interface Sink extends PolyphaseResampler.Sink {
+
+        /**
+         * Tells whether the sink takes no more samples, so the rest of the input need not be read.
+         *
+         * @return {@code true} if further samples would be dropped
+         */
+        default boolean isFull() {
+            return false;
+        }
+    }
+
+    private enum Encoding {
+        UINT8,
+        INT16,
+        INT24,
+        INT32,
+        FLOAT32,
+        FLOAT64,
+        ALAW,
+        MULAW
+    }
+
+    private final Encoding encoding;
+    private final int channels;
+    private final int frameSize;
+    private final boolean splitChannels;
+    private final PolyphaseResampler[] resamplers;
+
+    private final float[] interleaved;
+    private final float[] mono;
+    private byte[] bytes;
+    private short[] shorts;
+    private int[] ints;
+    private double[] doubles;
+
+    private WaveConverter(Encoding encoding, int channels, int frameSize, int sampleRate, boolean splitChannels) {
+        this.encoding = encoding;
+        this.channels = channels;
+        this.frameSize = frameSize;
+        this.splitChannels = splitChannels;
+        this.resamplers = new PolyphaseResampler[splitChannels ? channels : 1];
+        if (sampleRate != TARGET_SAMPLE_RATE) {
+            for (int i = 0; i < resamplers.length; i++) {
+                resamplers[i] = new PolyphaseResampler(sampleRate, TARGET_SAMPLE_RATE, CHUNK_FRAMES);
+            }
+        }
+        this.interleaved = new float[CHUNK_FRAMES * channels];
+        this.mono = new float[CHUNK_FRAMES];
+    }
+
+    /**
+     * Creates a converter for the format of a WAV file.
+     *
+     * @param header the header of the file
+     * @return a converter for one stream of that format
+     * @throws IllegalArgumentException if the format is not supported
+     */
+    static WaveConverter of(WaveHeader header) {
+        return of(header, false);
+    }
+
+    /**
+     * Creates a converter for the format of a WAV file.
+     *
+     * @param header the header of the file
+     * @param splitChannels whether to convert each channel separately instead of downmixing them
+     * @return a converter for one stream of that format
+     * @throws IllegalArgumentException if the format is not supported
+     */
+    static WaveConverter of(WaveHeader header, boolean splitChannels) {
+        int sampleSize = header.blockAlign() / header.channels();
+        Encoding encoding = encoding(header.formatTag(), sampleSize, header.bitsPerSample());
+        if (header.blockAlign() != sampleSize * header.channels()) {
+            throw new IllegalArgumentException("Unsupported WAV block alignment: " + header.blockAlign());
+        }
+        if (header.sampleRate() < MIN_SAMPLE_RATE || header.sampleRate() > MAX_SAMPLE_RATE) {
+            throw new IllegalArgumentException("Unsupported WAV sample rate: " + header.sampleRate() + " Hz");
+        }
+        return new WaveConverter(encoding, header.channels(), header.blockAlign(), header.sampleRate(), splitChannels);
+    }
+
+    /**
+     * Creates a converter for frames that are already decoded to floats, as produced by compressed formats.
+     *
+     * @param channels the number of interleaved channels
+     * @param sampleRate the sample rate in Hz
+     * @param splitChannels whether to convert each channel separately instead of downmixing them
+     * @return a converter for one stream of that format
+     * @throws IllegalArgumentException if the sample rate is not supported
+     */
+    static WaveConverter ofDecoded(int channels, int sampleRate, boolean splitChannels) {
+        if (sampleRate < MIN_SAMPLE_RATE || sampleRate > MAX_SAMPLE_RATE) {
+            throw new IllegalArgumentException("Unsupported sample rate: " + sampleRate + " Hz");
+        }
+        return new WaveConverter(Encoding.FLOAT32, channels, channels * Float.BYTES, sampleRate, splitChannels);
+    }
+
+    private static Encoding encoding(int formatTag, int sampleSize, int bitsPerSample) {
+        Encoding encoding = switch (formatTag) {
+            case WaveHeader.WAVE_FORMAT_PCM -> switch (sampleSize) {
+                case 1 -> Encoding.UINT8;
+                case 2 -> Encoding.INT16;
+                case 3 -> Encoding.INT24;
+                case 4 -> Encoding.INT32;
+                default -> null;
+            };
+            case WaveHeader.WAVE_FORMAT_IEEE_FLOAT -> switch (sampleSize) {
+                case 4 -> Encoding.FLOAT32;
+                case 8 -> Encoding.FLOAT64;
+                default -> null;
+            };
+            case WAVE_FORMAT_ALAW -> sampleSize == 1 ? Encoding.ALAW : null;
+            case WAVE_FORMAT_MULAW -> sampleSize == 1 ? Encoding.MULAW : null;
+            default ->
+                throw new IllegalArgumentException(
+                        "Only PCM, IEEE float, A-law and μ-law WAV supported, got format tag " + formatTag);
+        };
+        if (encoding == null) {
+            throw new IllegalArgumentException("Unsupported WAV bit depth: " + bitsPerSample);
+        }
+        return encoding;
+    }
+
+    /**
+     * Returns the size of one frame of all channels.
+     *
+     * @return the frame size in bytes
+     */
+    int frameSize() {
+        return frameSize;
+    }
+
+    /**
+     * Returns the number of sinks the converter writes to, one per channel when splitting channels.
+     *
+     * @return the number of outputs
+     */
+    int outputs() {
+        return resamplers.length;
+    }
+
+    /**
+     * Returns the number of converted samples for a given number of frames.
+     *
+     * @param frames the number of input frames
+     * @return the number of 16 kHz samples per output
+     */
+    long outputLength(long frames) {
+        return resamplers[0] == null ? frames : resamplers[0].outputLength(frames);
+    }
+
+    /**
+     * Converts frames and passes the samples that are complete so far to the sink.
+     *
+     * @param source the frames, at least {@code frames * frameSize()} bytes
+     * @param frames the number of frames
+     * @param sinks the receivers of 16 kHz mono samples, one per {@link #outputs() output}
+     */
+    void convert(MemorySegment source, long frames, Sink... sinks) {
+        for (long frame = 0; frame < frames; frame += CHUNK_FRAMES) {
+            int n = (int) Math.min(CHUNK_FRAMES, frames - frame);
+            decode(source, frame * frameSize, n * channels);
+            emit(interleaved, 0, n, sinks);
+        }
+    }
+
+    /**
+     * Converts frames that are already decoded to floats and passes the samples that are complete so far to the
+     * sink.
+     *
+     * @param frames the interleaved samples
+     * @param length the number of frames
+     * @param sinks the receivers of 16 kHz mono samples, one per {@link #outputs() output}
+     */
+    void convert(float[] frames, int length, Sink... sinks) {
+        for (int frame = 0; frame < length; frame += CHUNK_FRAMES) {
+            int n = Math.min(CHUNK_FRAMES, length - frame);
+            emit(frames, frame * channels, n, sinks);
+        }
+    }
+
+    private void emit(float[] frames, int offset, int length, Sink[] sinks) {
+        if (!splitChannels) {
+            resample(0, downmix(frames, offset, length), length, sinks[0]);
+            return;
+        }
+        for (int c = 0; c < channels; c++) {
+            resample(c, channel(frames, offset, length, c), length, sinks[c]);
+        }
+    }
+
+    private void resample(int output, float[] samples, int length, Sink sink) {
+        if (resamplers[output] == null) {
+            sink.accept(samples, length);
+        } else {
+            resamplers[output].process(samples, length, sink);
+        }
+    }
+
+    /**
+     * Passes the samples still held back by the resamplers to the sinks.
+     *
+     * @param sinks the receivers of 16 kHz mono samples, one per {@link #outputs() output}
+     */
+    void finish(Sink... sinks) {
+        for (int i = 0; i < resamplers.length; i++) {
+            if (resamplers[i] != null) {
+                resamplers[i].finish(sinks[i]);
+            }
+        }
+    }
+
+    private void decode(MemorySegment source, long offset, int count) {
+        float[] out = interleaved;
+        switch (encoding) {
+            case UINT8 -> {
+                byte[] in = bytes(count);
+                MemorySegment.copy(source, ValueLayout.JAVA_BYTE, offset, in, 0, count);
+                for (int i = 0; i < count; i++) {
+                    out[i] = ((in[i] & 0xFF) - 128) / 128.0f;
+                }
+            }
+            case INT16 -> {
+                if (shorts == null) {
+                    shorts = new short[interleaved.length];
+                }
+                short[] in = shorts;
+                MemorySegment.copy(source, INT16_LE, offset, in, 0, count);
+                for (int i = 0; i < count; i++) {
+                    out[i] = in[i] / 32768.0f;
+                }
+            }
+            case INT24 -> {
+                byte[] in = bytes(count * 3);
+                MemorySegment.copy(source, ValueLayout.JAVA_BYTE, offset, in, 0, count * 3);
+                for (int i = 0; i < count; i++) {
+                    int value = (in[3 * i] & 0xFF) | (in[3 * i + 1] & 0xFF) << 8 | in[3 * i + 2] << 16;
+                    out[i] = value / 8388608.0f;
+                }
+            }
+            case INT32 -> {
+                if (ints == null) {
+                    ints = new int[interleaved.length];
+                }
+                int[] in = ints;
+                MemorySegment.copy(source, INT32_LE, offset, in, 0, count);
+                for (int i = 0; i < count; i++) {
+                    out[i] = in[i] / 2147483648.0f;
+                }
+            }
+            case FLOAT32 -> MemorySegment.copy(source, FLOAT32_LE, offset, out, 0, count);
+            case FLOAT64 -> {
+                if (doubles == null) {
+                    doubles = new double[interleaved.length];
+                }
+                double[] in = doubles;
+                MemorySegment.copy(source, FLOAT64_LE, offset, in, 0, count);
+                for (int i = 0; i < count; i++) {
+                    out[i] = (float) in[i];
+                }
+            }
+            case ALAW, MULAW -> {
+                float[] table = encoding == Encoding.ALAW ? ALAW : MULAW;
+                byte[] in = bytes(count);
+                MemorySegment.copy(source, ValueLayout.JAVA_BYTE, offset, in, 0, count);
+                for (int i = 0; i < count; i++) {
+                    out[i] = table[in[i] & 0xFF];
+                }
+            }
+        }
+    }
+
+    private byte[] bytes(int count) {
+        if (bytes == null || bytes.length < count) {
+            bytes = new byte[interleaved.length * 3];
+        }
+        return bytes;
+    }
+
+    /**
+     * Averages the channels of {@code length} frames, starting at {@code offset}, into {@link #mono}.
+     * Mono input at offset 0 is used as it is.
+     */
+    private float[] downmix(float[] frames, int offset, int length) {
+        if (channels == 1) {
+            if (offset == 0) {
+                return frames;
+            }
+            System.arraycopy(frames, offset, mono, 0, length);
+            return mono;
+        }
+        float scale = 1.0f / channels;
+        if (channels == 2) {
+            for (int i = 0; i < length; i++) {
+                mono[i] = (frames[offset + 2 * i] + frames[offset + 2 * i + 1]) * scale;
+            }
+            return mono;
+        }
+        for (int i = 0; i < length; i++) {
+            float sum = 0;
+            int base = offset + i * channels;
+            for (int c = 0; c < channels; c++) {
+                sum += frames[base + c];
+            }
+            mono[i] = sum * scale;
+        }
+        return mono;
+    }
+
+    /**
+     * Copies one channel of {@code length} frames, starting at {@code offset}, into {@link #mono}.
+     */
+    private float[] channel(float[] frames, int offset, int length, int channel) {
+        if (channels == 1) {
+            return downmix(frames, offset, length);
+        }
+        for (int i = 0; i < length; i++) {
+            mono[i] = frames[offset + i * channels + channel];
+        }
+        return mono;
+    }
+
+    /**
+     * Expands an 8-bit A-law value to 16-bit linear PCM, as specified by ITU-T G.711.
+     */
+    private static int alawToLinear(int value) {
+        int a = value ^ 0x55;
+        int exponent = (a & 0x70) >> 4;
+        int mantissa = a & 0x0F;
+        int magnitude = exponent == 0 ? (mantissa << 4) + 8 : ((mantissa << 4) + 0x108) << (exponent - 1);
+        return (a & 0x80) != 0 ? magnitude : -magnitude;
+    }
+
+    /**
+     * Expands an 8-bit μ-law value to 16-bit linear PCM, as specified by ITU-T G.711.
+     */
+    private static int mulawToLinear(int value) {
+        int u = ~value & 0xFF;
+        int exponent = (u & 0x70) >> 4;
+        int mantissa = u & 0x0F;
+        int magnitude = (((mantissa << 3) + 0x84) << exponent) - 0x84;
+        return (u & 0x80) != 0 ? -magnitude : magnitude;
+    }
+}
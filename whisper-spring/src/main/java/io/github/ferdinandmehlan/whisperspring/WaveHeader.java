@@ -0,0 +1,147 @@
+package io.github.ferdinandmehlan.whisperspring;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SeekableByteChannel;
+
+/**
+ * Format and data location of a RIFF/WAVE file, read from the chunks before the {@code data} chunk.
+ * Chunks other than {@code fmt } and {@code data}, e.g. {@code LIST} or {@code fact}, are skipped.
+ *
+ * @param formatTag the format tag, for {@code WAVE_FORMAT_EXTENSIBLE} the one of the sub format
+ * @param channels the number of interleaved channels
+ * @param sampleRate the number of frames per second
+ * @param bitsPerSample the size of a sample of one channel in bits
+ * @param blockAlign the size of one frame of all channels in bytes
+ * @param dataOffset the position of the first sample in the file
+ * @param dataLength the size of the {@code data} chunk in bytes, or {@code -1} if it is not known,
+ *     as written by encoders that stream their output
+ */
+record WaveHeader(
+        int formatTag,
+        int channels,
+        int sampleRate,
+        int bitsPerSample,
+        int blockAlign,
+        long dataOffset,
+        long dataLength) {
+
+    static final int WAVE_FORMAT_PCM = 0x0001;
+    static final int WAVE_FORMAT_IEEE_FLOAT = 0x0003;
+    static final int WAVE_FORMAT_EXTENSIBLE = 0xFFFE;
+
+    private static final int RIFF = 0x46464952;
+    private static final int RIFX = 0x58464952;
+    private static final int WAVE = 0x45564157;
+    private static final int FMT = 0x20746d66;
+    private static final int DATA = 0x61746164;
+    private static final int MAX_FMT_SIZE = 1024;
+
+    /**
+     * Reads the header and leaves the channel at the first sample.
+     *
+     * @param channel the channel positioned at the start of the file
+     * @return the header
+     * @throws IllegalArgumentException if the file is no little-endian RIFF/WAVE file or is truncated before
+     *     its {@code data} chunk
+     * @throws IOException if the channel cannot be read
+     */
+    static WaveHeader read(ReadableByteChannel channel) throws IOException {
+        try {
+            return parse(channel);
+        } catch (EOFException e) {
+            throw new IllegalArgumentException("Unsupported audio file format: truncated WAV header", e);
+        }
+    }
+
+    private static WaveHeader parse(ReadableByteChannel channel) throws IOException {
+        ByteBuffer riff = readFully(channel, 12);
+        int magic = riff.getInt();
+        if (magic == RIFX) {
+            throw new IllegalArgumentException("Expected little-endian WAV");
+        }
+        riff.getInt();
+        if (magic != RIFF || riff.getInt() != WAVE) {
+            throw new IllegalArgumentException("Unsupported audio file format: not a RIFF/WAVE file");
+        }
+
+        long position = 12;
+        ByteBuffer fmt = null;
+        while (true) {
+            ByteBuffer chunkHeader = readFully(channel, 8);
+            int chunkId = chunkHeader.getInt();
+            long chunkSize = Integer.toUnsignedLong(chunkHeader.getInt());
+            position += 8;
+
+            if (chunkId == DATA) {
+                if (fmt == null) {
+                    throw new IllegalArgumentException("Unsupported audio file format: data chunk before fmt chunk");
+                }
+                // Streaming encoders write 0 or 0xFFFFFFFF when the length is not known up front
+                long dataLength = chunkSize == 0 || chunkSize == 0xFFFFFFFFL ? -1 : chunkSize;
+                return fromFmt(fmt, position, dataLength);
+            }
+
+            // Chunks are padded to an even size
+            long paddedSize = chunkSize + (chunkSize & 1);
+            if (chunkId == FMT) {
+                if (chunkSize < 16 || chunkSize > MAX_FMT_SIZE) {
+                    throw new IllegalArgumentException("Unsupported audio file format: invalid fmt chunk");
+                }
+                fmt = readFully(channel, (int) paddedSize);
+            } else {
+                skip(channel, paddedSize);
+            }
+            position += paddedSize;
+        }
+    }
+
+    private static WaveHeader fromFmt(ByteBuffer fmt, long dataOffset, long dataLength) {
+        int formatTag = Short.toUnsignedInt(fmt.getShort(0));
+        int channels = Short.toUnsignedInt(fmt.getShort(2));
+        int sampleRate = fmt.getInt(4);
+        int blockAlign = Short.toUnsignedInt(fmt.getShort(12));
+        int bitsPerSample = Short.toUnsignedInt(fmt.getShort(14));
+        // WAVE_FORMAT_EXTENSIBLE carries the actual format in the first two bytes of its sub format GUID
+        if (formatTag == WAVE_FORMAT_EXTENSIBLE && fmt.capacity() >= 26) {
+            formatTag = Short.toUnsignedInt(fmt.getShort(24));
+        }
+        if (channels == 0 || blockAlign == 0 || sampleRate <= 0) {
+            throw new IllegalArgumentException("Unsupported audio file format: invalid fmt chunk");
+        }
+        return new WaveHeader(formatTag, channels, sampleRate, bitsPerSample, blockAlign, dataOffset, dataLength);
+    }
+
+    private static ByteBuffer readFully(ReadableByteChannel channel, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException();
+            }
+        }
+        return buffer.flip();
+    }
+
+    private static void skip(ReadableByteChannel channel, long length) throws IOException {
+        if (channel instanceof SeekableByteChannel seekable) {
+            if (seekable.position() + length > seekable.size()) {
+                throw new EOFException();
+            }
+            seekable.position(seekable.position() + length);
+            return;
+        }
+        ByteBuffer discard = ByteBuffer.allocate(4096);
+        long remaining = length;
+        while (remaining > 0) {
+            discard.clear().limit((int) Math.min(discard.capacity(), remaining));
+            int n = channel.read(discard);
+            if (n < 0) {
+                throw new EOFException();
+            }
+            remaining -= n;
+        }
+    }
+}
@@ -1,90 +1,407 @@
 package io.github.ferdinandmehlan.whisperspring;
 
+import io.github.ferdinandmehlan.whisperspring._native.WhisperAudioBuffer;
+import io.github.ferdinandmehlan.whisperspring._native.WhisperAudioBufferPool;
 import java.io.BufferedInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
 import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
-import javax.sound.sampled.AudioFormat;
-import javax.sound.sampled.AudioInputStream;
-import javax.sound.sampled.AudioSystem;
-import javax.sound.sampled.UnsupportedAudioFileException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
 import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
 
 /**
  * Service for converting audio resources to wave samples suitable for Whisper transcription.
- * Supports mono, 16kHz, 16-bit little-endian PCM WAV files.
+ * Supports PCM (8, 16, 24 and 32-bit), IEEE float, A-law and μ-law WAV files and FLAC files with any number
+ * of channels at sample rates from 8 to 192 kHz, which are downmixed to mono and resampled to 16 kHz.
+ * The container is detected from the first bytes of the resource, not from its name.
+ *
+ * <p>The RIFF/WAVE header is parsed directly and the samples are decoded in fixed-size chunks, from a
+ * memory-mapped file for WAV file resources and from a stream otherwise, straight into an off-heap buffer.
+ * FLAC is decoded frame by frame while it is read. The heap used while decoding does not grow with the
+ * length of the audio.</p>
+ *
+ * <p>{@link #toChannelBuffers} keeps the channels apart instead, for transcribing each channel on its own.</p>
  */
 @Service
 public class WaveService {
 
+    private static final byte[] FLAC_MAGIC = {'f', 'L', 'a', 'C'};
+    private static final byte[] OGG_MAGIC = {'O', 'g', 'g', 'S'};
+    private static final byte[] ID3_MAGIC = {'I', 'D', '3'};
+
+    private static final int CHUNK_BYTES = 1 << 16;
+    private static final int INITIAL_STREAM_SAMPLES = 1 << 16;
+
     /**
-     * Converts an audio resource to an array of float wave samples.
-     * The audio must be a mono, 16kHz, 16-bit little-endian PCM WAV file.
+     * Converts an audio resource to an array of 16kHz mono float wave samples.
      *
      * @param resource the audio resource to convert
      * @return an array of float samples representing the audio waveform
-     * @throws IllegalArgumentException if the resource is null, does not exist, or is not in the supported format
+     * @throws IllegalArgumentException if the resource is null, does not exist, or is not in a supported format
      */
     public float[] toWaveSamples(Resource resource) {
-        if (resource == null || !resource.exists()) {
-            throw new IllegalArgumentException("Audio file does not exist: " + resource);
+        try (WhisperAudioBufferPool pool = new WhisperAudioBufferPool(0);
+                WhisperAudioBuffer buffer = toAudioBuffer(resource, pool)) {
+            return buffer.toArray();
         }
+    }
 
-        try (BufferedInputStream bis = new BufferedInputStream(resource.getInputStream());
-                AudioInputStream ais = AudioSystem.getAudioInputStream(bis)) {
+    /**
+     * Converts an audio resource into an off-heap buffer of 16kHz mono samples from the given pool.
+     * The samples can be handed to whisper without a further copy.
+     *
+     * @param resource the audio resource to convert
+     * @param bufferPool the pool to take the buffer from
+     * @return a buffer with the float samples, to be closed by the caller
+     * @throws IllegalArgumentException if the resource is null, does not exist, or is not in a supported format
+     */
+    public WhisperAudioBuffer toAudioBuffer(Resource resource, WhisperAudioBufferPool bufferPool) {
+        return toAudioBuffer(resource, bufferPool, Integer.MAX_VALUE);
+    }
 
-            AudioFormat format = ais.getFormat();
-            validateFormat(format);
-            byte[] pcmBytes = ais.readAllBytes();
-            return pcm16leToFloat(pcmBytes);
+    /**
+     * Converts the start of an audio resource into an off-heap buffer of at most {@code maxSamples} 16kHz mono
+     * samples. Reading stops once the buffer is full, so the rest of the audio is neither read nor converted.
+     *
+     * @param resource the audio resource to convert
+     * @param bufferPool the pool to take the buffer from
+     * @param maxSamples the maximum number of samples to convert
+     * @return a buffer with the float samples, to be closed by the caller
+     * @throws IllegalArgumentException if the resource is null, does not exist, or is not in a supported format
+     */
+    public WhisperAudioBuffer toAudioBuffer(Resource resource, WhisperAudioBufferPool bufferPool, long maxSamples) {
+        int limit = Math.clamp(maxSamples, 0, Integer.MAX_VALUE);
+        return decode(resource, bufferPool, false, limit).getFirst();
+    }
+
+    /**
+     * Converts each channel of an audio resource into its own off-heap buffer of 16kHz samples from the given pool,
+     * e.g. the two speakers of a call recorded in stereo.
+     *
+     * @param resource the audio resource to convert
+     * @param bufferPool the pool to take the buffers from
+     * @return one buffer per channel in channel order, each to be closed by the caller
+     * @throws IllegalArgumentException if the resource is null, does not exist, or is not in a supported format
+     */
+    public List<WhisperAudioBuffer> toChannelBuffers(Resource resource, WhisperAudioBufferPool bufferPool) {
+        return decode(resource, bufferPool, true, Integer.MAX_VALUE);
+    }
+
+    private List<WhisperAudioBuffer> decode(
+            Resource resource, WhisperAudioBufferPool bufferPool, boolean splitChannels, int limit) {
+        if (resource == null || !resource.exists()) {
+            throw new IllegalArgumentException("Audio file does not exist: " + resource);
+        }
 
-        } catch (UnsupportedAudioFileException e) {
-            throw new IllegalArgumentException("Unsupported audio file format", e);
+        try {
+            if (resource.isFile() && !isFlac(resource)) {
+                return decodeMapped(resource, bufferPool, splitChannels, limit);
+            }
+            return decodeStream(resource, bufferPool, splitChannels, limit);
         } catch (IOException e) {
             throw new IllegalArgumentException("Failed to read audio data", e);
         }
     }
 
     /**
-     * Converts PCM 16-bit little-endian bytes to float samples normalized to [-1, 1].
-     *
-     * @param pcmBytes the PCM bytes to convert
-     * @return an array of float samples
+     * Decodes a file resource by mapping its data chunk, so the samples are never copied onto the heap as a whole.
      */
-    private float[] pcm16leToFloat(byte[] pcmBytes) {
-        int numSamples = pcmBytes.length / 2;
-        float[] samples = new float[numSamples];
+    private List<WhisperAudioBuffer> decodeMapped(
+            Resource resource, WhisperAudioBufferPool bufferPool, boolean splitChannels, int limit)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(resource.getFile().toPath(), StandardOpenOption.READ);
+                Arena arena = Arena.ofConfined()) {
+            WaveHeader header = WaveHeader.read(channel);
+            WaveConverter converter = WaveConverter.of(header, splitChannels);
 
-        ByteBuffer buffer = ByteBuffer.wrap(pcmBytes).order(ByteOrder.LITTLE_ENDIAN);
+            // Clamp to the file, a truncated recording or an unknown length still yields the samples present
+            long available = channel.size() - header.dataOffset();
+            long dataLength = header.dataLength() < 0 ? available : Math.min(header.dataLength(), available);
+            long frames = dataLength / converter.frameSize();
+            MemorySegment data = channel.map(
+                    FileChannel.MapMode.READ_ONLY, header.dataOffset(), frames * converter.frameSize(), arena);
 
-        for (int i = 0; i < numSamples; i++) {
-            samples[i] = buffer.getShort() / 32768.0f;
+            int capacity = Math.min(limit, toSampleCount(converter.outputLength(frames)));
+            SampleWriter[] writers = SampleWriter.of(bufferPool, converter.outputs(), capacity, limit);
+            try {
+                convertMapped(data, frames, converter, writers);
+                converter.finish(writers);
+                return SampleWriter.finish(writers);
+            } catch (RuntimeException e) {
+                SampleWriter.close(writers);
+                throw e;
+            }
         }
-        return samples;
     }
 
     /**
-     * Validates that the audio format is supported by Whisper (mono, 16kHz, 16-bit little-endian PCM).
+     * Decodes a WAV or FLAC stream to 16kHz mono samples while it is read, handing each chunk to the sink as soon as
+     * it is converted, e.g. to start transcribing an upload before all of it has arrived. The stream is not closed.
      *
-     * @param format the audio format to validate
-     * @throws IllegalArgumentException if the format is not supported
+     * @param stream the audio stream
+     * @param sink receives the converted samples
+     * @throws IOException if the stream cannot be read
+     * @throws IllegalArgumentException if the audio is not in a supported format
+     */
+    void decodeProgressively(InputStream stream, WaveConverter.Sink sink) throws IOException {
+        InputStream in = new BufferedInputStream(stream, CHUNK_BYTES);
+        if (isFlacStream(in)) {
+            FlacDecoder decoder = FlacDecoder.open(in);
+            WaveConverter converter = WaveConverter.ofDecoded(decoder.channels(), decoder.sampleRate(), false);
+            convertFlac(decoder, converter, sink);
+            converter.finish(sink);
+        } else {
+            ReadableByteChannel channel = Channels.newChannel(in);
+            WaveHeader header = WaveHeader.read(channel);
+            WaveConverter converter = WaveConverter.of(header, false);
+            convertWave(channel, header, converter, sink);
+            converter.finish(sink);
+        }
+    }
+
+    /**
+     * Decodes any other resource from its stream, dispatching on the magic bytes at its start.
+     */
+    private List<WhisperAudioBuffer> decodeStream(
+            Resource resource, WhisperAudioBufferPool bufferPool, boolean splitChannels, int limit)
+            throws IOException {
+        try (InputStream in = new BufferedInputStream(resource.getInputStream(), CHUNK_BYTES)) {
+            if (isFlacStream(in)) {
+                return decodeFlac(in, bufferPool, splitChannels, limit);
+            }
+            return decodeWave(Channels.newChannel(in), bufferPool, splitChannels, limit);
+        }
+    }
+
+    /**
+     * Decodes WAV data chunk by chunk from a channel. If the header does not state the length of the data, the
+     * buffer grows as samples arrive.
+     */
+    private List<WhisperAudioBuffer> decodeWave(
+            ReadableByteChannel channel, WhisperAudioBufferPool bufferPool, boolean splitChannels, int limit)
+            throws IOException {
+        WaveHeader header = WaveHeader.read(channel);
+        WaveConverter converter = WaveConverter.of(header, splitChannels);
+
+        int capacity = header.dataLength() < 0
+                ? INITIAL_STREAM_SAMPLES
+                : toSampleCount(converter.outputLength(header.dataLength() / converter.frameSize()));
+        SampleWriter[] writers = SampleWriter.of(bufferPool, converter.outputs(), Math.min(capacity, limit), limit);
+        try {
+            convertWave(channel, header, converter, writers);
+            converter.finish(writers);
+            return SampleWriter.finish(writers);
+        } catch (RuntimeException | IOException e) {
+            SampleWriter.close(writers);
+            throw e;
+        }
+    }
+
+    /**
+     * Decodes a FLAC stream frame by frame, converting each frame as soon as it is decoded.
+     */
+    private List<WhisperAudioBuffer> decodeFlac(
+            InputStream in, WhisperAudioBufferPool bufferPool, boolean splitChannels, int limit) throws IOException {
+        FlacDecoder decoder = FlacDecoder.open(in);
+        WaveConverter converter = WaveConverter.ofDecoded(decoder.channels(), decoder.sampleRate(), splitChannels);
+
+        int capacity = decoder.totalSamples() > 0
+                ? toSampleCount(converter.outputLength(decoder.totalSamples()))
+                : INITIAL_STREAM_SAMPLES;
+        SampleWriter[] writers = SampleWriter.of(bufferPool, converter.outputs(), Math.min(capacity, limit), limit);
+        try {
+            convertFlac(decoder, converter, writers);
+            converter.finish(writers);
+            return SampleWriter.finish(writers);
+        } catch (RuntimeException | IOException e) {
+            SampleWriter.close(writers);
+            throw e;
+        }
+    }
+
+    /**
+     * Converts mapped WAV data chunk by chunk, stopping early once the sinks take no more samples.
+     */
+    private static void convertMapped(
+            MemorySegment data, long frames, WaveConverter converter, WaveConverter.Sink... sinks) {
+        int frameSize = converter.frameSize();
+        long chunkFrames = Math.max(1, CHUNK_BYTES / frameSize);
+        for (long frame = 0; frame < frames && !isFull(sinks); frame += chunkFrames) {
+            long n = Math.min(chunkFrames, frames - frame);
+            converter.convert(data.asSlice(frame * frameSize, n * frameSize), n, sinks);
+        }
+    }
+
+    /**
+     * Converts the WAV data following the header chunk by chunk, as soon as each chunk has been read.
      */
-    private void validateFormat(AudioFormat format) {
-        if (!format.getEncoding().equals(AudioFormat.Encoding.PCM_SIGNED)) {
-            throw new IllegalArgumentException("Only PCM WAV supported");
+    private static void convertWave(
+            ReadableByteChannel channel, WaveHeader header, WaveConverter converter, WaveConverter.Sink... sinks)
+            throws IOException {
+        int frameSize = converter.frameSize();
+        long remaining = header.dataLength() < 0 ? Long.MAX_VALUE : header.dataLength();
+        ByteBuffer chunk = ByteBuffer.allocate(Math.max(1, CHUNK_BYTES / frameSize) * frameSize);
+        while (remaining > 0 && !isFull(sinks)) {
+            chunk.limit(chunk.position() + (int) Math.min(chunk.capacity() - chunk.position(), remaining));
+            int read = channel.read(chunk);
+            if (read < 0) {
+                break;
+            }
+            remaining -= read;
+            chunk.flip();
+
+            // A partial trailing frame stays in the chunk until the rest of it arrives
+            int frames = chunk.remaining() / frameSize;
+            converter.convert(MemorySegment.ofBuffer(chunk), frames, sinks);
+            chunk.position(frames * frameSize).compact();
         }
-        if (format.getChannels() != 1) {
-            throw new IllegalArgumentException("Only mono WAV supported");
+    }
+
+    /**
+     * Converts the FLAC frames of a decoder one by one.
+     */
+    private static void convertFlac(FlacDecoder decoder, WaveConverter converter, WaveConverter.Sink... sinks)
+            throws IOException {
+        float[] frames = new float[decoder.maxBlockSize() * decoder.channels()];
+        int length;
+        while (!isFull(sinks) && (length = decoder.readFrame(frames)) >= 0) {
+            converter.convert(frames, length, sinks);
         }
-        if (format.getSampleRate() != 16000.0f) {
-            throw new IllegalArgumentException("Expected 16kHz WAV");
+    }
+
+    private static boolean isFull(WaveConverter.Sink[] sinks) {
+        return Arrays.stream(sinks).allMatch(WaveConverter.Sink::isFull);
+    }
+
+    /**
+     * Tells from the magic bytes at the start of a stream whether it is FLAC, leaving the stream at its start.
+     * Containers that are recognized but not supported are rejected, anything else is read as WAV.
+     */
+    private static boolean isFlacStream(InputStream in) throws IOException {
+        in.mark(FLAC_MAGIC.length);
+        byte[] magic = in.readNBytes(FLAC_MAGIC.length);
+        in.reset();
+
+        if (Arrays.equals(magic, OGG_MAGIC)) {
+            throw new IllegalArgumentException("Ogg audio is not supported, upload WAV or FLAC");
+        }
+        if (isMp3(magic)) {
+            throw new IllegalArgumentException("MP3 audio is not supported, upload WAV or FLAC");
+        }
+        return Arrays.equals(magic, FLAC_MAGIC);
+    }
+
+    /**
+     * Tells from the magic bytes whether a resource is FLAC, rejecting unsupported containers like
+     * {@link #isFlacStream(InputStream)}.
+     */
+    private static boolean isFlac(Resource resource) throws IOException {
+        try (InputStream in = new BufferedInputStream(resource.getInputStream(), FLAC_MAGIC.length)) {
+            return isFlacStream(in);
         }
-        if (format.getSampleSizeInBits() != 16) {
-            throw new IllegalArgumentException("Expected 16-bit WAV");
+    }
+
+    private static boolean isMp3(byte[] magic) {
+        if (magic.length < ID3_MAGIC.length) {
+            return false;
         }
-        if (format.isBigEndian()) {
-            throw new IllegalArgumentException("Expected little-endian WAV");
+        boolean id3 = Arrays.equals(magic, 0, ID3_MAGIC.length, ID3_MAGIC, 0, ID3_MAGIC.length);
+        boolean frameSync = (magic[0] & 0xFF) == 0xFF && (magic[1] & 0xE0) == 0xE0;
+        return id3 || frameSync;
+    }
+
+    private static int toSampleCount(long samples) {
+        if (samples > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Audio file too long: " + samples + " samples");
+        }
+        return (int) samples;
+    }
+
+    /**
+     * Writes converted samples into a pooled buffer, moving to a larger one when it is full.
+     * Samples beyond the limit are dropped.
+     */
+    private static final class SampleWriter implements WaveConverter.Sink {
+
+        private final WhisperAudioBufferPool bufferPool;
+        private final int limit;
+        private WhisperAudioBuffer buffer;
+        private int written;
+
+        SampleWriter(WhisperAudioBufferPool bufferPool, int capacity, int limit) {
+            this.bufferPool = bufferPool;
+            this.limit = limit;
+            this.buffer = bufferPool.acquire(capacity);
+        }
+
+        static SampleWriter[] of(WhisperAudioBufferPool bufferPool, int count, int capacity, int limit) {
+            SampleWriter[] writers = new SampleWriter[count];
+            try {
+                for (int i = 0; i < count; i++) {
+                    writers[i] = new SampleWriter(bufferPool, capacity, limit);
+                }
+                return writers;
+            } catch (RuntimeException e) {
+                close(writers);
+                throw e;
+            }
+        }
+
+        static List<WhisperAudioBuffer> finish(SampleWriter[] writers) {
+            return Arrays.stream(writers).map(SampleWriter::finish).toList();
+        }
+
+        static void close(SampleWriter[] writers) {
+            for (SampleWriter writer : writers) {
+                if (writer != null) {
+                    writer.close();
+                }
+            }
+        }
+
+        @Override
+        public void accept(float[] samples, int length) {
+            length = Math.min(length, limit - written);
+            if (length <= 0) {
+                return;
+            }
+            if (written + (long) length > buffer.length()) {
+                grow(toSampleCount(written + (long) length));
+            }
+            long offset = written * ValueLayout.JAVA_FLOAT.byteSize();
+            MemorySegment.copy(samples, 0, buffer.samples(), ValueLayout.JAVA_FLOAT, offset, length);
+            written += length;
+        }
+
+        @Override
+        public boolean isFull() {
+            return written >= limit;
+        }
+
+        private void grow(int required) {
+            int capacity = (int) Math.min(limit, Math.max(required, 2L * buffer.length()));
+            WhisperAudioBuffer grown = bufferPool.acquire(capacity);
+            MemorySegment.copy(buffer.samples(), 0, grown.samples(), 0, written * ValueLayout.JAVA_FLOAT.byteSize());
+            buffer.close();
+            buffer = grown;
+        }
+
+        WhisperAudioBuffer finish() {
+            buffer.setLength(written);
+            return buffer;
+        }
+
+        void close() {
+            buffer.close();
         }
     }
 }
@@ -1,8 +1,16 @@
 package io.github.ferdinandmehlan.whisperspring;
 
+import io.github.ferdinandmehlan.whisperspring._native.WhisperAudioBufferPool;
+import io.github.ferdinandmehlan.whisperspring._native.WhisperModelRegistry;
 import io.github.ferdinandmehlan.whisperspring._native.WhisperNative;
+import io.github.ferdinandmehlan.whisperspring._native.WhisperStatePool;
+import io.github.ferdinandmehlan.whisperspring._native.WhisperVadPool;
 import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperNativeConfig;
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperVadContextConfig;
+import io.github.ferdinandmehlan.whisperspring._native.loader.NativeLoader;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
 import java.util.Optional;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
@@ -15,7 +23,10 @@ import org.springframework.context.annotation.Configuration;
  * Provides default beans for WaveService and WhisperTranscriptionModel
  * if they are not already defined in the application context.
  * When {@code whisper.model-path} is configured, a {@link WhisperNative}
- * bean is also created and wired into the transcription model.
+ * bean and a {@link WhisperStatePool} are also created and wired into the transcription model.
+ * When {@code whisper.models-dir} is configured, a {@link WhisperModelRegistry} serves requests
+ * that select a model by name. When {@code whisper.vad-model-path} is configured, a {@link WhisperVadPool}
+ * keeps the Silero VAD model loaded for speech detection.
  */
 @Configuration
 @EnableConfigurationProperties(WhisperProperties.class)
@@ -32,8 +43,23 @@ public class WhisperAutoConfiguration {
         return new WaveService();
     }
 
+    /**
+     * Provides a default pool of off-heap audio buffers if none is defined.
+     * {@code whisper.audio-buffer-pool-size} sets how many idle buffers are kept per size class.
+     *
+     * @param properties the whisper configuration properties
+     * @return a new WhisperAudioBufferPool instance
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public WhisperAudioBufferPool whisperAudioBufferPool(WhisperProperties properties) {
+        return new WhisperAudioBufferPool(properties.getAudioBufferPoolSize());
+    }
+
     /**
      * Creates a {@link WhisperNative} bean when {@code whisper.model-path} is set.
+     * {@code whisper.model-load-mode} selects whether the model file is read or memory-mapped,
+     * {@code whisper.native-library-dir} or {@code whisper.native-libraries} a host-provided whisper.cpp build.
      *
      * @param properties the whisper configuration properties
      * @return a new WhisperNative instance
@@ -43,27 +69,138 @@ public class WhisperAutoConfiguration {
     @ConditionalOnProperty(prefix = "whisper", name = "model-path")
     @ConditionalOnMissingBean
     public WhisperNative whisperNative(WhisperProperties properties) throws IOException {
-        WhisperNativeConfig config = new WhisperNativeConfig();
+        configureNativeLibraries(properties);
+        return new WhisperNative(properties.getModelPath(), toNativeConfig(properties));
+    }
+
+    /**
+     * Creates a {@link WhisperStatePool} on top of the {@link WhisperNative} bean when {@code whisper.model-path} is set.
+     * The pool size ({@code whisper.state-pool-size}) bounds how many transcriptions decode concurrently.
+     *
+     * @param whisperNative the loaded model
+     * @param properties the whisper configuration properties
+     * @return a new WhisperStatePool instance
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "whisper", name = "model-path")
+    @ConditionalOnMissingBean
+    public WhisperStatePool whisperStatePool(WhisperNative whisperNative, WhisperProperties properties) {
+        return new WhisperStatePool(whisperNative, properties.getStatePoolSize());
+    }
+
+    /**
+     * Creates a {@link WhisperModelRegistry} when {@code whisper.models-dir} is set.
+     * Models are loaded on demand and unloaded least recently used first once their total memory,
+     * the file size plus {@code whisper.models-state-memory} per state, would exceed
+     * {@code whisper.models-memory-budget}. The model of {@code whisper.model-path} counts against
+     * the budget and serves requests naming its file.
+     *
+     * @param properties the whisper configuration properties
+     * @param whisperStatePool an optional state pool of the default model (maybe absent)
+     * @return a new WhisperModelRegistry instance
+     * @throws IOException if the size of the default model cannot be read
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "whisper", name = "models-dir")
+    @ConditionalOnMissingBean
+    public WhisperModelRegistry whisperModelRegistry(
+            WhisperProperties properties, Optional<WhisperStatePool> whisperStatePool) throws IOException {
+        configureNativeLibraries(properties);
+        WhisperModelRegistry registry = new WhisperModelRegistry(
+                Path.of(properties.getModelsDir()),
+                properties.getModelsMemoryBudget().toBytes(),
+                properties.getStatePoolSize(),
+                properties.getModelsStateMemory().toBytes(),
+                toNativeConfig(properties));
+        if (whisperStatePool.isPresent() && properties.getModelPath() != null) {
+            registry.registerDefaultModel(Path.of(properties.getModelPath()), whisperStatePool.get());
+        }
+        return registry;
+    }
+
+    /**
+     * Creates a {@link WhisperVadPool} when {@code whisper.vad-model-path} is set.
+     * The pool size ({@code whisper.vad-pool-size}) bounds how many speech detections run concurrently.
+     *
+     * @param properties the whisper configuration properties
+     * @return a new WhisperVadPool instance
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "whisper", name = "vad-model-path")
+    @ConditionalOnMissingBean
+    public WhisperVadPool whisperVadPool(WhisperProperties properties) {
+        configureNativeLibraries(properties);
+        WhisperVadContextConfig config = new WhisperVadContextConfig();
         config.useGpu = !properties.isNoGpu();
-        config.flashAttn = properties.isFlashAttn();
         config.gpuDevice = properties.getGpuDevice();
-        return new WhisperNative(properties.getModelPath(), config);
+        return new WhisperVadPool(properties.getVadModelPath(), config, properties.getVadPoolSize());
     }
 
     /**
      * Provides a default WhisperTranscriptionModel bean if none is defined.
      * If a {@link WhisperNative} bean is available (from {@link #whisperNative}),
-     * it is automatically wired into the model.
+     * it is automatically wired into the model, together with its {@link WhisperStatePool}.
+     * {@code whisper.language-detection-window} and {@code whisper.language-cache-size} configure
+     * language detection; {@code whisper.english-model} names a registry model that English audio
+     * is routed to. {@code whisper.mel-pipelining} computes the mel spectrogram before a state is acquired.
+     * {@code whisper.long-audio-chunk-length} and {@code whisper.long-audio-chunk-overlap} split long audio into
+     * chunks that are transcribed concurrently on the state pool. A {@link WhisperVadPool} is wired for speech
+     * detection.
      *
-     * @param waveService   the WaveService dependency
-     * @param whisperNative an optional WhisperNative bean (maybe absent)
+     * @param properties       the whisper configuration properties
+     * @param waveService      the WaveService dependency
+     * @param audioBufferPool  the pool of off-heap sample buffers
+     * @param whisperNative    an optional WhisperNative bean (maybe absent)
+     * @param whisperStatePool an optional WhisperStatePool bean (maybe absent)
+     * @param modelRegistry    an optional WhisperModelRegistry bean (maybe absent)
+     * @param vadPool          an optional WhisperVadPool bean (maybe absent)
      * @return a new WhisperTranscriptionModel instance
      */
     @Bean
     @ConditionalOnMissingBean
-    public WhisperTranscriptionModel whisperService(WaveService waveService, Optional<WhisperNative> whisperNative) {
-        WhisperTranscriptionModel model = new WhisperTranscriptionModel(waveService);
+    public WhisperTranscriptionModel whisperService(
+            WhisperProperties properties,
+            WaveService waveService,
+            WhisperAudioBufferPool audioBufferPool,
+            Optional<WhisperNative> whisperNative,
+            Optional<WhisperStatePool> whisperStatePool,
+            Optional<WhisperModelRegistry> modelRegistry,
+            Optional<WhisperVadPool> vadPool) {
+        WhisperTranscriptionModel model = new WhisperTranscriptionModel(waveService, audioBufferPool);
         whisperNative.ifPresent(model::initWhisperNative);
+        whisperStatePool.ifPresent(model::initWhisperStatePool);
+        modelRegistry.ifPresent(model::initWhisperModelRegistry);
+        vadPool.ifPresent(model::initVadPool);
+        model.initLanguageDetection(
+                properties.getLanguageDetectionWindow(),
+                properties.getLanguageCacheSize(),
+                modelRegistry.isPresent() ? properties.getEnglishModel() : null);
+        model.initMelPipelining(properties.isMelPipelining());
+        model.initLongAudioChunking(properties.getLongAudioChunkLength(), properties.getLongAudioChunkOverlap());
+        model.initLiveTranscription(
+                properties.getLiveMaxSessions(), properties.getLiveThreads(), properties.getLiveCpuBudget());
         return model;
     }
+
+    /**
+     * Selects a host-provided whisper.cpp build from {@code whisper.native-library-dir} or
+     * {@code whisper.native-libraries} before the native libraries are first loaded.
+     */
+    private static void configureNativeLibraries(WhisperProperties properties) {
+        List<Path> libraries = properties.getNativeLibraries().stream().map(Path::of).toList();
+        Path libraryDir = properties.getNativeLibraryDir() != null ? Path.of(properties.getNativeLibraryDir()) : null;
+        if (libraryDir != null || !libraries.isEmpty()) {
+            NativeLoader.useExternalLibraries(libraryDir, libraries);
+        }
+    }
+
+    private static WhisperNativeConfig toNativeConfig(WhisperProperties properties) {
+        WhisperNativeConfig config = new WhisperNativeConfig();
+        config.useGpu = !properties.isNoGpu();
+        config.flashAttn = properties.isFlashAttn();
+        config.gpuDevice = properties.getGpuDevice();
+        config.loadMode = properties.getModelLoadMode();
+        config.prefetch = properties.isModelPrefetch();
+        return config;
+    }
 }
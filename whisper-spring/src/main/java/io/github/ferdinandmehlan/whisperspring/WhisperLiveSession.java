@@ -0,0 +1,433 @@
+package io.github.ferdinandmehlan.whisperspring;
+
+import io.github.ferdinandmehlan.whisperspring._native.WhisperAudioBuffer;
+import io.github.ferdinandmehlan.whisperspring._native.WhisperNative;
+import io.github.ferdinandmehlan.whisperspring._native.WhisperState;
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperLiveConfig;
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperSegment;
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperTranscription;
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperTranscriptionOptions;
+import io.github.ferdinandmehlan.whisperspring._native.callback.WhisperCancellationToken;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Transcribes a stream of 16 kHz samples while it is received, on a whisper state of its own.
+ * Opened by {@link WhisperTranscriptionModel#openLiveSession}.
+ *
+ * <p>Written samples are buffered from the end of the committed text on. Whenever another step of audio has
+ * arrived, a decoder thread transcribes the buffer, at most a window of it, prompting whisper with the end of the
+ * committed text. A segment is committed once two consecutive decodes agree on it, ignoring case and punctuation,
+ * and it is not the last segment of the window, which may still be cut off. Committed segments are final and their
+ * audio is dropped from the buffer; the segments after them are reported as partial and replaced by the next
+ * decode. A full window is committed up to its last segment without waiting for agreement, so text is final at
+ * most a window after it was spoken.</p>
+ *
+ * <p>Writers block while the buffer is full, which slows down clients that send faster than the session decodes.
+ * After every decode the decoder waits until it has spent no more than the CPU budget's share of the wall time
+ * decoding, so a session that cannot keep up decodes larger steps rather than taking more CPU.</p>
+ */
+public class WhisperLiveSession implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(WhisperLiveSession.class.getName());
+
+    /** Samples per whisper timestamp unit of 10 ms at 16 kHz. */
+    private static final int SAMPLES_PER_CENTISECOND = 160;
+
+    private static final int SAMPLES_PER_MS = 16;
+
+    /**
+     * Receives the results of a live session. Called on the decoder thread of the session.
+     */
+    public interface Listener {
+
+        /**
+         * Called for every committed segment, in order. A committed segment does not change anymore.
+         *
+         * @param segment the segment, with timestamps from the start of the stream
+         */
+        void onFinal(WhisperSegment segment);
+
+        /**
+         * Called after every decode with the segments after the committed ones. They replace the partial segments
+         * of the previous call and may be empty.
+         *
+         * @param segments the uncommitted segments, with timestamps from the start of the stream
+         */
+        void onPartial(List<WhisperSegment> segments);
+
+        /**
+         * Called once all audio of a {@link #finish() finished} session is committed.
+         */
+        void onComplete();
+
+        /**
+         * Called if decoding failed. The session stops decoding and rejects further samples.
+         *
+         * @param e the failure
+         */
+        void onError(RuntimeException e);
+    }
+
+    private final WhisperNative whisper;
+    private final WhisperState state;
+    private final WhisperAudioBuffer buffer;
+    private final WhisperTranscriptionOptions options;
+    private final WhisperCancellationToken token = new WhisperCancellationToken();
+    private final int stepSamples;
+    private final int windowSamples;
+    private final double cpuBudget;
+    private final Listener listener;
+    private final Runnable onClose;
+    private final Thread decoder;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+
+    /** Buffered samples from the committed position on, guarded by the lock. */
+    private int length;
+
+    private boolean finished;
+    private boolean stopped;
+    private boolean closed;
+
+    /** Set if the session was closed by a listener, then the decoder frees the session when it stops. */
+    private boolean closedByListener;
+
+    /** Samples committed since the start of the stream, only used by the decoder. */
+    private long committed;
+
+    private int decodedLength;
+    private List<String> previousTexts = List.of();
+    private String prompt;
+
+    WhisperLiveSession(
+            WhisperNative whisper,
+            WhisperTranscriptionOptions options,
+            WhisperLiveConfig config,
+            double cpuBudget,
+            Listener listener,
+            Runnable onClose) {
+        this.whisper = whisper;
+        this.options = options.copy();
+        this.options.noContext = true;
+        this.options.abortCallback = token;
+        this.options.newSegmentCallback = null;
+        this.stepSamples = config.stepMs * SAMPLES_PER_MS;
+        this.windowSamples = config.windowMs * SAMPLES_PER_MS;
+        this.cpuBudget = cpuBudget;
+        this.listener = listener;
+        this.onClose = onClose;
+        this.prompt = options.initialPrompt;
+
+        // The session owns the slot behind onClose from here on, so a session that fails to start releases it
+        WhisperState createdState = null;
+        WhisperAudioBuffer createdBuffer = null;
+        try {
+            if (config.stepMs <= 0 || config.windowMs < config.stepMs || config.maxBufferMs < config.windowMs) {
+                throw new IllegalArgumentException("Live sessions need 0 < step <= window <= max buffer but got step "
+                        + config.stepMs + " ms, window " + config.windowMs + " ms and max buffer "
+                        + config.maxBufferMs + " ms");
+            }
+            if (cpuBudget <= 0 || cpuBudget > 1) {
+                throw new IllegalArgumentException(
+                        "CPU budget must be greater than 0 and at most 1 but was " + cpuBudget);
+            }
+            createdState = whisper.createState();
+            createdBuffer = WhisperAudioBuffer.allocate(config.maxBufferMs * SAMPLES_PER_MS);
+            this.state = createdState;
+            this.buffer = createdBuffer;
+            this.decoder = Thread.ofVirtual().name("whisper-live").unstarted(this::run);
+            decoder.start();
+        } catch (Throwable t) {
+            if (createdBuffer != null) {
+                createdBuffer.close();
+            }
+            if (createdState != null) {
+                createdState.close();
+            }
+            onClose.run();
+            throw t;
+        }
+    }
+
+    /**
+     * Appends samples to the stream, blocking while the buffer is full.
+     *
+     * @param samples 16 kHz mono samples
+     * @param timeout how long to wait for room in the buffer
+     * @return {@code false} if the buffer stayed full for the timeout, because decoding cannot keep up
+     * @throws InterruptedException if interrupted while waiting
+     * @throws IllegalStateException if the session is finished, closed or failed
+     */
+    public boolean write(float[] samples, Duration timeout) throws InterruptedException {
+        long capacity = buffer.samples().byteSize() / ValueLayout.JAVA_FLOAT.byteSize();
+        if (samples.length > capacity) {
+            throw new IllegalArgumentException("Cannot write more than " + capacity + " samples at once");
+        }
+        lock.lock();
+        try {
+            long remaining = timeout.toNanos();
+            while (true) {
+                if (finished || stopped) {
+                    throw new IllegalStateException("Live session does not accept audio anymore");
+                }
+                if (length + samples.length <= capacity) {
+                    break;
+                }
+                if (remaining <= 0) {
+                    return false;
+                }
+                remaining = changed.awaitNanos(remaining);
+            }
+            MemorySegment.copy(
+                    samples,
+                    0,
+                    buffer.samples(),
+                    ValueLayout.JAVA_FLOAT,
+                    (long) length * ValueLayout.JAVA_FLOAT.byteSize(),
+                    samples.length);
+            length += samples.length;
+            changed.signalAll();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Ends the stream. The remaining audio is transcribed and committed, then {@link Listener#onComplete()} is
+     * called.
+     */
+    public void finish() {
+        lock.lock();
+        try {
+            finished = true;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns how much audio is buffered but not yet committed.
+     *
+     * @return the buffered duration
+     */
+    public Duration getBuffered() {
+        lock.lock();
+        try {
+            return Duration.ofMillis(length / SAMPLES_PER_MS);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Aborts decoding and frees the whisper state of the session. Listeners are not called anymore once the
+     * running decode stopped.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            stopped = true;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        token.cancel();
+        if (Thread.currentThread() == decoder) {
+            closedByListener = true;
+            onClose.run();
+            return;
+        }
+        try {
+            decoder.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            state.close();
+            buffer.close();
+            onClose.run();
+        }
+    }
+
+    private void run() {
+        long nextDecode = System.nanoTime();
+        try {
+            while (true) {
+                int available;
+                boolean last;
+                lock.lock();
+                try {
+                    while (!closed && !finished) {
+                        long wait = nextDecode - System.nanoTime();
+                        if (length - decodedLength < stepSamples) {
+                            changed.await();
+                        } else if (wait > 0) {
+                            changed.awaitNanos(wait);
+                        } else {
+                            break;
+                        }
+                    }
+                    if (closed) {
+                        return;
+                    }
+                    available = length;
+                    last = finished;
+                } finally {
+                    lock.unlock();
+                }
+
+                long start = System.nanoTime();
+                boolean done = decode(available, last);
+                nextDecode = start + (long) ((System.nanoTime() - start) / cpuBudget);
+                if (done) {
+                    listener.onComplete();
+                    return;
+                }
+            }
+        } catch (CancellationException e) {
+            log.debug("Live session closed while decoding");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.warn("Live session failed", e);
+            listener.onError(e);
+        } finally {
+            lock.lock();
+            try {
+                stopped = true;
+                changed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            if (closedByListener) {
+                state.close();
+                buffer.close();
+            }
+        }
+    }
+
+    /**
+     * Transcribes the start of the buffer and commits the segments that are stable.
+     *
+     * @return whether the stream is finished and all of it is committed
+     */
+    private boolean decode(int available, boolean finished) {
+        int windowLength = Math.min(available, windowSamples);
+        boolean lastWindow = finished && windowLength == available;
+        boolean fullWindow = windowLength == windowSamples;
+
+        List<WhisperSegment> segments = windowLength == 0 ? List.of() : transcribe(windowLength);
+
+        int commit;
+        if (lastWindow) {
+            commit = segments.size();
+        } else {
+            commit = Math.max(0, Math.min(agreed(previousTexts, segments), segments.size() - 1));
+            if (fullWindow) {
+                commit = Math.max(commit, segments.size() > 1 ? segments.size() - 1 : segments.size());
+            }
+        }
+
+        long offset = committed / SAMPLES_PER_CENTISECOND;
+        for (WhisperSegment segment : segments.subList(0, commit)) {
+            listener.onFinal(shift(segment, offset));
+            prompt = LongAudioChunker.promptTail(
+                    new WhisperTranscription(prompt == null ? segment.text() : prompt + segment.text()));
+        }
+        List<WhisperSegment> partial = new ArrayList<>();
+        List<String> partialTexts = new ArrayList<>();
+        for (WhisperSegment segment : segments.subList(commit, segments.size())) {
+            partial.add(shift(segment, offset));
+            partialTexts.add(normalize(segment.text()));
+        }
+        listener.onPartial(partial);
+        previousTexts = partialTexts;
+
+        int advance;
+        if (lastWindow) {
+            advance = windowLength;
+        } else if (commit > 0) {
+            advance = (int) Math.min(windowLength, segments.get(commit - 1).end() * SAMPLES_PER_CENTISECOND);
+        } else if (fullWindow) {
+            // A full window without speech, keep its end in case a word starts there
+            advance = windowLength - stepSamples;
+        } else {
+            advance = 0;
+        }
+        drop(advance);
+        decodedLength = available - advance;
+        return lastWindow;
+    }
+
+    private List<WhisperSegment> transcribe(int windowLength) {
+        WhisperTranscriptionOptions decodeOptions = options.copy();
+        decodeOptions.initialPrompt = prompt;
+        MemorySegment window = buffer.samples().asSlice(0, windowLength * ValueLayout.JAVA_FLOAT.byteSize());
+        return whisper.transcribe(state, window, decodeOptions).getMetadata().getSegments().stream()
+                .filter(segment -> !segment.text().isBlank())
+                .toList();
+    }
+
+    /**
+     * Drops committed samples from the start of the buffer.
+     */
+    private void drop(int samples) {
+        if (samples == 0) {
+            return;
+        }
+        long sampleSize = ValueLayout.JAVA_FLOAT.byteSize();
+        lock.lock();
+        try {
+            MemorySegment.copy(
+                    buffer.samples(), samples * sampleSize, buffer.samples(), 0, (length - samples) * sampleSize);
+            length -= samples;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        committed += samples;
+    }
+
+    /**
+     * Returns how many leading segments equal the partial segments of the previous decode.
+     */
+    static int agreed(List<String> previousTexts, List<WhisperSegment> segments) {
+        int agreed = 0;
+        while (agreed < previousTexts.size()
+                && agreed < segments.size()
+                && previousTexts.get(agreed).equals(normalize(segments.get(agreed).text()))) {
+            agreed++;
+        }
+        return agreed;
+    }
+
+    /**
+     * Returns the words of a text in lower case without punctuation, so that decodes that only differ in those
+     * agree.
+     */
+    static String normalize(String text) {
+        return String.join(" ", text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}']+")).strip();
+    }
+
+    private static WhisperSegment shift(WhisperSegment segment, long offset) {
+        return new WhisperSegment(
+                segment.text(), segment.start() + offset, segment.end() + offset, segment.tokens(), segment.speaker());
+    }
+}
@@ -0,0 +1,12 @@
+package io.github.ferdinandmehlan.whisperspring;
+
+/**
+ * Thrown when a live session cannot be opened because the maximum number of live sessions is open, see
+ * {@link WhisperTranscriptionModel#initLiveTranscription(int, int, double)}.
+ */
+public class WhisperLiveSessionLimitException extends IllegalStateException {
+
+    public WhisperLiveSessionLimitException(String message) {
+        super(message);
+    }
+}
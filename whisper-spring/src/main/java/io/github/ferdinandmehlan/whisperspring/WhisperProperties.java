@@ -1,6 +1,11 @@
 package io.github.ferdinandmehlan.whisperspring;
 
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperModelLoadMode;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
 
 @ConfigurationProperties(prefix = "whisper")
 public class WhisperProperties {
@@ -9,6 +14,26 @@ public class WhisperProperties {
     private boolean noGpu = false;
     private boolean flashAttn = true;
     private int gpuDevice = 0;
+    private int statePoolSize = 1;
+    private int audioBufferPoolSize = 2;
+    private WhisperModelLoadMode modelLoadMode = WhisperModelLoadMode.FILE;
+    private boolean modelPrefetch = false;
+    private String modelsDir;
+    private DataSize modelsMemoryBudget = DataSize.ofGigabytes(8);
+    private DataSize modelsStateMemory = DataSize.ofMegabytes(256);
+    private String nativeLibraryDir;
+    private List<String> nativeLibraries = new ArrayList<>();
+    private Duration languageDetectionWindow = Duration.ofSeconds(30);
+    private int languageCacheSize = 1024;
+    private String englishModel;
+    private boolean melPipelining = false;
+    private Duration longAudioChunkLength = Duration.ZERO;
+    private Duration longAudioChunkOverlap = Duration.ofSeconds(1);
+    private String vadModelPath;
+    private int vadPoolSize = 1;
+    private int liveMaxSessions = 2;
+    private int liveThreads = 2;
+    private double liveCpuBudget = 0.5;
 
     public String getModelPath() {
         return modelPath;
@@ -41,4 +66,164 @@ public class WhisperProperties {
     public void setGpuDevice(int gpuDevice) {
         this.gpuDevice = gpuDevice;
     }
+
+    public int getStatePoolSize() {
+        return statePoolSize;
+    }
+
+    public void setStatePoolSize(int statePoolSize) {
+        this.statePoolSize = statePoolSize;
+    }
+
+    public int getAudioBufferPoolSize() {
+        return audioBufferPoolSize;
+    }
+
+    public void setAudioBufferPoolSize(int audioBufferPoolSize) {
+        this.audioBufferPoolSize = audioBufferPoolSize;
+    }
+
+    public WhisperModelLoadMode getModelLoadMode() {
+        return modelLoadMode;
+    }
+
+    public void setModelLoadMode(WhisperModelLoadMode modelLoadMode) {
+        this.modelLoadMode = modelLoadMode;
+    }
+
+    public boolean isModelPrefetch() {
+        return modelPrefetch;
+    }
+
+    public void setModelPrefetch(boolean modelPrefetch) {
+        this.modelPrefetch = modelPrefetch;
+    }
+
+    public String getModelsDir() {
+        return modelsDir;
+    }
+
+    public void setModelsDir(String modelsDir) {
+        this.modelsDir = modelsDir;
+    }
+
+    public DataSize getModelsMemoryBudget() {
+        return modelsMemoryBudget;
+    }
+
+    public void setModelsMemoryBudget(DataSize modelsMemoryBudget) {
+        this.modelsMemoryBudget = modelsMemoryBudget;
+    }
+
+    public DataSize getModelsStateMemory() {
+        return modelsStateMemory;
+    }
+
+    public void setModelsStateMemory(DataSize modelsStateMemory) {
+        this.modelsStateMemory = modelsStateMemory;
+    }
+
+    public String getNativeLibraryDir() {
+        return nativeLibraryDir;
+    }
+
+    public void setNativeLibraryDir(String nativeLibraryDir) {
+        this.nativeLibraryDir = nativeLibraryDir;
+    }
+
+    public List<String> getNativeLibraries() {
+        return nativeLibraries;
+    }
+
+    public void setNativeLibraries(List<String> nativeLibraries) {
+        this.nativeLibraries = nativeLibraries;
+    }
+
+    public Duration getLanguageDetectionWindow() {
+        return languageDetectionWindow;
+    }
+
+    public void setLanguageDetectionWindow(Duration languageDetectionWindow) {
+        this.languageDetectionWindow = languageDetectionWindow;
+    }
+
+    public int getLanguageCacheSize() {
+        return languageCacheSize;
+    }
+
+    public void setLanguageCacheSize(int languageCacheSize) {
+        this.languageCacheSize = languageCacheSize;
+    }
+
+    public String getEnglishModel() {
+        return englishModel;
+    }
+
+    public void setEnglishModel(String englishModel) {
+        this.englishModel = englishModel;
+    }
+
+    public boolean isMelPipelining() {
+        return melPipelining;
+    }
+
+    public void setMelPipelining(boolean melPipelining) {
+        this.melPipelining = melPipelining;
+    }
+
+    public Duration getLongAudioChunkLength() {
+        return longAudioChunkLength;
+    }
+
+    public void setLongAudioChunkLength(Duration longAudioChunkLength) {
+        this.longAudioChunkLength = longAudioChunkLength;
+    }
+
+    public Duration getLongAudioChunkOverlap() {
+        return longAudioChunkOverlap;
+    }
+
+    public void setLongAudioChunkOverlap(Duration longAudioChunkOverlap) {
+        this.longAudioChunkOverlap = longAudioChunkOverlap;
+    }
+
+    public String getVadModelPath() {
+        return vadModelPath;
+    }
+
+    public void setVadModelPath(String vadModelPath) {
+        this.vadModelPath = vadModelPath;
+    }
+
+    public int getVadPoolSize() {
+        return vadPoolSize;
+    }
+
+    public void setVadPoolSize(int vadPoolSize) {
+        this.vadPoolSize = vadPoolSize;
+    }
+
+    public int getLiveMaxSessions() {
+        return liveMaxSessions;
+    }
+
+    public void setLiveMaxSessions(int liveMaxSessions) {
+        this.liveMaxSessions = liveMaxSessions;
+    }
+
+    public int getLiveThreads() {
+        return liveThreads;
+    }
+
+    public void setLiveThreads(int liveThreads) {
+        this.liveThreads = liveThreads;
+    }
+
+    public double getLiveCpuBudget() {
+        return liveCpuBudget;
+    }
+
+    public void setLiveCpuBudget(double liveCpuBudget) {
+        this.liveCpuBudget = liveCpuBudget;
+    }
 }
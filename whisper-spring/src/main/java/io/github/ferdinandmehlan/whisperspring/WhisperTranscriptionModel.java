@@ -1,9 +1,38 @@
 package io.github.ferdinandmehlan.whisperspring;
 
+import io.github.ferdinandmehlan.whisperspring._native.WhisperAudioBuffer;
+import io.github.ferdinandmehlan.whisperspring._native.WhisperAudioBufferPool;
+import io.github.ferdinandmehlan.whisperspring._native.WhisperLanguageCache;
+import io.github.ferdinandmehlan.whisperspring._native.WhisperMel;
+import io.github.ferdinandmehlan.whisperspring._native.WhisperModelRegistry;
 import io.github.ferdinandmehlan.whisperspring._native.WhisperNative;
+import io.github.ferdinandmehlan.whisperspring._native.WhisperState;
+import io.github.ferdinandmehlan.whisperspring._native.WhisperStatePool;
+import io.github.ferdinandmehlan.whisperspring._native.WhisperVadPool;
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperLanguageDetection;
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperLiveConfig;
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperSegment;
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperSpeechSegment;
 import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperTranscription;
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperTranscriptionMetadata;
 import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperTranscriptionOptions;
 import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperTranscriptionResponse;
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperTranscriptionTimings;
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperVadConfig;
+import io.github.ferdinandmehlan.whisperspring._native.callback.WhisperCancellationToken;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.audio.transcription.AudioTranscriptionPrompt;
@@ -15,15 +44,60 @@ import org.springframework.core.io.Resource;
  * Handles model loading and audio transcription with configurable parameters.
  * Managed by {@link WhisperAutoConfiguration}; when {@code whisper.model-path} is
  * configured the underlying {@link io.github.ferdinandmehlan.whisperspring._native.WhisperNative}
- * is wired automatically.
+ * is wired automatically. If a {@link WhisperStatePool} is configured, transcriptions run
+ * concurrently on pooled states; otherwise they are serialized on the context's default state.
+ * Requests naming a model in their options are served by the {@link WhisperModelRegistry}, which is
+ * configured with {@code whisper.models-dir}.
+ * {@link #detectLanguage(Resource, Duration)} detects the spoken language from the start of the audio
+ * and caches the result per audio hash. With an English model configured, requests without a model whose
+ * audio is English are routed to it, see {@link #initLanguageDetection(Duration, int, String)}.
+ * With {@link #initMelPipelining(boolean) mel pipelining}, the log mel spectrogram is computed in Java before
+ * a whisper state is acquired, so it overlaps with the transcriptions holding the states.
+ * With {@link #initLongAudioChunking(Duration, Duration) chunking}, long audio is split at quiet frames and the
+ * chunks are transcribed concurrently on the states of the pool.
+ * With {@link WhisperTranscriptionOptions#diarize}, the channels of a stereo recording are transcribed,
+ * concurrently if the state pool has room for both, and merged by speaker, see {@link StereoDiarizer}.
+ * With a {@link #initVadPool(WhisperVadPool) VAD pool}, {@link #detectSpeech(Resource)} finds the speech regions
+ * of audio on long-lived Silero VAD contexts, and requests with {@link WhisperTranscriptionOptions#vad} skip
+ * whisper entirely for audio without speech.
+ * With {@link WhisperTranscriptionOptions#compactSilence}, long silent stretches are cut from the audio before it is
+ * transcribed, see {@link SilenceCompactor}.
+ * {@link #openLiveSession} transcribes audio while it is streamed in, on a whisper state of its own per session,
+ * see {@link WhisperLiveSession}.
+ * {@link #transcribeProgressively} transcribes an audio stream window by window while it is still being read.
  */
 public class WhisperTranscriptionModel implements TranscriptionModel {
 
     private static final Logger log = LoggerFactory.getLogger(WhisperTranscriptionModel.class.getName());
 
+    private static final int SAMPLES_PER_MS = 16;
+
+    /** Silence shorter than this is left in the audio by {@link WhisperTranscriptionOptions#compactSilence}. */
+    private static final Duration MIN_SILENCE = Duration.ofSeconds(1);
+
+    /** Silence kept at either end of a compacted stretch, so that whisper still sees a pause. */
+    private static final Duration SILENCE_PAUSE = Duration.ofMillis(200);
+
+    /** Whisper's own input length, so each window of a progressive transcription is decoded in one pass. */
+    private static final Duration PROGRESSIVE_WINDOW = Duration.ofSeconds(30);
+
     private final WaveService waveService;
+    private final WhisperAudioBufferPool audioBufferPool;
 
     private WhisperNative whisperNative;
+    private WhisperStatePool whisperStatePool;
+    private WhisperModelRegistry modelRegistry;
+    private Duration languageDetectionWindow = Duration.ofSeconds(30);
+    private WhisperLanguageCache languageCache = new WhisperLanguageCache(1024);
+    private String englishModel;
+    private boolean melPipelining;
+    private Duration chunkLength = Duration.ZERO;
+    private Duration chunkOverlap = Duration.ZERO;
+    private WhisperVadPool vadPool;
+    private int liveMaxSessions = 2;
+    private Semaphore liveSessions = new Semaphore(liveMaxSessions);
+    private int liveThreads = 2;
+    private double liveCpuBudget = 0.5;
 
     /**
      * Creates a new WhisperTranscriptionModel.
@@ -31,17 +105,121 @@ public class WhisperTranscriptionModel implements TranscriptionModel {
      * @param waveService the wave service for audio processing
      */
     public WhisperTranscriptionModel(WaveService waveService) {
+        this(waveService, new WhisperAudioBufferPool());
+    }
+
+    /**
+     * Creates a new WhisperTranscriptionModel decoding audio into buffers of the given pool.
+     *
+     * @param waveService the wave service for audio processing
+     * @param audioBufferPool the pool of off-heap sample buffers
+     */
+    public WhisperTranscriptionModel(WaveService waveService, WhisperAudioBufferPool audioBufferPool) {
         this.waveService = waveService;
+        this.audioBufferPool = audioBufferPool;
     }
 
     public void initWhisperNative(WhisperNative whisperNative) {
         this.whisperNative = whisperNative;
+        this.whisperStatePool = null;
+    }
+
+    /**
+     * Wires a state pool, and its model, so that transcriptions can run concurrently.
+     *
+     * @param whisperStatePool the pool to acquire states from
+     */
+    public void initWhisperStatePool(WhisperStatePool whisperStatePool) {
+        this.whisperNative = whisperStatePool.getWhisperNative();
+        this.whisperStatePool = whisperStatePool;
+    }
+
+    /**
+     * Wires a model registry so that requests can select a model by name.
+     *
+     * @param modelRegistry the registry to load named models from
+     */
+    public void initWhisperModelRegistry(WhisperModelRegistry modelRegistry) {
+        this.modelRegistry = modelRegistry;
+    }
+
+    /**
+     * Configures language detection and routing of English audio.
+     *
+     * @param window how much audio from the start is used to detect the language
+     * @param cacheSize the number of detections cached by audio hash
+     * @param englishModel the registry model, e.g. {@code base.en}, that transcribes requests without a model
+     *                     whose audio is English, or {@code null} to not route by language
+     */
+    public void initLanguageDetection(Duration window, int cacheSize, String englishModel) {
+        this.languageDetectionWindow = window;
+        this.languageCache = new WhisperLanguageCache(cacheSize);
+        this.englishModel = englishModel;
+    }
+
+    /**
+     * Enables computing the log mel spectrogram of a request before it waits for a whisper state or the
+     * default state's lock. Requests using VAD or token timestamps still let whisper compute it.
+     *
+     * @param melPipelining whether to compute the spectrogram ahead of the state
+     */
+    public void initMelPipelining(boolean melPipelining) {
+        this.melPipelining = melPipelining;
+    }
+
+    /**
+     * Enables transcribing long audio in chunks that run concurrently on the states of the pool, see
+     * {@link LongAudioChunker}. Audio is only chunked with a state pool of more than one state.
+     *
+     * @param chunkLength the target length of a chunk, or zero to transcribe audio of any length in one pass
+     * @param chunkOverlap the audio transcribed beyond either end of a chunk for context
+     */
+    public void initLongAudioChunking(Duration chunkLength, Duration chunkOverlap) {
+        this.chunkLength = chunkLength;
+        this.chunkOverlap = chunkOverlap;
+    }
+
+    /**
+     * Wires a pool of loaded VAD models for {@link #detectSpeech(Resource)}. Requests with
+     * {@link WhisperTranscriptionOptions#vad} but without a VAD model path use the pool's model, and
+     * audio in which the pool detects no speech is not transcribed.
+     *
+     * @param vadPool the pool to acquire VAD contexts from
+     */
+    public void initVadPool(WhisperVadPool vadPool) {
+        this.vadPool = vadPool;
+    }
+
+    /**
+     * Limits live transcription, see {@link #openLiveSession}.
+     *
+     * @param maxSessions the number of live sessions that may be open at once, each holding a whisper state
+     * @param threads the threads each live session decodes with
+     * @param cpuBudget the share of the wall time each live session may spend decoding, greater than 0 and at most 1
+     */
+    public void initLiveTranscription(int maxSessions, int threads, double cpuBudget) {
+        this.liveMaxSessions = maxSessions;
+        this.liveSessions = new Semaphore(maxSessions);
+        this.liveThreads = threads;
+        this.liveCpuBudget = cpuBudget;
+    }
+
+    public WhisperModelRegistry getWhisperModelRegistry() {
+        return modelRegistry;
     }
 
     public WhisperNative getWhisperNative() {
         return whisperNative;
     }
 
+    public WhisperStatePool getWhisperStatePool() {
+        return whisperStatePool;
+    }
+
+    public WhisperVadPool getVadPool() {
+        return vadPool;
+    }
+
     /**
      * Transcribes an audio file using default configuration.
      *
@@ -50,28 +228,518 @@ public class WhisperTranscriptionModel implements TranscriptionModel {
      */
     @Override
     public WhisperTranscriptionResponse call(AudioTranscriptionPrompt prompt) {
+        WhisperTranscriptionOptions options = resolveOptions(prompt);
+        checkModel(options);
+
+        Resource audioFile = prompt.getInstructions();
+        if (options.diarize) {
+            return transcribeChannels(audioFile, options);
+        }
+        log.info("Encoding wave samples from {}", audioFile.getFilename());
+        long decodeStart = System.nanoTime();
+        try (WhisperAudioBuffer audioBuffer = waveService.toAudioBuffer(audioFile, audioBufferPool)) {
+            double wavDecodeMs = (System.nanoTime() - decodeStart) / 1_000_000.0;
+            if (options.vad && vadPool != null && detectSpeech(audioBuffer.samples(), options.vadConfig).isEmpty()) {
+                log.info("No speech detected in audio file: {}", audioFile.getFilename());
+                WhisperTranscriptionTimings timings = new WhisperTranscriptionTimings(wavDecodeMs, 0, 0, 0, 0, 0);
+                return new WhisperTranscriptionResponse(new WhisperTranscription("")
+                        .withTranscriptionMetadata(new WhisperTranscriptionMetadata(List.of(), timings)));
+            }
+            WhisperTranscriptionOptions routed = routeByLanguage(audioBuffer.samples(), withVadModel(options));
+            log.info("Transcribing audio file: {}", audioFile.getFilename());
+            WhisperTranscription transcription = canCompactSilence(routed)
+                    ? transcribeCompacted(audioBuffer.samples(), routed)
+                    : transcribeRouted(audioBuffer.samples(), routed);
+            log.info("Finished transcribing audio file: {}", audioFile.getFilename());
+            return new WhisperTranscriptionResponse(withTimings(transcription, t -> t.withWavDecodeMs(wavDecodeMs)));
+        }
+    }
+
+    /**
+     * Transcribes WAV or FLAC audio while it is read from a stream, e.g. an upload that is still arriving. Windows of
+     * about 30 seconds, cut at quiet frames, are transcribed as soon as they have been decoded, so inference overlaps
+     * with reading the rest of the stream, see {@link ProgressiveTranscriber}. Offsets, durations, diarization and
+     * silence compaction of the options do not apply.
+     *
+     * @param audio the audio stream, which is not closed
+     * @param options the transcription options
+     * @param onSegment receives the segments of each window once it is transcribed, with timestamps from the start
+     *     of the stream
+     * @return the transcription of the whole stream
+     * @throws IOException if the stream cannot be read
+     * @throws IllegalArgumentException if the audio is not in a supported format
+     */
+    public WhisperTranscription transcribeProgressively(
+            InputStream audio, WhisperTranscriptionOptions options, Consumer<WhisperSegment> onSegment)
+            throws IOException {
+        checkModel(options);
+        WhisperTranscriptionOptions windowOptions = withVadModel(options).copy();
+        windowOptions.offsetMs = 0;
+        windowOptions.durationMs = 0;
+        long windowSamples = PROGRESSIVE_WINDOW.toMillis() * SAMPLES_PER_MS;
+        try (ProgressiveTranscriber transcriber = new ProgressiveTranscriber(
+                audioBufferPool, windowSamples, windowOptions, this::transcribeRouted, onSegment)) {
+            waveService.decodeProgressively(audio, transcriber);
+            WhisperTranscription transcription = transcriber.finish();
+            log.info("Finished transcribing audio stream");
+            return transcription;
+        }
+    }
+
+    private void checkModel(WhisperTranscriptionOptions options) {
+        if (options.model != null && this.modelRegistry == null) {
+            throw new IllegalStateException("Model " + options.model
+                    + " was requested but no model registry is configured. Set whisper.models-dir.");
+        }
+        if (options.model == null && this.whisperNative == null) {
+            throw new IllegalStateException(
+                    "WhisperNative has not been initialized yet. Ensure initWhisperNative() is called before processing requests.");
+        }
+    }
+
+    private WhisperTranscription transcribeRouted(MemorySegment samples, WhisperTranscriptionOptions options) {
+        return options.model == null
+                ? transcribeSamples(whisperNative, whisperStatePool, samples, options)
+                : transcribeWithModel(samples, options);
+    }
+
+    /**
+     * Silence is only cut if the whole audio is transcribed and no segment is handed out before its timestamps
+     * are mapped back to the original audio.
+     */
+    private static boolean canCompactSilence(WhisperTranscriptionOptions options) {
+        return options.compactSilence
+                && options.offsetMs == 0
+                && options.durationMs == 0
+                && options.newSegmentCallback == null;
+    }
+
+    /**
+     * Transcribes the audio without its long silent stretches and maps the timestamps back to the original audio.
+     */
+    private WhisperTranscription transcribeCompacted(MemorySegment samples, WhisperTranscriptionOptions options) {
+        SilenceCompactor.Compaction compaction = SilenceCompactor.plan(
+                samples, MIN_SILENCE.toMillis() * SAMPLES_PER_MS, SILENCE_PAUSE.toMillis() * SAMPLES_PER_MS);
+        if (compaction.spans().size() == 1) {
+            return transcribeRouted(samples, options);
+        }
+
+        log.info("Removed {} ms of silence", compaction.removed().toMillis());
+        try (WhisperAudioBuffer compacted = audioBufferPool.acquire(Math.toIntExact(compaction.targetLength()))) {
+            compaction.copy(samples, compacted.samples());
+            return compaction.remap(transcribeRouted(compacted.samples(), options));
+        }
+    }
+
+    /**
+     * Transcribes the two channels of a stereo recording and merges their segments by speaker. With a state pool of
+     * at least two states the channels run at the same time, each on its own state; otherwise one after the other.
+     */
+    private WhisperTranscriptionResponse transcribeChannels(Resource audioFile, WhisperTranscriptionOptions options) {
+        log.info("Encoding wave samples per channel from {}", audioFile.getFilename());
+        long decodeStart = System.nanoTime();
+        List<WhisperAudioBuffer> channels = waveService.toChannelBuffers(audioFile, audioBufferPool);
+        try {
+            if (channels.size() != 2) {
+                throw new IllegalArgumentException(
+                        "Diarization requires stereo audio, got " + channels.size() + " channel(s)");
+            }
+            double wavDecodeMs = (System.nanoTime() - decodeStart) / 1_000_000.0;
+            List<MemorySegment> samples = channels.stream().map(WhisperAudioBuffer::samples).toList();
+            WhisperTranscriptionOptions channelOptions = routeByLanguage(samples.getFirst(), options).copy();
+            channelOptions.diarize = false;
+
+            log.info("Transcribing channels of audio file: {}", audioFile.getFilename());
+            WhisperTranscription transcription =
+                    StereoDiarizer.merge(transcribeChannels(samples, channelOptions), samples);
+            log.info("Finished transcribing audio file: {}", audioFile.getFilename());
+            return new WhisperTranscriptionResponse(withTimings(transcription, t -> t.withWavDecodeMs(wavDecodeMs)));
+        } finally {
+            channels.forEach(WhisperAudioBuffer::close);
+        }
+    }
+
+    private List<WhisperTranscription> transcribeChannels(
+            List<MemorySegment> samples, WhisperTranscriptionOptions options) {
+        if (options.model == null) {
+            return transcribeChannels(whisperNative, whisperStatePool, samples, options);
+        }
+        try (WhisperModelRegistry.Lease lease = modelRegistry.acquire(options.model)) {
+            return transcribeChannels(lease.getWhisperNative(), lease.getStatePool(), samples, options);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to load model " + options.model, e);
+        }
+    }
+
+    private List<WhisperTranscription> transcribeChannels(
+            WhisperNative whisper,
+            WhisperStatePool whisperStatePool,
+            List<MemorySegment> samples,
+            WhisperTranscriptionOptions options) {
+        if (whisperStatePool == null || whisperStatePool.getSize() < 2) {
+            // A single state would serialize the channels anyway, and extra states are not budgeted
+            return samples.stream()
+                    .map(channel -> transcribeSamples(whisper, whisperStatePool, channel, options))
+                    .toList();
+        }
+
+        Executor executor = task -> Thread.ofVirtual().start(task);
+        List<CompletableFuture<WhisperTranscription>> futures = samples.stream()
+                .map(channel -> CompletableFuture.supplyAsync(
+                        () -> transcribeSamples(whisper, whisperStatePool, channel, options), executor))
+                .toList();
+        // Wait for both even if one fails, the other still reads its buffer
+        try {
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+        return futures.stream().map(CompletableFuture::join).toList();
+    }
+
+    /**
+     * Detects the spoken language of an audio file from its start, see {@link #detectLanguage(Resource, Duration)}.
+     *
+     * @param audioFile the audio file
+     * @return the detected language
+     */
+    public WhisperLanguageDetection detectLanguage(Resource audioFile) {
+        return detectLanguage(audioFile, languageDetectionWindow);
+    }
+
+    /**
+     * Detects the spoken language of an audio file with the default model.
+     * Only the given window from the start of the audio is read and decoded, and only it goes into the
+     * spectrogram; whisper encodes at most 30 seconds of it. Detections are cached by the hash of the window's samples.
+     *
+     * @param audioFile the audio file
+     * @param window how much audio from the start to detect the language from
+     * @return the detected language
+     * @throws IllegalStateException if no model is loaded or the default model is English-only
+     */
+    public WhisperLanguageDetection detectLanguage(Resource audioFile, Duration window) {
         if (this.whisperNative == null) {
             throw new IllegalStateException(
                     "WhisperNative has not been initialized yet. Ensure initWhisperNative() is called before processing requests.");
         }
+        long windowSamples = window.toMillis() * SAMPLES_PER_MS;
+        try (WhisperAudioBuffer audioBuffer = waveService.toAudioBuffer(audioFile, audioBufferPool, windowSamples)) {
+            return detectLanguage(audioBuffer.samples(), window, new WhisperTranscriptionOptions().nThreads);
+        }
+    }
 
-        WhisperTranscriptionOptions options =
-                switch (prompt.getOptions()) {
-                    case null -> new WhisperTranscriptionOptions();
-                    case WhisperTranscriptionOptions opts -> opts;
-                    default ->
-                        throw new IllegalArgumentException(
-                                "Unsupported options type [%s]. Whisper Native provider requires an instance of WhisperTranscriptionOptions."
-                                        .formatted(
-                                                prompt.getOptions().getClass().getName()));
-                };
+    private WhisperLanguageDetection detectLanguage(MemorySegment samples, Duration window, int nThreads) {
+        long windowSamples = Math.min(
+                samples.byteSize() / ValueLayout.JAVA_FLOAT.byteSize(), window.toMillis() * SAMPLES_PER_MS);
+        MemorySegment head = samples.asSlice(0, windowSamples * ValueLayout.JAVA_FLOAT.byteSize());
+        String key = WhisperLanguageCache.key(head);
+        WhisperLanguageDetection detection = languageCache.get(key);
+        if (detection != null) {
+            return detection;
+        }
 
-        Resource audioFile = prompt.getInstructions();
-        log.info("Encoding wave samples from {}", audioFile.getFilename());
-        float[] audioData = waveService.toWaveSamples(audioFile);
-        log.info("Transcribing audio file: {}", audioFile.getFilename());
-        WhisperTranscription transcription = whisperNative.transcribe(audioData, options);
-        log.info("Finished transcribing audio file: {}", audioFile.getFilename());
-        return new WhisperTranscriptionResponse(transcription);
+        detection = whisperStatePool == null
+                ? whisperNative.detectLanguage(head, nThreads)
+                : withState(whisperStatePool, state -> whisperNative.detectLanguage(state, head, nThreads));
+        languageCache.put(key, detection);
+        return detection;
+    }
+
+    /**
+     * Detects the regions of speech in an audio file with default VAD settings, see
+     * {@link #detectSpeech(Resource, WhisperVadConfig)}.
+     *
+     * @param audioFile the audio file
+     * @return the speech regions in order
+     */
+    public List<WhisperSpeechSegment> detectSpeech(Resource audioFile) {
+        return detectSpeech(audioFile, new WhisperVadConfig());
+    }
+
+    /**
+     * Detects the regions of speech in an audio file on a context of the VAD pool. The VAD model stays
+     * loaded between calls, so this costs one pass of the small Silero model over the audio.
+     *
+     * @param audioFile the audio file
+     * @param vadConfig the thresholds and durations that turn speech probabilities into regions
+     * @return the speech regions in order, empty if the audio contains no speech
+     * @throws IllegalStateException if no VAD pool is configured
+     */
+    public List<WhisperSpeechSegment> detectSpeech(Resource audioFile, WhisperVadConfig vadConfig) {
+        if (this.vadPool == null) {
+            throw new IllegalStateException("No VAD model is configured. Set whisper.vad-model-path.");
+        }
+        try (WhisperAudioBuffer audioBuffer = waveService.toAudioBuffer(audioFile, audioBufferPool)) {
+            return detectSpeech(audioBuffer.samples(), vadConfig);
+        }
+    }
+
+    private List<WhisperSpeechSegment> detectSpeech(MemorySegment samples, WhisperVadConfig vadConfig) {
+        return vadPool.detectSpeech(samples, vadConfig != null ? vadConfig : new WhisperVadConfig());
+    }
+
+    /**
+     * Opens a session that transcribes audio while it is streamed in. The session decodes on a whisper state of its
+     * own, created for the default model, so it does not wait for the states of the pool and does not hold one.
+     * The threads of the options are replaced by those of {@link #initLiveTranscription(int, int, double)}.
+     *
+     * @param options the transcription options, e.g. the language
+     * @param config the step and window of the session
+     * @param listener receives the final and partial segments
+     * @return the session, which must be closed
+     * @throws WhisperLiveSessionLimitException if the maximum number of live sessions is open
+     */
+    public WhisperLiveSession openLiveSession(
+            WhisperTranscriptionOptions options, WhisperLiveConfig config, WhisperLiveSession.Listener listener) {
+        if (this.whisperNative == null) {
+            throw new IllegalStateException("WhisperNative has not been initialized yet. Ensure initWhisperNative() "
+                    + "is called before opening live sessions.");
+        }
+        WhisperTranscriptionOptions liveOptions = options.copy();
+        liveOptions.nThreads = liveThreads;
+        Semaphore sessions = liveSessions;
+        if (!sessions.tryAcquire()) {
+            throw new WhisperLiveSessionLimitException("All " + liveMaxSessions + " live sessions are in use");
+        }
+        // The session releases the permit when it is closed, or right away if it fails to start
+        return new WhisperLiveSession(whisperNative, liveOptions, config, liveCpuBudget, listener, sessions::release);
+    }
+
+    /**
+     * Lets whisper's own VAD pass use the model of the VAD pool if the request does not name one.
+     */
+    private WhisperTranscriptionOptions withVadModel(WhisperTranscriptionOptions options) {
+        if (!options.vad || vadPool == null || options.vadModelPath != null) {
+            return options;
+        }
+        WhisperTranscriptionOptions withModel = options.copy();
+        withModel.vadModelPath = vadPool.getModelPath();
+        return withModel;
+    }
+
+    /**
+     * Routes a request without a model to the English model if its audio is English. Otherwise
+     * requests with automatic language detection get the detected language, so that whisper does
+     * not detect it again.
+     */
+    private WhisperTranscriptionOptions routeByLanguage(MemorySegment samples, WhisperTranscriptionOptions options) {
+        if (englishModel == null
+                || modelRegistry == null
+                || options.model != null
+                || options.detectLanguage
+                || whisperNative == null
+                || !whisperNative.isMultilingual()) {
+            return options;
+        }
+
+        WhisperTranscriptionOptions routed = options.copy();
+        if (options.language == null || options.language.equals("auto")) {
+            WhisperLanguageDetection detection = detectLanguage(samples, languageDetectionWindow, options.nThreads);
+            log.info("Detected language {} (p = {})", detection.language(), detection.probability());
+            routed.language = detection.language();
+        }
+        if (routed.language.equals("en")) {
+            routed.model = englishModel;
+        }
+        return routed;
+    }
+
+    /**
+     * Transcribes an audio file asynchronously on a virtual thread.
+     *
+     * @param prompt the prompt containing the resource and options
+     * @return future of the audio transcription response, see {@link #submit(AudioTranscriptionPrompt, Executor)}
+     */
+    public CompletableFuture<WhisperTranscriptionResponse> submit(AudioTranscriptionPrompt prompt) {
+        return submit(prompt, task -> Thread.ofVirtual().start(task));
+    }
+
+    /**
+     * Transcribes an audio file asynchronously on the given executor.
+     * Cancelling the returned future aborts the native decode at whisper's next abort check and
+     * releases its whisper state. The options are copied; a {@link WhisperCancellationToken} set as
+     * their abort callback is reused, so its deadline still applies, any other abort callback is replaced.
+     *
+     * @param prompt the prompt containing the resource and options
+     * @param executor the executor to run the transcription on
+     * @return future of the audio transcription response
+     */
+    public CompletableFuture<WhisperTranscriptionResponse> submit(AudioTranscriptionPrompt prompt, Executor executor) {
+        WhisperTranscriptionOptions options = resolveOptions(prompt).copy();
+        WhisperCancellationToken token = options.abortCallback instanceof WhisperCancellationToken existing
+                ? existing
+                : new WhisperCancellationToken();
+        options.abortCallback = token;
+        AudioTranscriptionPrompt cancellablePrompt = new AudioTranscriptionPrompt(prompt.getInstructions(), options);
+
+        CompletableFuture<WhisperTranscriptionResponse> future = new CompletableFuture<>() {
+            @Override
+            public boolean cancel(boolean mayInterruptIfRunning) {
+                token.cancel();
+                return super.cancel(mayInterruptIfRunning);
+            }
+        };
+        executor.execute(() -> {
+            if (future.isDone()) {
+                return;
+            }
+            try {
+                future.complete(call(cancellablePrompt));
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+        });
+        return future;
+    }
+
+    private WhisperTranscriptionOptions resolveOptions(AudioTranscriptionPrompt prompt) {
+        return switch (prompt.getOptions()) {
+            case null -> new WhisperTranscriptionOptions();
+            case WhisperTranscriptionOptions opts -> opts;
+            default ->
+                throw new IllegalArgumentException(
+                        "Unsupported options type [%s]. Whisper Native provider requires an instance of WhisperTranscriptionOptions."
+                                .formatted(prompt.getOptions().getClass().getName()));
+        };
+    }
+
+    private WhisperTranscription transcribeWithModel(MemorySegment audioData, WhisperTranscriptionOptions options) {
+        try (WhisperModelRegistry.Lease lease = modelRegistry.acquire(options.model)) {
+            return transcribeSamples(lease.getWhisperNative(), lease.getStatePool(), audioData, options);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to load model " + options.model, e);
+        }
+    }
+
+    private WhisperTranscription transcribeSamples(
+            WhisperNative whisperNative,
+            WhisperStatePool whisperStatePool,
+            MemorySegment audioData,
+            WhisperTranscriptionOptions options) {
+        if (canChunk(whisperStatePool, audioData, options)) {
+            List<LongAudioChunker.Chunk> chunks = LongAudioChunker.plan(
+                    audioData, chunkLength.toMillis() * SAMPLES_PER_MS, chunkOverlap.toMillis() * SAMPLES_PER_MS);
+            if (chunks.size() > 1) {
+                return transcribeChunks(whisperNative, whisperStatePool, audioData, chunks, options);
+            }
+        }
+        return transcribePass(whisperNative, whisperStatePool, audioData, options);
+    }
+
+    /**
+     * Long audio is chunked if there is more than one state to spread it over. Requests that position into the
+     * audio or stream segments as they are decoded run in one pass, as chunks would decode out of order.
+     */
+    private boolean canChunk(
+            WhisperStatePool whisperStatePool, MemorySegment audioData, WhisperTranscriptionOptions options) {
+        return !chunkLength.isZero()
+                && whisperStatePool != null
+                && whisperStatePool.getSize() > 1
+                && options.offsetMs == 0
+                && options.durationMs == 0
+                && options.newSegmentCallback == null
+                && audioData.byteSize() / ValueLayout.JAVA_FLOAT.byteSize() > chunkLength.toMillis() * SAMPLES_PER_MS;
+    }
+
+    /**
+     * Transcribes the chunks of long audio concurrently. The chunks are divided into one contiguous run per state
+     * of the pool. Each run is transcribed in order, prompting every chunk with the end of the text of the chunk
+     * before it, so only the first chunk of a run starts without the preceding text.
+     */
+    private WhisperTranscription transcribeChunks(
+            WhisperNative whisperNative,
+            WhisperStatePool whisperStatePool,
+            MemorySegment audioData,
+            List<LongAudioChunker.Chunk> chunks,
+            WhisperTranscriptionOptions options) {
+        int runs = Math.min(whisperStatePool.getSize(), chunks.size());
+        log.info("Transcribing {} chunks in {} concurrent runs", chunks.size(), runs);
+        WhisperTranscription[] transcriptions = new WhisperTranscription[chunks.size()];
+        Executor executor = task -> Thread.ofVirtual().start(task);
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[runs];
+        for (int run = 0; run < runs; run++) {
+            int first = run * chunks.size() / runs;
+            int last = (run + 1) * chunks.size() / runs;
+            futures[run] = CompletableFuture.runAsync(
+                    () -> {
+                        String prompt = options.initialPrompt;
+                        for (int i = first; i < last; i++) {
+                            WhisperTranscriptionOptions chunkOptions = options.copy();
+                            chunkOptions.initialPrompt = prompt;
+                            MemorySegment chunk = chunks.get(i).slice(audioData);
+                            transcriptions[i] = transcribePass(whisperNative, whisperStatePool, chunk, chunkOptions);
+                            prompt = LongAudioChunker.promptTail(transcriptions[i]);
+                        }
+                    },
+                    executor);
+        }
+        try {
+            CompletableFuture.allOf(futures).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+        return LongAudioChunker.stitch(chunks, List.of(transcriptions));
+    }
+
+    private WhisperTranscription transcribePass(
+            WhisperNative whisperNative,
+            WhisperStatePool whisperStatePool,
+            MemorySegment audioData,
+            WhisperTranscriptionOptions options) {
+        if (!melPipelining || !WhisperNative.canTranscribeFromMel(audioData, options)) {
+            return transcribeOnState(
+                    whisperStatePool,
+                    state -> state == null
+                            ? whisperNative.transcribe(audioData, options)
+                            : whisperNative.transcribe(state, audioData, options));
+        }
+
+        try (WhisperMel mel = whisperNative.computeMel(audioData, options.nThreads)) {
+            return transcribeOnState(
+                    whisperStatePool,
+                    state -> state == null
+                            ? whisperNative.transcribe(mel, options)
+                            : whisperNative.transcribe(state, mel, options));
+        }
+    }
+
+    /**
+     * Runs a transcription on a state of the pool, or on the default state ({@code null}) without a pool.
+     */
+    private static WhisperTranscription transcribeOnState(
+            WhisperStatePool whisperStatePool, Function<WhisperState, WhisperTranscription> transcribe) {
+        if (whisperStatePool == null) {
+            return transcribe.apply(null);
+        }
+
+        long waitStart = System.nanoTime();
+        return withState(whisperStatePool, state -> {
+            double stateWaitMs = (System.nanoTime() - waitStart) / 1_000_000.0;
+            return withTimings(transcribe.apply(state), t -> t.withStateWaitMs(stateWaitMs));
+        });
+    }
+
+    private static <T> T withState(WhisperStatePool whisperStatePool, Function<WhisperState, T> task) {
+        WhisperState state;
+        try {
+            state = whisperStatePool.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a whisper state", e);
+        }
+        try {
+            return task.apply(state);
+        } finally {
+            whisperStatePool.release(state);
+        }
+    }
+
+    private static WhisperTranscription withTimings(
+            WhisperTranscription transcription, UnaryOperator<WhisperTranscriptionTimings> update) {
+        WhisperTranscriptionMetadata metadata = transcription.getMetadata();
+        if (metadata.getTimings() == null) {
+            return transcription;
+        }
+        return transcription.withTranscriptionMetadata(metadata.withTimings(update.apply(metadata.getTimings())));
     }
 }
@@ -0,0 +1,180 @@
+package io.github.ferdinandmehlan.whisperspring._native;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Off-heap buffer of 32-bit float audio samples that can be passed to whisper without copying.
+ * Buffers obtained from a {@link WhisperAudioBufferPool} are returned to the pool on {@link #close()},
+ * standalone buffers free their memory. Buffers too large for the pool are backed by a memory-mapped temporary
+ * file, so that multi-hour audio is paged by the operating system instead of pinning physical memory.
+ * Closing a buffer more than once has no effect.
+ */
+public class WhisperAudioBuffer implements AutoCloseable {
+
+    private final WhisperAudioBufferPool pool;
+    private final int sizeClass;
+    private final Arena arena;
+    private final MemorySegment segment;
+    private final Path file;
+    private final AtomicBoolean open = new AtomicBoolean(true);
+    private int length;
+
+    WhisperAudioBuffer(WhisperAudioBufferPool pool, int sizeClass, long capacity) {
+        this.pool = pool;
+        this.sizeClass = sizeClass;
+        this.arena = Arena.ofShared();
+        this.segment = arena.allocate(ValueLayout.JAVA_FLOAT, capacity);
+        this.file = null;
+    }
+
+    private WhisperAudioBuffer(Arena arena, MemorySegment segment, Path file) {
+        this.pool = null;
+        this.sizeClass = -1;
+        this.arena = arena;
+        this.segment = segment;
+        this.file = file;
+    }
+
+    /**
+     * Allocates a standalone buffer that is not backed by a pool.
+     *
+     * @param capacity the number of samples the buffer can hold
+     * @return a new buffer, freed on {@link #close()}
+     */
+    public static WhisperAudioBuffer allocate(int capacity) {
+        WhisperAudioBuffer buffer = new WhisperAudioBuffer(null, -1, capacity);
+        buffer.setLength(capacity);
+        return buffer;
+    }
+
+    /**
+     * Allocates a standalone buffer backed by a memory-mapped temporary file, which is deleted on {@link #close()}.
+     *
+     * @param capacity the number of samples the buffer can hold
+     * @return a new buffer, unmapped and deleted on {@link #close()}
+     */
+    public static WhisperAudioBuffer mapTemporaryFile(long capacity) {
+        Arena arena = Arena.ofShared();
+        Path file = null;
+        try {
+            file = Files.createTempFile("whisper-audio", ".f32");
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                MemorySegment segment = channel.map(
+                        FileChannel.MapMode.READ_WRITE, 0, capacity * ValueLayout.JAVA_FLOAT.byteSize(), arena);
+                WhisperAudioBuffer buffer = new WhisperAudioBuffer(arena, segment, file);
+                buffer.setLength(Math.toIntExact(capacity));
+                return buffer;
+            }
+        } catch (IOException e) {
+            arena.close();
+            deleteQuietly(file);
+            throw new UncheckedIOException("Failed to map temporary audio buffer of " + capacity + " samples", e);
+        } catch (RuntimeException e) {
+            arena.close();
+            deleteQuietly(file);
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the number of samples the buffer can hold.
+     *
+     * @return the capacity in samples
+     */
+    public long capacity() {
+        return segment.byteSize() / ValueLayout.JAVA_FLOAT.byteSize();
+    }
+
+    /**
+     * Returns the number of valid samples.
+     *
+     * @return the length in samples
+     */
+    public int length() {
+        return length;
+    }
+
+    /**
+     * Sets the number of valid samples.
+     *
+     * @param length the length in samples, at most {@link #capacity()}
+     */
+    public void setLength(int length) {
+        if (length < 0 || length > capacity()) {
+            throw new IllegalArgumentException("Length " + length + " exceeds buffer capacity " + capacity());
+        }
+        this.length = length;
+    }
+
+    /**
+     * Returns the valid samples as a native segment of {@code length} floats.
+     *
+     * @return the sample segment
+     */
+    public MemorySegment samples() {
+        return segment.asSlice(0, length * ValueLayout.JAVA_FLOAT.byteSize());
+    }
+
+    /**
+     * Copies the valid samples onto the heap.
+     *
+     * @return a new float array
+     */
+    public float[] toArray() {
+        return samples().toArray(ValueLayout.JAVA_FLOAT);
+    }
+
+    int sizeClass() {
+        return sizeClass;
+    }
+
+    /**
+     * Marks a buffer taken from the idle buffers of its pool as in use again.
+     */
+    void reopen() {
+        open.set(true);
+    }
+
+    /**
+     * Frees the memory and, for a mapped buffer, deletes its file once it is unmapped.
+     */
+    void free() {
+        arena.close();
+        deleteQuietly(file);
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            file.toFile().deleteOnExit();
+        }
+    }
+
+    /**
+     * Returns the buffer to its pool, or frees it if it is standalone. Only the first call has an effect.
+     */
+    @Override
+    public void close() {
+        if (!open.compareAndSet(true, false)) {
+            return;
+        }
+        if (pool != null) {
+            pool.release(this);
+        } else {
+            free();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package io.github.ferdinandmehlan.whisperspring._native;
+
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Slab pool of reusable off-heap {@link WhisperAudioBuffer}s in power-of-two size classes.
+ * The smallest class holds 2^16 samples (about 4 seconds at 16 kHz), the largest 2^27 samples
+ * (about 2.3 hours). Requests above the largest class are spilled to a memory-mapped temporary file that is
+ * deleted on close.
+ * At most {@code maxIdlePerClass} released buffers are retained per class, and only for classes up to 2^22 samples
+ * (about 4.4 minutes); larger buffers are freed on release, so the idle pool never pins more than
+ * {@code maxIdlePerClass} times 32 MB.
+ */
+public class WhisperAudioBufferPool implements AutoCloseable {
+
+    private static final int MIN_CLASS_BITS = 16;
+    private static final int MAX_CLASS_BITS = 27;
+    private static final int MAX_RETAINED_CLASS_BITS = 22;
+    private static final int CLASSES = MAX_CLASS_BITS - MIN_CLASS_BITS + 1;
+
+    private final int maxIdlePerClass;
+    private final ConcurrentLinkedDeque<WhisperAudioBuffer>[] idle;
+    private final AtomicIntegerArray idleCounts = new AtomicIntegerArray(CLASSES);
+    private volatile boolean closed;
+
+    /**
+     * Creates a pool retaining up to two idle buffers per size class.
+     */
+    public WhisperAudioBufferPool() {
+        this(2);
+    }
+
+    /**
+     * Creates a pool.
+     *
+     * @param maxIdlePerClass the number of released buffers kept per size class
+     */
+    @SuppressWarnings("unchecked")
+    public WhisperAudioBufferPool(int maxIdlePerClass) {
+        this.maxIdlePerClass = maxIdlePerClass;
+        this.idle = new ConcurrentLinkedDeque[CLASSES];
+        for (int i = 0; i < CLASSES; i++) {
+            idle[i] = new ConcurrentLinkedDeque<>();
+        }
+    }
+
+    /**
+     * Acquires a buffer holding at least {@code samples} samples, with its length set to {@code samples}.
+     *
+     * @param samples the number of samples needed
+     * @return a buffer that must be closed to return it to the pool
+     */
+    public WhisperAudioBuffer acquire(int samples) {
+        int sizeClass = sizeClass(samples);
+        if (sizeClass < 0) {
+            return WhisperAudioBuffer.mapTemporaryFile(samples);
+        }
+
+        WhisperAudioBuffer buffer = idle[sizeClass].pollFirst();
+        if (buffer != null) {
+            idleCounts.decrementAndGet(sizeClass);
+            buffer.reopen();
+        } else {
+            buffer = new WhisperAudioBuffer(this, sizeClass, 1L << (sizeClass + MIN_CLASS_BITS));
+        }
+        buffer.setLength(samples);
+        return buffer;
+    }
+
+    void release(WhisperAudioBuffer buffer) {
+        int sizeClass = buffer.sizeClass();
+        if (closed || sizeClass > MAX_RETAINED_CLASS_BITS - MIN_CLASS_BITS) {
+            buffer.free();
+        } else if (idleCounts.incrementAndGet(sizeClass) <= maxIdlePerClass) {
+            idle[sizeClass].offerFirst(buffer);
+        } else {
+            idleCounts.decrementAndGet(sizeClass);
+            buffer.free();
+        }
+    }
+
+    private static int sizeClass(int samples) {
+        int bits = Math.max(MIN_CLASS_BITS, 32 - Integer.numberOfLeadingZeros(Math.max(samples - 1, 1)));
+        return bits <= MAX_CLASS_BITS ? bits - MIN_CLASS_BITS : -1;
+    }
+
+    /**
+     * Frees all idle buffers. Buffers still in use are freed when they are released.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        for (int i = 0; i < CLASSES; i++) {
+            WhisperAudioBuffer buffer;
+            while ((buffer = idle[i].pollFirst()) != null) {
+                idleCounts.decrementAndGet(i);
+                buffer.free();
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package io.github.ferdinandmehlan.whisperspring._native;
+
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperLanguageDetection;
+import java.lang.foreign.MemorySegment;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded cache of language detections keyed by the SHA-256 hash of the detected samples.
+ * Repeated requests for the same audio skip the spectrogram and encoder pass of a detection.
+ * When more than {@code maxSize} detections are cached, the least recently used one is dropped;
+ * a size of zero disables caching.
+ */
+public class WhisperLanguageCache {
+
+    private final int maxSize;
+    private final Map<String, WhisperLanguageDetection> entries;
+
+    /**
+     * Creates a cache.
+     *
+     * @param maxSize the maximum number of cached detections
+     */
+    public WhisperLanguageCache(int maxSize) {
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, WhisperLanguageDetection> eldest) {
+                return size() > WhisperLanguageCache.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * Computes the cache key of audio samples.
+     *
+     * @param samples native segment of 32-bit float samples
+     * @return the hex encoded SHA-256 hash of the samples
+     */
+    public static String key(MemorySegment samples) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(samples.asByteBuffer());
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Returns the cached detection for a key.
+     *
+     * @param key the key from {@link #key(MemorySegment)}
+     * @return the detection, or {@code null} if none is cached
+     */
+    public synchronized WhisperLanguageDetection get(String key) {
+        return entries.get(key);
+    }
+
+    /**
+     * Caches a detection.
+     *
+     * @param key the key from {@link #key(MemorySegment)}
+     * @param detection the detection of the samples
+     */
+    public synchronized void put(String key, WhisperLanguageDetection detection) {
+        if (maxSize > 0) {
+            entries.put(key, detection);
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+}
@@ -0,0 +1,82 @@
+package io.github.ferdinandmehlan.whisperspring._native;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+
+/**
+ * An off-heap log mel spectrogram computed by {@link WhisperNative#computeMel(MemorySegment, int)}.
+ * The data is laid out as whisper expects it, {@code nMel} rows of {@code nLen} frames of 10 ms, and
+ * includes the 30 seconds of padding whisper appends to the audio. Must be closed to free the data.
+ */
+public final class WhisperMel implements AutoCloseable {
+
+    private final Arena arena;
+    private final MemorySegment data;
+    private final int nMel;
+    private final int nLen;
+    private final int nLenOrg;
+    private final double computeMs;
+
+    WhisperMel(Arena arena, MemorySegment data, int nMel, int nLen, int nLenOrg, double computeMs) {
+        this.arena = arena;
+        this.data = data;
+        this.nMel = nMel;
+        this.nLen = nLen;
+        this.nLenOrg = nLenOrg;
+        this.computeMs = computeMs;
+    }
+
+    /**
+     * Returns the spectrogram values, row by row.
+     *
+     * @return native segment of {@code nMel * nLen} 32-bit floats
+     */
+    public MemorySegment data() {
+        return data;
+    }
+
+    public int nMel() {
+        return nMel;
+    }
+
+    /**
+     * Returns the number of frames including the padding.
+     *
+     * @return the number of frames
+     */
+    public int nLen() {
+        return nLen;
+    }
+
+    /**
+     * Returns the number of frames covering the audio itself.
+     *
+     * @return the number of frames without the padding
+     */
+    public int nLenOrg() {
+        return nLenOrg;
+    }
+
+    /**
+     * Returns the duration of the audio the spectrogram was computed from.
+     *
+     * @return the duration in milliseconds
+     */
+    public int durationMs() {
+        return nLenOrg * 10;
+    }
+
+    /**
+     * Returns the time it took to compute the spectrogram.
+     *
+     * @return the time in milliseconds
+     */
+    public double computeMs() {
+        return computeMs;
+    }
+
+    @Override
+    public void close() {
+        arena.close();
+    }
+}
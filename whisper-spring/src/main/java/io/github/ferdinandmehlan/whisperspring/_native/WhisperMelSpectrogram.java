@@ -0,0 +1,270 @@
+package io.github.ferdinandmehlan.whisperspring._native;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Computes whisper's log mel spectrogram in Java, so that it can run outside of whisper's context and state.
+ *
+ * <p>This is a port of {@code log_mel_spectrogram} of whisper.cpp: the audio is reflect-padded by half a frame
+ * at the start and padded with 30 seconds of silence at the end, each 25 ms frame (hop 10 ms) is weighted with
+ * a periodic Hann window and transformed with the same mixed radix-2 FFT, and the power spectrum is projected
+ * onto the mel filterbank stored in the model file. The floating-point operations follow whisper.cpp's order,
+ * so the result matches {@code whisper_pcm_to_mel} up to the rounding of the sine tables and {@code log10}.</p>
+ */
+final class WhisperMelSpectrogram {
+
+    static final int SAMPLE_RATE = 16000;
+    static final int N_FFT = 400;
+    static final int HOP_LENGTH = 160;
+
+    private static final int GGML_FILE_MAGIC = 0x67676d6c;
+    private static final int HPARAMS_COUNT = 11;
+
+    private static final float[] SIN = new float[N_FFT];
+    private static final float[] COS = new float[N_FFT];
+    private static final float[] HANN = new float[N_FFT];
+
+    static {
+        for (int i = 0; i < N_FFT; i++) {
+            float theta = (float) ((2 * Math.PI * i) / N_FFT);
+            SIN[i] = (float) Math.sin(theta);
+            COS[i] = (float) Math.cos(theta);
+            HANN[i] = (float) (0.5 * (1.0 - (float) Math.cos((float) ((2.0 * Math.PI * i) / N_FFT))));
+        }
+    }
+
+    private final int nMel;
+    private final int nFft;
+    private final float[] filters;
+
+    WhisperMelSpectrogram(int nMel, int nFft, float[] filters) {
+        if (nFft != 1 + N_FFT / 2 || filters.length != nMel * nFft) {
+            throw new IllegalArgumentException("Unsupported mel filterbank of " + nMel + " x " + nFft);
+        }
+        this.nMel = nMel;
+        this.nFft = nFft;
+        this.filters = filters;
+    }
+
+    /**
+     * Reads the mel filterbank that follows the hyperparameters in a ggml whisper model file.
+     *
+     * @param modelPath the model file
+     * @return the spectrogram stage of the model
+     * @throws IOException if the file is no ggml whisper model
+     */
+    static WhisperMelSpectrogram fromModelFile(Path modelPath) throws IOException {
+        try (FileChannel channel = FileChannel.open(modelPath, StandardOpenOption.READ)) {
+            ByteBuffer header = read(channel, Integer.BYTES * (1 + HPARAMS_COUNT + 2));
+            if (header.getInt() != GGML_FILE_MAGIC) {
+                throw new IOException("Not a ggml whisper model: " + modelPath);
+            }
+            header.position(Integer.BYTES * (1 + HPARAMS_COUNT));
+            int nMel = header.getInt();
+            int nFft = header.getInt();
+            if (nMel <= 0 || nMel > 512 || nFft != 1 + N_FFT / 2) {
+                throw new IOException("Unsupported mel filterbank of " + nMel + " x " + nFft + " in " + modelPath);
+            }
+            float[] filters = new float[nMel * nFft];
+            read(channel, filters.length * Float.BYTES).asFloatBuffer().get(filters);
+            return new WhisperMelSpectrogram(nMel, nFft, filters);
+        }
+    }
+
+    private static ByteBuffer read(FileChannel channel, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("Unexpected end of model file");
+            }
+        }
+        return buffer.flip();
+    }
+
+    int nMel() {
+        return nMel;
+    }
+
+    /**
+     * Computes the spectrogram of 16 kHz mono samples.
+     *
+     * @param samples native segment of 32-bit float samples, longer than one frame
+     * @param nThreads the number of threads computing frames
+     * @return the spectrogram, owned by the caller
+     */
+    WhisperMel compute(MemorySegment samples, int nThreads) {
+        long start = System.nanoTime();
+        int nSamples = Math.toIntExact(samples.byteSize() / Float.BYTES);
+        if (nSamples <= N_FFT) {
+            throw new IllegalArgumentException("Audio must be longer than " + N_FFT + " samples");
+        }
+        int stagePad = N_FFT / 2;
+        int nPadded = nSamples + stagePad;
+        int nLen = (nSamples + SAMPLE_RATE * 30 + 2 * stagePad - N_FFT) / HOP_LENGTH;
+        int nLenOrg = 1 + (nSamples + stagePad - N_FFT) / HOP_LENGTH;
+        int threads = Math.max(1, nThreads);
+
+        Arena arena = Arena.ofShared();
+        try {
+            MemorySegment mel = arena.allocate(ValueLayout.JAVA_FLOAT, (long) nMel * nLen);
+            IntStream.range(0, threads)
+                    .parallel()
+                    .forEach(ith -> computeFrames(ith, threads, samples, nPadded, nLen, mel));
+            normalize(mel);
+            return new WhisperMel(arena, mel, nMel, nLen, nLenOrg, (System.nanoTime() - start) / 1_000_000.0);
+        } catch (RuntimeException | Error e) {
+            arena.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Computes every {@code nThreads}-th frame starting at {@code ith}. Frames past the audio are silent.
+     */
+    private void computeFrames(int ith, int nThreads, MemorySegment samples, int nPadded, int nLen, MemorySegment mel) {
+        float[] fftIn = new float[N_FFT * 2];
+        float[] fftOut = new float[N_FFT * 8];
+
+        int i = ith;
+        for (; i < Math.min(nPadded / HOP_LENGTH + 1, nLen); i += nThreads) {
+            int offset = i * HOP_LENGTH;
+            int frameLength = Math.min(N_FFT, nPadded - offset);
+            for (int j = 0; j < frameLength; j++) {
+                fftIn[j] = HANN[j] * padded(samples, offset + j);
+            }
+            if (frameLength < N_FFT) {
+                Arrays.fill(fftIn, frameLength, fftIn.length, 0.0f);
+            }
+
+            fft(fftIn, 0, N_FFT, fftOut, 0);
+            for (int j = 0; j < nFft; j++) {
+                fftOut[j] = fftOut[2 * j] * fftOut[2 * j] + fftOut[2 * j + 1] * fftOut[2 * j + 1];
+            }
+
+            for (int j = 0; j < nMel; j++) {
+                int row = j * nFft;
+                double sum = 0.0;
+                int k = 0;
+                for (; k < nFft - 3; k += 4) {
+                    sum += fftOut[k] * filters[row + k]
+                            + fftOut[k + 1] * filters[row + k + 1]
+                            + fftOut[k + 2] * filters[row + k + 2]
+                            + fftOut[k + 3] * filters[row + k + 3];
+                }
+                for (; k < nFft; k++) {
+                    sum += fftOut[k] * filters[row + k];
+                }
+                float value = (float) Math.log10(Math.max(sum, 1e-10));
+                mel.setAtIndex(ValueLayout.JAVA_FLOAT, (long) j * nLen + i, value);
+            }
+        }
+
+        float silence = (float) Math.log10(1e-10);
+        for (; i < nLen; i += nThreads) {
+            for (int j = 0; j < nMel; j++) {
+                mel.setAtIndex(ValueLayout.JAVA_FLOAT, (long) j * nLen + i, silence);
+            }
+        }
+    }
+
+    /**
+     * Returns a sample of the audio reflect-padded by half a frame at the start.
+     */
+    private static float padded(MemorySegment samples, int index) {
+        int stagePad = N_FFT / 2;
+        return index < stagePad
+                ? samples.getAtIndex(ValueLayout.JAVA_FLOAT, stagePad - index)
+                : samples.getAtIndex(ValueLayout.JAVA_FLOAT, index - stagePad);
+    }
+
+    /**
+     * Clamps the spectrogram to 8 below its maximum and scales it to roughly [-1, 1].
+     */
+    private static void normalize(MemorySegment mel) {
+        long count = mel.byteSize() / Float.BYTES;
+        double max = -1e20;
+        for (long i = 0; i < count; i++) {
+            max = Math.max(max, mel.getAtIndex(ValueLayout.JAVA_FLOAT, i));
+        }
+        max -= 8.0;
+        for (long i = 0; i < count; i++) {
+            float value = mel.getAtIndex(ValueLayout.JAVA_FLOAT, i);
+            if (value < max) {
+                value = (float) max;
+            }
+            mel.setAtIndex(ValueLayout.JAVA_FLOAT, i, (float) ((value + 4.0) / 4.0));
+        }
+    }
+
+    /**
+     * Mixed radix FFT of real input: radix-2 down to an odd length, which is transformed by a plain DFT.
+     * {@code in} needs room for {@code 2n} values, {@code out} for {@code 8n}; the extra space is scratch.
+     */
+    private static void fft(float[] in, int inOff, int n, float[] out, int outOff) {
+        if (n == 1) {
+            out[outOff] = in[inOff];
+            out[outOff + 1] = 0;
+            return;
+        }
+        int halfN = n / 2;
+        if (n - halfN * 2 == 1) {
+            dft(in, inOff, n, out, outOff);
+            return;
+        }
+
+        int evenOff = inOff + n;
+        for (int i = 0; i < halfN; i++) {
+            in[evenOff + i] = in[inOff + 2 * i];
+        }
+        int evenFftOff = outOff + 2 * n;
+        fft(in, evenOff, halfN, out, evenFftOff);
+
+        int oddOff = evenOff;
+        for (int i = 0; i < halfN; i++) {
+            in[oddOff + i] = in[inOff + 2 * i + 1];
+        }
+        int oddFftOff = evenFftOff + n;
+        fft(in, oddOff, halfN, out, oddFftOff);
+
+        int step = N_FFT / n;
+        for (int k = 0; k < halfN; k++) {
+            float re = COS[k * step];
+            float im = -SIN[k * step];
+            float reOdd = out[oddFftOff + 2 * k];
+            float imOdd = out[oddFftOff + 2 * k + 1];
+            float reEven = out[evenFftOff + 2 * k];
+            float imEven = out[evenFftOff + 2 * k + 1];
+
+            out[outOff + 2 * k] = reEven + re * reOdd - im * imOdd;
+            out[outOff + 2 * k + 1] = imEven + re * imOdd + im * reOdd;
+            out[outOff + 2 * (k + halfN)] = reEven - re * reOdd + im * imOdd;
+            out[outOff + 2 * (k + halfN) + 1] = imEven - re * imOdd - im * reOdd;
+        }
+    }
+
+    private static void dft(float[] in, int inOff, int n, float[] out, int outOff) {
+        int step = N_FFT / n;
+        for (int k = 0; k < n; k++) {
+            float re = 0;
+            float im = 0;
+            for (int j = 0; j < n; j++) {
+                int idx = (k * j * step) % N_FFT;
+                re += in[inOff + j] * COS[idx];
+                im -= in[inOff + j] * SIN[idx];
+            }
+            out[outOff + 2 * k] = re;
+            out[outOff + 2 * k + 1] = im;
+        }
+    }
+}
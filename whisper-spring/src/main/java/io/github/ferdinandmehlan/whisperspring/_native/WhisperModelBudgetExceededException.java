@@ -0,0 +1,12 @@
+package io.github.ferdinandmehlan.whisperspring._native;
+
+/**
+ * Thrown when a model cannot be loaded because the memory budget of the {@link WhisperModelRegistry}
+ * is taken by models that are still in use.
+ */
+public class WhisperModelBudgetExceededException extends IllegalStateException {
+
+    public WhisperModelBudgetExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package io.github.ferdinandmehlan.whisperspring._native;
+
+/**
+ * Thrown when a model is requested by a name that has no model file in the models directory.
+ */
+public class WhisperModelNotFoundException extends RuntimeException {
+
+    public WhisperModelNotFoundException(String message) {
+        super(message);
+    }
+}
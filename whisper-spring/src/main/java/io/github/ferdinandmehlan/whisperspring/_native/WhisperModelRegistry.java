@@ -0,0 +1,336 @@
+package io.github.ferdinandmehlan.whisperspring._native;
+
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperModelInfo;
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperNativeConfig;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Loads models from a directory on demand and keeps them within a memory budget.
+ *
+ * <p>A model named {@code base.en} is read from {@code ggml-base.en.bin} in the models directory.
+ * Each loaded model has its own {@link WhisperStatePool}. A model's memory is accounted as the
+ * size of its file, which is what whisper allocates for the weights, plus an estimate of the memory
+ * of each state of its pool. When loading a model would exceed the budget, the least recently used
+ * models without leases are unloaded first. A model is never unloaded while a {@link Lease} on it
+ * is open.</p>
+ *
+ * <p>A default model loaded outside the registry can be added with
+ * {@link #registerDefaultModel(Path, WhisperStatePool)}. It counts against the budget, is never
+ * unloaded, and a name whose file is the default model's file resolves to it instead of loading
+ * the file a second time.</p>
+ */
+public class WhisperModelRegistry implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(WhisperModelRegistry.class.getName());
+
+    private static final Pattern MODEL_FILE = Pattern.compile("ggml-([A-Za-z0-9._-]+)\\.bin");
+    private static final Pattern MODEL_NAME = Pattern.compile("[A-Za-z0-9][A-Za-z0-9._-]*");
+
+    private final Path modelsDir;
+    private final long memoryBudget;
+    private final int statePoolSize;
+    private final long stateMemory;
+    private final WhisperNativeConfig config;
+
+    /** Loaded models in access order, least recently used first. */
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private volatile Entry defaultEntry;
+    private long usedMemory;
+
+    /**
+     * Creates a registry.
+     *
+     * @param modelsDir the directory containing {@code ggml-<name>.bin} model files
+     * @param memoryBudget the maximum total memory of loaded models in bytes
+     * @param statePoolSize the state pool size of each loaded model
+     * @param stateMemory the estimated memory of one whisper state in bytes
+     * @param config the context configuration used to load models
+     */
+    public WhisperModelRegistry(
+            Path modelsDir, long memoryBudget, int statePoolSize, long stateMemory, WhisperNativeConfig config) {
+        if (memoryBudget <= 0) {
+            throw new IllegalArgumentException("Memory budget must be positive but was " + memoryBudget);
+        }
+        this.modelsDir = modelsDir;
+        this.memoryBudget = memoryBudget;
+        this.statePoolSize = statePoolSize;
+        this.stateMemory = stateMemory;
+        this.config = config;
+    }
+
+    /**
+     * Adds the default model, which was loaded outside the registry. Its memory counts against the budget
+     * and it is never unloaded by the registry.
+     *
+     * @param path the model file of the default model
+     * @param statePool the state pool of the default model
+     * @throws IOException if the size of the model file cannot be read
+     */
+    public synchronized void registerDefaultModel(Path path, WhisperStatePool statePool) throws IOException {
+        if (defaultEntry != null) {
+            throw new IllegalStateException("Default model already registered: " + defaultEntry.path);
+        }
+        var matcher = MODEL_FILE.matcher(path.getFileName().toString());
+        String name = matcher.matches() ? matcher.group(1) : path.getFileName().toString();
+        long size = Files.size(path) + stateMemory * statePool.getSize();
+        defaultEntry = new Entry(name, path, size);
+        defaultEntry.whisperNative = statePool.getWhisperNative();
+        defaultEntry.statePool = statePool;
+        usedMemory += size;
+    }
+
+    /**
+     * Lists all models in the models directory.
+     *
+     * @return the models sorted by name
+     */
+    public List<WhisperModelInfo> listModels() {
+        List<WhisperModelInfo> models = new ArrayList<>();
+        if (!Files.isDirectory(modelsDir)) {
+            return models;
+        }
+        try (Stream<Path> files = Files.list(modelsDir)) {
+            for (Path file : files.sorted().toList()) {
+                var matcher = MODEL_FILE.matcher(file.getFileName().toString());
+                if (!matcher.matches() || !Files.isRegularFile(file)) {
+                    continue;
+                }
+                String name = matcher.group(1);
+                Entry defaultModel = defaultModelOf(file);
+                synchronized (this) {
+                    Entry entry = defaultModel != null ? defaultModel : peek(name);
+                    boolean loaded = entry != null && entry.isLoaded();
+                    int leases = entry == null ? 0 : entry.leases;
+                    models.add(new WhisperModelInfo(name, Files.size(file), loaded, leases));
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to list models in " + modelsDir, e);
+        }
+        return models;
+    }
+
+    /**
+     * Acquires a model, loading it if necessary. The model stays loaded until the lease is closed.
+     *
+     * @param name the model name
+     * @return a lease on the loaded model, to be closed when the request is done
+     * @throws WhisperModelNotFoundException if there is no model file for the name
+     * @throws WhisperModelBudgetExceededException if the model does not fit into the memory budget
+     *     because all loaded models are in use
+     * @throws IOException if the model cannot be loaded
+     */
+    public Lease acquire(String name) throws IOException {
+        Path path = resolve(name);
+        Entry defaultModel = defaultModelOf(path);
+        if (defaultModel != null) {
+            synchronized (this) {
+                defaultModel.leases++;
+            }
+            return new Lease(defaultModel);
+        }
+        Entry entry;
+        List<Entry> evicted;
+        synchronized (this) {
+            entry = entries.get(name);
+            evicted = List.of();
+            if (entry == null) {
+                long size = Files.size(path) + stateMemory * statePoolSize;
+                evicted = evictFor(name, size);
+                entry = new Entry(name, path, size);
+                entries.put(name, entry);
+                usedMemory += size;
+            }
+            entry.leases++;
+        }
+        evicted.forEach(Entry::unload);
+
+        try {
+            entry.load(config, statePoolSize);
+        } catch (IOException | RuntimeException e) {
+            release(entry);
+            throw e;
+        }
+        return new Lease(entry);
+    }
+
+    /**
+     * Returns the default model if the file is its model file.
+     */
+    private Entry defaultModelOf(Path path) throws IOException {
+        Entry defaultModel = defaultEntry;
+        return defaultModel != null && Files.isSameFile(path, defaultModel.path) ? defaultModel : null;
+    }
+
+    /**
+     * Looks up an entry without {@link Map#get}, which would count as an access in the LRU order.
+     */
+    private Entry peek(String name) {
+        for (Entry entry : entries.values()) {
+            if (entry.name.equals(name)) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    private Path resolve(String name) {
+        if (name == null || !MODEL_NAME.matcher(name).matches()) {
+            throw new WhisperModelNotFoundException("Invalid model name: " + name);
+        }
+        Path path = modelsDir.resolve("ggml-" + name + ".bin");
+        if (!Files.isRegularFile(path)) {
+            throw new WhisperModelNotFoundException("Model not found: " + name + " (" + path + ")");
+        }
+        return path;
+    }
+
+    /**
+     * Removes least recently used idle models until a model of the given size fits into the budget.
+     * Nothing is removed if the model does not fit even then, so the order of the loaded models is kept.
+     * A model larger than the whole budget is still loaded if no other model is loaded.
+     */
+    private List<Entry> evictFor(String name, long size) {
+        List<Entry> evicted = new ArrayList<>();
+        long available = memoryBudget - usedMemory;
+        for (Entry candidate : entries.values()) {
+            if (available >= size) {
+                break;
+            }
+            if (candidate.leases == 0) {
+                evicted.add(candidate);
+                available += candidate.size;
+            }
+        }
+        boolean othersLoaded = evicted.size() < entries.size() || defaultEntry != null;
+        if (available < size && othersLoaded) {
+            throw new WhisperModelBudgetExceededException("Model %s (%d bytes) does not fit into the memory budget"
+                    .formatted(name, size) + " of %d bytes while all loaded models are in use".formatted(memoryBudget));
+        }
+        for (Entry entry : evicted) {
+            entries.remove(entry.name);
+            usedMemory -= entry.size;
+            log.info("Unloading model {} to free {} bytes for {}", entry.name, entry.size, name);
+        }
+        return evicted;
+    }
+
+    private void release(Entry entry) {
+        synchronized (this) {
+            entry.leases--;
+            if (entry.leases == 0 && !entry.isLoaded() && entries.get(entry.name) == entry) {
+                entries.remove(entry.name);
+                usedMemory -= entry.size;
+            }
+        }
+    }
+
+    /**
+     * Returns the total memory accounted for all loaded models, including the default model.
+     *
+     * @return the used memory in bytes
+     */
+    public synchronized long getUsedMemory() {
+        return usedMemory;
+    }
+
+    public long getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    /**
+     * Unloads all models. Must only be called when no leases are open.
+     */
+    @Override
+    public void close() {
+        List<Entry> loaded;
+        synchronized (this) {
+            loaded = new ArrayList<>(entries.values());
+            entries.clear();
+            usedMemory = defaultEntry == null ? 0 : defaultEntry.size;
+        }
+        loaded.forEach(Entry::unload);
+    }
+
+    /**
+     * A claim on a loaded model. The model is not unloaded before the lease is closed.
+     */
+    public final class Lease implements AutoCloseable {
+
+        private final Entry entry;
+        private boolean closed;
+
+        private Lease(Entry entry) {
+            this.entry = entry;
+        }
+
+        public String getName() {
+            return entry.name;
+        }
+
+        public WhisperNative getWhisperNative() {
+            return entry.whisperNative;
+        }
+
+        public WhisperStatePool getStatePool() {
+            return entry.statePool;
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                release(entry);
+            }
+        }
+    }
+
+    private static final class Entry {
+
+        private final String name;
+        private final Path path;
+        private final long size;
+        private int leases;
+
+        private volatile WhisperNative whisperNative;
+        private volatile WhisperStatePool statePool;
+
+        private Entry(String name, Path path, long size) {
+            this.name = name;
+            this.path = path;
+            this.size = size;
+        }
+
+        private boolean isLoaded() {
+            return statePool != null;
+        }
+
+        private synchronized void load(WhisperNativeConfig config, int statePoolSize) throws IOException {
+            if (statePool == null) {
+                log.info("Loading model {} from {}", name, path);
+                whisperNative = new WhisperNative(path.toString(), config);
+                statePool = new WhisperStatePool(whisperNative, statePoolSize);
+            }
+        }
+
+        private synchronized void unload() {
+            if (statePool != null) {
+                statePool.close();
+                whisperNative.close();
+                statePool = null;
+                whisperNative = null;
+            }
+        }
+    }
+}
@@ -1,28 +1,67 @@
 package io.github.ferdinandmehlan.whisperspring._native;
 
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperLanguageDetection;
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperModelLoadStats;
 import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperNativeConfig;
 import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperSegment;
 import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperTranscription;
 import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperTranscriptionMetadata;
 import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperTranscriptionOptions;
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperTranscriptionTimings;
+import io.github.ferdinandmehlan.whisperspring._native.callback.WhisperCancellationToken;
 import io.github.ferdinandmehlan.whisperspring._native.ffm.WhisperContextParams;
 import io.github.ferdinandmehlan.whisperspring._native.ffm.WhisperFullParams;
 import io.github.ferdinandmehlan.whisperspring._native.ffm.WhisperH;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.lang.foreign.Arena;
 import java.lang.foreign.MemorySegment;
 import java.lang.foreign.ValueLayout;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * High-level wrapper for the Whisper native library.
  * Provides Java-friendly methods for loading Whisper models and transcribing audio.
+ * Transcriptions without an explicit {@link WhisperState} run on the context's default state
+ * and are serialized; use {@link #createState()} or a {@link WhisperStatePool} for concurrent decoding.
  */
 public class WhisperNative extends WhisperH implements AutoCloseable {
 
+    private static final Logger log = LoggerFactory.getLogger(WhisperNative.class.getName());
+
+    /** Open contexts by native address, so that callbacks can find the instance whisper calls them for. */
+    private static final Map<Long, WhisperNative> CONTEXTS = new ConcurrentHashMap<>();
+
+    /** Number of most likely languages reported by {@link #detectLanguage(MemorySegment, int)}. */
+    private static final int LANGUAGE_CANDIDATES = 5;
+
+    /** Language codes by whisper language id, read once per process. */
+    private static volatile List<String> languageCodes;
+
     private final MemorySegment ctx;
+    private final WhisperResultReader resultReader;
+    private final WhisperModelLoadStats loadStats;
+    private final boolean multilingual;
+    private final Path modelPath;
+    private volatile WhisperMelSpectrogram melSpectrogram;
+    private final ReentrantLock defaultStateLock = new ReentrantLock();
 
     /**
      * Creates a new WhisperNative instance with default context configuration.
@@ -43,61 +82,512 @@ public class WhisperNative extends WhisperH implements AutoCloseable {
      */
     public WhisperNative(String modelPathStr, WhisperNativeConfig contextConfig) throws IOException {
         super();
+        this.modelPath = Path.of(modelPathStr);
 
+        MemorySegment context = MemorySegment.NULL;
         try {
-            MemorySegment modelPath = arena.allocateFrom(modelPathStr);
+            long residentBefore = residentSetSize();
+            long start = System.nanoTime();
             MemorySegment contextParams = WhisperContextParams.allocate(arena, contextConfig);
-            this.ctx = initFromFileWithParams(modelPath, contextParams);
+            context = switch (contextConfig.loadMode) {
+                case FILE -> initFromFileWithParams(arena.allocateFrom(modelPathStr), contextParams);
+                case MMAP -> initFromMappedFile(Path.of(modelPathStr), contextConfig.prefetch, contextParams);
+            };
+            this.ctx = context;
             if (ctx.equals(MemorySegment.NULL)) {
                 throw new IOException("Failed to load model: " + modelPathStr);
             }
+            this.resultReader = new WhisperResultReader(this, ctx);
+            this.multilingual = isMultilingual(ctx) != 0;
+
+            long residentAfter = residentSetSize();
+            this.loadStats = new WhisperModelLoadStats(
+                    contextConfig.loadMode,
+                    Files.size(Path.of(modelPathStr)),
+                    Duration.ofNanos(System.nanoTime() - start),
+                    residentBefore < 0 || residentAfter < 0 ? -1 : residentAfter - residentBefore);
+            log.info("Loaded model {}: {}", modelPathStr, loadStats);
+            CONTEXTS.put(ctx.address(), this);
         } catch (Throwable t) {
+            // A step after loading failed, the context is not registered yet and only freed here
+            if (!context.equals(MemorySegment.NULL)) {
+                try {
+                    free(context);
+                } catch (Throwable freeFailure) {
+                    t.addSuppressed(freeFailure);
+                }
+            }
             arena.close();
             throw new IOException("Failed to initialize WhisperNative", t);
         }
     }
 
     /**
-     * Transcribes audio data with custom transcription configuration.
+     * Maps the model file read-only and initializes the context from the mapping.
+     * whisper copies the weights into its own tensors, so the mapping is released right after.
+     */
+    private MemorySegment initFromMappedFile(Path modelPath, boolean prefetch, MemorySegment contextParams)
+            throws Throwable {
+        try (Arena mapArena = Arena.ofConfined();
+                FileChannel channel = FileChannel.open(modelPath, StandardOpenOption.READ)) {
+            MemorySegment model = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), mapArena);
+            if (prefetch) {
+                model.load();
+            }
+            return initFromBufferWithParams(model, model.byteSize(), contextParams);
+        }
+    }
+
+    /**
+     * Reads the resident set size of this process from {@code /proc/self/status}.
+     *
+     * @return the resident set size in bytes, or {@code -1} if it is not available on this platform
+     */
+    private static long residentSetSize() {
+        Path status = Path.of("/proc/self/status");
+        if (!Files.isReadable(status)) {
+            return -1;
+        }
+        try (Stream<String> lines = Files.lines(status)) {
+            return lines.filter(line -> line.startsWith("VmRSS:"))
+                    .map(line -> line.replaceAll("\\D", ""))
+                    .mapToLong(kilobytes -> Long.parseLong(kilobytes) * 1024)
+                    .findFirst()
+                    .orElse(-1);
+        } catch (IOException | NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Returns the open instance owning a native context, e.g. the {@code ctx} passed to a callback.
+     *
+     * @param ctx the native whisper context
+     * @return the instance, or {@code null} if the context is not open
+     */
+    public static WhisperNative forContext(MemorySegment ctx) {
+        return CONTEXTS.get(ctx.address());
+    }
+
+    /**
+     * Returns the measurements taken while this model was loaded.
+     *
+     * @return the load statistics
+     */
+    public WhisperModelLoadStats getLoadStats() {
+        return loadStats;
+    }
+
+    /**
+     * Returns whether the model is multilingual, i.e. it is not an English-only {@code .en} model.
+     *
+     * @return {@code true} if the model can detect and transcribe languages other than English
+     */
+    public boolean isMultilingual() {
+        return multilingual;
+    }
+
+    /**
+     * Creates a new native state for this context.
+     * The caller owns the returned state and must close it before this context is closed.
+     *
+     * @return a new WhisperState
+     */
+    public WhisperState createState() {
+        try {
+            MemorySegment state = initState(ctx);
+            if (state.equals(MemorySegment.NULL)) {
+                throw new IllegalStateException("whisper_init_state returned NULL");
+            }
+            return new WhisperState(this, state);
+        } catch (Throwable t) {
+            throw new RuntimeException("Failed to create whisper state", t);
+        }
+    }
+
+    /**
+     * Transcribes audio data with custom transcription configuration on the context's default state.
+     * Concurrent calls are serialized.
      *
      * @param audioData array of float audio samples
      * @param transcriptionOptions configuration for transcription
      * @return list of transcription segments
+     * @throws CancellationException if the abort callback of the options stopped the transcription
      */
     public WhisperTranscription transcribe(float[] audioData, WhisperTranscriptionOptions transcriptionOptions) {
-
         try (Arena callArena = Arena.ofConfined()) {
             MemorySegment audioSegment = callArena.allocateFrom(ValueLayout.JAVA_FLOAT, audioData);
-            MemorySegment params = WhisperFullParams.allocate(callArena, transcriptionOptions);
+            return transcribe(audioSegment, transcriptionOptions);
+        }
+    }
+
+    /**
+     * Transcribes off-heap audio data on the context's default state without copying the samples.
+     * Concurrent calls are serialized.
+     *
+     * @param audioSegment native segment of 32-bit float samples, e.g. {@link WhisperAudioBuffer#samples()}
+     * @param transcriptionOptions configuration for transcription
+     * @return list of transcription segments
+     * @throws CancellationException if the abort callback of the options stopped the transcription
+     */
+    public WhisperTranscription transcribe(
+            MemorySegment audioSegment, WhisperTranscriptionOptions transcriptionOptions) {
+        return transcribeOnDefaultState(audioSegment, sampleCount(audioSegment), null, transcriptionOptions);
+    }
+
+    /**
+     * Transcribes audio from its log mel spectrogram on the context's default state.
+     * Concurrent calls are serialized; computing the spectrogram beforehand keeps it out of the serialized part.
+     *
+     * @param mel the spectrogram from {@link #computeMel(MemorySegment, int)}
+     * @param transcriptionOptions configuration for transcription, see {@link #canTranscribeFromMel}
+     * @return list of transcription segments
+     * @throws CancellationException if the abort callback of the options stopped the transcription
+     */
+    public WhisperTranscription transcribe(WhisperMel mel, WhisperTranscriptionOptions transcriptionOptions) {
+        return transcribeOnDefaultState(MemorySegment.NULL, 0, mel, melOptions(mel, transcriptionOptions));
+    }
 
-            int result = full(ctx, params, audioSegment, audioData.length);
+    private WhisperTranscription transcribeOnDefaultState(
+            MemorySegment audioSegment, int nSamples, WhisperMel mel, WhisperTranscriptionOptions options) {
+        defaultStateLock.lock();
+        try (Arena callArena = Arena.ofConfined()) {
+            long start = System.nanoTime();
+            MemorySegment params = WhisperFullParams.allocate(callArena, options);
+            throwIfAborted(options);
+            if (mel != null && setMel(ctx, mel.data(), mel.nLen(), mel.nMel()) != 0) {
+                throw new IOException("Failed to set the mel spectrogram");
+            }
+            long paramsDone = System.nanoTime();
+
+            int result = full(ctx, params, audioSegment, nSamples);
             if (result != 0) {
+                throwIfAborted(options);
                 throw new IOException("Failed to process audio");
             }
+            long inferenceDone = System.nanoTime();
+
+            List<WhisperSegment> segments = resultReader.read(null, 0, fullNSegments(ctx), false);
+            return toTranscription(segments, timings(mel, start, paramsDone, inferenceDone, System.nanoTime()));
+        } catch (CancellationException e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new RuntimeException("Failed to transcribe", t);
+        } finally {
+            defaultStateLock.unlock();
+        }
+    }
+
+    /**
+     * Transcribes audio data on the given state.
+     * Calls on different states of the same context may run concurrently.
+     *
+     * @param state the state to decode on, exclusively owned by the caller for the duration of the call
+     * @param audioData array of float audio samples
+     * @param transcriptionOptions configuration for transcription
+     * @return list of transcription segments
+     * @throws CancellationException if the abort callback of the options stopped the transcription
+     */
+    public WhisperTranscription transcribe(
+            WhisperState state, float[] audioData, WhisperTranscriptionOptions transcriptionOptions) {
+        try (Arena callArena = Arena.ofConfined()) {
+            MemorySegment audioSegment = callArena.allocateFrom(ValueLayout.JAVA_FLOAT, audioData);
+            return transcribe(state, audioSegment, transcriptionOptions);
+        }
+    }
 
-            int nSegments = fullNSegments(ctx);
-            List<WhisperSegment> segments = new ArrayList<>(nSegments);
+    /**
+     * Transcribes off-heap audio data on the given state without copying the samples.
+     * Calls on different states of the same context may run concurrently.
+     *
+     * @param state the state to decode on, exclusively owned by the caller for the duration of the call
+     * @param audioSegment native segment of 32-bit float samples, e.g. {@link WhisperAudioBuffer#samples()}
+     * @param transcriptionOptions configuration for transcription
+     * @return list of transcription segments
+     * @throws CancellationException if the abort callback of the options stopped the transcription
+     */
+    public WhisperTranscription transcribe(
+            WhisperState state, MemorySegment audioSegment, WhisperTranscriptionOptions transcriptionOptions) {
+        return transcribeOnState(state, audioSegment, sampleCount(audioSegment), null, transcriptionOptions);
+    }
 
-            for (int i = 0; i < nSegments; i++) {
-                long t0 = fullGetSegmentT0(ctx, i);
-                long t1 = fullGetSegmentT1(ctx, i);
-                MemorySegment textSegment = fullGetSegmentText(ctx, i);
-                String text = textSegment.reinterpret(1000).getString(0);
-                segments.add(new WhisperSegment(text, t0, t1));
+    /**
+     * Transcribes audio from its log mel spectrogram on the given state.
+     * Calls on different states of the same context may run concurrently.
+     *
+     * @param state the state to decode on, exclusively owned by the caller for the duration of the call
+     * @param mel the spectrogram from {@link #computeMel(MemorySegment, int)}
+     * @param transcriptionOptions configuration for transcription, see {@link #canTranscribeFromMel}
+     * @return list of transcription segments
+     * @throws CancellationException if the abort callback of the options stopped the transcription
+     */
+    public WhisperTranscription transcribe(
+            WhisperState state, WhisperMel mel, WhisperTranscriptionOptions transcriptionOptions) {
+        return transcribeOnState(state, MemorySegment.NULL, 0, mel, melOptions(mel, transcriptionOptions));
+    }
+
+    private WhisperTranscription transcribeOnState(
+            WhisperState state,
+            MemorySegment audioSegment,
+            int nSamples,
+            WhisperMel mel,
+            WhisperTranscriptionOptions options) {
+        if (state.getWhisperNative() != this) {
+            throw new IllegalArgumentException("State belongs to a different WhisperNative context");
+        }
+
+        try (Arena callArena = Arena.ofConfined()) {
+            long start = System.nanoTime();
+            MemorySegment params = WhisperFullParams.allocate(callArena, options);
+            throwIfAborted(options);
+            if (mel != null && setMelWithState(ctx, state.segment(), mel.data(), mel.nLen(), mel.nMel()) != 0) {
+                throw new IOException("Failed to set the mel spectrogram");
             }
+            long paramsDone = System.nanoTime();
 
-            String fullTranscriptText = segments.stream()
-                    .map(WhisperSegment::text)
-                    .filter(text -> text != null && !text.isBlank())
-                    .collect(Collectors.joining("\n"));
+            int result = fullWithState(ctx, state.segment(), params, audioSegment, nSamples);
+            if (result != 0) {
+                throwIfAborted(options);
+                throw new IOException("Failed to process audio");
+            }
+            long inferenceDone = System.nanoTime();
 
-            return new WhisperTranscription(fullTranscriptText)
-                    .withTranscriptionMetadata(new WhisperTranscriptionMetadata(segments));
+            List<WhisperSegment> segments =
+                    resultReader.read(state.segment(), 0, fullNSegmentsFromState(state.segment()), false);
+            return toTranscription(segments, timings(mel, start, paramsDone, inferenceDone, System.nanoTime()));
+        } catch (CancellationException e) {
+            throw e;
         } catch (Throwable t) {
             throw new RuntimeException("Failed to transcribe", t);
         }
     }
 
+    /**
+     * Computes the log mel spectrogram of audio in Java, outside of any whisper state.
+     * The spectrogram can then be transcribed with {@link #transcribe(WhisperMel, WhisperTranscriptionOptions)}
+     * or {@link #transcribe(WhisperState, WhisperMel, WhisperTranscriptionOptions)}, e.g. while another
+     * transcription still holds the state. The mel filterbank is read from the model file on first use.
+     *
+     * @param audioSegment native segment of 32-bit float samples, longer than one 25 ms frame
+     * @param nThreads the number of threads computing frames
+     * @return the spectrogram, which the caller must close
+     */
+    public WhisperMel computeMel(MemorySegment audioSegment, int nThreads) {
+        sampleCount(audioSegment);
+        WhisperMelSpectrogram spectrogram = melSpectrogram;
+        if (spectrogram == null) {
+            synchronized (this) {
+                if (melSpectrogram == null) {
+                    try {
+                        melSpectrogram = WhisperMelSpectrogram.fromModelFile(modelPath);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException("Failed to read the mel filterbank", e);
+                    }
+                }
+                spectrogram = melSpectrogram;
+            }
+        }
+        return spectrogram.compute(audioSegment, nThreads);
+    }
+
+    /**
+     * Returns whether audio can be transcribed from a spectrogram computed by {@link #computeMel}.
+     * whisper only sees the spectrogram then, so features that need the samples themselves, VAD and
+     * token timestamps, are not available.
+     *
+     * @param audioSegment the samples the spectrogram would be computed from
+     * @param transcriptionOptions configuration for transcription
+     * @return {@code true} if the options can be applied to a spectrogram of the samples
+     */
+    public static boolean canTranscribeFromMel(
+            MemorySegment audioSegment, WhisperTranscriptionOptions transcriptionOptions) {
+        long nSamples = audioSegment.byteSize() / ValueLayout.JAVA_FLOAT.byteSize();
+        return !transcriptionOptions.vad
+                && !transcriptionOptions.tokenTimestamps
+                && nSamples > WhisperMelSpectrogram.N_FFT
+                && transcriptionOptions.offsetMs < nSamples * 1000 / WhisperMelSpectrogram.SAMPLE_RATE;
+    }
+
+    /**
+     * Limits the options to the audio of the spectrogram. whisper_set_mel treats all frames as audio,
+     * including the trailing padding, which must still be there for the encoder's last window.
+     * The bounded duration depends on the clip, so it must stay out of the cached parameter template;
+     * {@link WhisperFullParams#allocate} writes it per call.
+     */
+    private static WhisperTranscriptionOptions melOptions(WhisperMel mel, WhisperTranscriptionOptions options) {
+        if (options.vad || options.tokenTimestamps) {
+            throw new IllegalArgumentException("VAD and token timestamps need the audio samples");
+        }
+        if (options.offsetMs >= mel.durationMs()) {
+            throw new IllegalArgumentException("Offset is past the end of the audio");
+        }
+        WhisperTranscriptionOptions bounded = options.copy();
+        int remainingMs = mel.durationMs() - options.offsetMs;
+        bounded.durationMs = options.durationMs > 0 ? Math.min(options.durationMs, remainingMs) : remainingMs;
+        return bounded;
+    }
+
+    /**
+     * Detects the spoken language on the context's default state.
+     * Computes the log mel spectrogram of the samples and runs one encoder pass over their first 30 seconds;
+     * pass a shorter segment to detect from less audio. Concurrent calls and transcriptions on the
+     * default state are serialized.
+     *
+     * @param audioSegment native segment of 32-bit float samples, e.g. {@link WhisperAudioBuffer#samples()}
+     * @param nThreads the number of threads for the spectrogram and the encoder
+     * @return the detected language
+     * @throws IllegalStateException if the model is English-only
+     */
+    public WhisperLanguageDetection detectLanguage(MemorySegment audioSegment, int nThreads) {
+        defaultStateLock.lock();
+        try {
+            return detect(null, audioSegment, nThreads);
+        } finally {
+            defaultStateLock.unlock();
+        }
+    }
+
+    /**
+     * Detects the spoken language on the given state, see {@link #detectLanguage(MemorySegment, int)}.
+     *
+     * @param state the state to encode on, exclusively owned by the caller for the duration of the call
+     * @param audioSegment native segment of 32-bit float samples, e.g. {@link WhisperAudioBuffer#samples()}
+     * @param nThreads the number of threads for the spectrogram and the encoder
+     * @return the detected language
+     * @throws IllegalStateException if the model is English-only
+     */
+    public WhisperLanguageDetection detectLanguage(WhisperState state, MemorySegment audioSegment, int nThreads) {
+        if (state.getWhisperNative() != this) {
+            throw new IllegalArgumentException("State belongs to a different WhisperNative context");
+        }
+        return detect(state.segment(), audioSegment, nThreads);
+    }
+
+    private WhisperLanguageDetection detect(MemorySegment state, MemorySegment audioSegment, int nThreads) {
+        if (!multilingual) {
+            throw new IllegalStateException("English-only models cannot detect the spoken language");
+        }
+        int nSamples = sampleCount(audioSegment);
+        if (nSamples == 0) {
+            throw new IllegalArgumentException("No audio to detect the language from");
+        }
+
+        try (Arena callArena = Arena.ofConfined()) {
+            List<String> codes = languageCodes();
+            MemorySegment probs = callArena.allocate(ValueLayout.JAVA_FLOAT, codes.size());
+            int result = state == null
+                    ? pcmToMel(ctx, audioSegment, nSamples, nThreads)
+                    : pcmToMelWithState(ctx, state, audioSegment, nSamples, nThreads);
+            if (result != 0) {
+                throw new IOException("Failed to compute the log mel spectrogram");
+            }
+            int langId = state == null
+                    ? langAutoDetect(ctx, 0, nThreads, probs)
+                    : langAutoDetectWithState(ctx, state, 0, nThreads, probs);
+            if (langId < 0) {
+                throw new IOException("Failed to detect the language");
+            }
+            return toLanguageDetection(codes, langId, probs.toArray(ValueLayout.JAVA_FLOAT));
+        } catch (Throwable t) {
+            throw new RuntimeException("Failed to detect language", t);
+        }
+    }
+
+    private List<String> languageCodes() throws Throwable {
+        List<String> codes = languageCodes;
+        if (codes == null) {
+            int maxId = langMaxId();
+            List<String> read = new ArrayList<>(maxId + 1);
+            for (int id = 0; id <= maxId; id++) {
+                read.add(WhisperResultReader.readString(langStr(id)));
+            }
+            codes = languageCodes = List.copyOf(read);
+        }
+        return codes;
+    }
+
+    private static WhisperLanguageDetection toLanguageDetection(List<String> codes, int langId, float[] probs) {
+        Map<String, Float> candidates = new LinkedHashMap<>();
+        IntStream.range(0, probs.length)
+                .boxed()
+                .sorted(Comparator.comparingDouble((Integer id) -> probs[id]).reversed())
+                .limit(LANGUAGE_CANDIDATES)
+                .forEach(id -> candidates.put(codes.get(id), probs[id]));
+        return new WhisperLanguageDetection(codes.get(langId), probs[langId], candidates);
+    }
+
+    /**
+     * Reads decoded segments including their text tokens from a state, e.g. inside a new segment callback.
+     * Segment and token text is decoded as UTF-8 up to its terminator; characters split across tokens
+     * are attributed to the token that completes them.
+     *
+     * @param state the state passed to the callback
+     * @param from the index of the first segment
+     * @param to the index after the last segment
+     * @return the segments {@code [from, to)}
+     */
+    public List<WhisperSegment> readSegments(MemorySegment state, int from, int to) {
+        try {
+            return resultReader.read(state, from, to, true);
+        } catch (Throwable t) {
+            throw new RuntimeException("Failed to read segments", t);
+        }
+    }
+
+    /**
+     * Returns the End-Of-Text token id of the model, read once when the model is loaded.
+     *
+     * @return the EOT token id
+     */
+    public int getEotToken() {
+        return resultReader.eotToken();
+    }
+
+    MemorySegment context() {
+        return ctx;
+    }
+
+    private static void throwIfAborted(WhisperTranscriptionOptions transcriptionOptions) {
+        if (transcriptionOptions.abortCallback instanceof WhisperCancellationToken token) {
+            token.throwIfAborted();
+        } else if (transcriptionOptions.abortCallback != null
+                && transcriptionOptions.abortCallback.callback(MemorySegment.NULL)) {
+            throw new CancellationException("Transcription was aborted");
+        }
+    }
+
+    private static int sampleCount(MemorySegment audioSegment) {
+        if (!audioSegment.isNative()) {
+            throw new IllegalArgumentException("Audio segment must be off-heap");
+        }
+        return Math.toIntExact(audioSegment.byteSize() / ValueLayout.JAVA_FLOAT.byteSize());
+    }
+
+    private static WhisperTranscriptionTimings timings(
+            WhisperMel mel, long start, long paramsDone, long inferenceDone, long extractionDone) {
+        return new WhisperTranscriptionTimings(
+                0,
+                mel != null ? mel.computeMs() : 0,
+                0,
+                toMillis(paramsDone - start),
+                toMillis(inferenceDone - paramsDone),
+                toMillis(extractionDone - inferenceDone));
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private WhisperTranscription toTranscription(List<WhisperSegment> segments, WhisperTranscriptionTimings timings) {
+        String fullTranscriptText = segments.stream()
+                .map(WhisperSegment::text)
+                .filter(text -> text != null && !text.isBlank())
+                .collect(Collectors.joining("\n"));
+
+        return new WhisperTranscription(fullTranscriptText)
+                .withTranscriptionMetadata(new WhisperTranscriptionMetadata(segments, timings));
+    }
+
     /**
      * Releases resources held by this WhisperNative instance.
      */
@@ -105,6 +595,7 @@ public class WhisperNative extends WhisperH implements AutoCloseable {
     public void close() {
         try {
             if (!ctx.equals(MemorySegment.NULL)) {
+                CONTEXTS.remove(ctx.address(), this);
                 free(ctx);
             }
         } catch (Throwable t) {
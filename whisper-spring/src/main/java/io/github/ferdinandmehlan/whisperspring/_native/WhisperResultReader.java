@@ -0,0 +1,171 @@
+package io.github.ferdinandmehlan.whisperspring._native;
+
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperSegment;
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperTokenDetail;
+import io.github.ferdinandmehlan.whisperspring._native.ffm.WhisperTokenData;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.SegmentAllocator;
+import java.lang.foreign.ValueLayout;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Reads decoded segments and tokens of a whisper context or state in one pass.
+ *
+ * <p>Per segment, timestamps, text and token count are read with one downcall each; per token,
+ * {@code whisper_full_get_token_data} returns id and probability in a single downcall. Token text
+ * is not read per token: the UTF-8 bytes of each vocabulary entry are cached on first use. Strings
+ * are bounded by their NUL terminator, and multi-byte characters split across tokens are carried
+ * over to the next token of the segment.</p>
+ */
+final class WhisperResultReader {
+
+    private final WhisperNative whisper;
+    private final MemorySegment ctx;
+    private final int eotToken;
+    private final AtomicReferenceArray<byte[]> vocabulary;
+
+    WhisperResultReader(WhisperNative whisper, MemorySegment ctx) throws Throwable {
+        this.whisper = whisper;
+        this.ctx = ctx;
+        this.eotToken = whisper.tokenEot(ctx);
+        this.vocabulary = new AtomicReferenceArray<>(whisper.nVocab(ctx));
+    }
+
+    int eotToken() {
+        return eotToken;
+    }
+
+    /**
+     * Reads the segments {@code [from, to)}.
+     *
+     * @param state the state to read from, or {@code null} for the context's default state
+     * @param from the index of the first segment
+     * @param to the index after the last segment
+     * @param withTokens whether to read the text tokens of each segment
+     * @return the segments
+     */
+    List<WhisperSegment> read(MemorySegment state, int from, int to, boolean withTokens) throws Throwable {
+        List<WhisperSegment> segments = new ArrayList<>(Math.max(0, to - from));
+        try (Arena arena = Arena.ofConfined()) {
+            MemorySegment tokenData = arena.allocate(WhisperTokenData.LAYOUT);
+            SegmentAllocator tokenDataAllocator = (_, _) -> tokenData;
+            Utf8Carry carry = new Utf8Carry();
+
+            for (int i = from; i < to; i++) {
+                long t0 = state == null ? whisper.fullGetSegmentT0(ctx, i) : whisper.fullGetSegmentT0FromState(state, i);
+                long t1 = state == null ? whisper.fullGetSegmentT1(ctx, i) : whisper.fullGetSegmentT1FromState(state, i);
+                String text = readString(
+                        state == null
+                                ? whisper.fullGetSegmentText(ctx, i)
+                                : whisper.fullGetSegmentTextFromState(state, i));
+                if (!withTokens) {
+                    segments.add(new WhisperSegment(text, t0, t1));
+                    continue;
+                }
+
+                int nTokens = state == null ? whisper.fullNTokens(ctx, i) : whisper.fullNTokensFromState(state, i);
+                List<WhisperTokenDetail> tokens = new ArrayList<>(nTokens);
+                for (int j = 0; j < nTokens; j++) {
+                    MemorySegment data = state == null
+                            ? whisper.fullGetTokenData(tokenDataAllocator, ctx, i, j)
+                            : whisper.fullGetTokenDataFromState(tokenDataAllocator, state, i, j);
+                    int tokenId = WhisperTokenData.id(data);
+                    // Skip EOT and the special tokens above it, they have no meaningful text
+                    if (tokenId >= eotToken) {
+                        continue;
+                    }
+                    tokens.add(new WhisperTokenDetail(carry.decode(tokenBytes(tokenId)), WhisperTokenData.p(data)));
+                }
+                carry.flush(tokens);
+                segments.add(new WhisperSegment(text, t0, t1, tokens));
+            }
+        }
+        return segments;
+    }
+
+    private byte[] tokenBytes(int tokenId) throws Throwable {
+        byte[] bytes = vocabulary.get(tokenId);
+        if (bytes == null) {
+            MemorySegment str = whisper.tokenToStr(ctx, tokenId).reinterpret(Long.MAX_VALUE);
+            bytes = str.asSlice(0, strlen(str)).toArray(ValueLayout.JAVA_BYTE);
+            vocabulary.set(tokenId, bytes);
+        }
+        return bytes;
+    }
+
+    /**
+     * Decodes a NUL-terminated UTF-8 string owned by whisper.
+     *
+     * @param str pointer to the string
+     * @return the decoded string, empty for a NULL pointer
+     */
+    static String readString(MemorySegment str) {
+        if (str.equals(MemorySegment.NULL)) {
+            return "";
+        }
+        return str.reinterpret(Long.MAX_VALUE).getString(0, StandardCharsets.UTF_8);
+    }
+
+    private static long strlen(MemorySegment str) {
+        long length = 0;
+        while (str.get(ValueLayout.JAVA_BYTE, length) != 0) {
+            length++;
+        }
+        return length;
+    }
+
+    /**
+     * Decodes token byte sequences as UTF-8, holding back a trailing incomplete character until
+     * the bytes of the following token complete it.
+     */
+    static final class Utf8Carry {
+
+        private final byte[] pending = new byte[3];
+        private int pendingLength;
+
+        String decode(byte[] bytes) {
+            byte[] data = bytes;
+            if (pendingLength > 0) {
+                data = new byte[pendingLength + bytes.length];
+                System.arraycopy(pending, 0, data, 0, pendingLength);
+                System.arraycopy(bytes, 0, data, pendingLength, bytes.length);
+            }
+            int complete = completeLength(data);
+            pendingLength = data.length - complete;
+            System.arraycopy(data, complete, pending, 0, pendingLength);
+            return new String(data, 0, complete, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Appends bytes still pending at the end of a segment to its last token.
+         */
+        void flush(List<WhisperTokenDetail> tokens) {
+            if (pendingLength == 0) {
+                return;
+            }
+            String rest = new String(pending, 0, pendingLength, StandardCharsets.UTF_8);
+            pendingLength = 0;
+            if (!tokens.isEmpty()) {
+                WhisperTokenDetail last = tokens.removeLast();
+                tokens.add(new WhisperTokenDetail(last.token() + rest, last.probability()));
+            }
+        }
+
+        private static int completeLength(byte[] data) {
+            int n = data.length;
+            for (int back = 1; back <= Math.min(3, n); back++) {
+                int b = data[n - back] & 0xFF;
+                if ((b & 0xC0) == 0x80) {
+                    continue;
+                }
+                int expected = b >= 0xF0 ? 4 : b >= 0xE0 ? 3 : b >= 0xC0 ? 2 : 1;
+                return expected > back ? n - back : n;
+            }
+            return n;
+        }
+    }
+}
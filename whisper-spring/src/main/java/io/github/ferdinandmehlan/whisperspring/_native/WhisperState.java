@@ -0,0 +1,50 @@
+package io.github.ferdinandmehlan.whisperspring._native;
+
+import java.lang.foreign.MemorySegment;
+
+/**
+ * A native whisper_state bound to a {@link WhisperNative} context.
+ * Holds the per-transcription buffers (KV cache, mel, decoder results) so that several states
+ * can decode concurrently against a single copy of the loaded model weights.
+ * A state must only be used by one transcription at a time.
+ */
+public class WhisperState implements AutoCloseable {
+
+    private final WhisperNative whisper;
+    private final MemorySegment state;
+
+    WhisperState(WhisperNative whisper, MemorySegment state) {
+        this.whisper = whisper;
+        this.state = state;
+    }
+
+    /**
+     * Returns the context this state was created for.
+     *
+     * @return the owning WhisperNative instance
+     */
+    public WhisperNative getWhisperNative() {
+        return whisper;
+    }
+
+    /**
+     * Returns the native whisper_state pointer.
+     *
+     * @return the state memory segment
+     */
+    public MemorySegment segment() {
+        return state;
+    }
+
+    /**
+     * Releases the native state.
+     */
+    @Override
+    public void close() {
+        try {
+            whisper.freeState(state);
+        } catch (Throwable t) {
+            throw new RuntimeException("Failed to free whisper state", t);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package io.github.ferdinandmehlan.whisperspring._native;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bounded pool of {@link WhisperState} objects sharing one loaded {@link WhisperNative} model.
+ * Up to {@code size} transcriptions can run concurrently; further callers block in
+ * {@link #acquire()} until a state is released. States are created lazily on first demand
+ * and reused afterward, so an idle pool only holds the model weights.
+ */
+public class WhisperStatePool implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(WhisperStatePool.class.getName());
+
+    private final WhisperNative whisper;
+    private final int size;
+    private final Semaphore permits;
+    private final ConcurrentLinkedDeque<WhisperState> idle = new ConcurrentLinkedDeque<>();
+    private final Set<WhisperState> inUse = ConcurrentHashMap.newKeySet();
+    private final List<WhisperState> created = new ArrayList<>();
+
+    /**
+     * Creates a new pool for the given model.
+     *
+     * @param whisper the loaded model the states are created for
+     * @param size the maximum number of concurrently usable states
+     */
+    public WhisperStatePool(WhisperNative whisper, int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("State pool size must be at least 1 but was " + size);
+        }
+        this.whisper = whisper;
+        this.size = size;
+        this.permits = new Semaphore(size, true);
+    }
+
+    public WhisperNative getWhisperNative() {
+        return whisper;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Returns the number of states that are currently not in use and could be acquired without waiting.
+     *
+     * @return the number of available permits
+     */
+    public int getAvailable() {
+        return permits.availablePermits();
+    }
+
+    /**
+     * Acquires a state, blocking until one is available.
+     * The state must be handed back with {@link #release(WhisperState)}.
+     *
+     * @return an exclusive state
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public WhisperState acquire() throws InterruptedException {
+        permits.acquire();
+        try {
+            WhisperState state = idle.pollFirst();
+            if (state == null) {
+                state = createState();
+            }
+            inUse.add(state);
+            return state;
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns a previously acquired state to the pool.
+     *
+     * @param state the state to release
+     * @throws IllegalStateException if the state belongs to another model or is not acquired from this pool
+     */
+    public void release(WhisperState state) {
+        if (state.getWhisperNative() != whisper) {
+            throw new IllegalStateException("Cannot release a state of a different WhisperNative context");
+        }
+        if (!inUse.remove(state)) {
+            throw new IllegalStateException("Cannot release a state that is not acquired from this pool");
+        }
+        idle.offerFirst(state);
+        permits.release();
+    }
+
+    private synchronized WhisperState createState() {
+        WhisperState state = whisper.createState();
+        created.add(state);
+        log.info("Created whisper state {}/{}", created.size(), size);
+        return state;
+    }
+
+    /**
+     * Frees all states created by this pool. Must only be called once no state is in use.
+     */
+    @Override
+    public synchronized void close() {
+        created.forEach(WhisperState::close);
+        created.clear();
+        idle.clear();
+        inUse.clear();
+    }
+}
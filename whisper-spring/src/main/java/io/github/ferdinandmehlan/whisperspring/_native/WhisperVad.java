@@ -0,0 +1,132 @@
+package io.github.ferdinandmehlan.whisperspring._native;
+
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperSpeechSegment;
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperVadConfig;
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperVadContextConfig;
+import io.github.ferdinandmehlan.whisperspring._native.ffm.WhisperH;
+import io.github.ferdinandmehlan.whisperspring._native.ffm.WhisperVadContextParams;
+import io.github.ferdinandmehlan.whisperspring._native.ffm.WhisperVadParams;
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A loaded Silero VAD model, i.e. a native whisper_vad_context, that detects speech in audio.
+ * A transcription with {@code vad} enabled loads the VAD model again inside every whisper_full call;
+ * a long-lived context only loads it once. The context keeps the model's recurrent state and the
+ * speech probabilities of the last call, so concurrent detections are serialized; use a
+ * {@link WhisperVadPool} to detect speech concurrently.
+ */
+public class WhisperVad extends WhisperH implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(WhisperVad.class.getName());
+
+    private final MemorySegment vctx;
+    private final String modelPath;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * Loads a VAD model with default context configuration.
+     *
+     * @param modelPathStr path to the Silero VAD model file, e.g. {@code ggml-silero-v5.1.2.bin}
+     * @throws IOException if the model cannot be loaded
+     */
+    public WhisperVad(String modelPathStr) throws IOException {
+        this(modelPathStr, new WhisperVadContextConfig());
+    }
+
+    /**
+     * Loads a VAD model with custom context configuration.
+     *
+     * @param modelPathStr path to the Silero VAD model file, e.g. {@code ggml-silero-v5.1.2.bin}
+     * @param contextConfig configuration for context initialization
+     * @throws IOException if the model cannot be loaded
+     */
+    public WhisperVad(String modelPathStr, WhisperVadContextConfig contextConfig) throws IOException {
+        super();
+        this.modelPath = modelPathStr;
+
+        try {
+            MemorySegment contextParams = WhisperVadContextParams.allocate(arena, contextConfig);
+            this.vctx = vadInitFromFileWithParams(arena.allocateFrom(modelPathStr), contextParams);
+            if (vctx.equals(MemorySegment.NULL)) {
+                throw new IOException("Failed to load VAD model: " + modelPathStr);
+            }
+            log.info("Loaded VAD model {}", modelPathStr);
+        } catch (Throwable t) {
+            arena.close();
+            throw new IOException("Failed to initialize WhisperVad", t);
+        }
+    }
+
+    /**
+     * Returns the path of the loaded VAD model.
+     *
+     * @return the model path
+     */
+    public String getModelPath() {
+        return modelPath;
+    }
+
+    /**
+     * Detects the regions of speech in audio. Concurrent calls on this context are serialized.
+     *
+     * @param audioSegment native segment of 32-bit float samples at 16 kHz, e.g. {@link WhisperAudioBuffer#samples()}
+     * @param vadConfig the thresholds and durations that turn speech probabilities into regions
+     * @return the speech regions in order, empty if the audio contains no speech
+     */
+    public List<WhisperSpeechSegment> detectSpeech(MemorySegment audioSegment, WhisperVadConfig vadConfig) {
+        if (!audioSegment.isNative()) {
+            throw new IllegalArgumentException("Audio segment must be off-heap");
+        }
+        int nSamples = Math.toIntExact(audioSegment.byteSize() / ValueLayout.JAVA_FLOAT.byteSize());
+        if (nSamples == 0) {
+            return List.of();
+        }
+
+        lock.lock();
+        try (Arena callArena = Arena.ofConfined()) {
+            MemorySegment params = WhisperVadParams.allocate(callArena, vadConfig);
+            MemorySegment segments = vadSegmentsFromSamples(vctx, params, audioSegment, nSamples);
+            if (segments.equals(MemorySegment.NULL)) {
+                throw new IOException("Failed to detect speech");
+            }
+            try {
+                int n = vadSegmentsNSegments(segments);
+                List<WhisperSpeechSegment> speech = new ArrayList<>(n);
+                for (int i = 0; i < n; i++) {
+                    speech.add(new WhisperSpeechSegment(
+                            Math.round(vadSegmentsGetSegmentT0(segments, i)),
+                            Math.round(vadSegmentsGetSegmentT1(segments, i))));
+                }
+                return speech;
+            } finally {
+                vadFreeSegments(segments);
+            }
+        } catch (Throwable t) {
+            throw new RuntimeException("Failed to detect speech", t);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Releases the native VAD context.
+     */
+    @Override
+    public void close() {
+        try {
+            vadFree(vctx);
+        } catch (Throwable t) {
+            throw new RuntimeException("Failed to free VAD context", t);
+        } finally {
+            arena.close();
+        }
+    }
+}
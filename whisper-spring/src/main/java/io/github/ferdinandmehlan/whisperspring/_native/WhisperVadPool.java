@@ -0,0 +1,138 @@
+package io.github.ferdinandmehlan.whisperspring._native;
+
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperSpeechSegment;
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperVadConfig;
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperVadContextConfig;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.foreign.MemorySegment;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bounded pool of {@link WhisperVad} contexts loaded from one Silero VAD model file.
+ * Up to {@code size} speech detections can run concurrently; further callers block in
+ * {@link #acquire()} until a context is released. Contexts are loaded lazily on first demand
+ * and reused afterward, so the VAD model is read from disk at most {@code size} times.
+ */
+public class WhisperVadPool implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(WhisperVadPool.class.getName());
+
+    private final String modelPath;
+    private final WhisperVadContextConfig contextConfig;
+    private final int size;
+    private final Semaphore permits;
+    private final ConcurrentLinkedDeque<WhisperVad> idle = new ConcurrentLinkedDeque<>();
+    private final List<WhisperVad> created = new ArrayList<>();
+
+    /**
+     * Creates a new pool for the given VAD model.
+     *
+     * @param modelPath path to the Silero VAD model file
+     * @param contextConfig configuration for the contexts
+     * @param size the maximum number of concurrently usable contexts
+     */
+    public WhisperVadPool(String modelPath, WhisperVadContextConfig contextConfig, int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("VAD pool size must be at least 1 but was " + size);
+        }
+        this.modelPath = modelPath;
+        this.contextConfig = contextConfig;
+        this.size = size;
+        this.permits = new Semaphore(size, true);
+    }
+
+    public String getModelPath() {
+        return modelPath;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Returns the number of contexts that are currently not in use and could be acquired without waiting.
+     *
+     * @return the number of available permits
+     */
+    public int getAvailable() {
+        return permits.availablePermits();
+    }
+
+    /**
+     * Acquires a context, blocking until one is available.
+     * The context must be handed back with {@link #release(WhisperVad)}.
+     *
+     * @return an exclusive context
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public WhisperVad acquire() throws InterruptedException {
+        permits.acquire();
+        try {
+            WhisperVad vad = idle.pollFirst();
+            return vad != null ? vad : createContext();
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns a previously acquired context to the pool.
+     *
+     * @param vad the context to release
+     */
+    public void release(WhisperVad vad) {
+        idle.offerFirst(vad);
+        permits.release();
+    }
+
+    /**
+     * Detects the regions of speech in audio on a context of the pool, see
+     * {@link WhisperVad#detectSpeech(MemorySegment, WhisperVadConfig)}.
+     *
+     * @param audioSegment native segment of 32-bit float samples at 16 kHz
+     * @param vadConfig the thresholds and durations that turn speech probabilities into regions
+     * @return the speech regions in order, empty if the audio contains no speech
+     */
+    public List<WhisperSpeechSegment> detectSpeech(MemorySegment audioSegment, WhisperVadConfig vadConfig) {
+        WhisperVad vad;
+        try {
+            vad = acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a VAD context", e);
+        }
+        try {
+            return vad.detectSpeech(audioSegment, vadConfig);
+        } finally {
+            release(vad);
+        }
+    }
+
+    private synchronized WhisperVad createContext() {
+        try {
+            WhisperVad vad = new WhisperVad(modelPath, contextConfig);
+            created.add(vad);
+            log.info("Created VAD context {}/{}", created.size(), size);
+            return vad;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load VAD model " + modelPath, e);
+        }
+    }
+
+    /**
+     * Frees all contexts created by this pool. Must only be called once no context is in use.
+     */
+    @Override
+    public synchronized void close() {
+        created.forEach(WhisperVad::close);
+        created.clear();
+        idle.clear();
+    }
+}
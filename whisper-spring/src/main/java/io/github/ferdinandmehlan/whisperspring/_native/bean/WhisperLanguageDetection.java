@@ -0,0 +1,12 @@
+package io.github.ferdinandmehlan.whisperspring._native.bean;
+
+import java.util.Map;
+
+/**
+ * Result of a spoken language detection by {@code whisper_lang_auto_detect}.
+ *
+ * @param language the code of the most likely language, e.g. {@code en}
+ * @param probability the probability of the most likely language
+ * @param candidates the most likely languages with their probabilities, most likely first
+ */
+public record WhisperLanguageDetection(String language, float probability, Map<String, Float> candidates) {}
@@ -0,0 +1,25 @@
+package io.github.ferdinandmehlan.whisperspring._native.bean;
+
+/**
+ * Configuration of a live transcription, see {@link io.github.ferdinandmehlan.whisperspring.WhisperLiveSession}.
+ */
+public class WhisperLiveConfig {
+
+    /** Audio received between two decodes, which bounds how late partial results are. */
+    public int stepMs;
+
+    /** Most audio decoded at once; a full window is committed without waiting for two decodes to agree. */
+    public int windowMs;
+
+    /** Most audio buffered ahead of the committed text; writers block while the buffer is full. */
+    public int maxBufferMs;
+
+    /**
+     * Creates a new WhisperLiveConfig with default settings.
+     */
+    public WhisperLiveConfig() {
+        this.stepMs = 1000;
+        this.windowMs = 10000;
+        this.maxBufferMs = 30000;
+    }
+}
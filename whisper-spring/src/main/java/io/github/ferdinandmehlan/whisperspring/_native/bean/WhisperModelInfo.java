@@ -0,0 +1,11 @@
+package io.github.ferdinandmehlan.whisperspring._native.bean;
+
+/**
+ * Describes a model of a {@link io.github.ferdinandmehlan.whisperspring._native.WhisperModelRegistry}.
+ *
+ * @param name the model name, e.g. {@code base.en} for {@code ggml-base.en.bin}
+ * @param size the size of the model file in bytes
+ * @param loaded whether the model is currently loaded
+ * @param leases the number of in-flight requests using the model
+ */
+public record WhisperModelInfo(String name, long size, boolean loaded, int leases) {}
@@ -0,0 +1,19 @@
+package io.github.ferdinandmehlan.whisperspring._native.bean;
+
+/**
+ * How the ggml model file is handed to whisper.
+ */
+public enum WhisperModelLoadMode {
+    /**
+     * whisper reads the file itself with {@code whisper_init_from_file_with_params}.
+     */
+    FILE,
+
+    /**
+     * The file is memory-mapped and passed to {@code whisper_init_from_buffer_with_params}.
+     * Weights are read from the page cache, which is shared with other contexts and processes
+     * loading the same file. whisper still copies the weights into its own tensors, so the
+     * mapping only lives for the duration of the load.
+     */
+    MMAP
+}
@@ -0,0 +1,14 @@
+package io.github.ferdinandmehlan.whisperspring._native.bean;
+
+import java.time.Duration;
+
+/**
+ * Measurements taken while loading a model.
+ *
+ * @param loadMode the mode the model was loaded with
+ * @param modelSize the size of the model file in bytes
+ * @param loadTime the wall-clock time of the load
+ * @param residentSizeDelta the growth of the process resident set in bytes, or {@code -1} if unknown
+ */
+public record WhisperModelLoadStats(
+        WhisperModelLoadMode loadMode, long modelSize, Duration loadTime, long residentSizeDelta) {}
@@ -2,13 +2,19 @@ package io.github.ferdinandmehlan.whisperspring._native.bean;
 
 /**
  * Configuration for Whisper context initialization.
- * Controls GPU usage, flash attention, and device selection.
+ * Controls GPU usage, flash attention, device selection and how the model file is loaded.
  */
 public class WhisperNativeConfig {
 
     public boolean useGpu;
     public boolean flashAttn;
     public int gpuDevice;
+    public WhisperModelLoadMode loadMode;
+
+    /**
+     * Touches all pages of a memory-mapped model before whisper reads it. Only used with {@link WhisperModelLoadMode#MMAP}.
+     */
+    public boolean prefetch;
 
     /**
      * Creates a new WhisperNativeConfig with default settings.
@@ -17,5 +23,7 @@ public class WhisperNativeConfig {
         this.useGpu = true;
         this.flashAttn = true;
         this.gpuDevice = 0;
+        this.loadMode = WhisperModelLoadMode.FILE;
+        this.prefetch = false;
     }
 }
@@ -5,13 +5,29 @@ import java.util.List;
 /**
  * Represents a single segment of a Whisper transcription.
  *
- * @param text  the transcribed text for this segment
- * @param start the start timestamp in milliseconds
- * @param end   the end timestamp in milliseconds
+ * @param text    the transcribed text for this segment
+ * @param start   the start timestamp in centiseconds
+ * @param end     the end timestamp in centiseconds
+ * @param tokens  the tokens of the segment, if requested
+ * @param speaker the channel of the speaker in a diarized stereo transcription, otherwise {@code null}
  */
-public record WhisperSegment(String text, long start, long end, List<WhisperTokenDetail> tokens) {
+public record WhisperSegment(String text, long start, long end, List<WhisperTokenDetail> tokens, Integer speaker) {
+
+    public WhisperSegment(String text, long start, long end, List<WhisperTokenDetail> tokens) {
+        this(text, start, end, tokens, null);
+    }
 
     public WhisperSegment(String text, long start, long end) {
         this(text, start, end, List.of());
     }
+
+    /**
+     * Returns a copy of this segment attributed to a speaker.
+     *
+     * @param speaker the channel of the speaker
+     * @return a new segment with the speaker set
+     */
+    public WhisperSegment withSpeaker(int speaker) {
+        return new WhisperSegment(text, start, end, tokens, speaker);
+    }
 }
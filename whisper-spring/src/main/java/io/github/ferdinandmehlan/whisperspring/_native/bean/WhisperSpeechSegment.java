@@ -0,0 +1,9 @@
+package io.github.ferdinandmehlan.whisperspring._native.bean;
+
+/**
+ * A region of audio that voice activity detection classified as speech.
+ *
+ * @param start the start timestamp in centiseconds
+ * @param end   the end timestamp in centiseconds
+ */
+public record WhisperSpeechSegment(long start, long end) {}
@@ -1,5 +1,6 @@
 package io.github.ferdinandmehlan.whisperspring._native.bean;
 
+import java.time.Duration;
 import java.util.List;
 import org.springframework.ai.audio.transcription.AudioTranscriptionMetadata;
 
@@ -8,16 +9,52 @@ public class WhisperTranscriptionMetadata implements AudioTranscriptionMetadata
     static WhisperTranscriptionMetadata NULL = new WhisperTranscriptionMetadata();
 
     private final List<WhisperSegment> segments;
+    private final WhisperTranscriptionTimings timings;
+    private final Duration removedSilence;
 
     public WhisperTranscriptionMetadata() {
         this(List.of());
     }
 
     public WhisperTranscriptionMetadata(List<WhisperSegment> segments) {
+        this(segments, null);
+    }
+
+    public WhisperTranscriptionMetadata(List<WhisperSegment> segments, WhisperTranscriptionTimings timings) {
+        this(segments, timings, Duration.ZERO);
+    }
+
+    public WhisperTranscriptionMetadata(
+            List<WhisperSegment> segments, WhisperTranscriptionTimings timings, Duration removedSilence) {
         this.segments = segments != null ? List.copyOf(segments) : List.of();
+        this.timings = timings;
+        this.removedSilence = removedSilence;
     }
 
     public List<WhisperSegment> getSegments() {
         return this.segments;
     }
+
+    /**
+     * Returns where the time of the transcription went.
+     *
+     * @return the timings, or {@code null} if they were not recorded
+     */
+    public WhisperTranscriptionTimings getTimings() {
+        return this.timings;
+    }
+
+    /**
+     * Returns how much silence was cut from the audio before it was transcribed, see
+     * {@link WhisperTranscriptionOptions#compactSilence}.
+     *
+     * @return the removed silence, zero if the audio was transcribed as is
+     */
+    public Duration getRemovedSilence() {
+        return this.removedSilence;
+    }
+
+    public WhisperTranscriptionMetadata withTimings(WhisperTranscriptionTimings timings) {
+        return new WhisperTranscriptionMetadata(segments, timings, removedSilence);
+    }
 }
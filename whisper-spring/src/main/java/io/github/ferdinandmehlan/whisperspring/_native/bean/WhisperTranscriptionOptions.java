@@ -1,5 +1,6 @@
 package io.github.ferdinandmehlan.whisperspring._native.bean;
 
+import io.github.ferdinandmehlan.whisperspring._native.callback.WhisperAbortCallback;
 import io.github.ferdinandmehlan.whisperspring._native.callback.WhisperEncoderBeginCallback;
 import io.github.ferdinandmehlan.whisperspring._native.callback.WhisperNewSegmentCallback;
 import io.github.ferdinandmehlan.whisperspring._native.callback.WhisperProgressCallback;
@@ -10,7 +11,13 @@ import org.springframework.ai.audio.transcription.AudioTranscriptionOptions;
  * Configuration for Whisper transcription.
  * Contains all parameters that control the transcription process.
  */
-public class WhisperTranscriptionOptions implements AudioTranscriptionOptions {
+public class WhisperTranscriptionOptions implements AudioTranscriptionOptions, Cloneable {
+
+    /**
+     * Name of a model of the {@link io.github.ferdinandmehlan.whisperspring._native.WhisperModelRegistry},
+     * or {@code null} for the default model.
+     */
+    public String model;
 
     public WhisperSamplingStrategy strategy;
     public int nThreads;
@@ -34,6 +41,14 @@ public class WhisperTranscriptionOptions implements AudioTranscriptionOptions {
     public boolean debugMode;
     public int audioCtx;
     public boolean tdrzEnable;
+
+    /**
+     * Transcribes the two channels of stereo audio separately, one speaker per channel, and merges the segments
+     * labelled with their {@link WhisperSegment#speaker() speaker}. The new segment callback receives the segments
+     * of both channels as they are decoded, without speaker.
+     */
+    public boolean diarize;
+
     public String initialPrompt;
     public boolean carryInitialPrompt;
     public int[] promptTokens;
@@ -55,6 +70,13 @@ public class WhisperTranscriptionOptions implements AudioTranscriptionOptions {
     public String vadModelPath;
     public WhisperVadConfig vadConfig;
 
+    /**
+     * Cuts long silent stretches from the audio before it is transcribed, and maps the segment timestamps back to
+     * the original audio. Ignored with an offset or duration, and with a new segment callback, which would receive
+     * timestamps of the shortened audio.
+     */
+    public boolean compactSilence;
+
     /**
      * Callback invoked when a new segment is decoded.
      */
@@ -70,10 +92,17 @@ public class WhisperTranscriptionOptions implements AudioTranscriptionOptions {
      */
     public WhisperEncoderBeginCallback encoderBeginCallback;
 
+    /**
+     * Callback polled to abort the transcription, e.g. a
+     * {@link io.github.ferdinandmehlan.whisperspring._native.callback.WhisperCancellationToken}.
+     */
+    public WhisperAbortCallback abortCallback;
+
     /**
      * Creates a new WhisperTranscriptionOptions with default settings.
      */
     public WhisperTranscriptionOptions() {
+        this.model = null;
         this.strategy = WhisperSamplingStrategy.WHISPER_SAMPLING_GREEDY;
         this.nThreads = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
         this.nMaxTextCtx = 16384;
@@ -96,6 +125,7 @@ public class WhisperTranscriptionOptions implements AudioTranscriptionOptions {
         this.debugMode = false;
         this.audioCtx = 0;
         this.tdrzEnable = false;
+        this.diarize = false;
         this.initialPrompt = null;
         this.carryInitialPrompt = false;
         this.promptTokens = null;
@@ -116,10 +146,24 @@ public class WhisperTranscriptionOptions implements AudioTranscriptionOptions {
         this.vad = false;
         this.vadModelPath = null;
         this.vadConfig = new WhisperVadConfig();
+        this.compactSilence = false;
+    }
+
+    /**
+     * Creates a shallow copy of these options. Callbacks, prompt tokens and the VAD configuration are shared.
+     *
+     * @return a new WhisperTranscriptionOptions with the same field values
+     */
+    public WhisperTranscriptionOptions copy() {
+        try {
+            return (WhisperTranscriptionOptions) super.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        }
     }
 
     @Override
     public String getModel() {
-        return "whisper-native";
+        return model != null ? model : "whisper-native";
     }
 }
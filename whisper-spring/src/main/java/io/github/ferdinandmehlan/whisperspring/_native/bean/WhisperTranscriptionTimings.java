@@ -0,0 +1,40 @@
+package io.github.ferdinandmehlan.whisperspring._native.bean;
+
+/**
+ * Time spent in the stages of a transcription, in milliseconds.
+ *
+ * @param wavDecodeMs time to decode the audio file into samples
+ * @param melMs time to compute the log mel spectrogram in Java before inference, {@code 0} if whisper computed it
+ * @param stateWaitMs time spent waiting for a whisper state from the pool
+ * @param paramSetupMs time to build the native {@code whisper_full_params}
+ * @param inferenceMs time spent in {@code whisper_full}, covering encode, decode and the mel spectrogram
+ *     unless it was computed in Java
+ * @param segmentExtractionMs time to read the decoded segments back into Java
+ */
+public record WhisperTranscriptionTimings(
+        double wavDecodeMs,
+        double melMs,
+        double stateWaitMs,
+        double paramSetupMs,
+        double inferenceMs,
+        double segmentExtractionMs) {
+
+    public WhisperTranscriptionTimings withWavDecodeMs(double wavDecodeMs) {
+        return new WhisperTranscriptionTimings(
+                wavDecodeMs, melMs, stateWaitMs, paramSetupMs, inferenceMs, segmentExtractionMs);
+    }
+
+    public WhisperTranscriptionTimings withStateWaitMs(double stateWaitMs) {
+        return new WhisperTranscriptionTimings(
+                wavDecodeMs, melMs, stateWaitMs, paramSetupMs, inferenceMs, segmentExtractionMs);
+    }
+
+    /**
+     * Returns the time between the start of audio decoding and the end of segment extraction.
+     *
+     * @return the total time in milliseconds
+     */
+    public double totalMs() {
+        return wavDecodeMs + melMs + stateWaitMs + paramSetupMs + inferenceMs + segmentExtractionMs;
+    }
+}
@@ -0,0 +1,20 @@
+package io.github.ferdinandmehlan.whisperspring._native.bean;
+
+/**
+ * Configuration for loading a Silero VAD model into a VAD context.
+ */
+public class WhisperVadContextConfig {
+
+    public int nThreads;
+    public boolean useGpu;
+    public int gpuDevice;
+
+    /**
+     * Creates a new WhisperVadContextConfig with default settings.
+     */
+    public WhisperVadContextConfig() {
+        this.nThreads = Math.min(4, Runtime.getRuntime().availableProcessors());
+        this.useGpu = false;
+        this.gpuDevice = 0;
+    }
+}
@@ -8,27 +8,39 @@ import java.lang.foreign.ValueLayout;
 import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
 import java.lang.invoke.MethodType;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * Helper class for registering Whisper callbacks as native function pointers.
  *
  * <p>This class uses Java 25's Foreign Function and Memory API to create upcall stubs
- * that allow native C++ code to invoke Java callback implementations. Each callback
- * type has a corresponding {@link FunctionDescriptor} that describes its native
- * signature, and the {@link #register(Arena, WhisperCallback)} method dispatches
- * to the appropriate registration logic based on the callback type.</p>
+ * that allow native C++ code to invoke Java callback implementations. One stub per
+ * callback type is created once per process; it dispatches to the Java callback of the
+ * current request through the {@code *_user_data} pointer of {@code whisper_full_params}.</p>
  *
- * <p>Registered stubs are allocated within the provided {@link Arena} and will be
- * automatically freed when the arena is closed. This ensures proper memory management
- * and prevents leaks during transcription operations.</p>
+ * <p>{@link #register(Arena, WhisperCallback)} stores a callback in a handle table and
+ * returns its handle as the user data pointer. The handle is removed again when the
+ * provided {@link Arena} is closed, so a request's callbacks live exactly as long as
+ * its native parameters.</p>
+ *
+ * <p>An exception escaping an upcall terminates the JVM, so the dispatchers log any {@link Throwable} thrown by
+ * a callback and return a value that lets whisper carry on: nothing for notifications, {@code 1} to run the
+ * encoder and {@code true} to abort.</p>
  *
  * @see WhisperCallback
  * @see WhisperNewSegmentCallback
  * @see WhisperProgressCallback
  * @see WhisperEncoderBeginCallback
+ * @see WhisperAbortCallback
  */
 public final class CallbackHelper {
 
+    private static final Logger log = LoggerFactory.getLogger(CallbackHelper.class.getName());
+
     private static final Linker LINKER = Linker.nativeLinker();
     private static final FunctionDescriptor NEW_SEGMENT_DESC = FunctionDescriptor.ofVoid(
             ValueLayout.ADDRESS, ValueLayout.ADDRESS, ValueLayout.JAVA_INT, ValueLayout.ADDRESS);
@@ -36,92 +48,128 @@ public final class CallbackHelper {
             ValueLayout.ADDRESS, ValueLayout.ADDRESS, ValueLayout.JAVA_INT, ValueLayout.ADDRESS);
     private static final FunctionDescriptor ENCODER_BEGIN_DESC =
             FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS, ValueLayout.ADDRESS, ValueLayout.ADDRESS);
+    private static final FunctionDescriptor ABORT_DESC =
+            FunctionDescriptor.of(ValueLayout.JAVA_BOOLEAN, ValueLayout.ADDRESS);
 
-    private static final MethodHandle BOOLEAN_TO_INT;
+    private static final Map<Long, WhisperCallback> HANDLES = new ConcurrentHashMap<>();
+    private static final AtomicLong NEXT_HANDLE = new AtomicLong(1);
+
+    private static final MemorySegment NEW_SEGMENT_STUB;
+    private static final MemorySegment PROGRESS_STUB;
+    private static final MemorySegment ENCODER_BEGIN_STUB;
+    private static final MemorySegment ABORT_STUB;
 
     static {
         try {
-            BOOLEAN_TO_INT = MethodHandles.publicLookup()
-                    .findStatic(Boolean.class, "hashCode", MethodType.methodType(int.class, boolean.class));
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to initialize boolean to int converter", e);
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            NEW_SEGMENT_STUB = createStub(
+                    lookup,
+                    "onNewSegment",
+                    MethodType.methodType(
+                            void.class, MemorySegment.class, MemorySegment.class, int.class, MemorySegment.class),
+                    NEW_SEGMENT_DESC);
+            PROGRESS_STUB = createStub(
+                    lookup,
+                    "onProgress",
+                    MethodType.methodType(
+                            void.class, MemorySegment.class, MemorySegment.class, int.class, MemorySegment.class),
+                    PROGRESS_DESC);
+            ENCODER_BEGIN_STUB = createStub(
+                    lookup,
+                    "onEncoderBegin",
+                    MethodType.methodType(int.class, MemorySegment.class, MemorySegment.class, MemorySegment.class),
+                    ENCODER_BEGIN_DESC);
+            ABORT_STUB = createStub(
+                    lookup, "onAbort", MethodType.methodType(boolean.class, MemorySegment.class), ABORT_DESC);
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException("Failed to create callback stubs", e);
         }
     }
 
     private CallbackHelper() {}
 
     /**
-     * Registers a Whisper callback and returns a native function pointer.
-     *
-     * <p>This method dispatches to the appropriate registration logic based on
-     * the callback type. It creates an upcall stub that allows native code to
-     * invoke the Java callback implementation. The stub is allocated within
-     * the provided arena and will be freed when the arena is closed.</p>
+     * Returns the shared native function pointer for the type of the given callback.
      *
-     * @param arena the arena to allocate the upcall stub within
-     * @param callback the callback to register, or {@code null} for no callback
-     * @return a memory segment representing the native function pointer, or
-     *         {@link MemorySegment#NULL} if the callback is {@code null}
+     * @param callback the callback, or {@code null} for no callback
+     * @return the upcall stub for the callback type, or {@link MemorySegment#NULL} if the callback is {@code null}
      */
-    public static MemorySegment register(Arena arena, WhisperCallback callback) {
+    public static MemorySegment stub(WhisperCallback callback) {
         if (callback == null) return MemorySegment.NULL;
         return switch (callback) {
-            case WhisperNewSegmentCallback c ->
-                createStub(
-                        arena,
-                        c,
-                        WhisperNewSegmentCallback.class,
-                        MethodType.methodType(
-                                void.class, MemorySegment.class, MemorySegment.class, int.class, MemorySegment.class),
-                        NEW_SEGMENT_DESC);
-            case WhisperProgressCallback c ->
-                createStub(
-                        arena,
-                        c,
-                        WhisperProgressCallback.class,
-                        MethodType.methodType(
-                                void.class, MemorySegment.class, MemorySegment.class, int.class, MemorySegment.class),
-                        PROGRESS_DESC);
-            case WhisperEncoderBeginCallback c ->
-                createStub(
-                        arena,
-                        c,
-                        WhisperEncoderBeginCallback.class,
-                        MethodType.methodType(int.class, MemorySegment.class, MemorySegment.class, MemorySegment.class),
-                        ENCODER_BEGIN_DESC);
+            case WhisperNewSegmentCallback _ -> NEW_SEGMENT_STUB;
+            case WhisperProgressCallback _ -> PROGRESS_STUB;
+            case WhisperEncoderBeginCallback _ -> ENCODER_BEGIN_STUB;
+            case WhisperAbortCallback _ -> ABORT_STUB;
         };
     }
 
     /**
-     * Creates an upcall stub for a callback implementation.
-     *
-     * <p>This method uses {@link MethodHandles} to create a method handle for the
-     * callback's {@code callback} method, binds the callback instance to the handle,
-     * and then creates an upcall stub using the {@link Linker}. The resulting
-     * stub can be passed to native code as a function pointer.</p>
+     * Registers a Whisper callback and returns the user data pointer the shared stub dispatches on.
      *
-     * <p>If {@code booleanToInt} is {@code true}, the method handle's return value
-     * is converted from {@code boolean} to {@code int} using {@link Boolean#hashCode(boolean)},
-     * which is required for native callbacks that expect C {@code bool} (mapped to
-     * {@code int} in FFM) but Java interfaces use {@code boolean} return types.</p>
+     * <p>The registration is removed when the provided arena is closed. Pass the returned
+     * pointer as the matching {@code *_user_data} field next to {@link #stub(WhisperCallback)}.</p>
      *
-     * @param <T> the callback type
-     * @param arena the arena to allocate the stub within
-     * @param callback the callback instance to register
-     * @param callbackClass the class of the callback for method lookup
-     * @param methodType the method type signature of the callback method
-     * @param descriptor the function descriptor describing the native signature
-     * @return a memory segment containing the upcall stub
-     * @throws RuntimeException if method handle creation or stub allocation fails
+     * @param arena the arena whose lifetime bounds the registration
+     * @param callback the callback to register, or {@code null} for no callback
+     * @return the handle as user data pointer, or {@link MemorySegment#NULL} if the callback is {@code null}
      */
-    private static <T extends WhisperCallback> MemorySegment createStub(
-            Arena arena, T callback, Class<T> callbackClass, MethodType methodType, FunctionDescriptor descriptor) {
+    public static MemorySegment register(Arena arena, WhisperCallback callback) {
+        if (callback == null) return MemorySegment.NULL;
+        long handle = NEXT_HANDLE.getAndIncrement();
+        HANDLES.put(handle, callback);
+        return MemorySegment.ofAddress(handle).reinterpret(arena, _ -> HANDLES.remove(handle));
+    }
+
+    private static void onNewSegment(MemorySegment ctx, MemorySegment state, int nNew, MemorySegment userData) {
+        try {
+            if (HANDLES.get(userData.address()) instanceof WhisperNewSegmentCallback callback) {
+                callback.callback(ctx, state, nNew, userData);
+            }
+        } catch (Throwable t) {
+            log.error("New segment callback failed", t);
+        }
+    }
+
+    private static void onProgress(MemorySegment ctx, MemorySegment state, int progress, MemorySegment userData) {
+        try {
+            if (HANDLES.get(userData.address()) instanceof WhisperProgressCallback callback) {
+                callback.callback(ctx, state, progress, userData);
+            }
+        } catch (Throwable t) {
+            log.error("Progress callback failed", t);
+        }
+    }
+
+    private static int onEncoderBegin(MemorySegment ctx, MemorySegment state, MemorySegment userData) {
+        try {
+            if (HANDLES.get(userData.address()) instanceof WhisperEncoderBeginCallback callback) {
+                return callback.callback(ctx, state, userData);
+            }
+        } catch (Throwable t) {
+            log.error("Encoder begin callback failed", t);
+        }
+        return 1;
+    }
+
+    private static boolean onAbort(MemorySegment userData) {
         try {
-            MethodHandle handle = MethodHandles.publicLookup().findVirtual(callbackClass, "callback", methodType);
-            handle = MethodHandles.insertArguments(handle, 0, callback);
-            return LINKER.upcallStub(handle, descriptor, arena);
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to create callback stub", e);
+            return HANDLES.get(userData.address()) instanceof WhisperAbortCallback callback
+                    && callback.callback(userData);
+        } catch (Throwable t) {
+            log.error("Abort callback failed, aborting", t);
+            return true;
         }
     }
+
+    /**
+     * Creates a process-wide upcall stub for one of the static dispatch methods of this class.
+     * The stub is allocated in the global arena and is never freed.
+     */
+    private static MemorySegment createStub(
+            MethodHandles.Lookup lookup, String name, MethodType methodType, FunctionDescriptor descriptor)
+            throws ReflectiveOperationException {
+        MethodHandle handle = lookup.findStatic(CallbackHelper.class, name, methodType);
+        return LINKER.upcallStub(handle, descriptor, Arena.global());
+    }
 }
@@ -2,10 +2,8 @@ package io.github.ferdinandmehlan.whisperspring._native.callback;
 
 import io.github.ferdinandmehlan.whisperspring._native.WhisperNative;
 import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperSegment;
-import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperTokenDetail;
 import java.lang.foreign.MemorySegment;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Objects;
 
 /**
  * Abstract callback implementation that processes native Whisper segment data.
@@ -17,6 +15,8 @@ public abstract class DefaultWhisperNewSegmentCallback implements WhisperNewSegm
 
     /**
      * Creates a new callback handler with the given Whisper instance.
+     * Segments are read through the instance owning the context passed to the callback, which
+     * differs from this one when a request runs on another model; the given instance is the fallback.
      *
      * @param whisper the Whisper native instance
      */
@@ -27,44 +27,15 @@ public abstract class DefaultWhisperNewSegmentCallback implements WhisperNewSegm
     @Override
     public void callback(MemorySegment ctx, MemorySegment state, int nNew, MemorySegment userData) {
         try {
-            // whisper_full_n_segments - Get the total number of token segments generated so far
-            int nSegments = whisper.fullNSegments(ctx);
-            // Calculate the starting index of new segments (segments - newly added segments)
-            int s0 = nSegments - nNew;
-            // whisper_token_eot - Get the End-Of-Text token id (special token marking end of transcription)
-            int eotToken = whisper.tokenEot(ctx);
-
-            for (int i = s0; i < nSegments; i++) {
-                // whisper_full_get_segment_t0 - Get the start time of the segment in milliseconds
-                long t0 = whisper.fullGetSegmentT0(ctx, i);
-                // whisper_full_get_segment_t1 - Get the end time of the segment in milliseconds
-                long t1 = whisper.fullGetSegmentT1(ctx, i);
-                // whisper_full_get_segment_text - Get the transcribed token for this segment
-                MemorySegment textSegment = whisper.fullGetSegmentText(ctx, i);
-                String text = textSegment.reinterpret(1000).getString(0).trim();
-
-                // whisper_full_n_tokens - Get the number of tokens in this segment
-                int nTokens = whisper.fullNTokens(ctx, i);
-                List<WhisperTokenDetail> tokens = new ArrayList<>(nTokens);
-                for (int j = 0; j < nTokens; j++) {
-                    // whisper_full_get_token_id - Get the token id
-                    int tokenId = whisper.fullGetTokenId(ctx, i, j);
-                    // Skip tokens that are EOT or beyond (they don't have meaningful token)
-                    if (tokenId >= eotToken) {
-                        continue;
-                    }
-                    // whisper_full_get_token_text - Get the token representation of the token
-                    MemorySegment tokenSegment = whisper.fullGetTokenText(ctx, i, j);
-                    String token = tokenSegment.reinterpret(1000).getString(0);
-                    // whisper_full_get_token_p - Get the probability of this token (0.0 to 1.0)
-                    float probability = whisper.fullGetTokenP(ctx, i, j);
-                    tokens.add(new WhisperTokenDetail(token, probability));
-                }
-
+            // whisper_full_n_segments_from_state - Get the total number of segments generated so far.
+            // The state getters are used so the callback works for the default and for pooled states.
+            WhisperNative source = Objects.requireNonNullElse(WhisperNative.forContext(ctx), whisper);
+            int nSegments = source.fullNSegmentsFromState(state);
+            // Read the newly added segments with their tokens in one pass; tokens at or above EOT are skipped
+            for (WhisperSegment segment : source.readSegments(state, nSegments - nNew, nSegments)) {
                 // Call the abstract handle method with the processed segment data
-                handle(new WhisperSegment(text, t0, t1, tokens));
+                handle(new WhisperSegment(segment.text().trim(), segment.start(), segment.end(), segment.tokens()));
             }
-
         } catch (Throwable t) {
             // Call the abstract handleError method with the throwable
             handleError(t);
@@ -0,0 +1,23 @@
+package io.github.ferdinandmehlan.whisperspring._native.callback;
+
+import java.lang.foreign.MemorySegment;
+
+/**
+ * Callback polled by whisper while encoding and decoding.
+ *
+ * <p>This callback is checked between compute steps and must return quickly.
+ * Return {@code true} to abort the transcription, {@code false} to continue.</p>
+ *
+ * @see WhisperCancellationToken
+ * @see CallbackHelper#register(java.lang.foreign.Arena, WhisperCallback)
+ */
+public non-sealed interface WhisperAbortCallback extends WhisperCallback {
+
+    /**
+     * Called to check whether the transcription should be aborted.
+     *
+     * @param userData user-provided data passed through from registration
+     * @return {@code true} to abort, {@code false} to continue
+     */
+    boolean callback(MemorySegment userData);
+}
@@ -6,4 +6,7 @@ package io.github.ferdinandmehlan.whisperspring._native.callback;
  * to register native callbacks from Java.
  */
 public sealed interface WhisperCallback
-        permits WhisperNewSegmentCallback, WhisperProgressCallback, WhisperEncoderBeginCallback {}
+        permits WhisperNewSegmentCallback,
+                WhisperProgressCallback,
+                WhisperEncoderBeginCallback,
+                WhisperAbortCallback {}
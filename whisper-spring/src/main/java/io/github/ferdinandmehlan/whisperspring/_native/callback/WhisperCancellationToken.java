@@ -0,0 +1,97 @@
+package io.github.ferdinandmehlan.whisperspring._native.callback;
+
+import java.lang.foreign.MemorySegment;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Cooperative cancellation for a single transcription.
+ *
+ * <p>Set the token as {@code abortCallback} of the transcription options. Whisper polls it
+ * while encoding and decoding and stops once the token is cancelled or its deadline has passed;
+ * the transcription then fails with a {@link CancellationException}.</p>
+ */
+public class WhisperCancellationToken implements WhisperAbortCallback {
+
+    private final Instant deadline;
+    private volatile boolean cancelled;
+
+    /**
+     * Creates a token without deadline.
+     */
+    public WhisperCancellationToken() {
+        this(null);
+    }
+
+    /**
+     * Creates a token that expires at the given deadline.
+     *
+     * @param deadline the instant after which the transcription is aborted, or {@code null} for none
+     */
+    public WhisperCancellationToken(Instant deadline) {
+        this.deadline = deadline;
+    }
+
+    /**
+     * Creates a token that expires after the given timeout.
+     *
+     * @param timeout the time the transcription may take from now
+     * @return a new token
+     */
+    public static WhisperCancellationToken withTimeout(Duration timeout) {
+        return new WhisperCancellationToken(Instant.now().plus(timeout));
+    }
+
+    /**
+     * Requests cancellation. Whisper stops at its next abort check.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public Instant getDeadline() {
+        return deadline;
+    }
+
+    /**
+     * Returns whether the deadline has passed.
+     *
+     * @return {@code true} if a deadline is set and has passed
+     */
+    public boolean isExpired() {
+        return deadline != null && Instant.now().isAfter(deadline);
+    }
+
+    /**
+     * Returns whether the transcription should stop.
+     *
+     * @return {@code true} if cancelled or expired
+     */
+    public boolean isAborted() {
+        return cancelled || isExpired();
+    }
+
+    /**
+     * Throws if the transcription should stop.
+     *
+     * @throws CancellationException if the token was cancelled or its deadline has passed
+     */
+    public void throwIfAborted() {
+        if (cancelled) {
+            throw new CancellationException("Transcription was cancelled");
+        }
+        if (isExpired()) {
+            throw new CancellationException("Transcription deadline " + deadline + " exceeded");
+        }
+    }
+
+    @Override
+    public boolean callback(MemorySegment userData) {
+        return isAborted();
+    }
+}
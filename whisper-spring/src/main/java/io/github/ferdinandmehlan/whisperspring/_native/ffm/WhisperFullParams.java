@@ -1,6 +1,7 @@
 package io.github.ferdinandmehlan.whisperspring._native.ffm;
 
 import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperTranscriptionOptions;
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperVadConfig;
 import io.github.ferdinandmehlan.whisperspring._native.callback.CallbackHelper;
 import java.lang.foreign.Arena;
 import java.lang.foreign.MemoryLayout;
@@ -8,10 +9,19 @@ import java.lang.foreign.MemorySegment;
 import java.lang.foreign.StructLayout;
 import java.lang.foreign.ValueLayout;
 import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Represents the whisper_full_params struct from whisper.h.
  * Used to configure the full transcription process.
+ *
+ * <p>Every option that does not change per request is compiled once into an immutable off-heap
+ * template, cached by option values. Allocating params for a request copies the template and only
+ * patches the offset, duration, prompt and callback fields.</p>
  */
 public class WhisperFullParams {
 
@@ -154,27 +164,113 @@ public class WhisperFullParams {
     private static final VarHandle VAD = LAYOUT.varHandle(MemoryLayout.PathElement.groupElement("vad"));
     private static final VarHandle NEW_SEGMENT_CALLBACK =
             LAYOUT.varHandle(MemoryLayout.PathElement.groupElement("new_segment_callback"));
+    private static final VarHandle NEW_SEGMENT_CALLBACK_USER_DATA =
+            LAYOUT.varHandle(MemoryLayout.PathElement.groupElement("new_segment_callback_user_data"));
     private static final VarHandle PROGRESS_CALLBACK =
             LAYOUT.varHandle(MemoryLayout.PathElement.groupElement("progress_callback"));
+    private static final VarHandle PROGRESS_CALLBACK_USER_DATA =
+            LAYOUT.varHandle(MemoryLayout.PathElement.groupElement("progress_callback_user_data"));
     private static final VarHandle ENCODER_BEGIN_CALLBACK =
             LAYOUT.varHandle(MemoryLayout.PathElement.groupElement("encoder_begin_callback"));
+    private static final VarHandle ENCODER_BEGIN_CALLBACK_USER_DATA =
+            LAYOUT.varHandle(MemoryLayout.PathElement.groupElement("encoder_begin_callback_user_data"));
+    private static final VarHandle ABORT_CALLBACK =
+            LAYOUT.varHandle(MemoryLayout.PathElement.groupElement("abort_callback"));
+    private static final VarHandle ABORT_CALLBACK_USER_DATA =
+            LAYOUT.varHandle(MemoryLayout.PathElement.groupElement("abort_callback_user_data"));
+    private static final VarHandle VAD_MODEL_PATH =
+            LAYOUT.varHandle(MemoryLayout.PathElement.groupElement("vad_model_path"));
     private static final long VAD_PARAMS_OFFSET =
             LAYOUT.byteOffset(MemoryLayout.PathElement.groupElement("vad_params"));
 
+    /** Upper bound for cached templates; further option combinations are compiled per request. */
+    private static final int MAX_CACHED_TEMPLATES = 256;
+
+    private static final Map<List<Object>, MemorySegment> TEMPLATES = new ConcurrentHashMap<>();
+    private static final AtomicInteger CACHED_TEMPLATES = new AtomicInteger();
+
     /**
      * Allocates a whisper_full_params memory segment from a WhisperTranscriptionOptions.
+     * The static part is copied from a cached template, see {@link #template(Arena, WhisperTranscriptionOptions)}.
      *
      * @param arena the arena to allocate memory from
      * @param config the transcription configuration
      * @return the allocated memory segment
      */
     public static MemorySegment allocate(Arena arena, WhisperTranscriptionOptions config) {
+        MemorySegment segment = arena.allocate(LAYOUT);
+        MemorySegment.copy(template(arena, config), 0L, segment, 0L, LAYOUT.byteSize());
+
+        OFFSET_MS.set(segment, 0L, config.offsetMs);
+        DURATION_MS.set(segment, 0L, config.durationMs);
+
+        if (config.initialPrompt != null) {
+            MemorySegment promptSeg = arena.allocateFrom(config.initialPrompt);
+            INITIAL_PROMPT.set(segment, 0L, promptSeg);
+        }
+
+        if (config.promptTokens != null) {
+            MemorySegment tokensSeg = arena.allocateFrom(ValueLayout.JAVA_INT, config.promptTokens);
+            PROMPT_TOKENS.set(segment, 0L, tokensSeg);
+            PROMPT_N_TOKENS.set(segment, 0L, config.promptTokens.length);
+        }
+
+        NEW_SEGMENT_CALLBACK.set(segment, 0L, CallbackHelper.stub(config.newSegmentCallback));
+        NEW_SEGMENT_CALLBACK_USER_DATA.set(
+                segment, 0L, CallbackHelper.register(arena, config.newSegmentCallback));
+        PROGRESS_CALLBACK.set(segment, 0L, CallbackHelper.stub(config.progressCallback));
+        PROGRESS_CALLBACK_USER_DATA.set(segment, 0L, CallbackHelper.register(arena, config.progressCallback));
+        ENCODER_BEGIN_CALLBACK.set(segment, 0L, CallbackHelper.stub(config.encoderBeginCallback));
+        ENCODER_BEGIN_CALLBACK_USER_DATA.set(
+                segment, 0L, CallbackHelper.register(arena, config.encoderBeginCallback));
+        ABORT_CALLBACK.set(segment, 0L, CallbackHelper.stub(config.abortCallback));
+        ABORT_CALLBACK_USER_DATA.set(segment, 0L, CallbackHelper.register(arena, config.abortCallback));
+
+        return segment;
+    }
+
+    /**
+     * Returns the read-only template for the given options.
+     * Templates live in the global arena and are shared between requests and threads. Once the
+     * cache is full, further option combinations are compiled into the given arena instead.
+     *
+     * @param arena the arena used if the template cannot be cached
+     * @param config the transcription configuration
+     * @return the template memory segment, without offset, duration, prompt and callbacks
+     */
+    public static MemorySegment template(Arena arena, WhisperTranscriptionOptions config) {
+        List<Object> key = templateKey(config);
+        MemorySegment template = TEMPLATES.get(key);
+        if (template != null) {
+            return template;
+        }
+        // Returning null from computeIfAbsent leaves the key unmapped, so nothing is cached once the cache is full
+        template = TEMPLATES.computeIfAbsent(
+                key, _ -> reserveCacheSlot() ? compile(Arena.global(), config).asReadOnly() : null);
+        return template != null ? template : compile(arena, config);
+    }
+
+    /**
+     * Reserves one of the {@value #MAX_CACHED_TEMPLATES} cache slots. Reserving before compiling into the global
+     * arena keeps concurrent misses from exceeding the cap.
+     */
+    private static boolean reserveCacheSlot() {
+        return CACHED_TEMPLATES.get() < MAX_CACHED_TEMPLATES
+                && CACHED_TEMPLATES.incrementAndGet() <= MAX_CACHED_TEMPLATES;
+    }
+
+    /**
+     * Writes all request independent fields of the options into a new whisper_full_params segment.
+     *
+     * @param arena the arena to allocate the struct and its strings from
+     * @param config the transcription configuration
+     * @return the compiled memory segment
+     */
+    private static MemorySegment compile(Arena arena, WhisperTranscriptionOptions config) {
         MemorySegment segment = arena.allocate(LAYOUT);
         STRATEGY.set(segment, 0L, config.strategy.getValue());
         N_THREADS.set(segment, 0L, config.nThreads);
         N_MAX_TEXT_CTX.set(segment, 0L, config.nMaxTextCtx);
-        OFFSET_MS.set(segment, 0L, config.offsetMs);
-        DURATION_MS.set(segment, 0L, config.durationMs);
         TRANSLATE.set(segment, 0L, config.translate);
         NO_CONTEXT.set(segment, 0L, config.noContext);
         NO_TIMESTAMPS.set(segment, 0L, config.noTimestamps);
@@ -192,23 +288,8 @@ public class WhisperFullParams {
         DEBUG_MODE.set(segment, 0L, config.debugMode);
         AUDIO_CTX.set(segment, 0L, config.audioCtx);
         TDRZ_ENABLE.set(segment, 0L, config.tdrzEnable);
-
-        if (config.initialPrompt != null) {
-            MemorySegment promptSeg = arena.allocateFrom(config.initialPrompt);
-            INITIAL_PROMPT.set(segment, 0L, promptSeg);
-        }
         CARRY_INITIAL_PROMPT.set(segment, 0L, config.carryInitialPrompt);
-
-        if (config.promptTokens != null) {
-            MemorySegment tokensSeg = arena.allocate(ValueLayout.JAVA_INT, config.promptTokens.length);
-            for (int i = 0; i < config.promptTokens.length; i++) {
-                tokensSeg.set(ValueLayout.JAVA_INT, i * ValueLayout.JAVA_INT.byteSize(), config.promptTokens[i]);
-            }
-            PROMPT_TOKENS.set(segment, 0L, tokensSeg);
-            PROMPT_N_TOKENS.set(segment, 0L, config.promptTokens.length);
-        } else {
-            PROMPT_N_TOKENS.set(segment, 0L, 0);
-        }
+        PROMPT_N_TOKENS.set(segment, 0L, 0);
 
         if (config.language != null) {
             MemorySegment langSeg = arena.allocateFrom(config.language);
@@ -230,15 +311,69 @@ public class WhisperFullParams {
         PATIENCE.set(segment, 0L, config.patience);
         VAD.set(segment, 0L, config.vad);
 
+        if (config.vadModelPath != null) {
+            MemorySegment vadModelPathSeg = arena.allocateFrom(config.vadModelPath);
+            VAD_MODEL_PATH.set(segment, 0L, vadModelPathSeg);
+        }
+
         if (config.vadConfig != null) {
             MemorySegment vadParamsSeg = WhisperVadParams.allocate(arena, config.vadConfig);
             MemorySegment.copy(vadParamsSeg, 0L, segment, VAD_PARAMS_OFFSET, WhisperVadParams.LAYOUT.byteSize());
         }
 
-        NEW_SEGMENT_CALLBACK.set(segment, 0L, CallbackHelper.register(arena, config.newSegmentCallback));
-        PROGRESS_CALLBACK.set(segment, 0L, CallbackHelper.register(arena, config.progressCallback));
-        ENCODER_BEGIN_CALLBACK.set(segment, 0L, CallbackHelper.register(arena, config.encoderBeginCallback));
-
         return segment;
     }
+
+    /**
+     * Builds the cache key of all options that end up in a template.
+     * Offset, duration, prompt and callbacks are excluded as they are patched per request.
+     */
+    private static List<Object> templateKey(WhisperTranscriptionOptions config) {
+        WhisperVadConfig vadConfig = config.vadConfig;
+        return Arrays.asList(
+                config.strategy,
+                config.nThreads,
+                config.nMaxTextCtx,
+                config.translate,
+                config.noContext,
+                config.noTimestamps,
+                config.singleSegment,
+                config.printSpecial,
+                config.printProgress,
+                config.printRealtime,
+                config.printTimestamps,
+                config.tokenTimestamps,
+                config.tholdPt,
+                config.tholdPtsum,
+                config.maxLen,
+                config.splitOnWord,
+                config.maxTokens,
+                config.debugMode,
+                config.audioCtx,
+                config.tdrzEnable,
+                config.carryInitialPrompt,
+                config.language,
+                config.detectLanguage,
+                config.suppressBlank,
+                config.suppressNst,
+                config.temperature,
+                config.maxInitialTs,
+                config.lengthPenalty,
+                config.temperatureInc,
+                config.entropyThold,
+                config.logprobThold,
+                config.noSpeechThold,
+                config.greedyBestOf,
+                config.beamSize,
+                config.patience,
+                config.vad,
+                config.vadModelPath,
+                vadConfig != null,
+                vadConfig != null ? vadConfig.threshold : null,
+                vadConfig != null ? vadConfig.minSpeechDurationMs : null,
+                vadConfig != null ? vadConfig.minSilenceDurationMs : null,
+                vadConfig != null ? vadConfig.maxSpeechDurationS : null,
+                vadConfig != null ? vadConfig.speechPadMs : null,
+                vadConfig != null ? vadConfig.samplesOverlap : null);
+    }
 }
@@ -3,54 +3,105 @@ package io.github.ferdinandmehlan.whisperspring._native.ffm;
 import io.github.ferdinandmehlan.whisperspring._native.loader.NativeLoader;
 import java.lang.foreign.*;
 import java.lang.invoke.MethodHandle;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 
 /**
  * Base class for Whisper native library interaction.
  * Provides low-level bindings to the whisper.h C API using Panama Foreign Function Memory.
+ *
+ * <p>The library lookup and all downcall handles are created once per process and shared by all
+ * instances, so creating further contexts or states does not link anything again. Trivial getters
+ * that neither block nor call back into Java are linked with {@link Linker.Option#critical(boolean)},
+ * which skips the thread state transition of a regular downcall.</p>
  */
 public abstract class WhisperH {
 
+    /**
+     * Every whisper symbol the bindings link. The native loader checks that a library exports all of them
+     * before loading it; binding a symbol that is not listed here fails.
+     */
+    public static final List<String> SYMBOLS = List.of(
+            "whisper_init_from_file",
+            "whisper_init_from_file_with_params",
+            "whisper_init_from_buffer_with_params",
+            "whisper_free",
+            "whisper_free_params",
+            "whisper_full",
+            "whisper_full_n_segments",
+            "whisper_full_get_segment_text",
+            "whisper_full_get_segment_t0",
+            "whisper_full_get_segment_t1",
+            "whisper_full_default_params_by_ref",
+            "whisper_token_eot",
+            "whisper_full_n_tokens",
+            "whisper_full_get_token_text",
+            "whisper_full_get_token_id",
+            "whisper_full_get_token_p",
+            "whisper_init_state",
+            "whisper_free_state",
+            "whisper_full_with_state",
+            "whisper_full_n_segments_from_state",
+            "whisper_full_get_segment_text_from_state",
+            "whisper_full_get_segment_t0_from_state",
+            "whisper_full_get_segment_t1_from_state",
+            "whisper_full_n_tokens_from_state",
+            "whisper_full_get_token_text_from_state",
+            "whisper_full_get_token_id_from_state",
+            "whisper_full_get_token_p_from_state",
+            "whisper_n_vocab",
+            "whisper_token_to_str",
+            "whisper_full_get_token_data",
+            "whisper_full_get_token_data_from_state",
+            "whisper_pcm_to_mel",
+            "whisper_pcm_to_mel_with_state",
+            "whisper_set_mel",
+            "whisper_set_mel_with_state",
+            "whisper_lang_auto_detect",
+            "whisper_lang_auto_detect_with_state",
+            "whisper_lang_max_id",
+            "whisper_lang_str",
+            "whisper_is_multilingual",
+            "whisper_vad_init_from_file_with_params",
+            "whisper_vad_segments_from_samples",
+            "whisper_vad_segments_n_segments",
+            "whisper_vad_segments_get_segment_t0",
+            "whisper_vad_segments_get_segment_t1",
+            "whisper_vad_free_segments",
+            "whisper_vad_free");
+
     protected final Arena arena;
-    protected final SymbolLookup lookup;
-    protected final Linker linker;
-
-    protected MethodHandle mhInitFromFile;
-    protected MethodHandle mhInitFromFileWithParams;
-    protected MethodHandle mhInitFromBufferWithParams;
-    protected MethodHandle mhFree;
-    protected MethodHandle mhFreeParams;
-    protected MethodHandle mhFull;
-    protected MethodHandle mhFullNSegments;
-    protected MethodHandle mhFullGetSegmentText;
-    protected MethodHandle mhFullGetSegmentT0;
-    protected MethodHandle mhFullGetSegmentT1;
-    protected MethodHandle mhFullDefaultParamsByRef;
-    protected MethodHandle mhTokenEot;
-    protected MethodHandle mhFullNTokens;
-    protected MethodHandle mhFullGetTokenText;
-    protected MethodHandle mhFullGetTokenId;
-    protected MethodHandle mhFullGetTokenP;
 
     protected WhisperH() {
         this.arena = Arena.ofShared();
-        this.lookup = SymbolLookup.libraryLookup(NativeLoader.getWhisperLibPath(), arena);
-        this.linker = Linker.nativeLinker();
-        initMethodHandles();
     }
 
-    private void initMethodHandles() {
-        mhInitFromFile = downcallHandle(
+    /**
+     * Process-wide bindings, initialized on first use. The native library stays loaded for the
+     * lifetime of the process.
+     */
+    private static final class Bindings {
+
+        private static final Linker LINKER = Linker.nativeLinker();
+        private static final SymbolLookup LOOKUP =
+                SymbolLookup.libraryLookup(NativeLoader.getWhisperLibPath(), Arena.global());
+        private static final Set<String> BOUND = new LinkedHashSet<>();
+
+        static final MethodHandle INIT_FROM_FILE = downcall(
                 "whisper_init_from_file", FunctionDescriptor.of(ValueLayout.ADDRESS, ValueLayout.ADDRESS));
-        mhInitFromFileWithParams = downcallHandle(
+        static final MethodHandle INIT_FROM_FILE_WITH_PARAMS = downcall(
                 "whisper_init_from_file_with_params",
                 FunctionDescriptor.of(ValueLayout.ADDRESS, ValueLayout.ADDRESS, WhisperContextParams.LAYOUT));
-        mhInitFromBufferWithParams = downcallHandle(
+        static final MethodHandle INIT_FROM_BUFFER_WITH_PARAMS = downcall(
                 "whisper_init_from_buffer_with_params",
                 FunctionDescriptor.of(
                         ValueLayout.ADDRESS, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG, WhisperContextParams.LAYOUT));
-        mhFree = downcallHandle("whisper_free", FunctionDescriptor.ofVoid(ValueLayout.ADDRESS));
-        mhFreeParams = downcallHandle("whisper_free_params", FunctionDescriptor.ofVoid(ValueLayout.ADDRESS));
-        mhFull = downcallHandle(
+        static final MethodHandle FREE = downcall("whisper_free", FunctionDescriptor.ofVoid(ValueLayout.ADDRESS));
+        static final MethodHandle FREE_PARAMS = downcall(
+                "whisper_free_params", FunctionDescriptor.ofVoid(ValueLayout.ADDRESS));
+        static final MethodHandle FULL = downcall(
                 "whisper_full",
                 FunctionDescriptor.of(
                         ValueLayout.JAVA_INT,
@@ -58,104 +109,397 @@ public abstract class WhisperH {
                         WhisperFullParams.LAYOUT,
                         ValueLayout.ADDRESS,
                         ValueLayout.JAVA_INT));
-        mhFullNSegments = downcallHandle(
+        static final MethodHandle FULL_N_SEGMENTS = critical(
                 "whisper_full_n_segments", FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS));
-        mhFullGetSegmentText = downcallHandle(
+        static final MethodHandle FULL_GET_SEGMENT_TEXT = critical(
                 "whisper_full_get_segment_text",
                 FunctionDescriptor.of(ValueLayout.ADDRESS, ValueLayout.ADDRESS, ValueLayout.JAVA_INT));
-        mhFullGetSegmentT0 = downcallHandle(
+        static final MethodHandle FULL_GET_SEGMENT_T0 = critical(
                 "whisper_full_get_segment_t0",
                 FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS, ValueLayout.JAVA_INT));
-        mhFullGetSegmentT1 = downcallHandle(
+        static final MethodHandle FULL_GET_SEGMENT_T1 = critical(
                 "whisper_full_get_segment_t1",
                 FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS, ValueLayout.JAVA_INT));
-        mhFullDefaultParamsByRef = downcallHandle(
+        static final MethodHandle FULL_DEFAULT_PARAMS_BY_REF = downcall(
                 "whisper_full_default_params_by_ref", FunctionDescriptor.of(ValueLayout.ADDRESS, ValueLayout.JAVA_INT));
-        mhTokenEot =
-                downcallHandle("whisper_token_eot", FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS));
-        mhFullNTokens = downcallHandle(
+        static final MethodHandle TOKEN_EOT = critical(
+                "whisper_token_eot", FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS));
+        static final MethodHandle FULL_N_TOKENS = critical(
                 "whisper_full_n_tokens",
                 FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS, ValueLayout.JAVA_INT));
-        mhFullGetTokenText = downcallHandle(
+        static final MethodHandle FULL_GET_TOKEN_TEXT = critical(
                 "whisper_full_get_token_text",
                 FunctionDescriptor.of(
                         ValueLayout.ADDRESS, ValueLayout.ADDRESS, ValueLayout.JAVA_INT, ValueLayout.JAVA_INT));
-        mhFullGetTokenId = downcallHandle(
+        static final MethodHandle FULL_GET_TOKEN_ID = critical(
                 "whisper_full_get_token_id",
                 FunctionDescriptor.of(
                         ValueLayout.JAVA_INT, ValueLayout.ADDRESS, ValueLayout.JAVA_INT, ValueLayout.JAVA_INT));
-        mhFullGetTokenP = downcallHandle(
+        static final MethodHandle FULL_GET_TOKEN_P = critical(
                 "whisper_full_get_token_p",
                 FunctionDescriptor.of(
                         ValueLayout.JAVA_FLOAT, ValueLayout.ADDRESS, ValueLayout.JAVA_INT, ValueLayout.JAVA_INT));
+        static final MethodHandle INIT_STATE = downcall(
+                "whisper_init_state", FunctionDescriptor.of(ValueLayout.ADDRESS, ValueLayout.ADDRESS));
+        static final MethodHandle FREE_STATE = downcall(
+                "whisper_free_state", FunctionDescriptor.ofVoid(ValueLayout.ADDRESS));
+        static final MethodHandle FULL_WITH_STATE = downcall(
+                "whisper_full_with_state",
+                FunctionDescriptor.of(
+                        ValueLayout.JAVA_INT,
+                        ValueLayout.ADDRESS,
+                        ValueLayout.ADDRESS,
+                        WhisperFullParams.LAYOUT,
+                        ValueLayout.ADDRESS,
+                        ValueLayout.JAVA_INT));
+        static final MethodHandle FULL_N_SEGMENTS_FROM_STATE = critical(
+                "whisper_full_n_segments_from_state", FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS));
+        static final MethodHandle FULL_GET_SEGMENT_TEXT_FROM_STATE = critical(
+                "whisper_full_get_segment_text_from_state",
+                FunctionDescriptor.of(ValueLayout.ADDRESS, ValueLayout.ADDRESS, ValueLayout.JAVA_INT));
+        static final MethodHandle FULL_GET_SEGMENT_T0_FROM_STATE = critical(
+                "whisper_full_get_segment_t0_from_state",
+                FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS, ValueLayout.JAVA_INT));
+        static final MethodHandle FULL_GET_SEGMENT_T1_FROM_STATE = critical(
+                "whisper_full_get_segment_t1_from_state",
+                FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS, ValueLayout.JAVA_INT));
+        static final MethodHandle FULL_N_TOKENS_FROM_STATE = critical(
+                "whisper_full_n_tokens_from_state",
+                FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS, ValueLayout.JAVA_INT));
+        static final MethodHandle FULL_GET_TOKEN_TEXT_FROM_STATE = critical(
+                "whisper_full_get_token_text_from_state",
+                FunctionDescriptor.of(
+                        ValueLayout.ADDRESS,
+                        ValueLayout.ADDRESS,
+                        ValueLayout.ADDRESS,
+                        ValueLayout.JAVA_INT,
+                        ValueLayout.JAVA_INT));
+        static final MethodHandle FULL_GET_TOKEN_ID_FROM_STATE = critical(
+                "whisper_full_get_token_id_from_state",
+                FunctionDescriptor.of(
+                        ValueLayout.JAVA_INT, ValueLayout.ADDRESS, ValueLayout.JAVA_INT, ValueLayout.JAVA_INT));
+        static final MethodHandle FULL_GET_TOKEN_P_FROM_STATE = critical(
+                "whisper_full_get_token_p_from_state",
+                FunctionDescriptor.of(
+                        ValueLayout.JAVA_FLOAT, ValueLayout.ADDRESS, ValueLayout.JAVA_INT, ValueLayout.JAVA_INT));
+        static final MethodHandle N_VOCAB = critical(
+                "whisper_n_vocab", FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS));
+        static final MethodHandle TOKEN_TO_STR = critical(
+                "whisper_token_to_str",
+                FunctionDescriptor.of(ValueLayout.ADDRESS, ValueLayout.ADDRESS, ValueLayout.JAVA_INT));
+        static final MethodHandle FULL_GET_TOKEN_DATA = critical(
+                "whisper_full_get_token_data",
+                FunctionDescriptor.of(
+                        WhisperTokenData.LAYOUT, ValueLayout.ADDRESS, ValueLayout.JAVA_INT, ValueLayout.JAVA_INT));
+        static final MethodHandle FULL_GET_TOKEN_DATA_FROM_STATE = critical(
+                "whisper_full_get_token_data_from_state",
+                FunctionDescriptor.of(
+                        WhisperTokenData.LAYOUT, ValueLayout.ADDRESS, ValueLayout.JAVA_INT, ValueLayout.JAVA_INT));
+        static final MethodHandle PCM_TO_MEL = downcall(
+                "whisper_pcm_to_mel",
+                FunctionDescriptor.of(
+                        ValueLayout.JAVA_INT,
+                        ValueLayout.ADDRESS,
+                        ValueLayout.ADDRESS,
+                        ValueLayout.JAVA_INT,
+                        ValueLayout.JAVA_INT));
+        static final MethodHandle PCM_TO_MEL_WITH_STATE = downcall(
+                "whisper_pcm_to_mel_with_state",
+                FunctionDescriptor.of(
+                        ValueLayout.JAVA_INT,
+                        ValueLayout.ADDRESS,
+                        ValueLayout.ADDRESS,
+                        ValueLayout.ADDRESS,
+                        ValueLayout.JAVA_INT,
+                        ValueLayout.JAVA_INT));
+        static final MethodHandle SET_MEL = downcall(
+                "whisper_set_mel",
+                FunctionDescriptor.of(
+                        ValueLayout.JAVA_INT,
+                        ValueLayout.ADDRESS,
+                        ValueLayout.ADDRESS,
+                        ValueLayout.JAVA_INT,
+                        ValueLayout.JAVA_INT));
+        static final MethodHandle SET_MEL_WITH_STATE = downcall(
+                "whisper_set_mel_with_state",
+                FunctionDescriptor.of(
+                        ValueLayout.JAVA_INT,
+                        ValueLayout.ADDRESS,
+                        ValueLayout.ADDRESS,
+                        ValueLayout.ADDRESS,
+                        ValueLayout.JAVA_INT,
+                        ValueLayout.JAVA_INT));
+        static final MethodHandle LANG_AUTO_DETECT = downcall(
+                "whisper_lang_auto_detect",
+                FunctionDescriptor.of(
+                        ValueLayout.JAVA_INT,
+                        ValueLayout.ADDRESS,
+                        ValueLayout.JAVA_INT,
+                        ValueLayout.JAVA_INT,
+                        ValueLayout.ADDRESS));
+        static final MethodHandle LANG_AUTO_DETECT_WITH_STATE = downcall(
+                "whisper_lang_auto_detect_with_state",
+                FunctionDescriptor.of(
+                        ValueLayout.JAVA_INT,
+                        ValueLayout.ADDRESS,
+                        ValueLayout.ADDRESS,
+                        ValueLayout.JAVA_INT,
+                        ValueLayout.JAVA_INT,
+                        ValueLayout.ADDRESS));
+        static final MethodHandle LANG_MAX_ID =
+                critical("whisper_lang_max_id", FunctionDescriptor.of(ValueLayout.JAVA_INT));
+        static final MethodHandle LANG_STR =
+                critical("whisper_lang_str", FunctionDescriptor.of(ValueLayout.ADDRESS, ValueLayout.JAVA_INT));
+        static final MethodHandle IS_MULTILINGUAL =
+                critical("whisper_is_multilingual", FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS));
+        static final MethodHandle VAD_INIT_FROM_FILE_WITH_PARAMS = downcall(
+                "whisper_vad_init_from_file_with_params",
+                FunctionDescriptor.of(ValueLayout.ADDRESS, ValueLayout.ADDRESS, WhisperVadContextParams.LAYOUT));
+        static final MethodHandle VAD_SEGMENTS_FROM_SAMPLES = downcall(
+                "whisper_vad_segments_from_samples",
+                FunctionDescriptor.of(
+                        ValueLayout.ADDRESS,
+                        ValueLayout.ADDRESS,
+                        WhisperVadParams.LAYOUT,
+                        ValueLayout.ADDRESS,
+                        ValueLayout.JAVA_INT));
+        static final MethodHandle VAD_SEGMENTS_N_SEGMENTS = critical(
+                "whisper_vad_segments_n_segments", FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS));
+        static final MethodHandle VAD_SEGMENTS_GET_SEGMENT_T0 = critical(
+                "whisper_vad_segments_get_segment_t0",
+                FunctionDescriptor.of(ValueLayout.JAVA_FLOAT, ValueLayout.ADDRESS, ValueLayout.JAVA_INT));
+        static final MethodHandle VAD_SEGMENTS_GET_SEGMENT_T1 = critical(
+                "whisper_vad_segments_get_segment_t1",
+                FunctionDescriptor.of(ValueLayout.JAVA_FLOAT, ValueLayout.ADDRESS, ValueLayout.JAVA_INT));
+        static final MethodHandle VAD_FREE_SEGMENTS =
+                downcall("whisper_vad_free_segments", FunctionDescriptor.ofVoid(ValueLayout.ADDRESS));
+        static final MethodHandle VAD_FREE =
+                downcall("whisper_vad_free", FunctionDescriptor.ofVoid(ValueLayout.ADDRESS));
+
+        private static MethodHandle downcall(String symbol, FunctionDescriptor descriptor) {
+            return LINKER.downcallHandle(find(symbol), descriptor);
+        }
+
+        private static MethodHandle critical(String symbol, FunctionDescriptor descriptor) {
+            return LINKER.downcallHandle(find(symbol), descriptor, Linker.Option.critical(false));
+        }
+
+        private static MemorySegment find(String symbol) {
+            if (!SYMBOLS.contains(symbol)) {
+                throw new IllegalStateException(symbol + " is bound but not listed in WhisperH.SYMBOLS");
+            }
+            BOUND.add(symbol);
+            return LOOKUP.findOrThrow(symbol);
+        }
     }
 
-    private MethodHandle downcallHandle(String symbol, FunctionDescriptor descriptor) {
-        return linker.downcallHandle(lookup.findOrThrow(symbol), descriptor);
+    /**
+     * Links the bindings if they are not linked yet and returns the symbols they bound.
+     *
+     * @return the bound symbols in binding order
+     */
+    static Set<String> boundSymbols() {
+        return Collections.unmodifiableSet(Bindings.BOUND);
     }
 
     public MemorySegment initFromFile(MemorySegment path) throws Throwable {
-        return (MemorySegment) mhInitFromFile.invokeExact(path);
+        return (MemorySegment) Bindings.INIT_FROM_FILE.invokeExact(path);
     }
 
     public MemorySegment initFromFileWithParams(MemorySegment path, MemorySegment params) throws Throwable {
-        return (MemorySegment) mhInitFromFileWithParams.invokeExact(path, params);
+        return (MemorySegment) Bindings.INIT_FROM_FILE_WITH_PARAMS.invokeExact(path, params);
     }
 
     public MemorySegment initFromBufferWithParams(MemorySegment buffer, long size, MemorySegment params)
             throws Throwable {
-        return (MemorySegment) mhInitFromBufferWithParams.invokeExact(buffer, size, params);
+        return (MemorySegment) Bindings.INIT_FROM_BUFFER_WITH_PARAMS.invokeExact(buffer, size, params);
     }
 
     public void free(MemorySegment ctx) throws Throwable {
-        mhFree.invokeExact(ctx);
+        Bindings.FREE.invokeExact(ctx);
     }
 
     public void freeParams(MemorySegment params) throws Throwable {
-        mhFreeParams.invokeExact(params);
+        Bindings.FREE_PARAMS.invokeExact(params);
     }
 
     public int full(MemorySegment ctx, MemorySegment params, MemorySegment audioData, int nSamples) throws Throwable {
-        return (int) mhFull.invokeExact(ctx, params, audioData, nSamples);
+        return (int) Bindings.FULL.invokeExact(ctx, params, audioData, nSamples);
     }
 
     public int fullNSegments(MemorySegment ctx) throws Throwable {
-        return (int) mhFullNSegments.invokeExact(ctx);
+        return (int) Bindings.FULL_N_SEGMENTS.invokeExact(ctx);
     }
 
     public MemorySegment fullGetSegmentText(MemorySegment ctx, int iSegment) throws Throwable {
-        return (MemorySegment) mhFullGetSegmentText.invokeExact(ctx, iSegment);
+        return (MemorySegment) Bindings.FULL_GET_SEGMENT_TEXT.invokeExact(ctx, iSegment);
     }
 
     public long fullGetSegmentT0(MemorySegment ctx, int iSegment) throws Throwable {
-        return (long) mhFullGetSegmentT0.invokeExact(ctx, iSegment);
+        return (long) Bindings.FULL_GET_SEGMENT_T0.invokeExact(ctx, iSegment);
     }
 
     public long fullGetSegmentT1(MemorySegment ctx, int iSegment) throws Throwable {
-        return (long) mhFullGetSegmentT1.invokeExact(ctx, iSegment);
+        return (long) Bindings.FULL_GET_SEGMENT_T1.invokeExact(ctx, iSegment);
     }
 
     public MemorySegment fullDefaultParamsByRef(int i) throws Throwable {
-        return (MemorySegment) mhFullDefaultParamsByRef.invokeExact(i);
+        return (MemorySegment) Bindings.FULL_DEFAULT_PARAMS_BY_REF.invokeExact(i);
     }
 
     public int tokenEot(MemorySegment ctx) throws Throwable {
-        return (int) mhTokenEot.invokeExact(ctx);
+        return (int) Bindings.TOKEN_EOT.invokeExact(ctx);
     }
 
     public int fullNTokens(MemorySegment ctx, int iSegment) throws Throwable {
-        return (int) mhFullNTokens.invokeExact(ctx, iSegment);
+        return (int) Bindings.FULL_N_TOKENS.invokeExact(ctx, iSegment);
     }
 
     public MemorySegment fullGetTokenText(MemorySegment ctx, int iSegment, int iToken) throws Throwable {
-        return (MemorySegment) mhFullGetTokenText.invokeExact(ctx, iSegment, iToken);
+        return (MemorySegment) Bindings.FULL_GET_TOKEN_TEXT.invokeExact(ctx, iSegment, iToken);
     }
 
     public int fullGetTokenId(MemorySegment ctx, int iSegment, int iToken) throws Throwable {
-        return (int) mhFullGetTokenId.invokeExact(ctx, iSegment, iToken);
+        return (int) Bindings.FULL_GET_TOKEN_ID.invokeExact(ctx, iSegment, iToken);
     }
 
     public float fullGetTokenP(MemorySegment ctx, int iSegment, int iToken) throws Throwable {
-        return (float) mhFullGetTokenP.invokeExact(ctx, iSegment, iToken);
+        return (float) Bindings.FULL_GET_TOKEN_P.invokeExact(ctx, iSegment, iToken);
+    }
+
+    public MemorySegment initState(MemorySegment ctx) throws Throwable {
+        return (MemorySegment) Bindings.INIT_STATE.invokeExact(ctx);
+    }
+
+    public void freeState(MemorySegment state) throws Throwable {
+        Bindings.FREE_STATE.invokeExact(state);
+    }
+
+    public int fullWithState(
+            MemorySegment ctx, MemorySegment state, MemorySegment params, MemorySegment audioData, int nSamples)
+            throws Throwable {
+        return (int) Bindings.FULL_WITH_STATE.invokeExact(ctx, state, params, audioData, nSamples);
+    }
+
+    public int fullNSegmentsFromState(MemorySegment state) throws Throwable {
+        return (int) Bindings.FULL_N_SEGMENTS_FROM_STATE.invokeExact(state);
+    }
+
+    public MemorySegment fullGetSegmentTextFromState(MemorySegment state, int iSegment) throws Throwable {
+        return (MemorySegment) Bindings.FULL_GET_SEGMENT_TEXT_FROM_STATE.invokeExact(state, iSegment);
+    }
+
+    public long fullGetSegmentT0FromState(MemorySegment state, int iSegment) throws Throwable {
+        return (long) Bindings.FULL_GET_SEGMENT_T0_FROM_STATE.invokeExact(state, iSegment);
+    }
+
+    public long fullGetSegmentT1FromState(MemorySegment state, int iSegment) throws Throwable {
+        return (long) Bindings.FULL_GET_SEGMENT_T1_FROM_STATE.invokeExact(state, iSegment);
+    }
+
+    public int fullNTokensFromState(MemorySegment state, int iSegment) throws Throwable {
+        return (int) Bindings.FULL_N_TOKENS_FROM_STATE.invokeExact(state, iSegment);
+    }
+
+    public MemorySegment fullGetTokenTextFromState(MemorySegment ctx, MemorySegment state, int iSegment, int iToken)
+            throws Throwable {
+        return (MemorySegment) Bindings.FULL_GET_TOKEN_TEXT_FROM_STATE.invokeExact(ctx, state, iSegment, iToken);
+    }
+
+    public int fullGetTokenIdFromState(MemorySegment state, int iSegment, int iToken) throws Throwable {
+        return (int) Bindings.FULL_GET_TOKEN_ID_FROM_STATE.invokeExact(state, iSegment, iToken);
+    }
+
+    public float fullGetTokenPFromState(MemorySegment state, int iSegment, int iToken) throws Throwable {
+        return (float) Bindings.FULL_GET_TOKEN_P_FROM_STATE.invokeExact(state, iSegment, iToken);
+    }
+
+    public int nVocab(MemorySegment ctx) throws Throwable {
+        return (int) Bindings.N_VOCAB.invokeExact(ctx);
+    }
+
+    public MemorySegment tokenToStr(MemorySegment ctx, int token) throws Throwable {
+        return (MemorySegment) Bindings.TOKEN_TO_STR.invokeExact(ctx, token);
+    }
+
+    public MemorySegment fullGetTokenData(SegmentAllocator allocator, MemorySegment ctx, int iSegment, int iToken)
+            throws Throwable {
+        return (MemorySegment) Bindings.FULL_GET_TOKEN_DATA.invokeExact(allocator, ctx, iSegment, iToken);
+    }
+
+    public MemorySegment fullGetTokenDataFromState(
+            SegmentAllocator allocator, MemorySegment state, int iSegment, int iToken) throws Throwable {
+        return (MemorySegment) Bindings.FULL_GET_TOKEN_DATA_FROM_STATE.invokeExact(allocator, state, iSegment, iToken);
+    }
+
+    public int pcmToMel(MemorySegment ctx, MemorySegment samples, int nSamples, int nThreads) throws Throwable {
+        return (int) Bindings.PCM_TO_MEL.invokeExact(ctx, samples, nSamples, nThreads);
+    }
+
+    public int pcmToMelWithState(
+            MemorySegment ctx, MemorySegment state, MemorySegment samples, int nSamples, int nThreads)
+            throws Throwable {
+        return (int) Bindings.PCM_TO_MEL_WITH_STATE.invokeExact(ctx, state, samples, nSamples, nThreads);
+    }
+
+    public int setMel(MemorySegment ctx, MemorySegment data, int nLen, int nMel) throws Throwable {
+        return (int) Bindings.SET_MEL.invokeExact(ctx, data, nLen, nMel);
+    }
+
+    public int setMelWithState(MemorySegment ctx, MemorySegment state, MemorySegment data, int nLen, int nMel)
+            throws Throwable {
+        return (int) Bindings.SET_MEL_WITH_STATE.invokeExact(ctx, state, data, nLen, nMel);
+    }
+
+    public int langAutoDetect(MemorySegment ctx, int offsetMs, int nThreads, MemorySegment langProbs)
+            throws Throwable {
+        return (int) Bindings.LANG_AUTO_DETECT.invokeExact(ctx, offsetMs, nThreads, langProbs);
+    }
+
+    public int langAutoDetectWithState(
+            MemorySegment ctx, MemorySegment state, int offsetMs, int nThreads, MemorySegment langProbs)
+            throws Throwable {
+        return (int) Bindings.LANG_AUTO_DETECT_WITH_STATE.invokeExact(ctx, state, offsetMs, nThreads, langProbs);
+    }
+
+    public int langMaxId() throws Throwable {
+        return (int) Bindings.LANG_MAX_ID.invokeExact();
+    }
+
+    public MemorySegment langStr(int id) throws Throwable {
+        return (MemorySegment) Bindings.LANG_STR.invokeExact(id);
+    }
+
+    public int isMultilingual(MemorySegment ctx) throws Throwable {
+        return (int) Bindings.IS_MULTILINGUAL.invokeExact(ctx);
+    }
+
+    public MemorySegment vadInitFromFileWithParams(MemorySegment path, MemorySegment params) throws Throwable {
+        return (MemorySegment) Bindings.VAD_INIT_FROM_FILE_WITH_PARAMS.invokeExact(path, params);
+    }
+
+    public MemorySegment vadSegmentsFromSamples(
+            MemorySegment vctx, MemorySegment params, MemorySegment samples, int nSamples) throws Throwable {
+        return (MemorySegment) Bindings.VAD_SEGMENTS_FROM_SAMPLES.invokeExact(vctx, params, samples, nSamples);
+    }
+
+    public int vadSegmentsNSegments(MemorySegment segments) throws Throwable {
+        return (int) Bindings.VAD_SEGMENTS_N_SEGMENTS.invokeExact(segments);
+    }
+
+    public float vadSegmentsGetSegmentT0(MemorySegment segments, int iSegment) throws Throwable {
+        return (float) Bindings.VAD_SEGMENTS_GET_SEGMENT_T0.invokeExact(segments, iSegment);
+    }
+
+    public float vadSegmentsGetSegmentT1(MemorySegment segments, int iSegment) throws Throwable {
+        return (float) Bindings.VAD_SEGMENTS_GET_SEGMENT_T1.invokeExact(segments, iSegment);
+    }
+
+    public void vadFreeSegments(MemorySegment segments) throws Throwable {
+        Bindings.VAD_FREE_SEGMENTS.invokeExact(segments);
+    }
+
+    public void vadFree(MemorySegment vctx) throws Throwable {
+        Bindings.VAD_FREE.invokeExact(vctx);
     }
 }
@@ -0,0 +1,53 @@
+package io.github.ferdinandmehlan.whisperspring._native.ffm;
+
+import java.lang.foreign.MemoryLayout;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.StructLayout;
+import java.lang.foreign.ValueLayout;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Represents the whisper_token_data struct from whisper.h.
+ * Returned by value from whisper_full_get_token_data, so that id, probability and timestamps
+ * of a token are read with a single downcall.
+ */
+public class WhisperTokenData {
+
+    /** Memory layout for the whisper_token_data struct. */
+    public static final StructLayout LAYOUT = MemoryLayout.structLayout(
+                    ValueLayout.JAVA_INT.withName("id"),
+                    ValueLayout.JAVA_INT.withName("tid"),
+                    ValueLayout.JAVA_FLOAT.withName("p"),
+                    ValueLayout.JAVA_FLOAT.withName("plog"),
+                    ValueLayout.JAVA_FLOAT.withName("pt"),
+                    ValueLayout.JAVA_FLOAT.withName("ptsum"),
+                    ValueLayout.JAVA_LONG.withName("t0"),
+                    ValueLayout.JAVA_LONG.withName("t1"),
+                    ValueLayout.JAVA_LONG.withName("t_dtw"),
+                    ValueLayout.JAVA_FLOAT.withName("vlen"),
+                    MemoryLayout.paddingLayout(4))
+            .withName("whisper_token_data");
+
+    private static final VarHandle ID = LAYOUT.varHandle(MemoryLayout.PathElement.groupElement("id"));
+    private static final VarHandle P = LAYOUT.varHandle(MemoryLayout.PathElement.groupElement("p"));
+    private static final VarHandle T0 = LAYOUT.varHandle(MemoryLayout.PathElement.groupElement("t0"));
+    private static final VarHandle T1 = LAYOUT.varHandle(MemoryLayout.PathElement.groupElement("t1"));
+
+    private WhisperTokenData() {}
+
+    public static int id(MemorySegment segment) {
+        return (int) ID.get(segment, 0L);
+    }
+
+    public static float p(MemorySegment segment) {
+        return (float) P.get(segment, 0L);
+    }
+
+    public static long t0(MemorySegment segment) {
+        return (long) T0.get(segment, 0L);
+    }
+
+    public static long t1(MemorySegment segment) {
+        return (long) T1.get(segment, 0L);
+    }
+}
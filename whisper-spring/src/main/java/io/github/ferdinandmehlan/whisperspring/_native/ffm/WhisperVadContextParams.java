@@ -0,0 +1,51 @@
+package io.github.ferdinandmehlan.whisperspring._native.ffm;
+
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperVadContextConfig;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemoryLayout;
+import java.lang.foreign.MemoryLayout.PathElement;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.StructLayout;
+import java.lang.foreign.ValueLayout;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Represents the whisper_vad_context_params struct from whisper.h.
+ * Used to configure the initialization of a VAD context.
+ *
+ * C signature:
+ * struct whisper_vad_context_params {
+ *     int   n_threads;
+ *     bool  use_gpu;
+ *     int   gpu_device;
+ * };
+ */
+public class WhisperVadContextParams {
+
+    /** Memory layout for the whisper_vad_context_params struct. */
+    public static final StructLayout LAYOUT = MemoryLayout.structLayout(
+                    ValueLayout.JAVA_INT.withName("n_threads"),
+                    ValueLayout.JAVA_BOOLEAN.withName("use_gpu"),
+                    MemoryLayout.paddingLayout(3),
+                    ValueLayout.JAVA_INT.withName("gpu_device"))
+            .withName("whisper_vad_context_params");
+
+    private static final VarHandle N_THREADS = LAYOUT.varHandle(PathElement.groupElement("n_threads"));
+    private static final VarHandle USE_GPU = LAYOUT.varHandle(PathElement.groupElement("use_gpu"));
+    private static final VarHandle GPU_DEVICE = LAYOUT.varHandle(PathElement.groupElement("gpu_device"));
+
+    /**
+     * Allocates a whisper_vad_context_params memory segment from a WhisperVadContextConfig.
+     *
+     * @param arena the arena to allocate memory from
+     * @param config the VAD context configuration
+     * @return the allocated memory segment
+     */
+    public static MemorySegment allocate(Arena arena, WhisperVadContextConfig config) {
+        MemorySegment segment = arena.allocate(LAYOUT);
+        N_THREADS.set(segment, 0L, config.nThreads);
+        USE_GPU.set(segment, 0L, config.useGpu);
+        GPU_DEVICE.set(segment, 0L, config.gpuDevice);
+        return segment;
+    }
+}
@@ -1,6 +1,12 @@
 package io.github.ferdinandmehlan.whisperspring._native.loader;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 public final class CPUNativeLoader extends NativeLoader {
+
+    private static final Logger log = LoggerFactory.getLogger(CPUNativeLoader.class.getName());
+
     private volatile boolean loaded = false;
 
     @Override
@@ -9,9 +15,35 @@ public final class CPUNativeLoader extends NativeLoader {
             return;
         }
         loadLibrary("ggml-base", null);
-        loadLibrary("ggml-cpu", null);
+        loadCpuBackend();
         loadLibrary("ggml", null);
         loadLibrary("whisper", null);
         loaded = true;
     }
+
+    /**
+     * Loads the best {@code ggml-cpu} variant that is bundled and supported by the host CPU.
+     */
+    private void loadCpuBackend() {
+        PlatformEnum platform = PlatformEnum.detect();
+        for (CpuVariant variant : CpuVariant.candidates(platform, CpuFeatures.detect())) {
+            if (variant == CpuVariant.GENERIC) {
+                break;
+            }
+            if (NativeLoader.class.getResource(platform.getResourcePath("ggml-cpu", variant.getEngine())) == null) {
+                continue;
+            }
+            try {
+                loadLibrary("ggml-cpu", variant.getEngine());
+                cpuVariant = variant;
+                log.info("Using ggml-cpu variant {}", variant);
+                return;
+            } catch (UnsatisfiedLinkError e) {
+                log.warn("Failed to load ggml-cpu variant {}: {}", variant, e.getMessage());
+            }
+        }
+        loadLibrary("ggml-cpu", null);
+        cpuVariant = CpuVariant.GENERIC;
+        log.info("Using ggml-cpu variant {}", CpuVariant.GENERIC);
+    }
 }
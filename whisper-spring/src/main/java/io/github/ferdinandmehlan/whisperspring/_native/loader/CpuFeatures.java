@@ -0,0 +1,69 @@
+package io.github.ferdinandmehlan.whisperspring._native.loader;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Instruction set extensions of the host CPU, as reported by the kernel in {@code /proc/cpuinfo}.
+ * The {@code flags} line is used on x86, the {@code Features} line on ARM. On other systems the set is empty.
+ *
+ * @param flags the lower-case feature flags of the first processor
+ */
+public record CpuFeatures(Set<String> flags) {
+
+    private static final Path CPUINFO = Path.of("/proc/cpuinfo");
+
+    /**
+     * Reads the features of the host CPU.
+     *
+     * @return the features, empty if {@code /proc/cpuinfo} is not available
+     */
+    public static CpuFeatures detect() {
+        if (!Files.isReadable(CPUINFO)) {
+            return new CpuFeatures(Set.of());
+        }
+        try {
+            return parse(Files.readString(CPUINFO));
+        } catch (IOException e) {
+            return new CpuFeatures(Set.of());
+        }
+    }
+
+    /**
+     * Parses the content of {@code /proc/cpuinfo}.
+     *
+     * @param cpuinfo the file content
+     * @return the features of the first processor listed
+     */
+    public static CpuFeatures parse(String cpuinfo) {
+        for (String line : cpuinfo.split("\n")) {
+            int colon = line.indexOf(':');
+            if (colon < 0) {
+                continue;
+            }
+            String key = line.substring(0, colon).trim();
+            if (key.equals("flags") || key.equals("Features")) {
+                Set<String> flags = Arrays.stream(line.substring(colon + 1).trim().split("\\s+"))
+                        .filter(flag -> !flag.isEmpty())
+                        .map(String::toLowerCase)
+                        .collect(Collectors.toUnmodifiableSet());
+                return new CpuFeatures(flags);
+            }
+        }
+        return new CpuFeatures(Set.of());
+    }
+
+    /**
+     * Checks whether all given flags are supported.
+     *
+     * @param required the required flags
+     * @return {@code true} if the CPU reports every flag
+     */
+    public boolean hasAll(Set<String> required) {
+        return flags.containsAll(required);
+    }
+}
@@ -0,0 +1,62 @@
+package io.github.ferdinandmehlan.whisperspring._native.loader;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Builds of the {@code ggml-cpu} backend for specific instruction sets.
+ *
+ * <p>A variant is bundled as {@code /native/<os>/<arch>/<engine>/<lib>ggml-cpu<ext>} next to the
+ * generic build. {@link CPUNativeLoader} loads the best variant the host supports and that is
+ * present on the classpath, and falls back to the {@link #GENERIC} build otherwise.</p>
+ */
+public enum CpuVariant {
+    X64_AVX512("cpu-avx512", "x64", Set.of("avx512f", "avx512bw", "avx512vl", "avx512dq", "avx2", "fma", "f16c")),
+    X64_AVX2("cpu-avx2", "x64", Set.of("avx2", "fma", "f16c", "bmi2")),
+    X64_SSE42("cpu-sse42", "x64", Set.of("sse4_2", "ssse3")),
+    AARCH64_SVE("cpu-sve", "aarch64", Set.of("sve", "asimddp")),
+    AARCH64_DOTPROD("cpu-dotprod", "aarch64", Set.of("asimddp")),
+    GENERIC(null, null, Set.of());
+
+    private final String engine;
+    private final String archDir;
+    private final Set<String> requiredFlags;
+
+    CpuVariant(String engine, String archDir, Set<String> requiredFlags) {
+        this.engine = engine;
+        this.archDir = archDir;
+        this.requiredFlags = requiredFlags;
+    }
+
+    /**
+     * Returns the variants the host can run on the platform, best first and ending with {@link #GENERIC}.
+     *
+     * @param platform the platform
+     * @param features the host CPU features
+     * @return the supported variants
+     */
+    public static List<CpuVariant> candidates(PlatformEnum platform, CpuFeatures features) {
+        List<CpuVariant> candidates = new ArrayList<>();
+        for (CpuVariant variant : values()) {
+            if (variant == GENERIC
+                    || (variant.archDir.equals(platform.getArchDir()) && features.hasAll(variant.requiredFlags))) {
+                candidates.add(variant);
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * Returns the resource subdirectory of the variant.
+     *
+     * @return the engine directory, or {@code null} for the generic build
+     */
+    public String getEngine() {
+        return engine;
+    }
+
+    public Set<String> getRequiredFlags() {
+        return requiredFlags;
+    }
+}
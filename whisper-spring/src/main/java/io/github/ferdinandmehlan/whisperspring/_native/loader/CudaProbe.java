@@ -0,0 +1,31 @@
+package io.github.ferdinandmehlan.whisperspring._native.loader;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Cheap check whether an NVIDIA driver is installed, so that hosts without one do not extract and
+ * try to load the CUDA libraries. It only looks for the driver's files, it does not initialize CUDA.
+ */
+final class CudaProbe {
+
+    private CudaProbe() {}
+
+    /**
+     * Checks for the NVIDIA driver on the given platform.
+     *
+     * @param platform the current platform
+     * @return {@code true} if a driver appears to be installed
+     */
+    static boolean isDriverPresent(PlatformEnum platform) {
+        return switch (platform.getOsDir()) {
+            case "linux" ->
+                Files.exists(Path.of("/proc/driver/nvidia/version")) || Files.exists(Path.of("/dev/nvidiactl"));
+            case "windows" -> {
+                String systemRoot = System.getenv("SystemRoot");
+                yield systemRoot != null && Files.exists(Path.of(systemRoot, "System32", "nvcuda.dll"));
+            }
+            default -> false;
+        };
+    }
+}
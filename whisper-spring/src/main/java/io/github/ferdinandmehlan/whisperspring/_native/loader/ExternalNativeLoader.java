@@ -0,0 +1,86 @@
+package io.github.ferdinandmehlan.whisperspring._native.loader;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Loads a whisper.cpp build provided by the host instead of the bundled libraries.
+ * The libraries are validated by {@link NativeLibraryValidator} before they are loaded.
+ */
+public final class ExternalNativeLoader extends NativeLoader {
+
+    private static final Logger log = LoggerFactory.getLogger(ExternalNativeLoader.class.getName());
+
+    /** Library names looked up in a library directory, in load order. */
+    private static final List<String> DIRECTORY_LIBRARIES = List.of(
+            "ggml-base", "ggml-cpu", "ggml-blas", "ggml-cuda", "ggml-vulkan", "ggml-metal", "ggml", "whisper");
+
+    private final List<Path> libraries;
+    private volatile boolean loaded = false;
+
+    /**
+     * Creates a loader for explicitly listed libraries.
+     *
+     * @param libraries the library files in load order, dependencies first; one of them must be the whisper library
+     */
+    public ExternalNativeLoader(List<Path> libraries) {
+        if (libraries.stream().noneMatch(library -> libraryName(library).equals("whisper"))) {
+            throw new IllegalArgumentException("No whisper library among " + libraries);
+        }
+        this.libraries = List.copyOf(libraries);
+    }
+
+    /**
+     * Creates a loader for the ggml and whisper libraries found in a directory.
+     *
+     * @param directory the directory of the whisper.cpp build
+     * @return a new loader
+     */
+    public static ExternalNativeLoader fromDirectory(Path directory) {
+        PlatformEnum platform = PlatformEnum.detect();
+        List<Path> libraries = new ArrayList<>();
+        for (String name : DIRECTORY_LIBRARIES) {
+            Path library = directory.resolve(platform.getLibraryPrefix() + name + platform.getExtension());
+            if (Files.isRegularFile(library)) {
+                libraries.add(library);
+            }
+        }
+        return new ExternalNativeLoader(libraries);
+    }
+
+    @Override
+    public synchronized void loadLibraries() {
+        if (loaded) {
+            return;
+        }
+        Path whisper = libraries.stream()
+                .filter(library -> libraryName(library).equals("whisper"))
+                .findFirst()
+                .orElseThrow();
+        NativeLibraryValidator.validate(libraries, whisper);
+        for (Path library : libraries) {
+            log.info("Loading external library: {}", library);
+            System.load(library.toAbsolutePath().toString());
+            loadedLibraries.put(libraryName(library), library.toAbsolutePath());
+        }
+        loaded = true;
+    }
+
+    /**
+     * Returns the name of a library file without platform prefix, extension and version suffix,
+     * e.g. {@code whisper} for {@code libwhisper.so.1}.
+     */
+    static String libraryName(Path library) {
+        PlatformEnum platform = PlatformEnum.detect();
+        String name = library.getFileName().toString();
+        if (!platform.getLibraryPrefix().isEmpty() && name.startsWith(platform.getLibraryPrefix())) {
+            name = name.substring(platform.getLibraryPrefix().length());
+        }
+        int extension = name.indexOf(platform.getExtension());
+        return extension > 0 ? name.substring(0, extension) : name;
+    }
+}
@@ -0,0 +1,164 @@
+package io.github.ferdinandmehlan.whisperspring._native.loader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.JarURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HexFormat;
+import java.util.jar.JarEntry;
+import java.util.zip.CRC32;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Persistent, content-addressed cache for native libraries extracted from the classpath.
+ *
+ * <p>A library is stored as {@code <root>/<crc32>-<size>/<file name>}, keyed by the CRC-32 and size of
+ * the classpath resource. For resources in a jar both are read from the jar's central directory, so
+ * the key is known without inflating the library. A cached file is reused across JVM runs as long as
+ * its size and CRC-32 still match the key; otherwise it is extracted again. Files are written to a
+ * temporary name and moved into place atomically, so concurrent JVMs never load a partial library.</p>
+ *
+ * <p>The root is {@code -Dwhisper.native.cache-dir} if set, otherwise {@code whisper-spring/native}
+ * in the user's cache directory ({@code $XDG_CACHE_HOME}, {@code ~/.cache} or {@code %LOCALAPPDATA%}).</p>
+ */
+final class NativeLibraryCache {
+
+    private static final Logger log = LoggerFactory.getLogger(NativeLibraryCache.class.getName());
+
+    static final String CACHE_DIR_PROPERTY = "whisper.native.cache-dir";
+
+    private final Path root;
+
+    NativeLibraryCache(Path root) {
+        this.root = root;
+    }
+
+    /**
+     * Returns the default cache root, see the class documentation.
+     *
+     * @return the cache root
+     */
+    static Path defaultRoot() {
+        String configured = System.getProperty(CACHE_DIR_PROPERTY);
+        if (configured != null && !configured.isBlank()) {
+            return Path.of(configured);
+        }
+        String base = PlatformEnum.detect().getOsDir().equals("windows")
+                ? System.getenv("LOCALAPPDATA")
+                : System.getenv("XDG_CACHE_HOME");
+        Path cacheHome = base != null && !base.isBlank()
+                ? Path.of(base)
+                : Path.of(System.getProperty("user.home"), ".cache");
+        return cacheHome.resolve("whisper-spring").resolve("native");
+    }
+
+    /**
+     * Returns the cached copy of a classpath resource, extracting it if it is missing or invalid.
+     *
+     * @param resource the URL of the classpath resource
+     * @param fileName the file name of the extracted library
+     * @return the path of the cached library
+     */
+    Path extract(URL resource, String fileName) {
+        try {
+            Key key = Key.of(resource);
+            Path target = root.resolve(key.name()).resolve(fileName);
+            if (isValid(target, key)) {
+                log.debug("Using cached native library {}", target);
+                return target;
+            }
+
+            log.info("Extracting native library {} to {}", fileName, target);
+            Files.createDirectories(target.getParent());
+            Path tmp = Files.createTempFile(target.getParent(), fileName, ".tmp");
+            try {
+                try (InputStream is = resource.openStream()) {
+                    Files.copy(is, tmp, StandardCopyOption.REPLACE_EXISTING);
+                }
+                if (!isValid(tmp, key)) {
+                    throw new IOException("Checksum mismatch after extracting " + resource);
+                }
+                move(tmp, target);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+            return target;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to extract native library " + resource + " to " + root, e);
+        }
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            // Another process may have moved a valid copy in place that is already loaded (Windows)
+            if (!Files.exists(target)) {
+                throw e;
+            }
+        }
+    }
+
+    private static boolean isValid(Path file, Key key) throws IOException {
+        if (!Files.isRegularFile(file) || Files.size(file) != key.size()) {
+            return false;
+        }
+        return crc32(file) == key.crc();
+    }
+
+    private static long crc32(Path file) throws IOException {
+        CRC32 crc = new CRC32();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                crc.update(buffer);
+                buffer.clear();
+            }
+        }
+        return crc.getValue();
+    }
+
+    /**
+     * Content key of a classpath resource.
+     */
+    record Key(long crc, long size) {
+
+        static Key of(URL resource) throws IOException {
+            URLConnection connection = resource.openConnection();
+            if (connection instanceof JarURLConnection jar) {
+                JarEntry entry = jar.getJarEntry();
+                if (entry != null && entry.getCrc() != -1 && entry.getSize() != -1) {
+                    return new Key(entry.getCrc(), entry.getSize());
+                }
+            }
+            CRC32 crc = new CRC32();
+            long size = 0;
+            byte[] buffer = new byte[1 << 16];
+            try (InputStream is = resource.openStream()) {
+                int n;
+                while ((n = is.read(buffer)) >= 0) {
+                    crc.update(buffer, 0, n);
+                    size += n;
+                }
+            }
+            return new Key(crc.getValue(), size);
+        }
+
+        String name() {
+            return HexFormat.of().toHexDigits((int) crc) + "-" + size;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package io.github.ferdinandmehlan.whisperspring._native.loader;
+
+import io.github.ferdinandmehlan.whisperspring._native.ffm.WhisperFullParams;
+import io.github.ferdinandmehlan.whisperspring._native.ffm.WhisperH;
+import java.lang.foreign.Arena;
+import java.lang.foreign.FunctionDescriptor;
+import java.lang.foreign.Linker;
+import java.lang.foreign.MemoryLayout;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.SymbolLookup;
+import java.lang.foreign.ValueLayout;
+import java.lang.invoke.MethodHandle;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Checks that a whisper build is compatible with the bindings before it is loaded for good.
+ *
+ * <p>The libraries are opened in a confined arena, so they are unloaded again after the check.
+ * The check verifies that every symbol of {@link WhisperH#SYMBOLS} is exported, and that
+ * {@code whisper_full_default_params_by_ref} fills {@link WhisperFullParams#LAYOUT} with the known
+ * defaults at the expected offsets. whisper.cpp has no {@code sizeof} export, so default values
+ * spread over the struct, up to the trailing {@code vad_params}, stand in for a size check.</p>
+ */
+final class NativeLibraryValidator {
+
+    private static final int WHISPER_SAMPLING_GREEDY = 0;
+
+    private NativeLibraryValidator() {}
+
+    /**
+     * Opens the libraries in order and validates the whisper library among them.
+     *
+     * @param libraries the libraries in load order, dependencies first
+     * @param whisperLibrary the whisper library
+     * @throws IllegalStateException if a library cannot be opened or the whisper library is incompatible
+     */
+    static void validate(List<Path> libraries, Path whisperLibrary) {
+        try (Arena arena = Arena.ofConfined()) {
+            SymbolLookup whisper = null;
+            for (Path library : libraries) {
+                SymbolLookup lookup = SymbolLookup.libraryLookup(library, arena);
+                if (library.equals(whisperLibrary)) {
+                    whisper = lookup;
+                }
+            }
+            if (whisper == null) {
+                throw new IllegalStateException("No whisper library among " + libraries);
+            }
+            validateSymbols(whisper);
+            validateFullParamsLayout(whisper);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException("Cannot open native library: " + e.getMessage(), e);
+        }
+    }
+
+    private static void validateSymbols(SymbolLookup lookup) {
+        List<String> missing = new ArrayList<>();
+        for (String symbol : WhisperH.SYMBOLS) {
+            if (lookup.find(symbol).isEmpty()) {
+                missing.add(symbol);
+            }
+        }
+        if (!missing.isEmpty()) {
+            throw new IllegalStateException("Native whisper library is missing symbols " + missing);
+        }
+    }
+
+    private static void validateFullParamsLayout(SymbolLookup lookup) {
+        Linker linker = Linker.nativeLinker();
+        MethodHandle defaultParams = linker.downcallHandle(
+                lookup.findOrThrow("whisper_full_default_params_by_ref"),
+                FunctionDescriptor.of(ValueLayout.ADDRESS, ValueLayout.JAVA_INT));
+        MethodHandle freeParams = linker.downcallHandle(
+                lookup.findOrThrow("whisper_free_params"), FunctionDescriptor.ofVoid(ValueLayout.ADDRESS));
+
+        MemorySegment params;
+        try {
+            params = ((MemorySegment) defaultParams.invokeExact(WHISPER_SAMPLING_GREEDY))
+                    .reinterpret(WhisperFullParams.LAYOUT.byteSize());
+        } catch (Throwable e) {
+            throw new IllegalStateException("whisper_full_default_params_by_ref failed", e);
+        }
+        try {
+            List<String> mismatches = new ArrayList<>();
+            expect(mismatches, params, WHISPER_SAMPLING_GREEDY, "strategy");
+            expect(mismatches, params, 16384, "n_max_text_ctx");
+            expect(mismatches, params, 0.2f, "temperature_inc");
+            expect(mismatches, params, 2.4f, "entropy_thold");
+            expect(mismatches, params, -1.0f, "logprob_thold");
+            expect(mismatches, params, 100.0f, "grammar_penalty");
+            expect(mismatches, params, 0.5f, "vad_params", "threshold");
+            expect(mismatches, params, 250, "vad_params", "min_speech_duration_ms");
+            expect(mismatches, params, 30, "vad_params", "speech_pad_ms");
+            if (!mismatches.isEmpty()) {
+                throw new IllegalStateException(
+                        "whisper_full_params of the native library does not match WhisperFullParams.LAYOUT ("
+                                + WhisperFullParams.LAYOUT.byteSize() + " bytes): " + mismatches);
+            }
+        } finally {
+            try {
+                freeParams.invokeExact(params);
+            } catch (Throwable e) {
+                throw new IllegalStateException("whisper_free_params failed", e);
+            }
+        }
+    }
+
+    private static void expect(List<String> mismatches, MemorySegment params, Object expected, String... path) {
+        long offset = WhisperFullParams.LAYOUT.byteOffset(Arrays.stream(path)
+                .map(MemoryLayout.PathElement::groupElement)
+                .toArray(MemoryLayout.PathElement[]::new));
+        Object actual =
+                switch (expected) {
+                    case Integer _ -> params.get(ValueLayout.JAVA_INT, offset);
+                    case Float _ -> params.get(ValueLayout.JAVA_FLOAT, offset);
+                    default -> throw new IllegalArgumentException("Unsupported field type " + expected.getClass());
+                };
+        if (!expected.equals(actual)) {
+            mismatches.add(String.join(".", path) + "=" + actual + " (expected " + expected + ")");
+        }
+    }
+}
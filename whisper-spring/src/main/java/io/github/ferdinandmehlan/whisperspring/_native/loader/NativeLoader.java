@@ -2,9 +2,12 @@ package io.github.ferdinandmehlan.whisperspring._native.loader;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import org.slf4j.Logger;
@@ -15,33 +18,88 @@ public abstract class NativeLoader {
     private static final Logger log = LoggerFactory.getLogger(NativeLoader.class.getName());
 
     private static NativeLoader INSTANCE;
+    private static List<Path> externalLibraries;
+    private static Path externalLibraryDir;
+
+    /**
+     * Uses a whisper.cpp build of the host instead of the bundled libraries. Must be called before the
+     * libraries are loaded; if the build fails validation, the bundled libraries are loaded instead.
+     *
+     * @param libraryDir a directory containing the ggml and whisper libraries, or {@code null}
+     * @param libraries explicit library files in load order, used instead of the directory if not empty
+     */
+    public static synchronized void useExternalLibraries(Path libraryDir, List<Path> libraries) {
+        if (INSTANCE != null) {
+            log.warn("Native libraries are already loaded, ignoring external libraries");
+            return;
+        }
+        externalLibraryDir = libraryDir;
+        externalLibraries = libraries == null ? List.of() : List.copyOf(libraries);
+    }
 
     public static synchronized NativeLoader getInstance() {
         if (INSTANCE == null) {
             log.info("Loading native libraries");
+            NativeLoader external = loadExternalLibraries();
+            INSTANCE = external != null ? external : loadBundledLibraries();
+        }
+        return INSTANCE;
+    }
+
+    private static NativeLoader loadBundledLibraries() {
+        if (CudaProbe.isDriverPresent(PlatformEnum.detect())) {
             try {
                 log.info("Attempting to load CUDA libraries first");
                 CUDANativeLoader cudaLoader = new CUDANativeLoader();
                 cudaLoader.loadLibraries();
                 log.info("CUDA libraries loaded successfully");
-                INSTANCE = cudaLoader;
+                return cudaLoader;
             } catch (UnsatisfiedLinkError | RuntimeException e) {
                 log.info("CUDA loading failed, falling back to CPU libraries: {}", e.getMessage());
-                CPUNativeLoader cpuLoader = new CPUNativeLoader();
-                cpuLoader.loadLibraries();
-                log.info("CPU libraries loaded successfully");
-                INSTANCE = cpuLoader;
             }
+        } else {
+            log.info("No NVIDIA driver found, skipping CUDA libraries");
+        }
+        CPUNativeLoader cpuLoader = new CPUNativeLoader();
+        cpuLoader.loadLibraries();
+        log.info("CPU libraries loaded successfully");
+        return cpuLoader;
+    }
+
+    private static NativeLoader loadExternalLibraries() {
+        if (externalLibraryDir == null && (externalLibraries == null || externalLibraries.isEmpty())) {
+            return null;
+        }
+        try {
+            ExternalNativeLoader loader = externalLibraries.isEmpty()
+                    ? ExternalNativeLoader.fromDirectory(externalLibraryDir)
+                    : new ExternalNativeLoader(externalLibraries);
+            loader.loadLibraries();
+            log.info("External libraries loaded successfully");
+            return loader;
+        } catch (UnsatisfiedLinkError | RuntimeException e) {
+            log.warn("External libraries rejected, falling back to bundled libraries: {}", e.getMessage());
+            return null;
         }
-        return INSTANCE;
     }
 
     public static Path getWhisperLibPath() {
         return getInstance().loadedLibraries.get("whisper");
     }
 
+    /**
+     * Returns the {@code ggml-cpu} build that was loaded.
+     *
+     * @return the CPU backend variant, {@link CpuVariant#GENERIC} for the generic and CUDA builds
+     */
+    public static CpuVariant getCpuVariant() {
+        return getInstance().cpuVariant;
+    }
+
     protected final Map<String, Path> loadedLibraries = new ConcurrentHashMap<>();
 
+    protected volatile CpuVariant cpuVariant = CpuVariant.GENERIC;
+
     protected abstract void loadLibraries();
 
     protected synchronized void loadLibrary(String libName, String engine) {
@@ -53,14 +111,27 @@ public abstract class NativeLoader {
         });
     }
 
+    /**
+     * Extracts a bundled library into the persistent {@link NativeLibraryCache}. If the cache
+     * directory cannot be written, the library is extracted into a fresh temporary directory.
+     */
     protected Path extractLibrary(String libName, String engine) {
         PlatformEnum platform = PlatformEnum.detect();
         String resourcePath = platform.getResourcePath(libName, engine);
-        try (InputStream is = NativeLoader.class.getResourceAsStream(resourcePath)) {
-            if (is == null) {
-                throw new NativeLibraryNotFoundException(libName, engine, platform);
-            }
-            String fileName = Path.of(resourcePath).getFileName().toString();
+        URL resource = NativeLoader.class.getResource(resourcePath);
+        if (resource == null) {
+            throw new NativeLibraryNotFoundException(libName, engine, platform);
+        }
+        String fileName = Path.of(resourcePath).getFileName().toString();
+        try {
+            return new NativeLibraryCache(NativeLibraryCache.defaultRoot()).extract(resource, fileName);
+        } catch (UncheckedIOException e) {
+            log.warn(
+                    "Native library cache unavailable, extracting {} to a temporary directory: {}",
+                    fileName,
+                    e.getMessage());
+        }
+        try (InputStream is = resource.openStream()) {
             Path tempDir = Files.createTempDirectory("whisper-native-" + libName);
             Path target = tempDir.resolve(fileName);
             Files.copy(is, target, StandardCopyOption.REPLACE_EXISTING);
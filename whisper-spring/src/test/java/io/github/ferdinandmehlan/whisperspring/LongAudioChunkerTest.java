@@ -0,0 +1,92 @@
+package io.github.ferdinandmehlan.whisperspring;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperSegment;
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperTranscription;
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperTranscriptionMetadata;
+import java.lang.foreign.MemorySegment;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class LongAudioChunkerTest {
+
+    @Test
+    void testChunksAreCutAtSilence() {
+        float[] samples = new float[16000 * 90];
+        Arrays.fill(samples, 0.5f);
+        // A pause of 100 ms shortly before 30 s and one after 60 s
+        Arrays.fill(samples, 16000 * 29, 16000 * 29 + 1600, 0.0f);
+        Arrays.fill(samples, 16000 * 61, 16000 * 61 + 1600, 0.0f);
+
+        List<LongAudioChunker.Chunk> chunks = LongAudioChunker.plan(MemorySegment.ofArray(samples), 16000 * 30, 16000);
+
+        assertThat(chunks).hasSize(3);
+        assertThat(chunks.get(0).to()).isBetween(16000L * 29, 16000L * 29 + 1600);
+        assertThat(chunks.get(1).to()).isBetween(16000L * 61, 16000L * 61 + 1600);
+        assertThat(chunks.get(0).from()).isZero();
+        assertThat(chunks.get(1).from()).isEqualTo(chunks.get(0).to());
+        assertThat(chunks.get(2).from()).isEqualTo(chunks.get(1).to());
+        assertThat(chunks.get(2).to()).isEqualTo(samples.length);
+        // The overlap stays within the audio
+        assertThat(chunks.get(0).start()).isZero();
+        assertThat(chunks.get(1).start()).isEqualTo(chunks.get(1).from() - 16000);
+        assertThat(chunks.get(1).end()).isEqualTo(chunks.get(1).to() + 16000);
+        assertThat(chunks.get(2).end()).isEqualTo(samples.length);
+    }
+
+    @Test
+    void testShortAudioIsOneChunk() {
+        float[] samples = new float[16000 * 33];
+
+        List<LongAudioChunker.Chunk> chunks = LongAudioChunker.plan(MemorySegment.ofArray(samples), 16000 * 30, 16000);
+
+        assertThat(chunks).containsExactly(new LongAudioChunker.Chunk(0, samples.length, 0, samples.length));
+    }
+
+    @Test
+    void testStitchDropsOverlapAndShiftsTimestamps() {
+        // Cut at 10 s, each chunk transcribing 1 s beyond it
+        List<LongAudioChunker.Chunk> chunks = List.of(
+                new LongAudioChunker.Chunk(0, 16000 * 11, 0, 16000 * 10),
+                new LongAudioChunker.Chunk(16000 * 9, 16000 * 20, 16000 * 10, 16000 * 20));
+        WhisperTranscription first = transcription(
+                new WhisperSegment(" One.", 0, 500),
+                new WhisperSegment(" Two.", 500, 980),
+                new WhisperSegment(" Thr", 980, 1100));
+        WhisperTranscription second = transcription(
+                new WhisperSegment(" two.", 0, 80),
+                new WhisperSegment(" Three.", 80, 300),
+                new WhisperSegment(" Four.", 300, 1100));
+
+        WhisperTranscription stitched = LongAudioChunker.stitch(chunks, List.of(first, second));
+
+        assertThat(stitched.getMetadata().getSegments())
+                .extracting(WhisperSegment::text, WhisperSegment::start, WhisperSegment::end)
+                .containsExactly(
+                        tuple(" One.", 0L, 500L),
+                        tuple(" Two.", 500L, 980L),
+                        tuple(" Three.", 980L, 1200L),
+                        tuple(" Four.", 1200L, 2000L));
+        assertThat(stitched.getOutput()).isEqualTo(" One.\n Two.\n Three.\n Four.");
+    }
+
+    @Test
+    void testPromptTailStartsAtAWord() {
+        String text = "word ".repeat(100).strip();
+
+        String tail = LongAudioChunker.promptTail(new WhisperTranscription(" Hello.\n" + text));
+
+        assertThat(tail).hasSizeLessThanOrEqualTo(200).startsWith("word ").endsWith("word");
+        assertThat(LongAudioChunker.promptTail(new WhisperTranscription(" Hello.\n World.")))
+                .isEqualTo("Hello.  World.");
+        assertThat(LongAudioChunker.promptTail(new WhisperTranscription(""))).isNull();
+    }
+
+    private static WhisperTranscription transcription(WhisperSegment... segments) {
+        return new WhisperTranscription("")
+                .withTranscriptionMetadata(new WhisperTranscriptionMetadata(List.of(segments)));
+    }
+}
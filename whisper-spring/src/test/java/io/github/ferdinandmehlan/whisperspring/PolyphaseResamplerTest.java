@@ -0,0 +1,65 @@
+package io.github.ferdinandmehlan.whisperspring;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+
+public class PolyphaseResamplerTest {
+
+    @Test
+    void testSineIsPreserved() {
+        for (int rate : new int[] {8000, 22050, 44100, 48000}) {
+            float[] output = resample(rate, sine(1000, rate, 2 * rate), 1000);
+
+            assertThat(output).hasSize(32000);
+            for (int i = 1000; i < output.length - 1000; i++) {
+                double expected = Math.sin(2 * Math.PI * 1000 * i / 16000);
+                assertThat((double) output[i]).as("%d Hz at %d", rate, i).isCloseTo(expected, offset(1e-3));
+            }
+        }
+    }
+
+    @Test
+    void testFrequenciesAboveNyquistAreRemoved() {
+        float[] output = resample(44100, sine(10000, 44100, 88200), 4096);
+
+        for (int i = 1000; i < output.length - 1000; i++) {
+            assertThat(Math.abs(output[i])).isLessThan(1e-3f);
+        }
+    }
+
+    @Test
+    void testOutputDoesNotDependOnChunkSize() {
+        float[] input = sine(440, 48000, 48000);
+
+        assertThat(resample(48000, input, 1)).isEqualTo(resample(48000, input, 48000));
+        assertThat(resample(48000, input, 333)).isEqualTo(resample(48000, input, 4097));
+    }
+
+    private static float[] sine(double frequency, int rate, int length) {
+        float[] samples = new float[length];
+        for (int i = 0; i < length; i++) {
+            samples[i] = (float) Math.sin(2 * Math.PI * frequency * i / rate);
+        }
+        return samples;
+    }
+
+    private static float[] resample(int rate, float[] input, int chunkSize) {
+        PolyphaseResampler resampler = new PolyphaseResampler(rate, 16000, 4096);
+        float[] output = new float[(int) resampler.outputLength(input.length)];
+        int[] written = {0};
+        PolyphaseResampler.Sink sink = (samples, length) -> {
+            System.arraycopy(samples, 0, output, written[0], length);
+            written[0] += length;
+        };
+        for (int i = 0; i < input.length; i += chunkSize) {
+            int n = Math.min(chunkSize, input.length - i);
+            resampler.process(Arrays.copyOfRange(input, i, i + n), n, sink);
+        }
+        resampler.finish(sink);
+        assertThat(written[0]).isEqualTo(output.length);
+        return output;
+    }
+}
@@ -0,0 +1,71 @@
+package io.github.ferdinandmehlan.whisperspring;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperSegment;
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperTranscription;
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperTranscriptionMetadata;
+import java.lang.foreign.MemorySegment;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class SilenceCompactorTest {
+
+    @Test
+    void testLongSilenceIsCut() {
+        // 2 s of sound, 3 s of silence, 2 s of sound
+        float[] samples = new float[16000 * 7];
+        Arrays.fill(samples, 0.5f);
+        Arrays.fill(samples, 16000 * 2, 16000 * 5, 0.0f);
+
+        SilenceCompactor.Compaction compaction = SilenceCompactor.plan(MemorySegment.ofArray(samples), 16000, 3200);
+
+        // 200 ms of the silence are kept at either end
+        assertThat(compaction.spans())
+                .containsExactly(
+                        new SilenceCompactor.Span(0, 0, 35200), new SilenceCompactor.Span(76800, 35200, 35200));
+        assertThat(compaction.targetLength()).isEqualTo(70400);
+        assertThat(compaction.removed()).isEqualTo(Duration.ofMillis(2600));
+
+        float[] compacted = new float[70400];
+        compaction.copy(MemorySegment.ofArray(samples), MemorySegment.ofArray(compacted));
+        assertThat(compacted[35199]).isZero();
+        assertThat(compacted[35200 + 3199]).isZero();
+        assertThat(compacted[35200 + 3200]).isEqualTo(0.5f);
+    }
+
+    @Test
+    void testShortSilenceIsKept() {
+        float[] samples = new float[16000 * 4];
+        Arrays.fill(samples, 0.5f);
+        Arrays.fill(samples, 16000 * 2, 16000 * 2 + 8000, 0.0f);
+
+        SilenceCompactor.Compaction compaction = SilenceCompactor.plan(MemorySegment.ofArray(samples), 16000, 3200);
+
+        assertThat(compaction.spans()).containsExactly(new SilenceCompactor.Span(0, 0, samples.length));
+        assertThat(compaction.removed()).isZero();
+    }
+
+    @Test
+    void testRemapShiftsTimestampsToTheOriginalAudio() {
+        float[] samples = new float[16000 * 7];
+        Arrays.fill(samples, 0.5f);
+        Arrays.fill(samples, 16000 * 2, 16000 * 5, 0.0f);
+        SilenceCompactor.Compaction compaction = SilenceCompactor.plan(MemorySegment.ofArray(samples), 16000, 3200);
+        WhisperTranscription transcription = new WhisperTranscription(" One.\n Two.")
+                .withTranscriptionMetadata(new WhisperTranscriptionMetadata(
+                        List.of(new WhisperSegment(" One.", 0, 220), new WhisperSegment(" Two.", 220, 300))));
+
+        WhisperTranscription remapped = compaction.remap(transcription);
+
+        // A timestamp on the cut ends the first segment before it and starts the second one after it
+        assertThat(remapped.getMetadata().getSegments())
+                .extracting(WhisperSegment::text, WhisperSegment::start, WhisperSegment::end)
+                .containsExactly(tuple(" One.", 0L, 220L), tuple(" Two.", 480L, 560L));
+        assertThat(remapped.getOutput()).isEqualTo(" One.\n Two.");
+        assertThat(remapped.getMetadata().getRemovedSilence()).isEqualTo(Duration.ofMillis(2600));
+    }
+}
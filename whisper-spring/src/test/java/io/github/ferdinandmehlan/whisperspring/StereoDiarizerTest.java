@@ -0,0 +1,76 @@
+package io.github.ferdinandmehlan.whisperspring;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperSegment;
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperTranscription;
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperTranscriptionMetadata;
+import java.lang.foreign.MemorySegment;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class StereoDiarizerTest {
+
+    @Test
+    void testSegmentsAreMergedBySpeaker() {
+        // Speaker 0 talks during the first second, speaker 1 during the second, each bleeding into the other channel
+        float[] left = tone(0.5f, 0.05f, 0.0f);
+        float[] right = tone(0.05f, 0.5f, 0.0f);
+        WhisperTranscription leftTranscription = transcription(
+                new WhisperSegment(" Hello.", 0, 100), new WhisperSegment(" Hi there.", 100, 200));
+        WhisperTranscription rightTranscription = transcription(
+                new WhisperSegment(" Hello.", 0, 100), new WhisperSegment(" Hi there.", 100, 200));
+
+        WhisperTranscription merged = StereoDiarizer.merge(
+                List.of(leftTranscription, rightTranscription),
+                List.of(MemorySegment.ofArray(left), MemorySegment.ofArray(right)));
+
+        assertThat(merged.getMetadata().getSegments())
+                .extracting(WhisperSegment::text, WhisperSegment::start, WhisperSegment::speaker)
+                .containsExactly(tuple(" Hello.", 0L, 0), tuple(" Hi there.", 100L, 1));
+        assertThat(merged.getOutput()).isEqualTo("(speaker 0) Hello.\n(speaker 1) Hi there.");
+    }
+
+    @Test
+    void testSegmentMissedByItsChannelIsKept() {
+        // Speaker 1 talks during the third second, but only the bleed into the left channel was transcribed
+        float[] left = tone(0.5f, 0.0f, 0.05f);
+        float[] right = tone(0.0f, 0.0f, 0.5f);
+        WhisperTranscription leftTranscription = transcription(
+                new WhisperSegment(" Hello.", 0, 100), new WhisperSegment(" Bye.", 200, 300));
+        WhisperTranscription rightTranscription = transcription();
+
+        WhisperTranscription merged = StereoDiarizer.merge(
+                List.of(leftTranscription, rightTranscription),
+                List.of(MemorySegment.ofArray(left), MemorySegment.ofArray(right)));
+
+        assertThat(merged.getMetadata().getSegments())
+                .extracting(WhisperSegment::text, WhisperSegment::speaker)
+                .containsExactly(tuple(" Hello.", 0), tuple(" Bye.", 1));
+    }
+
+    @Test
+    void testEnergyIsClampedToTheSamples() {
+        MemorySegment samples = MemorySegment.ofArray(tone(0.5f));
+
+        assertThat(StereoDiarizer.energy(samples, new WhisperSegment("", 50, 500))).isEqualTo(2000.0);
+    }
+
+    /**
+     * Returns one second of a constant level per given amplitude.
+     */
+    private static float[] tone(float... amplitudes) {
+        float[] samples = new float[16000 * amplitudes.length];
+        for (int i = 0; i < amplitudes.length; i++) {
+            Arrays.fill(samples, 16000 * i, 16000 * (i + 1), amplitudes[i]);
+        }
+        return samples;
+    }
+
+    private static WhisperTranscription transcription(WhisperSegment... segments) {
+        return new WhisperTranscription("")
+                .withTranscriptionMetadata(new WhisperTranscriptionMetadata(List.of(segments)));
+    }
+}
@@ -2,9 +2,23 @@ package io.github.ferdinandmehlan.whisperspring;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
 
+import io.github.ferdinandmehlan.whisperspring._native.WhisperAudioBuffer;
+import io.github.ferdinandmehlan.whisperspring._native.WhisperAudioBufferPool;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.ByteArrayResource;
 import org.springframework.core.io.FileSystemResource;
 
 public class WaveServiceTest extends BaseIntegrationTest {
@@ -23,6 +37,58 @@ public class WaveServiceTest extends BaseIntegrationTest {
         assertThat(samples.length).isGreaterThan(0);
     }
 
+    @Test
+    public void testToAudioBufferMatchesWaveSamples() {
+        FileSystemResource audioFile = new FileSystemResource("src/test/resources/audio/sample.wav");
+
+        float[] samples = waveService.toWaveSamples(audioFile);
+        try (WhisperAudioBufferPool pool = new WhisperAudioBufferPool();
+                WhisperAudioBuffer buffer = waveService.toAudioBuffer(audioFile, pool)) {
+            assertThat(buffer.length()).isEqualTo(samples.length);
+            assertThat(buffer.toArray()).isEqualTo(samples);
+        }
+    }
+
+    @Test
+    public void testToAudioBufferStopsAtMaxSamples() throws IOException {
+        FileSystemResource wavFile = new FileSystemResource("src/test/resources/audio/sample.wav");
+        FileSystemResource flacFile = new FileSystemResource("src/test/resources/audio/sample.flac");
+        ByteArrayResource wavStream = new ByteArrayResource(Files.readAllBytes(wavFile.getFile().toPath()));
+        float[] expected = Arrays.copyOf(waveService.toWaveSamples(wavFile), 16000);
+
+        try (WhisperAudioBufferPool pool = new WhisperAudioBufferPool()) {
+            for (var resource : List.of(wavFile, flacFile, wavStream)) {
+                try (WhisperAudioBuffer buffer = waveService.toAudioBuffer(resource, pool, 16000)) {
+                    assertThat(buffer.toArray()).isEqualTo(expected);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testToWaveSamplesFromStreamMatchesFile() throws IOException {
+        FileSystemResource audioFile = new FileSystemResource("src/test/resources/audio/sample.wav");
+        ByteArrayResource stream = new ByteArrayResource(Files.readAllBytes(audioFile.getFile().toPath()));
+
+        assertThat(waveService.toWaveSamples(stream)).isEqualTo(waveService.toWaveSamples(audioFile));
+    }
+
+    @Test
+    public void testToWaveSamplesUnknownDataLength() throws IOException {
+        FileSystemResource audioFile = new FileSystemResource("src/test/resources/audio/sample.wav");
+        byte[] bytes = Files.readAllBytes(audioFile.getFile().toPath());
+        long dataOffset;
+        try (ReadableByteChannel channel = audioFile.readableChannel()) {
+            dataOffset = WaveHeader.read(channel).dataOffset();
+        }
+        // Streaming encoders leave the data length open
+        ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).putInt((int) dataOffset - 4, -1);
+
+        float[] samples = waveService.toWaveSamples(new ByteArrayResource(bytes));
+
+        assertThat(samples).isEqualTo(waveService.toWaveSamples(audioFile));
+    }
+
     @Test
     public void testToWaveSamplesNonExistentFile() {
         FileSystemResource audioFile = new FileSystemResource("src/test/resources/audio/nonexistent.wav");
@@ -33,13 +99,14 @@ public class WaveServiceTest extends BaseIntegrationTest {
     }
 
     @Test
-    public void testToWaveSamplesUnsupportedFormat() {
+    public void testToWaveSamplesFloat() {
         FileSystemResource audioFile = new FileSystemResource("src/test/resources/audio/sample_f32.wav");
         assertThat(audioFile.exists()).isTrue();
 
-        assertThatThrownBy(() -> waveService.toWaveSamples(audioFile))
-                .isInstanceOf(IllegalArgumentException.class)
-                .hasMessageContaining("Only PCM WAV supported");
+        float[] samples = waveService.toWaveSamples(audioFile);
+        float[] expected = waveService.toWaveSamples(new FileSystemResource("src/test/resources/audio/sample.wav"));
+
+        assertThat(samples).containsExactly(expected, within(1.0f / 32768));
     }
 
     @Test
@@ -47,19 +114,159 @@ public class WaveServiceTest extends BaseIntegrationTest {
         FileSystemResource audioFile = new FileSystemResource("src/test/resources/audio/sample_stereo.wav");
         assertThat(audioFile.exists()).isTrue();
 
-        assertThatThrownBy(() -> waveService.toWaveSamples(audioFile))
-                .isInstanceOf(IllegalArgumentException.class)
-                .hasMessageContaining("Only mono WAV supported");
+        float[] samples = waveService.toWaveSamples(audioFile);
+
+        assertThat(samples).hasSize(399680);
     }
 
     @Test
-    public void testToWaveSamplesWrongSampleRate() {
+    public void testToWaveSamplesResampled() {
         FileSystemResource audioFile = new FileSystemResource("src/test/resources/audio/sample_44.1kHz.wav");
         assertThat(audioFile.exists()).isTrue();
 
-        assertThatThrownBy(() -> waveService.toWaveSamples(audioFile))
+        float[] samples = waveService.toWaveSamples(audioFile);
+
+        // 1101618 frames at 44.1 kHz
+        assertThat(samples).hasSize(399680);
+        float peak = 0;
+        for (float sample : samples) {
+            peak = Math.max(peak, Math.abs(sample));
+        }
+        assertThat(peak).isBetween(0.1f, 1.1f);
+    }
+
+    @Test
+    public void testToWaveSamplesEncodings() {
+        ByteBuffer pcm8 = ByteBuffer.allocate(2).put((byte) 192).put((byte) 64);
+        assertThat(waveService.toWaveSamples(wav(1, 1, 8, pcm8))).containsExactly(0.5f, -0.5f);
+
+        ByteBuffer pcm24 = ByteBuffer.allocate(6).put(new byte[] {0, 0, 0x40, 0, 0, (byte) 0xC0});
+        assertThat(waveService.toWaveSamples(wav(1, 1, 24, pcm24))).containsExactly(0.5f, -0.5f);
+
+        ByteBuffer pcm32 = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN).putInt(1 << 30).putInt(-(1 << 30));
+        assertThat(waveService.toWaveSamples(wav(1, 1, 32, pcm32))).containsExactly(0.5f, -0.5f);
+
+        ByteBuffer float64 = ByteBuffer.allocate(16).order(ByteOrder.LITTLE_ENDIAN).putDouble(0.5).putDouble(-0.5);
+        assertThat(waveService.toWaveSamples(wav(3, 1, 64, float64))).containsExactly(0.5f, -0.5f);
+
+        ByteBuffer alaw = ByteBuffer.allocate(2).put((byte) 0xAA).put((byte) 0x2A);
+        assertThat(waveService.toWaveSamples(wav(6, 1, 8, alaw))).containsExactly(32256 / 32768.0f, -32256 / 32768.0f);
+
+        ByteBuffer mulaw = ByteBuffer.allocate(2).put((byte) 0x80).put((byte) 0x00);
+        assertThat(waveService.toWaveSamples(wav(7, 1, 8, mulaw))).containsExactly(32124 / 32768.0f, -32124 / 32768.0f);
+    }
+
+    @Test
+    public void testToWaveSamplesDownmix() {
+        ByteBuffer frames = ByteBuffer.allocate(8)
+                .order(ByteOrder.LITTLE_ENDIAN)
+                .putShort((short) 16384)
+                .putShort((short) -16384)
+                .putShort((short) 16384)
+                .putShort((short) 16384);
+
+        assertThat(waveService.toWaveSamples(wav(1, 2, 16, frames))).containsExactly(0.0f, 0.5f);
+    }
+
+    @Test
+    public void testToWaveSamplesFlac() throws IOException {
+        FileSystemResource audioFile = new FileSystemResource("src/test/resources/audio/sample.flac");
+        float[] expected = waveService.toWaveSamples(new FileSystemResource("src/test/resources/audio/sample.wav"));
+
+        assertThat(waveService.toWaveSamples(audioFile)).isEqualTo(expected);
+        ByteArrayResource stream = new ByteArrayResource(Files.readAllBytes(audioFile.getFile().toPath()));
+        assertThat(waveService.toWaveSamples(stream)).isEqualTo(expected);
+    }
+
+    @Test
+    public void testToWaveSamplesFlacStereo() {
+        // The first two seconds of sample_stereo.wav, mid/side coded
+        FileSystemResource audioFile = new FileSystemResource("src/test/resources/audio/sample_stereo.flac");
+        float[] expected =
+                waveService.toWaveSamples(new FileSystemResource("src/test/resources/audio/sample_stereo.wav"));
+
+        assertThat(waveService.toWaveSamples(audioFile)).isEqualTo(Arrays.copyOf(expected, 32000));
+    }
+
+    @Test
+    public void testToChannelBuffers() {
+        ByteBuffer frames = ByteBuffer.allocate(8)
+                .order(ByteOrder.LITTLE_ENDIAN)
+                .putShort((short) 16384)
+                .putShort((short) -16384)
+                .putShort((short) 8192)
+                .putShort((short) 0);
+
+        try (WhisperAudioBufferPool pool = new WhisperAudioBufferPool(0)) {
+            List<WhisperAudioBuffer> channels = waveService.toChannelBuffers(wav(1, 2, 16, frames), pool);
+            try {
+                assertThat(channels).hasSize(2);
+                assertThat(channels.get(0).toArray()).containsExactly(0.5f, 0.25f);
+                assertThat(channels.get(1).toArray()).containsExactly(-0.5f, 0.0f);
+            } finally {
+                channels.forEach(WhisperAudioBuffer::close);
+            }
+        }
+    }
+
+    @Test
+    public void testToChannelBuffersFlac() {
+        // Both channels of sample_stereo.flac are the same, so each equals the downmix
+        FileSystemResource audioFile = new FileSystemResource("src/test/resources/audio/sample_stereo.flac");
+        float[] expected = waveService.toWaveSamples(audioFile);
+
+        try (WhisperAudioBufferPool pool = new WhisperAudioBufferPool(0)) {
+            List<WhisperAudioBuffer> channels = waveService.toChannelBuffers(audioFile, pool);
+            try {
+                assertThat(channels).hasSize(2);
+                assertThat(channels.get(0).toArray()).isEqualTo(expected);
+                assertThat(channels.get(1).toArray()).isEqualTo(expected);
+            } finally {
+                channels.forEach(WhisperAudioBuffer::close);
+            }
+        }
+    }
+
+    @Test
+    public void testToWaveSamplesOgg() {
+        ByteArrayResource audio = new ByteArrayResource("OggS\0\2".getBytes());
+
+        assertThatThrownBy(() -> waveService.toWaveSamples(audio))
                 .isInstanceOf(IllegalArgumentException.class)
-                .hasMessageContaining("Expected 16kHz WAV");
+                .hasMessageContaining("Ogg audio is not supported");
+    }
+
+    @Test
+    public void testToWaveSamplesOggAndMp3Files(@TempDir Path dir) throws IOException {
+        Path ogg = Files.write(dir.resolve("audio.ogg"), "OggS\0\2".getBytes());
+        Path mp3 = Files.write(dir.resolve("audio.mp3"), "ID3\4\0\0".getBytes());
+
+        assertThatThrownBy(() -> waveService.toWaveSamples(new FileSystemResource(ogg)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Ogg audio is not supported");
+        assertThatThrownBy(() -> waveService.toWaveSamples(new FileSystemResource(mp3)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("MP3 audio is not supported");
+    }
+
+    @Test
+    public void testToWaveSamplesUnsupportedFormat() {
+        // IMA ADPCM
+        ByteArrayResource audio = wav(0x11, 1, 4, ByteBuffer.allocate(2));
+
+        assertThatThrownBy(() -> waveService.toWaveSamples(audio))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Only PCM, IEEE float, A-law and μ-law WAV supported");
+    }
+
+    @Test
+    public void testToWaveSamplesUnsupportedSampleRate() {
+        FileSystemResource audioFile = new FileSystemResource("src/test/resources/audio/sample.wav");
+        ByteArrayResource audio = withSampleRate(audioFile, 4000);
+
+        assertThatThrownBy(() -> waveService.toWaveSamples(audio))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Unsupported WAV sample rate");
     }
 
     @Test
@@ -71,4 +278,29 @@ public class WaveServiceTest extends BaseIntegrationTest {
                 .isInstanceOf(IllegalArgumentException.class)
                 .hasMessageContaining("Unsupported audio file format");
     }
+
+    /**
+     * Builds a 16 kHz WAV file with a minimal 16-byte fmt chunk.
+     */
+    private static ByteArrayResource wav(int formatTag, int channels, int bitsPerSample, ByteBuffer data) {
+        int blockAlign = Math.max(1, channels * bitsPerSample / 8);
+        byte[] samples = data.array();
+        ByteBuffer wav = ByteBuffer.allocate(44 + samples.length).order(ByteOrder.LITTLE_ENDIAN);
+        wav.put("RIFF".getBytes()).putInt(36 + samples.length).put("WAVE".getBytes());
+        wav.put("fmt ".getBytes()).putInt(16).putShort((short) formatTag).putShort((short) channels);
+        wav.putInt(16000).putInt(16000 * blockAlign).putShort((short) blockAlign).putShort((short) bitsPerSample);
+        wav.put("data".getBytes()).putInt(samples.length).put(samples);
+        return new ByteArrayResource(wav.array());
+    }
+
+    private static ByteArrayResource withSampleRate(FileSystemResource audioFile, int sampleRate) {
+        try {
+            byte[] bytes = Files.readAllBytes(audioFile.getFile().toPath());
+            // sample.wav starts with a 16-byte fmt chunk right after the RIFF header
+            ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).putInt(24, sampleRate);
+            return new ByteArrayResource(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
@@ -37,6 +37,13 @@ class WhisperAutoConfigurationTest {
             assertThat(modelPath).isEqualTo("build/resources/test/ggml-tiny.bin");
         }
 
+        @Test
+        void testVadPoolIsWiredIntoTranscriptionModel() {
+            assertThat(whisperTranscriptionModel.getVadPool()).isNotNull();
+            assertThat(whisperTranscriptionModel.getVadPool().getModelPath())
+                    .isEqualTo("build/resources/test/ggml-silero-v5.1.2.bin");
+        }
+
         @Test
         void testTranscriptionModelCanTranscribeWithoutExplicitInit() {
             FileSystemResource audioFile = new FileSystemResource("src/test/resources/audio/sample.wav");
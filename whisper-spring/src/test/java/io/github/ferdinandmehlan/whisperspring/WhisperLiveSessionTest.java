@@ -0,0 +1,121 @@
+package io.github.ferdinandmehlan.whisperspring;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.github.ferdinandmehlan.whisperspring._native.WhisperNative;
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperLiveConfig;
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperSegment;
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperTranscriptionOptions;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+
+public class WhisperLiveSessionTest extends BaseIntegrationTest {
+
+    @Autowired
+    private WhisperTranscriptionModel model;
+
+    @Autowired
+    private WaveService waveService;
+
+    @Autowired
+    private WhisperNative whisperNative;
+
+    @Test
+    public void testStreamIsTranscribed() throws Exception {
+        float[] samples = waveService.toWaveSamples(new FileSystemResource("src/test/resources/audio/sample.wav"));
+        List<WhisperSegment> finals = new CopyOnWriteArrayList<>();
+        CompletableFuture<Void> completed = new CompletableFuture<>();
+        WhisperLiveSession.Listener listener = listener(finals, completed);
+
+        try (WhisperLiveSession session =
+                model.openLiveSession(new WhisperTranscriptionOptions(), new WhisperLiveConfig(), listener)) {
+            // 100 ms per write, as a microphone would deliver them
+            for (int i = 0; i < samples.length; i += 1600) {
+                float[] chunk = Arrays.copyOfRange(samples, i, Math.min(samples.length, i + 1600));
+                assertThat(session.write(chunk, Duration.ofMinutes(1))).isTrue();
+            }
+            session.finish();
+            completed.get(5, TimeUnit.MINUTES);
+        }
+
+        String text = finals.stream().map(WhisperSegment::text).collect(Collectors.joining());
+        assertThat(text).containsIgnoringCase("java library");
+        assertThat(finals).extracting(WhisperSegment::start).isSorted();
+        assertThat(finals.getLast().end()).isLessThanOrEqualTo(samples.length / 160 + 100);
+    }
+
+    @Test
+    public void testSessionLimit() {
+        WhisperTranscriptionModel limitedModel = new WhisperTranscriptionModel(waveService);
+        limitedModel.initWhisperNative(whisperNative);
+        limitedModel.initLiveTranscription(1, 1, 1.0);
+        WhisperTranscriptionOptions options = new WhisperTranscriptionOptions();
+        WhisperLiveSession.Listener listener = listener(new CopyOnWriteArrayList<>(), new CompletableFuture<>());
+
+        try (WhisperLiveSession ignored = limitedModel.openLiveSession(options, new WhisperLiveConfig(), listener)) {
+            assertThatThrownBy(() -> limitedModel.openLiveSession(options, new WhisperLiveConfig(), listener))
+                    .isInstanceOf(WhisperLiveSessionLimitException.class);
+        }
+        limitedModel.openLiveSession(options, new WhisperLiveConfig(), listener).close();
+    }
+
+    @Test
+    public void testSessionThatFailsToStartReleasesItsSlot() {
+        WhisperTranscriptionModel limitedModel = new WhisperTranscriptionModel(waveService);
+        limitedModel.initWhisperNative(whisperNative);
+        limitedModel.initLiveTranscription(1, 1, 1.0);
+        WhisperTranscriptionOptions options = new WhisperTranscriptionOptions();
+        WhisperLiveSession.Listener listener = listener(new CopyOnWriteArrayList<>(), new CompletableFuture<>());
+        // Passes validation, but the buffer size overflows after the state is created
+        WhisperLiveConfig oversized = new WhisperLiveConfig();
+        oversized.maxBufferMs = Integer.MAX_VALUE / 8;
+
+        assertThatThrownBy(() -> limitedModel.openLiveSession(options, oversized, listener))
+                .isInstanceOf(IllegalArgumentException.class);
+        limitedModel.openLiveSession(options, new WhisperLiveConfig(), listener).close();
+    }
+
+    @Test
+    public void testAgreementIgnoresCaseAndPunctuation() {
+        List<String> previous = List.of("hello world", "how are");
+        List<WhisperSegment> segments =
+                List.of(new WhisperSegment(" Hello, world!", 0, 100), new WhisperSegment(" How is", 100, 200));
+
+        int agreed = WhisperLiveSession.agreed(previous, segments);
+
+        assertThat(agreed).isEqualTo(1);
+        assertThat(WhisperLiveSession.normalize(" It's  a test.")).isEqualTo("it's a test");
+    }
+
+    private static WhisperLiveSession.Listener listener(
+            List<WhisperSegment> finals, CompletableFuture<Void> completed) {
+        return new WhisperLiveSession.Listener() {
+            @Override
+            public void onFinal(WhisperSegment segment) {
+                finals.add(segment);
+            }
+
+            @Override
+            public void onPartial(List<WhisperSegment> segments) {}
+
+            @Override
+            public void onComplete() {
+                completed.complete(null);
+            }
+
+            @Override
+            public void onError(RuntimeException e) {
+                completed.completeExceptionally(e);
+            }
+        };
+    }
+}
@@ -4,9 +4,23 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import io.github.ferdinandmehlan.whisperspring._native.WhisperNative;
+import io.github.ferdinandmehlan.whisperspring._native.WhisperStatePool;
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperLanguageDetection;
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperSegment;
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperSpeechSegment;
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperTranscription;
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperTranscriptionOptions;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import org.junit.jupiter.api.Test;
+import org.springframework.ai.audio.transcription.AudioTranscriptionPrompt;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.ByteArrayResource;
 import org.springframework.core.io.FileSystemResource;
 
 public class WhisperTranscriptionModelTest extends BaseIntegrationTest {
@@ -14,6 +28,12 @@ public class WhisperTranscriptionModelTest extends BaseIntegrationTest {
     @Autowired
     private WhisperTranscriptionModel model;
 
+    @Autowired
+    private WaveService waveService;
+
+    @Autowired
+    private WhisperNative whisperNative;
+
     @Test
     public void testTranscribe() throws IOException {
         FileSystemResource audioFile = new FileSystemResource("src/test/resources/audio/sample.wav");
@@ -23,6 +43,133 @@ public class WhisperTranscriptionModelTest extends BaseIntegrationTest {
         assertWithFile(result);
     }
 
+    @Test
+    public void testTranscribeDiarized() {
+        FileSystemResource audioFile = new FileSystemResource("src/test/resources/audio/sample_stereo.wav");
+        WhisperTranscriptionOptions options = new WhisperTranscriptionOptions();
+        options.diarize = true;
+
+        WhisperTranscription transcription = model.call(new AudioTranscriptionPrompt(audioFile, options)).getResult();
+
+        // Both channels are the same, so both speakers say everything
+        assertThat(transcription.getMetadata().getSegments())
+                .isNotEmpty()
+                .extracting(WhisperSegment::speaker)
+                .containsOnly(0, 1);
+        assertThat(transcription.getOutput()).startsWith("(speaker 0) Whisper spring is a Java library");
+    }
+
+    @Test
+    public void testTranscribeDiarizedMono() {
+        FileSystemResource audioFile = new FileSystemResource("src/test/resources/audio/sample.wav");
+        WhisperTranscriptionOptions options = new WhisperTranscriptionOptions();
+        options.diarize = true;
+
+        assertThatThrownBy(() -> model.call(new AudioTranscriptionPrompt(audioFile, options)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Diarization requires stereo audio, got 1 channel(s)");
+    }
+
+    @Test
+    public void testTranscribeChunked() {
+        FileSystemResource audioFile = new FileSystemResource("src/test/resources/audio/sample.wav");
+        WhisperTranscriptionModel chunkedModel = new WhisperTranscriptionModel(waveService);
+        try (WhisperStatePool pool = new WhisperStatePool(whisperNative, 2)) {
+            chunkedModel.initWhisperStatePool(pool);
+            chunkedModel.initLongAudioChunking(Duration.ofSeconds(10), Duration.ofSeconds(1));
+
+            WhisperTranscription transcription = chunkedModel.call(new AudioTranscriptionPrompt(audioFile)).getResult();
+
+            assertThat(transcription.getOutput())
+                    .startsWith(" Whisper spring is a Java library")
+                    .contains("deployment scenarios");
+            assertThat(transcription.getMetadata().getSegments())
+                    .extracting(WhisperSegment::start)
+                    .isSorted();
+        }
+    }
+
+    @Test
+    public void testTranscribeCompactedSilence() throws IOException {
+        float[] sample = waveService.toWaveSamples(new FileSystemResource("src/test/resources/audio/sample.wav"));
+        // Five seconds of silence before the speech
+        float[] samples = new float[16000 * 5 + sample.length];
+        System.arraycopy(sample, 0, samples, 16000 * 5, sample.length);
+        WhisperTranscriptionOptions options = new WhisperTranscriptionOptions();
+        options.compactSilence = true;
+
+        WhisperTranscription transcription =
+                model.call(new AudioTranscriptionPrompt(wav(samples), options)).getResult();
+
+        assertThat(transcription.getOutput()).startsWith(" Whisper spring is a Java library");
+        assertThat(transcription.getMetadata().getRemovedSilence()).isGreaterThan(Duration.ofSeconds(4));
+        assertThat(transcription.getMetadata().getSegments().get(1).start()).isGreaterThan(500);
+    }
+
+    @Test
+    public void testTranscribeProgressively() throws IOException {
+        float[] sample = waveService.toWaveSamples(new FileSystemResource("src/test/resources/audio/sample.wav"));
+        // Twice the sample, so the stream is cut into two windows
+        float[] samples = new float[2 * sample.length];
+        System.arraycopy(sample, 0, samples, 0, sample.length);
+        System.arraycopy(sample, 0, samples, sample.length, sample.length);
+        List<WhisperSegment> streamed = new CopyOnWriteArrayList<>();
+
+        WhisperTranscription transcription;
+        try (InputStream audio = wav(samples).getInputStream()) {
+            transcription = model.transcribeProgressively(audio, new WhisperTranscriptionOptions(), streamed::add);
+        }
+
+        assertThat(transcription.getOutput())
+                .startsWith(" Whisper spring is a Java library")
+                .contains("deployment scenarios");
+        assertThat(transcription.getMetadata().getSegments()).isEqualTo(streamed);
+        assertThat(streamed).extracting(WhisperSegment::start).isSorted();
+        assertThat(streamed.getLast().end()).isGreaterThan(3000);
+    }
+
+    @Test
+    public void testDetectLanguage() {
+        FileSystemResource audioFile = new FileSystemResource("src/test/resources/audio/sample.wav");
+
+        WhisperLanguageDetection detection = model.detectLanguage(audioFile, Duration.ofSeconds(10));
+        assertThat(detection.language()).isEqualTo("en");
+        assertThat(model.detectLanguage(audioFile, Duration.ofSeconds(10))).isSameAs(detection);
+    }
+
+    @Test
+    public void testDetectSpeech() {
+        FileSystemResource audioFile = new FileSystemResource("src/test/resources/audio/sample.wav");
+
+        List<WhisperSpeechSegment> speech = model.detectSpeech(audioFile);
+        assertThat(speech).isNotEmpty();
+        assertThat(speech.getFirst().start()).isLessThan(100);
+    }
+
+    @Test
+    public void testTranscribeSilenceWithVad() {
+        WhisperTranscriptionOptions options = new WhisperTranscriptionOptions();
+        options.vad = true;
+
+        WhisperTranscription transcription = model.call(new AudioTranscriptionPrompt(wav(new float[16000 * 5]), options))
+                .getResult();
+
+        assertThat(transcription.getOutput()).isEmpty();
+        assertThat(transcription.getMetadata().getSegments()).isEmpty();
+    }
+
+    @Test
+    public void testTranscribeWithVadUsesPooledModel() {
+        FileSystemResource audioFile = new FileSystemResource("src/test/resources/audio/sample.wav");
+        WhisperTranscriptionOptions options = new WhisperTranscriptionOptions();
+        options.vad = true;
+
+        WhisperTranscription transcription = model.call(new AudioTranscriptionPrompt(audioFile, options)).getResult();
+
+        assertThat(transcription.getOutput()).startsWith(" Whisper spring is a Java library");
+        assertThat(options.vadModelPath).isNull();
+    }
+
     @Test
     public void testLoadModel() throws IOException {
         WhisperNative whisperNative = new WhisperNative("build/resources/test/ggml-tiny.bin");
@@ -36,4 +183,20 @@ public class WhisperTranscriptionModelTest extends BaseIntegrationTest {
                 .isInstanceOf(IOException.class)
                 .hasMessageContaining("Failed to initialize WhisperNative");
     }
+
+    /**
+     * Encodes samples as a 16 kHz 16-bit mono WAV file.
+     */
+    private static ByteArrayResource wav(float[] samples) {
+        int dataLength = samples.length * 2;
+        ByteBuffer wav = ByteBuffer.allocate(44 + dataLength).order(ByteOrder.LITTLE_ENDIAN);
+        wav.put("RIFF".getBytes()).putInt(36 + dataLength).put("WAVE".getBytes());
+        wav.put("fmt ".getBytes()).putInt(16).putShort((short) 1).putShort((short) 1);
+        wav.putInt(16000).putInt(32000).putShort((short) 2).putShort((short) 16);
+        wav.put("data".getBytes()).putInt(dataLength);
+        for (float sample : samples) {
+            wav.putShort((short) Math.max(-32768, Math.min(32767, Math.round(sample * 32768))));
+        }
+        return new ByteArrayResource(wav.array());
+    }
 }
@@ -0,0 +1,87 @@
+package io.github.ferdinandmehlan.whisperspring._native;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.github.ferdinandmehlan.whisperspring.BaseIntegrationTest;
+import java.io.IOException;
+import java.lang.foreign.ValueLayout;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+
+public class WhisperAudioBufferPoolTest extends BaseIntegrationTest {
+
+    @Test
+    void testBufferIsReusedWithinSizeClass() {
+        try (WhisperAudioBufferPool pool = new WhisperAudioBufferPool(1)) {
+            WhisperAudioBuffer first = pool.acquire(16000);
+            long address = first.samples().address();
+            assertThat(first.capacity()).isEqualTo(1 << 16);
+            first.close();
+
+            try (WhisperAudioBuffer second = pool.acquire(48000)) {
+                assertThat(second.samples().address()).isEqualTo(address);
+                assertThat(second.length()).isEqualTo(48000);
+                assertThat(second.samples().byteSize()).isEqualTo(48000 * Float.BYTES);
+            }
+        }
+    }
+
+    @Test
+    void testDoubleCloseReleasesOnce() {
+        try (WhisperAudioBufferPool pool = new WhisperAudioBufferPool(2)) {
+            WhisperAudioBuffer buffer = pool.acquire(16000);
+            buffer.close();
+            buffer.close();
+
+            try (WhisperAudioBuffer first = pool.acquire(16000);
+                    WhisperAudioBuffer second = pool.acquire(16000)) {
+                assertThat(first).isSameAs(buffer);
+                assertThat(second).isNotSameAs(buffer);
+            }
+        }
+    }
+
+    @Test
+    void testLargeBufferIsNotRetained() {
+        try (WhisperAudioBufferPool pool = new WhisperAudioBufferPool(1)) {
+            WhisperAudioBuffer large = pool.acquire((1 << 22) + 1);
+            large.close();
+
+            try (WhisperAudioBuffer next = pool.acquire((1 << 22) + 1)) {
+                assertThat(next).isNotSameAs(large);
+            }
+        }
+    }
+
+    @Test
+    void testLargerRequestUsesLargerSizeClass() {
+        try (WhisperAudioBufferPool pool = new WhisperAudioBufferPool();
+                WhisperAudioBuffer buffer = pool.acquire((1 << 16) + 1)) {
+            assertThat(buffer.capacity()).isEqualTo(1 << 17);
+        }
+    }
+
+    @Test
+    void testTemporaryFileBuffer() throws IOException {
+        Set<Path> before = temporaryAudioFiles();
+        try (WhisperAudioBuffer buffer = WhisperAudioBuffer.mapTemporaryFile(48000)) {
+            assertThat(buffer.capacity()).isEqualTo(48000);
+            assertThat(buffer.length()).isEqualTo(48000);
+
+            buffer.samples().setAtIndex(ValueLayout.JAVA_FLOAT, 47999, 0.5f);
+            assertThat(buffer.toArray()[47999]).isEqualTo(0.5f);
+        }
+        assertThat(temporaryAudioFiles()).isSubsetOf(before);
+    }
+
+    private static Set<Path> temporaryAudioFiles() throws IOException {
+        try (Stream<Path> files = Files.list(Path.of(System.getProperty("java.io.tmpdir")))) {
+            return files.filter(file -> file.getFileName().toString().startsWith("whisper-audio"))
+                    .collect(Collectors.toSet());
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package io.github.ferdinandmehlan.whisperspring._native;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperLanguageDetection;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+public class WhisperLanguageCacheTest {
+
+    private static final WhisperLanguageDetection ENGLISH =
+            new WhisperLanguageDetection("en", 0.9f, Map.of("en", 0.9f));
+
+    @Test
+    void testKeyDependsOnSamples() {
+        try (Arena arena = Arena.ofConfined()) {
+            MemorySegment first = arena.allocateFrom(ValueLayout.JAVA_FLOAT, 0.1f, 0.2f, 0.3f);
+            MemorySegment same = arena.allocateFrom(ValueLayout.JAVA_FLOAT, 0.1f, 0.2f, 0.3f);
+            MemorySegment other = arena.allocateFrom(ValueLayout.JAVA_FLOAT, 0.1f, 0.2f, 0.4f);
+
+            assertThat(WhisperLanguageCache.key(first)).hasSize(64).isEqualTo(WhisperLanguageCache.key(same));
+            assertThat(WhisperLanguageCache.key(first)).isNotEqualTo(WhisperLanguageCache.key(other));
+        }
+    }
+
+    @Test
+    void testLeastRecentlyUsedIsEvicted() {
+        WhisperLanguageCache cache = new WhisperLanguageCache(2);
+        cache.put("a", ENGLISH);
+        cache.put("b", ENGLISH);
+        assertThat(cache.get("a")).isSameAs(ENGLISH);
+
+        cache.put("c", ENGLISH);
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.get("a")).isSameAs(ENGLISH);
+        assertThat(cache.get("b")).isNull();
+    }
+
+    @Test
+    void testZeroSizeDisablesCaching() {
+        WhisperLanguageCache cache = new WhisperLanguageCache(0);
+        cache.put("a", ENGLISH);
+        assertThat(cache.get("a")).isNull();
+    }
+}
@@ -0,0 +1,165 @@
+package io.github.ferdinandmehlan.whisperspring._native;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+import io.github.ferdinandmehlan.whisperspring.BaseIntegrationTest;
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperModelInfo;
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperNativeConfig;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class WhisperModelRegistryTest extends BaseIntegrationTest {
+
+    private static final Path TINY_MODEL = Path.of("build/resources/test/ggml-tiny.bin");
+
+    @TempDir
+    private Path modelsDir;
+
+    @Test
+    public void testLeaseKeepsModelLoaded() throws IOException {
+        linkModel("tiny");
+
+        try (WhisperModelRegistry registry = newRegistry(Long.MAX_VALUE)) {
+            assertThat(registry.listModels()).containsExactly(new WhisperModelInfo("tiny", size(), false, 0));
+
+            try (WhisperModelRegistry.Lease lease = registry.acquire("tiny")) {
+                assertThat(lease.getWhisperNative()).isNotNull();
+                assertThat(registry.listModels()).containsExactly(new WhisperModelInfo("tiny", size(), true, 1));
+            }
+            assertThat(registry.listModels()).containsExactly(new WhisperModelInfo("tiny", size(), true, 0));
+            assertThat(registry.getUsedMemory()).isEqualTo(size());
+        }
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsedIdleModel() throws IOException {
+        linkModel("tiny");
+        linkModel("tiny-copy");
+
+        try (WhisperModelRegistry registry = newRegistry(size() * 3 / 2)) {
+            registry.acquire("tiny").close();
+            registry.acquire("tiny-copy").close();
+
+            assertThat(registry.listModels())
+                    .extracting(WhisperModelInfo::name, WhisperModelInfo::loaded)
+                    .containsExactly(
+                            tuple("tiny", false),
+                            tuple("tiny-copy", true));
+        }
+    }
+
+    @Test
+    public void testDoesNotEvictModelInUse() throws IOException {
+        linkModel("tiny");
+        linkModel("tiny-copy");
+
+        try (WhisperModelRegistry registry = newRegistry(size() * 3 / 2);
+                WhisperModelRegistry.Lease lease = registry.acquire("tiny")) {
+            assertThatThrownBy(() -> registry.acquire("tiny-copy"))
+                    .isInstanceOf(WhisperModelBudgetExceededException.class)
+                    .hasMessageContaining("memory budget");
+            assertThat(lease.getWhisperNative()).isNotNull();
+            assertThat(registry.getUsedMemory()).isEqualTo(size());
+        }
+    }
+
+    @Test
+    public void testFailedEvictionKeepsOrder() throws IOException {
+        linkModel("tiny");
+        linkModel("tiny-copy");
+        linkModel("tiny-third");
+        createModel("big", size() * 2);
+
+        try (WhisperModelRegistry registry = newRegistry(size() * 5 / 2)) {
+            registry.acquire("tiny").close();
+            try (WhisperModelRegistry.Lease lease = registry.acquire("tiny-copy")) {
+                assertThatThrownBy(() -> registry.acquire("big"))
+                        .isInstanceOf(WhisperModelBudgetExceededException.class);
+                assertThat(registry.getUsedMemory()).isEqualTo(size() * 2);
+            }
+            registry.acquire("tiny-third").close();
+
+            assertThat(registry.listModels())
+                    .extracting(WhisperModelInfo::name, WhisperModelInfo::loaded)
+                    .containsExactly(
+                            tuple("big", false),
+                            tuple("tiny", false),
+                            tuple("tiny-copy", true),
+                            tuple("tiny-third", true));
+        }
+    }
+
+    @Test
+    public void testStateMemoryCountsAgainstBudget() throws IOException {
+        linkModel("tiny");
+
+        try (WhisperModelRegistry registry =
+                        new WhisperModelRegistry(modelsDir, Long.MAX_VALUE, 2, 1000, new WhisperNativeConfig());
+                WhisperModelRegistry.Lease lease = registry.acquire("tiny")) {
+            assertThat(registry.getUsedMemory()).isEqualTo(size() + 2000);
+        }
+    }
+
+    @Test
+    public void testDefaultModelIsSharedAndCounted() throws IOException {
+        linkModel("tiny");
+        createModel("big", size());
+
+        try (WhisperNative whisper = new WhisperNative(TINY_MODEL.toString());
+                WhisperStatePool pool = new WhisperStatePool(whisper, 1);
+                WhisperModelRegistry registry = newRegistry(size() * 3 / 2)) {
+            registry.registerDefaultModel(TINY_MODEL, pool);
+            assertThat(registry.getUsedMemory()).isEqualTo(size());
+
+            try (WhisperModelRegistry.Lease lease = registry.acquire("tiny")) {
+                assertThat(lease.getWhisperNative()).isSameAs(whisper);
+                assertThat(lease.getStatePool()).isSameAs(pool);
+            }
+            assertThat(registry.getUsedMemory()).isEqualTo(size());
+            assertThatThrownBy(() -> registry.acquire("big"))
+                    .isInstanceOf(WhisperModelBudgetExceededException.class);
+            assertThat(registry.listModels())
+                    .extracting(WhisperModelInfo::name, WhisperModelInfo::loaded)
+                    .containsExactly(tuple("big", false), tuple("tiny", true));
+        }
+    }
+
+    @Test
+    public void testUnknownModel() {
+        try (WhisperModelRegistry registry = newRegistry(Long.MAX_VALUE)) {
+            assertThatThrownBy(() -> registry.acquire("large"))
+                    .isInstanceOf(WhisperModelNotFoundException.class)
+                    .hasMessageContaining("Model not found");
+            assertThatThrownBy(() -> registry.acquire("../tiny"))
+                    .isInstanceOf(WhisperModelNotFoundException.class)
+                    .hasMessageContaining("Invalid model name");
+        }
+    }
+
+    private WhisperModelRegistry newRegistry(long memoryBudget) {
+        return new WhisperModelRegistry(modelsDir, memoryBudget, 1, 0, new WhisperNativeConfig());
+    }
+
+    private void linkModel(String name) throws IOException {
+        Files.createSymbolicLink(modelsDir.resolve("ggml-" + name + ".bin"), TINY_MODEL.toAbsolutePath());
+    }
+
+    /**
+     * Creates a sparse file that only counts by its size, as loading it fails.
+     */
+    private void createModel(String name, long size) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(modelsDir.resolve("ggml-" + name + ".bin").toFile(), "rw")) {
+            file.setLength(size);
+        }
+    }
+
+    private static long size() throws IOException {
+        return Files.size(TINY_MODEL);
+    }
+}
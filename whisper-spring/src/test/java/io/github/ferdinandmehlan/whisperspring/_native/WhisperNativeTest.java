@@ -1,18 +1,28 @@
 package io.github.ferdinandmehlan.whisperspring._native;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import io.github.ferdinandmehlan.whisperspring.BaseIntegrationTest;
 import io.github.ferdinandmehlan.whisperspring.WaveService;
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperLanguageDetection;
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperModelLoadMode;
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperModelLoadStats;
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperNativeConfig;
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperTranscription;
 import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperTranscriptionOptions;
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperTranscriptionTimings;
+import io.github.ferdinandmehlan.whisperspring._native.callback.WhisperCancellationToken;
 import io.github.ferdinandmehlan.whisperspring._native.callback.WhisperEncoderBeginCallback;
 import io.github.ferdinandmehlan.whisperspring._native.callback.WhisperNewSegmentCallback;
 import io.github.ferdinandmehlan.whisperspring._native.callback.WhisperProgressCallback;
 import io.github.ferdinandmehlan.whisperspring._native.ffm.WhisperSamplingStrategy;
 import java.io.IOException;
 import java.lang.foreign.MemorySegment;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.jupiter.api.Test;
 import org.springframework.ai.audio.transcription.AudioTranscription;
@@ -164,4 +174,128 @@ public class WhisperNativeTest extends BaseIntegrationTest {
 
         assertThat(encoderBeginCalls.get()).isEqualTo(1);
     }
+
+    @Test
+    public void testTranscribeCancelledDuringDecode() throws IOException {
+        FileSystemResource audioFile = new FileSystemResource("src/test/resources/audio/sample.wav");
+        float[] audioData = new WaveService().toWaveSamples(audioFile);
+
+        try (WhisperNative whisper = new WhisperNative("build/resources/test/ggml-tiny.bin")) {
+            WhisperCancellationToken token = new WhisperCancellationToken();
+            WhisperTranscriptionOptions config = new WhisperTranscriptionOptions();
+            config.abortCallback = token;
+            config.progressCallback = (_, _, _, _) -> token.cancel();
+
+            assertThatThrownBy(() -> whisper.transcribe(audioData, config))
+                    .isInstanceOf(CancellationException.class)
+                    .hasMessageContaining("cancelled");
+
+            // The default state is usable again after the abort
+            assertThat(whisper.transcribe(audioData, new WhisperTranscriptionOptions())
+                            .getOutput())
+                    .isNotBlank();
+        }
+    }
+
+    @Test
+    public void testTranscribeDeadlineExceeded() throws IOException {
+        try (WhisperNative whisper = new WhisperNative("build/resources/test/ggml-tiny.bin")) {
+            WhisperTranscriptionOptions config = new WhisperTranscriptionOptions();
+            config.abortCallback = new WhisperCancellationToken(Instant.EPOCH);
+
+            assertThatThrownBy(() -> whisper.transcribe(new float[16000], config))
+                    .isInstanceOf(CancellationException.class)
+                    .hasMessageContaining("deadline");
+        }
+    }
+
+    @Test
+    public void testMappedModelTranscribesLikeFileModel() throws IOException {
+        FileSystemResource audioFile = new FileSystemResource("src/test/resources/audio/sample.wav");
+        float[] audioData = new WaveService().toWaveSamples(audioFile);
+        WhisperNativeConfig mmapConfig = new WhisperNativeConfig();
+        mmapConfig.loadMode = WhisperModelLoadMode.MMAP;
+        mmapConfig.prefetch = true;
+
+        try (WhisperNative fileWhisper = new WhisperNative("build/resources/test/ggml-tiny.bin");
+                WhisperNative mmapWhisper = new WhisperNative("build/resources/test/ggml-tiny.bin", mmapConfig)) {
+            WhisperModelLoadStats stats = mmapWhisper.getLoadStats();
+            assertThat(stats.loadMode()).isEqualTo(WhisperModelLoadMode.MMAP);
+            assertThat(stats.modelSize()).isEqualTo(fileWhisper.getLoadStats().modelSize());
+            assertThat(stats.loadTime()).isPositive();
+
+            assertThat(mmapWhisper
+                            .transcribe(audioData, new WhisperTranscriptionOptions())
+                            .getOutput())
+                    .isEqualTo(fileWhisper
+                            .transcribe(audioData, new WhisperTranscriptionOptions())
+                            .getOutput());
+        }
+    }
+
+    @Test
+    public void testTranscribeReportsTimings() throws IOException {
+        FileSystemResource audioFile = new FileSystemResource("src/test/resources/audio/sample.wav");
+        WhisperNative whisper = new WhisperNative("build/resources/test/ggml-tiny.bin");
+        float[] audioData = new WaveService().toWaveSamples(audioFile);
+
+        WhisperTranscriptionTimings timings = whisper.transcribe(audioData, new WhisperTranscriptionOptions())
+                .getMetadata()
+                .getTimings();
+        assertThat(timings.inferenceMs()).isPositive();
+
+        try (WhisperState state = whisper.createState()) {
+            WhisperTranscriptionTimings stateTimings = whisper.transcribe(
+                            state, audioData, new WhisperTranscriptionOptions())
+                    .getMetadata()
+                    .getTimings();
+            assertThat(stateTimings.inferenceMs()).isPositive();
+        }
+    }
+
+    @Test
+    public void testDetectLanguage() throws IOException {
+        FileSystemResource audioFile = new FileSystemResource("src/test/resources/audio/sample.wav");
+        WhisperNative whisper = new WhisperNative("build/resources/test/ggml-tiny.bin");
+        WaveService waveService = new WaveService();
+        assertThat(whisper.isMultilingual()).isTrue();
+
+        try (WhisperAudioBuffer buffer = waveService.toAudioBuffer(audioFile, new WhisperAudioBufferPool())) {
+            WhisperLanguageDetection detection = whisper.detectLanguage(buffer.samples(), 4);
+            assertThat(detection.language()).isEqualTo("en");
+            assertThat(detection.probability()).isGreaterThan(0.5f);
+            assertThat(detection.candidates()).hasSize(5);
+            assertThat(detection.candidates().keySet().iterator().next()).isEqualTo("en");
+
+            try (WhisperState state = whisper.createState()) {
+                WhisperLanguageDetection stateDetection = whisper.detectLanguage(state, buffer.samples(), 4);
+                assertThat(stateDetection.language()).isEqualTo("en");
+            }
+        }
+    }
+
+    @Test
+    public void testTranscribeFromMel() throws IOException {
+        FileSystemResource audioFile = new FileSystemResource("src/test/resources/audio/sample.wav");
+        WhisperNative whisper = new WhisperNative("build/resources/test/ggml-tiny.bin");
+        WhisperTranscriptionOptions options = new WhisperTranscriptionOptions();
+
+        try (WhisperAudioBuffer buffer = new WaveService().toAudioBuffer(audioFile, new WhisperAudioBufferPool())) {
+            assertThat(WhisperNative.canTranscribeFromMel(buffer.samples(), options)).isTrue();
+            String expected = whisper.transcribe(buffer.samples(), options).getOutput();
+
+            try (WhisperMel mel = whisper.computeMel(buffer.samples(), 4)) {
+                assertThat(mel.nMel()).isEqualTo(80);
+                assertThat(mel.nLen()).isEqualTo(mel.nLenOrg() + 3000);
+
+                WhisperTranscription transcription = whisper.transcribe(mel, options);
+                assertThat(transcription.getOutput()).isEqualTo(expected);
+                assertThat(transcription.getMetadata().getTimings().melMs()).isPositive();
+
+                try (WhisperState state = whisper.createState()) {
+                    assertThat(whisper.transcribe(state, mel, options).getOutput()).isEqualTo(expected);
+                }
+            }
+        }
+    }
 }
@@ -0,0 +1,71 @@
+package io.github.ferdinandmehlan.whisperspring._native;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.github.ferdinandmehlan.whisperspring.BaseIntegrationTest;
+import io.github.ferdinandmehlan.whisperspring.WaveService;
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperSegment;
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperTokenDetail;
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperTranscriptionOptions;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.FileSystemResource;
+
+public class WhisperResultReaderTest extends BaseIntegrationTest {
+
+    @Test
+    public void testReadSegmentsMatchesTranscription() throws Exception {
+        float[] audioData =
+                new WaveService().toWaveSamples(new FileSystemResource("src/test/resources/audio/sample.wav"));
+
+        try (WhisperNative whisper = new WhisperNative("build/resources/test/ggml-tiny.bin");
+                WhisperState state = whisper.createState()) {
+            List<WhisperSegment> expected = whisper.transcribe(state, audioData, new WhisperTranscriptionOptions())
+                    .getMetadata()
+                    .getSegments();
+
+            List<WhisperSegment> segments = whisper.readSegments(state.segment(), 0, expected.size());
+
+            assertThat(segments).hasSameSizeAs(expected);
+            for (int i = 0; i < segments.size(); i++) {
+                WhisperSegment segment = segments.get(i);
+                assertThat(segment.text()).isEqualTo(expected.get(i).text());
+                assertThat(segment.start()).isEqualTo(expected.get(i).start());
+                assertThat(segment.end()).isEqualTo(expected.get(i).end());
+                assertThat(segment.tokens().stream().map(WhisperTokenDetail::token).collect(Collectors.joining()))
+                        .isEqualTo(segment.text());
+            }
+        }
+    }
+
+    @Test
+    public void testReadStringIsBoundedByTerminator() {
+        String text = "Grüße aus Köln — " + "x".repeat(2000);
+        try (Arena arena = Arena.ofConfined()) {
+            MemorySegment str = arena.allocateFrom(text);
+
+            assertThat(WhisperResultReader.readString(str.asSlice(0, 1))).isEqualTo(text);
+            assertThat(WhisperResultReader.readString(MemorySegment.NULL)).isEmpty();
+        }
+    }
+
+    @Test
+    public void testUtf8CarryJoinsCharactersSplitAcrossTokens() {
+        byte[] bytes = "añ😀".getBytes(StandardCharsets.UTF_8);
+        WhisperResultReader.Utf8Carry carry = new WhisperResultReader.Utf8Carry();
+
+        List<WhisperTokenDetail> tokens = new ArrayList<>();
+        tokens.add(new WhisperTokenDetail(carry.decode(Arrays.copyOfRange(bytes, 0, 2)), 1f));
+        tokens.add(new WhisperTokenDetail(carry.decode(Arrays.copyOfRange(bytes, 2, 5)), 1f));
+        tokens.add(new WhisperTokenDetail(carry.decode(Arrays.copyOfRange(bytes, 5, 7)), 1f));
+        carry.flush(tokens);
+
+        assertThat(tokens).extracting(WhisperTokenDetail::token).containsExactly("a", "ñ", "😀");
+    }
+}
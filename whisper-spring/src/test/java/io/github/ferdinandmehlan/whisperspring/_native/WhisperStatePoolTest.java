@@ -0,0 +1,89 @@
+package io.github.ferdinandmehlan.whisperspring._native;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.github.ferdinandmehlan.whisperspring.BaseIntegrationTest;
+import io.github.ferdinandmehlan.whisperspring.WaveService;
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperTranscriptionOptions;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.FileSystemResource;
+
+public class WhisperStatePoolTest extends BaseIntegrationTest {
+
+    @Test
+    public void testConcurrentTranscriptionMatchesDefaultState() throws Exception {
+        FileSystemResource audioFile = new FileSystemResource("src/test/resources/audio/sample.wav");
+        float[] audioData = new WaveService().toWaveSamples(audioFile);
+
+        try (WhisperNative whisper = new WhisperNative("build/resources/test/ggml-tiny.bin");
+                WhisperStatePool pool = new WhisperStatePool(whisper, 2);
+                ExecutorService executor = Executors.newFixedThreadPool(2)) {
+            String expected = whisper.transcribe(audioData, new WhisperTranscriptionOptions())
+                    .getOutput();
+
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                results.add(executor.submit(() -> {
+                    WhisperState state = pool.acquire();
+                    try {
+                        return whisper.transcribe(state, audioData, new WhisperTranscriptionOptions())
+                                .getOutput();
+                    } finally {
+                        pool.release(state);
+                    }
+                }));
+            }
+
+            for (Future<String> result : results) {
+                assertThat(result.get()).isEqualTo(expected);
+            }
+            assertThat(pool.getAvailable()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    public void testRejectsStateOfOtherContext() throws IOException {
+        try (WhisperNative first = new WhisperNative("build/resources/test/ggml-tiny.bin");
+                WhisperNative second = new WhisperNative("build/resources/test/ggml-tiny.bin");
+                WhisperState state = second.createState()) {
+            assertThatThrownBy(() -> first.transcribe(state, new float[16000], new WhisperTranscriptionOptions()))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("different WhisperNative context");
+        }
+    }
+
+    @Test
+    public void testRejectsUnexpectedRelease() throws Exception {
+        try (WhisperNative whisper = new WhisperNative("build/resources/test/ggml-tiny.bin");
+                WhisperNative other = new WhisperNative("build/resources/test/ggml-tiny.bin");
+                WhisperStatePool pool = new WhisperStatePool(whisper, 1);
+                WhisperState foreign = other.createState()) {
+            assertThatThrownBy(() -> pool.release(foreign))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("different WhisperNative context");
+
+            WhisperState state = pool.acquire();
+            pool.release(state);
+            assertThatThrownBy(() -> pool.release(state))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("not acquired");
+            assertThat(pool.getAvailable()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    public void testInvalidPoolSize() throws IOException {
+        try (WhisperNative whisper = new WhisperNative("build/resources/test/ggml-tiny.bin")) {
+            assertThatThrownBy(() -> new WhisperStatePool(whisper, 0))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("at least 1");
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package io.github.ferdinandmehlan.whisperspring._native;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.github.ferdinandmehlan.whisperspring.BaseIntegrationTest;
+import io.github.ferdinandmehlan.whisperspring.WaveService;
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperSpeechSegment;
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperVadConfig;
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperVadContextConfig;
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.FileSystemResource;
+
+public class WhisperVadTest extends BaseIntegrationTest {
+
+    private static final String VAD_MODEL = "build/resources/test/ggml-silero-v5.1.2.bin";
+
+    @Test
+    public void testDetectSpeech() throws IOException {
+        float[] audioData =
+                new WaveService().toWaveSamples(new FileSystemResource("src/test/resources/audio/sample.wav"));
+        long durationCs = audioData.length / 160;
+
+        try (WhisperVad vad = new WhisperVad(VAD_MODEL);
+                Arena arena = Arena.ofConfined()) {
+            MemorySegment samples = arena.allocateFrom(ValueLayout.JAVA_FLOAT, audioData);
+
+            List<WhisperSpeechSegment> speech = vad.detectSpeech(samples, new WhisperVadConfig());
+
+            assertThat(speech).isNotEmpty();
+            assertThat(speech).allSatisfy(segment -> assertThat(segment.start()).isLessThan(segment.end()));
+            assertThat(speech).extracting(WhisperSpeechSegment::start).isSorted();
+            assertThat(speech.getLast().end()).isLessThanOrEqualTo(durationCs + 1);
+            // The context is reused, so a second detection yields the same regions
+            assertThat(vad.detectSpeech(samples, new WhisperVadConfig())).isEqualTo(speech);
+        }
+    }
+
+    @Test
+    public void testDetectSpeechInSilence() throws IOException {
+        try (WhisperVadPool pool = new WhisperVadPool(VAD_MODEL, new WhisperVadContextConfig(), 1);
+                Arena arena = Arena.ofConfined()) {
+            MemorySegment silence = arena.allocate(ValueLayout.JAVA_FLOAT, 16000 * 5);
+
+            assertThat(pool.detectSpeech(silence, new WhisperVadConfig())).isEmpty();
+            assertThat(pool.detectSpeech(MemorySegment.NULL, new WhisperVadConfig())).isEmpty();
+            assertThat(pool.getAvailable()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    public void testLoadNonExistentModel() {
+        assertThatThrownBy(() -> new WhisperVad("src/test/resources/test-models/nonexistent.bin"))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("Failed to initialize WhisperVad");
+    }
+}
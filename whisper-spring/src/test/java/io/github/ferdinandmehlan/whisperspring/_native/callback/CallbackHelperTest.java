@@ -0,0 +1,49 @@
+package io.github.ferdinandmehlan.whisperspring._native.callback;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.github.ferdinandmehlan.whisperspring.BaseIntegrationTest;
+import java.lang.foreign.Arena;
+import java.lang.foreign.FunctionDescriptor;
+import java.lang.foreign.Linker;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.lang.invoke.MethodHandle;
+import org.junit.jupiter.api.Test;
+
+public class CallbackHelperTest extends BaseIntegrationTest {
+
+    @Test
+    void testThrowingAbortCallbackAborts() throws Throwable {
+        WhisperAbortCallback callback = _ -> {
+            throw new IllegalStateException("abort check failed");
+        };
+        MethodHandle stub = Linker.nativeLinker()
+                .downcallHandle(
+                        CallbackHelper.stub(callback),
+                        FunctionDescriptor.of(ValueLayout.JAVA_BOOLEAN, ValueLayout.ADDRESS));
+
+        try (Arena arena = Arena.ofConfined()) {
+            MemorySegment userData = CallbackHelper.register(arena, callback);
+            assertThat((boolean) stub.invokeExact(userData)).isTrue();
+        }
+    }
+
+    @Test
+    void testThrowingEncoderBeginCallbackRunsEncoder() throws Throwable {
+        WhisperEncoderBeginCallback callback = (_, _, _) -> {
+            throw new IllegalStateException("encoder begin failed");
+        };
+        MethodHandle stub = Linker.nativeLinker()
+                .downcallHandle(
+                        CallbackHelper.stub(callback),
+                        FunctionDescriptor.of(
+                                ValueLayout.JAVA_INT, ValueLayout.ADDRESS, ValueLayout.ADDRESS, ValueLayout.ADDRESS));
+
+        try (Arena arena = Arena.ofConfined()) {
+            MemorySegment userData = CallbackHelper.register(arena, callback);
+            assertThat((int) stub.invokeExact(MemorySegment.NULL, MemorySegment.NULL, userData))
+                    .isEqualTo(1);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package io.github.ferdinandmehlan.whisperspring._native.ffm;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.github.ferdinandmehlan.whisperspring.BaseIntegrationTest;
+import io.github.ferdinandmehlan.whisperspring._native.bean.WhisperTranscriptionOptions;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemoryLayout.PathElement;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import org.junit.jupiter.api.Test;
+
+public class WhisperFullParamsTest extends BaseIntegrationTest {
+
+    @Test
+    void testTemplateIsCachedForEqualOptions() {
+        try (Arena arena = Arena.ofConfined()) {
+            MemorySegment first = WhisperFullParams.template(arena, new WhisperTranscriptionOptions());
+            MemorySegment second = WhisperFullParams.template(arena, new WhisperTranscriptionOptions());
+
+            assertThat(second.address()).isEqualTo(first.address());
+            assertThat(first.isReadOnly()).isTrue();
+        }
+    }
+
+    @Test
+    void testTemplateDiffersForDifferentOptions() {
+        WhisperTranscriptionOptions english = new WhisperTranscriptionOptions();
+        english.language = "en";
+        WhisperTranscriptionOptions german = new WhisperTranscriptionOptions();
+        german.language = "de";
+
+        try (Arena arena = Arena.ofConfined()) {
+            MemorySegment englishTemplate = WhisperFullParams.template(arena, english);
+            MemorySegment germanTemplate = WhisperFullParams.template(arena, german);
+
+            assertThat(germanTemplate.address()).isNotEqualTo(englishTemplate.address());
+        }
+    }
+
+    @Test
+    void testAllocatePatchesPerRequestFields() {
+        WhisperTranscriptionOptions options = new WhisperTranscriptionOptions();
+        options.initialPrompt = "Spring";
+        options.nThreads = 3;
+
+        try (Arena arena = Arena.ofConfined()) {
+            MemorySegment params = WhisperFullParams.allocate(arena, options);
+            MemorySegment template = WhisperFullParams.template(arena, options);
+
+            long threadsOffset = WhisperFullParams.LAYOUT.byteOffset(PathElement.groupElement("n_threads"));
+            long promptOffset = WhisperFullParams.LAYOUT.byteOffset(PathElement.groupElement("initial_prompt"));
+            assertThat(params.get(ValueLayout.JAVA_INT, threadsOffset)).isEqualTo(3);
+            assertThat(template.get(ValueLayout.ADDRESS, promptOffset)).isEqualTo(MemorySegment.NULL);
+            assertThat(params.get(ValueLayout.ADDRESS, promptOffset)
+                            .reinterpret(Long.MAX_VALUE)
+                            .getString(0))
+                    .isEqualTo("Spring");
+        }
+    }
+
+    @Test
+    void testOffsetAndDurationAreNotPartOfTemplate() {
+        WhisperTranscriptionOptions first = new WhisperTranscriptionOptions();
+        first.offsetMs = 1000;
+        first.durationMs = 2000;
+        WhisperTranscriptionOptions second = new WhisperTranscriptionOptions();
+        second.offsetMs = 3000;
+        second.durationMs = 4000;
+
+        try (Arena arena = Arena.ofConfined()) {
+            assertThat(WhisperFullParams.template(arena, second).address())
+                    .isEqualTo(WhisperFullParams.template(arena, first).address());
+
+            MemorySegment params = WhisperFullParams.allocate(arena, second);
+            long offsetOffset = WhisperFullParams.LAYOUT.byteOffset(PathElement.groupElement("offset_ms"));
+            long durationOffset = WhisperFullParams.LAYOUT.byteOffset(PathElement.groupElement("duration_ms"));
+            assertThat(params.get(ValueLayout.JAVA_INT, offsetOffset)).isEqualTo(3000);
+            assertThat(params.get(ValueLayout.JAVA_INT, durationOffset)).isEqualTo(4000);
+        }
+    }
+
+    @Test
+    void testCallbackStubIsSharedAndUserDataIsPerRequest() {
+        WhisperTranscriptionOptions options = new WhisperTranscriptionOptions();
+        options.progressCallback = (_, _, _, _) -> {};
+
+        try (Arena arena = Arena.ofConfined()) {
+            MemorySegment first = WhisperFullParams.allocate(arena, options);
+            MemorySegment second = WhisperFullParams.allocate(arena, options);
+
+            long callbackOffset = WhisperFullParams.LAYOUT.byteOffset(PathElement.groupElement("progress_callback"));
+            long userDataOffset =
+                    WhisperFullParams.LAYOUT.byteOffset(PathElement.groupElement("progress_callback_user_data"));
+            assertThat(first.get(ValueLayout.ADDRESS, callbackOffset)).isNotEqualTo(MemorySegment.NULL);
+            assertThat(second.get(ValueLayout.ADDRESS, callbackOffset))
+                    .isEqualTo(first.get(ValueLayout.ADDRESS, callbackOffset));
+            assertThat(second.get(ValueLayout.ADDRESS, userDataOffset))
+                    .isNotEqualTo(first.get(ValueLayout.ADDRESS, userDataOffset));
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package io.github.ferdinandmehlan.whisperspring._native.ffm;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.github.ferdinandmehlan.whisperspring.BaseIntegrationTest;
+import org.junit.jupiter.api.Test;
+
+public class WhisperHTest extends BaseIntegrationTest {
+
+    @Test
+    void testSymbolsListEveryBinding() {
+        assertThat(WhisperH.SYMBOLS).doesNotHaveDuplicates().containsExactlyElementsOf(WhisperH.boundSymbols());
+    }
+}
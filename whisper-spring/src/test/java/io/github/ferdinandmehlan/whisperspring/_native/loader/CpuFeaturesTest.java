@@ -0,0 +1,47 @@
+package io.github.ferdinandmehlan.whisperspring._native.loader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+public class CpuFeaturesTest {
+
+    private static final String X64_AVX2 = """
+            processor	: 0
+            vendor_id	: GenuineIntel
+            model name	: Intel(R) Core(TM) i7-8700 CPU @ 3.20GHz
+            flags		: fpu vme sse sse2 ssse3 fma sse4_1 sse4_2 avx f16c bmi1 avx2 bmi2
+            processor	: 1
+            flags		: fpu
+            """;
+
+    private static final String AARCH64_DOTPROD = """
+            processor	: 0
+            BogoMIPS	: 50.00
+            Features	: fp asimd evtstrm aes pmull sha1 sha2 crc32 atomics fphp asimdhp cpuid asimdrdm lrcpc dcpop asimddp
+            CPU implementer	: 0x41
+            """;
+
+    @Test
+    void testParseX64Flags() {
+        CpuFeatures features = CpuFeatures.parse(X64_AVX2);
+
+        assertThat(features.flags()).contains("avx2", "fma", "sse4_2").doesNotContain("avx512f");
+        assertThat(CpuVariant.candidates(PlatformEnum.LINUX_X64, features))
+                .containsExactly(CpuVariant.X64_AVX2, CpuVariant.X64_SSE42, CpuVariant.GENERIC);
+    }
+
+    @Test
+    void testParseAarch64Features() {
+        CpuFeatures features = CpuFeatures.parse(AARCH64_DOTPROD);
+
+        assertThat(CpuVariant.candidates(PlatformEnum.LINUX_AARCH64, features))
+                .containsExactly(CpuVariant.AARCH64_DOTPROD, CpuVariant.GENERIC);
+    }
+
+    @Test
+    void testUnknownCpuFallsBackToGeneric() {
+        assertThat(CpuVariant.candidates(PlatformEnum.LINUX_X64, CpuFeatures.parse("")))
+                .containsExactly(CpuVariant.GENERIC);
+    }
+}
@@ -0,0 +1,54 @@
+package io.github.ferdinandmehlan.whisperspring._native.loader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ExternalNativeLoaderTest {
+
+    @TempDir
+    private Path libraryDir;
+
+    @Test
+    void testBundledLibrariesPassValidation() {
+        // The bundled libraries are already loaded, so the validator finds their dependencies by soname
+        List<Path> libraries = List.copyOf(NativeLoader.getInstance().loadedLibraries.values());
+        Path whisper = NativeLoader.getWhisperLibPath();
+
+        assertThatCode(() -> NativeLibraryValidator.validate(libraries, whisper))
+                .doesNotThrowAnyException();
+    }
+
+    @Test
+    void testLibraryWithoutWhisperSymbolsIsRejected() throws Exception {
+        Path ggmlBase = NativeLoader.getInstance().loadedLibraries.get("ggml-base");
+        Assumptions.assumeTrue(ggmlBase != null);
+        Path fakeWhisper = Files.copy(ggmlBase, libraryDir.resolve("libwhisper.so"));
+
+        assertThatThrownBy(() -> NativeLibraryValidator.validate(List.of(fakeWhisper), fakeWhisper))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("missing symbols");
+    }
+
+    @Test
+    void testDirectoryWithoutWhisperIsRejected() {
+        assertThatThrownBy(() -> ExternalNativeLoader.fromDirectory(libraryDir))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("No whisper library");
+    }
+
+    @Test
+    void testLibraryName() {
+        Assumptions.assumeTrue(PlatformEnum.detect().getOsDir().equals("linux"));
+
+        assertThat(ExternalNativeLoader.libraryName(Path.of("/opt/whisper/libwhisper.so.1"))).isEqualTo("whisper");
+        assertThat(ExternalNativeLoader.libraryName(Path.of("libggml-cpu.so"))).isEqualTo("ggml-cpu");
+    }
+}
@@ -0,0 +1,54 @@
+package io.github.ferdinandmehlan.whisperspring._native.loader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class NativeLibraryCacheTest {
+
+    private static final URL RESOURCE = NativeLibraryCacheTest.class.getResource("/native/README.md");
+
+    @TempDir
+    private Path cacheDir;
+
+    @Test
+    void testExtractIsReusedAcrossCaches() throws Exception {
+        Path first = new NativeLibraryCache(cacheDir).extract(RESOURCE, "README.md");
+        FileTime modified = FileTime.from(Instant.parse("2000-01-01T00:00:00Z"));
+        Files.setLastModifiedTime(first, modified);
+
+        Path second = new NativeLibraryCache(cacheDir).extract(RESOURCE, "README.md");
+
+        assertThat(second).isEqualTo(first);
+        assertThat(first.getParent().getParent()).isEqualTo(cacheDir);
+        assertThat(Files.getLastModifiedTime(second)).isEqualTo(modified);
+        try (var is = RESOURCE.openStream()) {
+            assertThat(Files.readAllBytes(second)).isEqualTo(is.readAllBytes());
+        }
+    }
+
+    @Test
+    void testCorruptedLibraryIsExtractedAgain() throws Exception {
+        NativeLibraryCache cache = new NativeLibraryCache(cacheDir);
+        Path library = cache.extract(RESOURCE, "README.md");
+        byte[] content = Files.readAllBytes(library);
+        content[0] ^= 1;
+        Files.write(library, content);
+
+        Path extracted = cache.extract(RESOURCE, "README.md");
+
+        assertThat(extracted).isEqualTo(library);
+        try (var is = RESOURCE.openStream()) {
+            assertThat(Files.readAllBytes(extracted)).isEqualTo(is.readAllBytes());
+        }
+        try (var files = Files.list(library.getParent())) {
+            assertThat(files).containsExactly(library);
+        }
+    }
+}
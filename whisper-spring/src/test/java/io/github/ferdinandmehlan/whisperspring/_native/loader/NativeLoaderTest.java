@@ -15,5 +15,6 @@ public class NativeLoaderTest extends BaseIntegrationTest {
         assertThat(whisperLibPath).isNotNull();
         assertThat(whisperLibPath.toString()).contains("whisper");
         assertThat(Files.exists(whisperLibPath)).isTrue();
+        assertThat(NativeLoader.getCpuVariant()).isNotNull();
     }
 }